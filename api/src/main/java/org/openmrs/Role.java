@@ -9,10 +9,12 @@
  */
 package org.openmrs;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.openmrs.util.PrivilegeIndex;
 import org.openmrs.util.RoleConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +43,11 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	
 	private Set<Role> childRoles;
 	
+	/**
+	 * the privileges of this role and the roles it inherits, computed on the first check
+	 */
+	private transient volatile EffectivePrivileges effectivePrivileges;
+	
 	// Constructors
 	
 	/** default constructor */
@@ -70,6 +77,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setPrivileges(Set<Privilege> privileges) {
 		this.privileges = privileges;
+		this.effectivePrivileges = null;
 	}
 	
 	@Override
@@ -88,6 +96,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		}
 		if (privilege != null && !containsPrivilege(privileges, privilege.getPrivilege())) {
 			privileges.add(privilege);
+			effectivePrivileges = null;
 		}
 	}
 	
@@ -108,6 +117,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	public void removePrivilege(Privilege privilege) {
 		if (privileges != null) {
 			privileges.remove(privilege);
+			effectivePrivileges = null;
 		}
 	}
 	
@@ -123,6 +133,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setRole(String role) {
 		this.role = role;
+		this.effectivePrivileges = null;
 	}
 	
 	/**
@@ -161,6 +172,30 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		return false;
 	}
 	
+	/**
+	 * Looks for the given <code>privilegeName</code> privilege name in the privileges of this role and
+	 * all the roles it inherits from. The privileges are flattened into a bit set on the first check,
+	 * which is used until the privileges or inherited roles of this role are set or any role or
+	 * privilege is saved through the {@link org.openmrs.api.UserService}.
+	 *
+	 * @param privilegeName String name of a privilege
+	 * @return true/false whether this role or one of its parents has the given privilege
+	 * @since 2.7.0
+	 * <strong>Should</strong> return true for privileges of inherited roles
+	 * <strong>Should</strong> return true for any privilegeName if super user or inheriting super user
+	 * <strong>Should</strong> return false if not found
+	 * <strong>Should</strong> see privileges added after the first check
+	 */
+	public boolean hasEffectivePrivilege(String privilegeName) {
+		EffectivePrivileges effective = effectivePrivileges;
+		int version = PrivilegeIndex.getVersion();
+		if (effective == null || effective.version != version) {
+			effective = new EffectivePrivileges(this, version);
+			effectivePrivileges = effective;
+		}
+		return effective.contains(privilegeName);
+	}
+	
 	/**
 	 * @return Returns the inheritedRoles.
 	 */
@@ -176,6 +211,7 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 	 */
 	public void setInheritedRoles(Set<Role> inheritedRoles) {
 		this.inheritedRoles = inheritedRoles;
+		this.effectivePrivileges = null;
 	}
 	
 	/**
@@ -322,4 +358,44 @@ public class Role extends BaseChangeableOpenmrsMetadata {
 		
 		return allRoles;
 	}
+	
+	/**
+	 * The privileges of a role and its parents as a bit set indexed by the {@link PrivilegeIndex}
+	 */
+	private static final class EffectivePrivileges {
+		
+		private final BitSet privileges = new BitSet();
+		
+		private final boolean superUser;
+		
+		private final int version;
+		
+		EffectivePrivileges(Role role, int version) {
+			this.version = version;
+			boolean isSuperUser = add(role);
+			for (Role parent : role.getAllParentRoles()) {
+				isSuperUser |= add(parent);
+			}
+			this.superUser = isSuperUser;
+		}
+		
+		private boolean add(Role role) {
+			if (role.getPrivileges() != null) {
+				for (Privilege privilege : role.getPrivileges()) {
+					if (privilege.getPrivilege() != null) {
+						privileges.set(PrivilegeIndex.getOrAssignIndex(privilege.getPrivilege()));
+					}
+				}
+			}
+			return RoleConstants.SUPERUSER.equalsIgnoreCase(role.getRole());
+		}
+		
+		boolean contains(String privilegeName) {
+			if (superUser) {
+				return true;
+			}
+			int index = PrivilegeIndex.getIndex(privilegeName);
+			return index >= 0 && privileges.get(index);
+		}
+	}
 }
@@ -181,16 +181,12 @@ public class User extends BaseOpenmrsObject implements java.io.Serializable, Att
 			return true;
 		}
 		
-		if (isSuperUser()) {
-			return true;
-		}
-		
-		Set<Role> tmproles = getAllRoles();
-		
-		// loop over the roles and check each for the privilege
-		for (Role tmprole : tmproles) {
-			if (tmprole.hasPrivilege(privilege)) {
-				return true;
+		// each role knows the privileges of its parents, including whether one of them is the super user
+		if (getRoles() != null) {
+			for (Role role : getRoles()) {
+				if (role.hasEffectivePrivilege(privilege)) {
+					return true;
+				}
 			}
 		}
 		
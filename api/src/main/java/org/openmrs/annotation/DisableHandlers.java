@@ -30,9 +30,13 @@ import org.openmrs.api.handler.RequiredDataHandler;
  *      }
  *    </pre>
  *      You can disable all RequiredDataAdviceHandlers by specifying the parent class: {@literal @}DisableHandlers(handlerTypes = { RequiredDataHandler.class })
+ *
+ *    Annotating a service method with {@literal @}DisableHandlers(handlerTypes = { SaveHandler.class }) specifies that
+ *    RequiredDataAdvice should neither call the save handlers on its arguments nor validate them, because the method does
+ *    so itself, see {@link org.openmrs.api.PatientService#savePatients(java.util.List)}. (since 2.7.0)
  **/
 
-@Target( { ElementType.FIELD })
+@Target( { ElementType.FIELD, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Inherited
 @Documented
@@ -39,6 +39,7 @@ import org.openmrs.util.HandlerUtil;
 import org.openmrs.util.Reflect;
 import org.openmrs.validator.ValidateUtil;
 import org.springframework.aop.MethodBeforeAdvice;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -109,6 +110,11 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		// not updating the primary argument. eg: ConceptService.updateConceptWord(Concept)
 		if (methodName.startsWith("save") || methodName.startsWith("create")) {
 			
+			// the method handles and validates its arguments itself
+			if (isHandlerMarkedAsDisabled(SaveHandler.class, method)) {
+				return;
+			}
+			
 			// if the first argument is an OpenmrsObject, handle it now
 			Reflect reflect = new Reflect(OpenmrsObject.class);
 			
@@ -419,4 +425,25 @@ public class RequiredDataAdvice implements MethodBeforeAdvice {
 		
 		return false;
 	}
+	
+	/**
+	 * Checks if the given service method is annotated with a @DisableHandler annotation to specify
+	 * that the given handlerType should not be applied to its arguments
+	 *
+	 * @param handlerType
+	 * @param method
+	 * @return true if the handlerType has been marked as disabled, false otherwise
+	 * @since 2.7.0
+	 */
+	protected static boolean isHandlerMarkedAsDisabled(Class<? extends RequiredDataHandler> handlerType, Method method) {
+		DisableHandlers disableHandlers = AnnotationUtils.findAnnotation(method, DisableHandlers.class);
+		if (disableHandlers != null) {
+			for (Class<? extends RequiredDataHandler> h : disableHandlers.handlerTypes()) {
+				if (h.isAssignableFrom(handlerType)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
 }
@@ -21,6 +21,7 @@ import org.openmrs.OpenmrsObject;
 import org.openmrs.User;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.AdministrationDAO;
+import org.openmrs.api.db.DatabaseStatistics;
 import org.openmrs.util.HttpClient;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
@@ -392,4 +393,24 @@ public interface AdministrationService extends OpenmrsService {
 	 * @since 2.4
 	 */
 	public void updatePostgresSequence();
+	
+	/**
+	 * Returns a snapshot of the query, entity and second level cache statistics collected by the
+	 * database layer. Collection is switched on and off with the
+	 * {@link OpenmrsConstants#GP_DATABASE_STATISTICS_ENABLED} global property.
+	 * 
+	 * @return the database statistics
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the statistics of executed queries
+	 */
+	@Authorized(PrivilegeConstants.VIEW_ADMIN_FUNCTIONS)
+	public DatabaseStatistics getDatabaseStatistics();
+	
+	/**
+	 * Discards the database statistics collected so far
+	 * 
+	 * @since 2.7.0
+	 */
+	@Authorized(PrivilegeConstants.MANAGE_GLOBAL_PROPERTIES)
+	public void resetDatabaseStatistics();
 }
@@ -29,6 +29,7 @@ import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.EncounterDAO;
 import org.openmrs.api.handler.EncounterVisitHandler;
 import org.openmrs.parameter.EncounterSearchCriteria;
+import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.PrivilegeConstants;
 
 /**
@@ -411,7 +412,8 @@ public interface EncounterService extends OpenmrsService {
 	/**
 	 * Searches for encounters by patient id, provider identifier, location, encounter type,
 	 * provider, form or provider name. It returns a specific number of them from the specified
-	 * starting position. If start and length are not specified, then all matches are returned
+	 * starting position. If start and length are not specified, then all matches are returned.
+	 * Encounters of types the authenticated user is not allowed to view are excluded before paging.
 	 * 
 	 * @param query provider identifier, location, encounter type, provider, form or provider name
 	 * @param patientId the patient id
@@ -429,6 +431,7 @@ public interface EncounterService extends OpenmrsService {
 	 * <strong>Should</strong> match on the provider person name
 	 * <strong>Should</strong> match on the encounter type name
 	 * <strong>Should</strong> match on the form name
+	 * <strong>Should</strong> page and count only the encounters the user can view
 	 */
 	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
@@ -481,7 +484,9 @@ public interface EncounterService extends OpenmrsService {
 	public List<EncounterVisitHandler> getEncounterVisitHandlers();
 	
 	/**
-	 * Gets the active handler for assigning visits to encounters.
+	 * Gets the active handler for assigning visits to encounters. The handler is looked up or
+	 * instantiated once and then shared until the {@link OpenmrsConstants#GP_VISIT_ASSIGNMENT_HANDLER}
+	 * global property changes, so it has to be thread safe.
 	 * 
 	 * @see EncounterVisitHandler
 	 * @since 1.9
@@ -611,6 +616,7 @@ public interface EncounterService extends OpenmrsService {
 	 * @param length number of results to return (default to return all results if <code>null</code>)
 	 * @return encounters and empty encounters with only visit set
 	 * @throws APIException
+	 * <strong>Should</strong> page and count only the encounters the user can view
 	 * @since 1.9
 	 */
 	@Authorized( { PrivilegeConstants.GET_VISITS })
@@ -642,6 +648,7 @@ public interface EncounterService extends OpenmrsService {
 	 *         permissions check
 	 * <strong>Should</strong> filter encounters if user is not allowed to see some encounters
 	 * <strong>Should</strong> not filter all encounters when the encounter type's view privilege column is null
+	 * <strong>Should</strong> check encounter types which are not saved by their view privilege
 	 */
 	@Authorized( { PrivilegeConstants.GET_ENCOUNTERS })
 	public List<Encounter> filterEncountersByViewPermissions(List<Encounter> encounters, User user);
@@ -178,6 +178,19 @@ public interface LocationService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
 	public List<Location> getLocationsByTag(LocationTag tag) throws APIException;
 	
+	/**
+	 * Returns the ids of the unretired locations that contain the tag with the given id. The ids are
+	 * cached per tag until a location or location tag is saved or purged.
+	 * 
+	 * @param locationTagId the id of the location tag
+	 * @return the location ids ordered by location name
+	 * <strong>Should</strong> get the ids of the unretired locations having the tag
+	 * <strong>Should</strong> return the cached ids until a location is saved
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Integer> getLocationIdsByTag(Integer locationTagId) throws APIException;
+	
 	/**
 	 * Returns locations that are mapped to all given tags.
 	 * 
@@ -201,6 +214,48 @@ public interface LocationService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
 	public List<Location> getLocationsHavingAnyTag(List<LocationTag> tags) throws APIException;
 	
+	/**
+	 * Returns the ids of all locations below the given location in the location hierarchy with a
+	 * single query instead of loading the child locations level by level.
+	 * 
+	 * @param location the location to get the descendants of
+	 * @param includeRetired whether to include retired locations and the locations below them
+	 * @return the location ids ordered by depth and name
+	 * <strong>Should</strong> return the ids of all descendants
+	 * <strong>Should</strong> leave out retired locations and their descendants
+	 * <strong>Should</strong> return the same locations as Location#getDescendantLocations
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired) throws APIException;
+	
+	/**
+	 * Returns the ids of all locations above the given location in the location hierarchy with a
+	 * single query.
+	 * 
+	 * @param location the location to get the ancestors of
+	 * @return the location ids starting with the parent location
+	 * <strong>Should</strong> return the ids of all ancestors starting with the parent
+	 * <strong>Should</strong> follow a location moved to another parent
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.GET_LOCATIONS })
+	public List<Integer> getAncestorLocationIds(Location location) throws APIException;
+	
+	/**
+	 * Recreates the location hierarchy used by {@link #getDescendantLocationIds(Location, boolean)}
+	 * and {@link #getAncestorLocationIds(Location)} from the parent locations of all locations. It is
+	 * kept up to date when locations are saved or purged through this service, a rebuild is only
+	 * needed after locations were changed directly in the database. Runs on startup when a
+	 * location is missing from the hierarchy.
+	 * 
+	 * <strong>Should</strong> link all locations to their ancestors
+	 * <strong>Should</strong> not fail if the parent locations form a loop
+	 * @since 2.7.0
+	 */
+	@Authorized( { PrivilegeConstants.MANAGE_LOCATIONS })
+	public void rebuildLocationHierarchy() throws APIException;
+	
 	/**
 	 * Retires the given location. This effectively removes the location from circulation or use.
 	 * 
@@ -21,6 +21,7 @@ import org.openmrs.Obs;
 import org.openmrs.Person;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.db.ObsDAO;
+import org.openmrs.obs.ComplexDataStream;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.util.OpenmrsConstants.PERSON_TYPE;
 import org.openmrs.util.PrivilegeConstants;
@@ -402,6 +403,21 @@ public interface ObsService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.GET_OBS })
 	public Obs getComplexObs(Integer obsId, String view) throws APIException;
 	
+	/**
+	 * Gives streaming access to the complex data of an obs, so that large files can be served with
+	 * constant memory and in byte ranges. The returned stream must be closed by the caller.
+	 * 
+	 * @param obs the complex obs
+	 * @param view the view of the data, typically {@link ComplexObsHandler#RAW_VIEW}
+	 * @return the stream or null if the obs is not complex, its handler cannot stream the view or
+	 *         the data does not exist
+	 * @since 2.7.0
+	 * <strong>Should</strong> stream the complex data of a complex obs
+	 * <strong>Should</strong> return null for non complex obs
+	 */
+	@Authorized( { PrivilegeConstants.GET_OBS })
+	public ComplexDataStream getComplexDataStream(Obs obs, String view) throws APIException;
+	
 	/**
 	 * Get the ComplexObsHandler that has been registered with the given key
 	 * 
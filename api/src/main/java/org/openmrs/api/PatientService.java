@@ -12,6 +12,7 @@ package org.openmrs.api;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
@@ -22,7 +23,9 @@ import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
 import org.openmrs.annotation.Authorized;
+import org.openmrs.annotation.DisableHandlers;
 import org.openmrs.api.db.PatientDAO;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
 import org.openmrs.patient.IdentifierValidator;
 import org.openmrs.person.PersonMergeLogData;
@@ -70,6 +73,35 @@ public interface PatientService extends OpenmrsService {
 	@Authorized( { PrivilegeConstants.ADD_PATIENTS, PrivilegeConstants.EDIT_PATIENTS })
 	public Patient savePatient(Patient patient) throws APIException;
 	
+	/**
+	 * Saves the given patients the way {@link #savePatient(Patient)} saves one, but checks the
+	 * identifiers of all the patients with a single query and flushes them to the database every few
+	 * patients, evicting the flushed patients from the hibernate session so that it does not grow with
+	 * the number of patients. The rows are still inserted one at a time where the database generates
+	 * their ids. A patient that cannot be saved, for instance because it fails validation or has an
+	 * identifier in use by another patient or by an earlier patient in the list, is left out and its error is returned while the
+	 * other patients are saved. Existing patients that are left out are detached from the hibernate
+	 * session so that none of their changes are written. The saved patients may be detached afterwards
+	 * too and should be loaded again to be used in the hibernate session, other objects in the session
+	 * are not affected.
+	 * 
+	 * @param patients the patients to be created or updated
+	 * @return the errors of the patients that were not saved, in the order of the patients
+	 * @throws APIException if the patients could not be written to the database
+	 * @since 2.7.0
+	 * <strong>Should</strong> save the patients
+	 * <strong>Should</strong> keep the other objects in the hibernate session attached
+	 * <strong>Should</strong> return the errors of invalid patients and save the others
+	 * <strong>Should</strong> return an error for an identifier used by an earlier patient
+	 * <strong>Should</strong> return an error for an identifier in use by another patient
+	 * <strong>Should</strong> not write the changes of an existing patient that is not saved
+	 * <strong>Should</strong> update an existing patient
+	 * <strong>Should</strong> set the preferred name address and identifier if none is specified
+	 */
+	@Authorized( { PrivilegeConstants.ADD_PATIENTS, PrivilegeConstants.EDIT_PATIENTS })
+	@DisableHandlers(handlerTypes = { SaveHandler.class })
+	public Map<Patient, APIException> savePatients(List<Patient> patients) throws APIException;
+	
 	/**
 	 * Get patient by internal identifier
 	 * 
@@ -411,6 +443,8 @@ public interface PatientService extends OpenmrsService {
 	 * <strong>Should</strong> throw error when patient has identical identifiers
 	 * <strong>Should</strong> throw error when patient does not have one or more required identifiers
 	 * <strong>Should</strong> require one non voided patient identifier
+	 * <strong>Should</strong> throw error when another patient has one of the identifiers
+	 * <strong>Should</strong> throw error when an identifier type is made required
 	 */
 	@Authorized( { PrivilegeConstants.GET_PATIENT_IDENTIFIERS })
 	public void checkPatientIdentifiers(Patient patient) throws PatientIdentifierException;
@@ -654,6 +688,22 @@ public interface PatientService extends OpenmrsService {
 	@Authorized(PrivilegeConstants.GET_PATIENTS)
 	public boolean isIdentifierInUseByAnotherPatient(PatientIdentifier patientIdentifier);
 	
+	/**
+	 * Checks which of the given identifiers are in use by other patients like
+	 * {@link #isIdentifierInUseByAnotherPatient(PatientIdentifier)} does for one identifier, but with
+	 * a single query and one more query per identifier that is in use only in a form the database may
+	 * consider the same, e.g. differing in case
+	 * 
+	 * @param patientIdentifiers the patient identifiers to check
+	 * @return the given identifiers that are in use by another patient, in the given order
+	 * <strong>Should</strong> return the identifiers in use by other patients
+	 * <strong>Should</strong> respect the location of identifiers whose type is unique per location
+	 * <strong>Should</strong> match the identifiers like checking them one by one does
+	 * @since 2.7.0
+	 */
+	@Authorized(PrivilegeConstants.GET_PATIENTS)
+	public List<PatientIdentifier> getPatientIdentifiersInUseByAnotherPatient(List<PatientIdentifier> patientIdentifiers);
+	
 	/**
 	 * Returns a patient identifier that matches the given patientIndentifier id
 	 * 
@@ -295,6 +295,25 @@ public interface VisitService extends OpenmrsService {
 	public List<Visit> getVisitsByPatient(Patient patient, boolean includeInactive, boolean includeVoided)
 	        throws APIException;
 	
+	/**
+	 * Gets the unvoided visits of the patient that started at or before the given date and had not
+	 * stopped before it, at the given location, one of its parent locations or without a location.
+	 * This is how an encounter is matched to the visits it could belong to without loading all the
+	 * visits of the patient.
+	 * 
+	 * @param patient the patient whose visits to get
+	 * @param date the date the visits span
+	 * @param location the location the visits have to include, if null only visits without a
+	 *            location are returned
+	 * @return the matching visits, the latest started first
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the visits spanning the date
+	 * <strong>Should</strong> return the visits at the location or one of its parent locations or without location
+	 */
+	@Authorized(PrivilegeConstants.GET_VISITS)
+	public List<Visit> getVisitsByPatientAtDate(Patient patient, Date date, Location location) throws APIException;
+	
 	/**
 	 * @return all {@link VisitAttributeType}s
 	 * <strong>Should</strong> return all visit attribute types including retired ones
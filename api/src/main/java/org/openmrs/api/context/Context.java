@@ -76,6 +76,7 @@ import javax.mail.PasswordAuthentication;
 import javax.mail.Session;
 import java.sql.Connection;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -904,11 +905,15 @@ public class Context {
 	 */
 	public static synchronized void startup(Properties props) throws DatabaseUpdateException, InputRequiredException,
 	ModuleMustStartException {
+		long start = System.currentTimeMillis();
+		
 		// do any context database specific startup
 		getContextDAO().startup(props);
+		start = logStartupPhase("context DAO startup", start);
 
 		// find/set/check whether the current database version is compatible
 		checkForDatabaseUpdates(props);
+		start = logStartupPhase("database update check", start);
 
 		// this should be first in the startup routines so that the application
 		// data directory can be set from the runtime properties
@@ -920,11 +925,29 @@ public class Context {
 		// add any privileges/roles that /must/ exist for openmrs to work
 		// correctly.
 		checkCoreDataset();
+		start = logStartupPhase("core dataset check", start);
 
 		getContextDAO().setupSearchIndex();
+		start = logStartupPhase("search index setup", start);
+
+		getContextDAO().setupStatistics();
 
 		// Loop over each module and startup each with these custom properties
 		ModuleUtil.startup(props);
+		logStartupPhase("module startup", start);
+	}
+	
+	/**
+	 * Logs the time taken by a phase of the startup
+	 * 
+	 * @param phase the name of the phase
+	 * @param start the time in milliseconds when the phase started
+	 * @return the current time in milliseconds, i.e. the start of the next phase
+	 */
+	private static long logStartupPhase(String phase, long start) {
+		long now = System.currentTimeMillis();
+		log.info("Startup phase '{}' took {} ms", phase, now - start);
+		return now;
 	}
 
 	/**
@@ -1266,6 +1289,39 @@ public class Context {
 		return OpenmrsUtil.getDateTimeFormat(getLocale());
 	}
 
+	/**
+	 * Gets the thread safe date formatter for the current user's locale
+	 *
+	 * @return DateTimeFormatter for the user's current locale
+	 * @see org.openmrs.util.OpenmrsUtil#getDateFormatter(Locale)
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getDateFormatter() {
+		return OpenmrsUtil.getDateFormatter(getLocale());
+	}
+
+	/**
+	 * Gets the thread safe time formatter for the current user's locale
+	 *
+	 * @return DateTimeFormatter for the user's current locale
+	 * @see org.openmrs.util.OpenmrsUtil#getTimeFormatter(Locale)
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getTimeFormatter() {
+		return OpenmrsUtil.getTimeFormatter(getLocale());
+	}
+
+	/**
+	 * Gets the thread safe datetime formatter for the current user's locale
+	 *
+	 * @return DateTimeFormatter for the user's current locale
+	 * @see org.openmrs.util.OpenmrsUtil#getDateTimeFormatter(Locale)
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getDateTimeFormatter() {
+		return OpenmrsUtil.getDateTimeFormatter(getLocale());
+	}
+
 	/**
 	 * @return true/false whether the service context is currently being refreshed
 	 * @see org.openmrs.api.context.ServiceContext#isRefreshingContext()
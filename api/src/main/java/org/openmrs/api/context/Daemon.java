@@ -24,6 +24,8 @@ import org.openmrs.module.Module;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.executor.ExecutorSchedulerTask;
 import org.openmrs.scheduler.timer.TimerSchedulerTask;
 import org.openmrs.util.OpenmrsSecurityManager;
 import org.slf4j.Logger;
@@ -248,6 +250,40 @@ public class Daemon {
 		
 	}
 	
+	/**
+	 * Executes the given task in the current thread authenticated as the daemon user, so that the
+	 * pooled threads of the {@link ExecutorSchedulerServiceImpl} do not need a new thread for every
+	 * execution. <br>
+	 * <br>
+	 * This can only be called from {@link ExecutorSchedulerTask} during actual task execution
+	 *
+	 * @param task the task to run
+	 * <strong>Should</strong> not be called from other methods other than ExecutorSchedulerTask
+	 * @since 2.7.0
+	 */
+	public static void executeScheduledTaskInCurrentThread(final Task task) throws Exception {
+		
+		// quick check to make sure we're only being called by the scheduler
+		Class<?> callerClass = new OpenmrsSecurityManager().getCallerClass(0);
+		if (!ExecutorSchedulerTask.class.isAssignableFrom(callerClass)) {
+			throw new APIException("Scheduler.executor.task.only", new Object[] { callerClass.getName() });
+		}
+		
+		isDaemonThread.set(true);
+		try {
+			Context.openSession();
+			TimerSchedulerTask.execute(task);
+		}
+		finally {
+			try {
+				Context.closeSession();
+			}
+			finally {
+				isDaemonThread.remove();
+			}
+		}
+	}
+	
 	/**
 	 * Call this method if you are inside a Daemon thread (for example in a Module activator or a
 	 * scheduled task) and you want to start up a new parallel Daemon thread. You may only call this
@@ -85,4 +85,14 @@ public interface AdministrationDAO {
 	 * @see AdministrationService#updatePostgresSequence()
 	 */
 	public void updatePostgresSequence() throws DAOException;
+	
+	/**
+	 * @see AdministrationService#getDatabaseStatistics()
+	 */
+	public DatabaseStatistics getDatabaseStatistics() throws DAOException;
+	
+	/**
+	 * @see AdministrationService#resetDatabaseStatistics()
+	 */
+	public void resetDatabaseStatistics() throws DAOException;
 }
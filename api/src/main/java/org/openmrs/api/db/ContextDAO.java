@@ -159,6 +159,15 @@ public interface ContextDAO {
 	 */
 	public void setupSearchIndex();
 	
+	/**
+	 * Applies the {@link OpenmrsConstants#GP_DATABASE_STATISTICS_ENABLED} and
+	 * {@link OpenmrsConstants#GP_DATABASE_STATISTICS_EXPORT_INTERVAL} global properties to the
+	 * collection of database statistics.
+	 * 
+	 * @since 2.7.0
+	 */
+	public void setupStatistics();
+	
 	/**
 	 * @see Context#updateSearchIndex()
 	 */
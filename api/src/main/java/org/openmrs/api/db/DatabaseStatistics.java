@@ -0,0 +1,299 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A snapshot of the statistics collected by the database layer since startup or the last reset,
+ * see {@link org.openmrs.api.AdministrationService#getDatabaseStatistics()}
+ *
+ * @since 2.7.0
+ */
+public class DatabaseStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Date collected;
+
+	private final Date startTime;
+
+	private final boolean enabled;
+
+	private final long entityLoadCount;
+
+	private final long entityFetchCount;
+
+	private final long queryExecutionCount;
+
+	private final List<QueryStatistics> queries;
+
+	private final List<EntityStatistics> entities;
+
+	private final List<CacheRegionStatistics> cacheRegions;
+
+	public DatabaseStatistics(Date collected, Date startTime, boolean enabled, long entityLoadCount,
+	    long entityFetchCount, long queryExecutionCount, List<QueryStatistics> queries, List<EntityStatistics> entities,
+	    List<CacheRegionStatistics> cacheRegions) {
+		this.collected = collected;
+		this.startTime = startTime;
+		this.enabled = enabled;
+		this.entityLoadCount = entityLoadCount;
+		this.entityFetchCount = entityFetchCount;
+		this.queryExecutionCount = queryExecutionCount;
+		this.queries = Collections.unmodifiableList(queries);
+		this.entities = Collections.unmodifiableList(entities);
+		this.cacheRegions = Collections.unmodifiableList(cacheRegions);
+	}
+
+	/**
+	 * @return the time the snapshot was taken
+	 */
+	public Date getCollected() {
+		return collected;
+	}
+
+	/**
+	 * @return the time the statistics were started or last reset
+	 */
+	public Date getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * @return true if statistics are currently being collected
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return the number of entities loaded from the database or the second level cache
+	 */
+	public long getEntityLoadCount() {
+		return entityLoadCount;
+	}
+
+	/**
+	 * @return the number of entities fetched from the database by initializing a proxy or collection
+	 */
+	public long getEntityFetchCount() {
+		return entityFetchCount;
+	}
+
+	/**
+	 * @return the number of queries executed
+	 */
+	public long getQueryExecutionCount() {
+		return queryExecutionCount;
+	}
+
+	/**
+	 * @return the statistics of each query, the queries with the highest total execution time first
+	 */
+	public List<QueryStatistics> getQueries() {
+		return queries;
+	}
+
+	/**
+	 * @return the load and fetch counts of each entity which was loaded or fetched
+	 */
+	public List<EntityStatistics> getEntities() {
+		return entities;
+	}
+
+	/**
+	 * @return the statistics of each second level cache region
+	 */
+	public List<CacheRegionStatistics> getCacheRegions() {
+		return cacheRegions;
+	}
+
+	@Override
+	public String toString() {
+		return "DatabaseStatistics[collected=" + collected + ", enabled=" + enabled + ", queries=" + queryExecutionCount
+		        + ", entityLoads=" + entityLoadCount + ", entityFetches=" + entityFetchCount + "]";
+	}
+
+	/**
+	 * The execution count and latency percentiles of a query. The percentiles are the upper bounds of
+	 * the latency histogram buckets they fall into and are -1 if no latencies were recorded.
+	 */
+	public static class QueryStatistics implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String query;
+
+		private final long executionCount;
+
+		private final long rowCount;
+
+		private final long averageMillis;
+
+		private final long maxMillis;
+
+		private final long p50Millis;
+
+		private final long p95Millis;
+
+		private final long p99Millis;
+
+		public QueryStatistics(String query, long executionCount, long rowCount, long averageMillis, long maxMillis,
+		    long p50Millis, long p95Millis, long p99Millis) {
+			this.query = query;
+			this.executionCount = executionCount;
+			this.rowCount = rowCount;
+			this.averageMillis = averageMillis;
+			this.maxMillis = maxMillis;
+			this.p50Millis = p50Millis;
+			this.p95Millis = p95Millis;
+			this.p99Millis = p99Millis;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+
+		public long getExecutionCount() {
+			return executionCount;
+		}
+
+		public long getRowCount() {
+			return rowCount;
+		}
+
+		public long getAverageMillis() {
+			return averageMillis;
+		}
+
+		public long getMaxMillis() {
+			return maxMillis;
+		}
+
+		/**
+		 * @return the total execution time, i.e. the execution count times the average time
+		 */
+		public long getTotalMillis() {
+			return executionCount * averageMillis;
+		}
+
+		public long getP50Millis() {
+			return p50Millis;
+		}
+
+		public long getP95Millis() {
+			return p95Millis;
+		}
+
+		public long getP99Millis() {
+			return p99Millis;
+		}
+
+		@Override
+		public String toString() {
+			return "executions=" + executionCount + ", rows=" + rowCount + ", avg=" + averageMillis + "ms, p50="
+			        + p50Millis + "ms, p95=" + p95Millis + "ms, p99=" + p99Millis + "ms, max=" + maxMillis + "ms: " + query;
+		}
+	}
+
+	/**
+	 * The load and fetch counts of an entity
+	 */
+	public static class EntityStatistics implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String entityName;
+
+		private final long loadCount;
+
+		private final long fetchCount;
+
+		public EntityStatistics(String entityName, long loadCount, long fetchCount) {
+			this.entityName = entityName;
+			this.loadCount = loadCount;
+			this.fetchCount = fetchCount;
+		}
+
+		public String getEntityName() {
+			return entityName;
+		}
+
+		public long getLoadCount() {
+			return loadCount;
+		}
+
+		public long getFetchCount() {
+			return fetchCount;
+		}
+
+		@Override
+		public String toString() {
+			return entityName + ": loads=" + loadCount + ", fetches=" + fetchCount;
+		}
+	}
+
+	/**
+	 * The hit, miss and put counts of a second level cache region
+	 */
+	public static class CacheRegionStatistics implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String regionName;
+
+		private final long hitCount;
+
+		private final long missCount;
+
+		private final long putCount;
+
+		public CacheRegionStatistics(String regionName, long hitCount, long missCount, long putCount) {
+			this.regionName = regionName;
+			this.hitCount = hitCount;
+			this.missCount = missCount;
+			this.putCount = putCount;
+		}
+
+		public String getRegionName() {
+			return regionName;
+		}
+
+		public long getHitCount() {
+			return hitCount;
+		}
+
+		public long getMissCount() {
+			return missCount;
+		}
+
+		public long getPutCount() {
+			return putCount;
+		}
+
+		/**
+		 * @return the share of the lookups which were hits, 0 if there were no lookups
+		 */
+		public double getHitRatio() {
+			long lookups = hitCount + missCount;
+			return lookups == 0 ? 0 : (double) hitCount / lookups;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: hits=%d, misses=%d, puts=%d, hitRatio=%.2f", regionName, hitCount, missCount,
+			    putCount, getHitRatio());
+		}
+	}
+}
@@ -9,6 +9,7 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -59,11 +60,32 @@ public interface EncounterDAO {
 	 */
 	public List<Encounter> getEncountersByPatientId(Integer patientId) throws DAOException;
 	
+	/**
+	 * @param patientId
+	 * @param encounterTypeIds only encounters of these types are returned, null for all types
+	 * @return the encounters of the given types for the given patient identifier
+	 * @throws DAOException
+	 * @since 2.7.0
+	 */
+	public List<Encounter> getEncountersByPatientId(Integer patientId, Collection<Integer> encounterTypeIds)
+	        throws DAOException;
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#getEncounters(org.openmrs.parameter.EncounterSearchCriteria)
 	 */
 	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria);
 	
+	/**
+	 * Gets the encounters matching the search criteria which are also of one of the given types
+	 * 
+	 * @param encounterSearchCriteria the search criteria
+	 * @param encounterTypeIds only encounters of these types are returned, null for all types
+	 * @return the matching encounters
+	 * @since 2.7.0
+	 */
+	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria,
+	        Collection<Integer> encounterTypeIds);
+	
 	/**
 	 * Save an Encounter Type
 	 * 
@@ -155,6 +177,22 @@ public interface EncounterDAO {
 	 */
 	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided);
 	
+	/**
+	 * Get a list of {@link Encounter} of the given types by Patient name or identifier based on batch
+	 * settings, the batch is taken from the encounters of the given types only
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param start beginning index for the batch
+	 * @param length number of encounters to return in the batch
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param encounterTypeIds only encounters of these types are returned, null for all types
+	 * @return list of {@link Encounter} based on batch settings
+	 * @since 2.7.0
+	 */
+	List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length, boolean includeVoided,
+	        Collection<Integer> encounterTypeIds);
+	
 	/**
 	 * Gets the location of the encounter
 	 * 
@@ -179,6 +217,29 @@ public interface EncounterDAO {
 	 */
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided);
 	
+	/**
+	 * Return the number of encounters of the given types matching a patient name or patient
+	 * identifier
+	 * 
+	 * @param query patient name or identifier
+	 * @param patientId the patient id
+	 * @param includeVoided Specifies whether voided encounters should be included
+	 * @param encounterTypeIds only encounters of these types are counted, null for all types
+	 * @return the number of encounters matching the given search phrase
+	 * @since 2.7.0
+	 */
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> encounterTypeIds);
+	
+	/**
+	 * Gets the view privilege of every encounter type including retired ones, without loading the
+	 * encounter types. The privileges may be held until an encounter type is saved or deleted.
+	 * 
+	 * @return the name of the view privilege by encounter type id, null for types everyone can view
+	 * @since 2.7.0
+	 */
+	public Map<Integer, String> getEncounterTypeViewPrivileges();
+	
 	/**
 	 * @see EncounterService#getEncountersByVisit(Visit, boolean)
 	 */
@@ -242,11 +303,42 @@ public interface EncounterDAO {
 	List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query, Integer start,
 	        Integer length);
 	
+	/**
+	 * Gets the encounters of the given types of a patient like
+	 * {@link EncounterService#getEncountersByVisitsAndPatient(Patient, boolean, String, Integer, Integer)},
+	 * the page is taken from the encounters of the given types only
+	 * 
+	 * @param patient the patient to match
+	 * @param includeVoided if voided encounters or visits should be included
+	 * @param query filters results (defaults to return all results if <code>null</code>)
+	 * @param start index to start with (defaults to 0 if <code>null</code>)
+	 * @param length number of results to return (default to return all results if <code>null</code>)
+	 * @param encounterTypeIds only encounters of these types are returned, null for all types
+	 * @return encounters and empty encounters with only visit set
+	 * @since 2.7.0
+	 */
+	List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query, Integer start,
+	        Integer length, Collection<Integer> encounterTypeIds);
+	
 	/**
 	 * @see EncounterService#getEncountersByVisitsAndPatientCount(Patient, boolean, String)
 	 */
 	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query);
 	
+	/**
+	 * Counts the results of {@link #getEncountersByVisitsAndPatient(Patient, boolean, String, Integer,
+	 * Integer, Collection)}
+	 * 
+	 * @param patient the patient to match
+	 * @param includeVoided if voided encounters or visits should be included
+	 * @param query filters results (defaults to return all results if <code>null</code>)
+	 * @param encounterTypeIds only encounters of these types are counted, null for all types
+	 * @return the number of encounters and empty visits
+	 * @since 2.7.0
+	 */
+	Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> encounterTypeIds);
+	
 	/**
 	 * Get encounter roles by name
 	 * 
@@ -201,4 +201,67 @@ public interface LocationDAO {
 	 * <strong>Should</strong> ignore null values in location tag list
 	 */
 	List<Location> getLocationsHavingAllTags(List<LocationTag> locationTagIdList);
+	
+	/**
+	 * Get the ids of the unretired locations that have any of the location tags specified.
+	 *
+	 * @param locationTagIds the ids of the location tags
+	 * @return list of location ids ordered by location name
+	 * <strong>Should</strong> get the ids of locations having any of the tags
+	 * <strong>Should</strong> return empty list when given an empty tag id list
+	 * @since 2.7.0
+	 */
+	List<Integer> getLocationIdsHavingAnyTag(List<Integer> locationTagIds);
+	
+	/**
+	 * Get the ids of the descendants of a location from the location hierarchy.
+	 *
+	 * @param locationId the id of the location
+	 * @param includeRetired whether to include retired locations and their descendants
+	 * @return list of location ids ordered by depth and name
+	 * @since 2.7.0
+	 */
+	List<Integer> getDescendantLocationIds(Integer locationId, boolean includeRetired);
+	
+	/**
+	 * Get the ids of the ancestors of a location from the location hierarchy.
+	 *
+	 * @param locationId the id of the location
+	 * @return list of location ids starting with the parent of the location
+	 * @since 2.7.0
+	 */
+	List<Integer> getAncestorLocationIds(Integer locationId);
+	
+	/**
+	 * Links a saved location and its descendants to the ancestors of its current parent location in
+	 * the location hierarchy, if the location is not in the hierarchy yet or its parent changed.
+	 *
+	 * @param location the saved location
+	 * @since 2.7.0
+	 */
+	void updateLocationHierarchy(Location location);
+	
+	/**
+	 * Removes a location and its descendants from the location hierarchy.
+	 *
+	 * @param location the location which is about to be purged
+	 * @since 2.7.0
+	 */
+	void deleteLocationHierarchy(Location location);
+	
+	/**
+	 * Recreates the location hierarchy from the parent locations of all locations. Locations whose
+	 * parent locations form a loop are linked to each other once and logged instead of failing the
+	 * rebuild.
+	 *
+	 * @return the number of rows in the location hierarchy
+	 * @since 2.7.0
+	 */
+	int rebuildLocationHierarchy();
+	
+	/**
+	 * @return true if not every location is in the location hierarchy
+	 * @since 2.7.0
+	 */
+	boolean isLocationHierarchyIncomplete();
 }
@@ -9,16 +9,22 @@
  */
 package org.openmrs.api.db;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
+import org.openmrs.EncounterType;
 import org.openmrs.Location;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientProgram;
+import org.openmrs.User;
 import org.openmrs.api.PatientService;
+import org.openmrs.person.PersonMergeLogData;
 
 /**
  * Database methods for the PatientService
@@ -33,6 +39,21 @@ public interface PatientDAO {
 	 */
 	public Patient savePatient(Patient patient) throws DAOException;
 	
+	/**
+	 * @see org.openmrs.api.PatientService#savePatients(List)
+	 */
+	public void savePatients(List<Patient> patients) throws DAOException;
+	
+	/**
+	 * Runs the given work without flushing the session, e.g. the checks of patients which may turn
+	 * out not to be saved, so that the queries of the work do not write the changes of those patients
+	 * 
+	 * @param work the work to run
+	 * @return the result of the work
+	 * @since 2.7.0
+	 */
+	public <T> T runWithoutFlushing(Supplier<T> work);
+	
 	/**
 	 * @see org.openmrs.api.PatientService#getPatient(Integer)
 	 */
@@ -191,6 +212,11 @@ public interface PatientDAO {
 	 */
 	public boolean isIdentifierInUseByAnotherPatient(PatientIdentifier patientIdentifier);
 	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	public List<PatientIdentifier> getPatientIdentifiersInUseByAnotherPatient(List<PatientIdentifier> patientIdentifiers);
+	
 	/**
 	 * @param uuid
 	 * @return patient or null
@@ -305,4 +331,33 @@ public interface PatientDAO {
 	 */
 	public List getPatientIdentifierByProgram(PatientProgram patientProgram);
 	
+	/**
+	 * Moves the visits, encounters, orders, obs and program enrollments of one patient to another with
+	 * set based updates, voided ones included. The obs which are not voided are copied to the other
+	 * patient with the original as their previous version and the originals are voided, like saving
+	 * an obs with another person does, the other rows are changed in place. The save handlers are not
+	 * run, the visits, encounters and enrollments get the given changedBy and dateChanged, the copied
+	 * obs are created and the originals voided by changedBy at dateChanged, and the second level cache
+	 * regions of the changed types are evicted.
+	 * 
+	 * @param from the patient to move the data from
+	 * @param to the patient to move the data to
+	 * @param changedBy the user making the change
+	 * @param dateChanged the date of the change
+	 * @param mergedData the merge log data to add the uuids of the moved rows to
+	 * @since 2.7.0
+	 */
+	public void movePatientData(Patient from, Patient to, User changedBy, Date dateChanged, PersonMergeLogData mergedData);
+	
+	/**
+	 * Gets which of the given encounter types the patient has encounters of, including voided ones,
+	 * no matter whether the authenticated user may view them
+	 * 
+	 * @param patient the patient whose encounters to look at
+	 * @param encounterTypes the encounter types to look for
+	 * @return the encounter types the patient has encounters of
+	 * @since 2.7.0
+	 */
+	public List<EncounterType> getEncounterTypesOfPatient(Patient patient, Collection<EncounterType> encounterTypes);
+	
 }
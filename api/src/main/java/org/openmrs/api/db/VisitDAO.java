@@ -113,6 +113,13 @@ public interface VisitDAO {
 	        Date minEndDatetime, Date maxEndDatetime, Map<VisitAttributeType, String> serializedAttributeValues,
 	        boolean includeInactive, boolean includeVoided) throws DAOException;
 	
+	/**
+	 * @param locations the locations the visits may be at besides having no location
+	 * @see VisitService#getVisitsByPatientAtDate(Patient, Date, Location)
+	 */
+	public List<Visit> getVisitsByPatientAtDate(Patient patient, Date date, Collection<Location> locations)
+	        throws DAOException;
+	
 	/**
 	 * @see VisitService#getAllVisitAttributeTypes()
 	 */
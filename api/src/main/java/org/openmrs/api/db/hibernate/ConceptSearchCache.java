@@ -0,0 +1,317 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * A short-lived cache of the concept name search results used by typeahead searches, see
+ * {@link HibernateConceptDAO#getConcepts(String, List, boolean, List, List, List, List, org.openmrs.Concept, Integer, Integer)}.
+ * Results are cached as the ordered ids of the matching concept names, keyed by the normalized
+ * phrase and the search filters. Only a search with the same phrase and filters is answered from an
+ * entry, the results of a shorter phrase are not reused for a longer one since the index may match
+ * the longer phrase differently, e.g. by fuzzy or reference term code matches.
+ * <p>
+ * The entries expire after the time configured for the {@value #CACHE_NAME} cache in
+ * ehcache-api.xml and the cache is cleared whenever a concept, concept name, concept answer or
+ * concept stop word is saved or deleted, see {@link ConceptSearchCacheInterceptor}, and when the
+ * search index is rebuilt.
+ *
+ * @since 2.7.0
+ */
+@Component("conceptSearchCache")
+public class ConceptSearchCache {
+
+	public static final String CACHE_NAME = "conceptSearchResults";
+
+	/**
+	 * Results with more names are cached only partially, pages beyond them are searched in the index
+	 */
+	static final int MAX_CACHED_RESULTS = 500;
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	private final Cache cache;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder hitNanos = new LongAdder();
+
+	private final LongAdder missNanos = new LongAdder();
+
+	@Autowired
+	public ConceptSearchCache(@Qualifier("apiCacheManager") CacheManager cacheManager) {
+		this.cache = cacheManager.getCache(CACHE_NAME);
+	}
+
+	/**
+	 * @param key the key of the search
+	 * @return the cached result or null if there is none
+	 */
+	public Entry get(Key key) {
+		return cache.get(key, Entry.class);
+	}
+
+	/**
+	 * @param key the key of the search
+	 * @param entry the result to cache
+	 */
+	public void put(Key key, Entry entry) {
+		cache.put(key, entry);
+	}
+
+	/**
+	 * Gets the cached stop words of the given locale, loading them if they are not cached yet
+	 *
+	 * @param locale the locale
+	 * @param loader loads the stop words
+	 * @return the stop words
+	 */
+	public List<String> getStopWords(Locale locale, Supplier<List<String>> loader) {
+		return cache.get(new StopWordsKey(locale), () -> Collections.unmodifiableList(new ArrayList<>(loader.get())));
+	}
+
+	/**
+	 * Removes all cached results and stop words
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	void recordHit(long nanos) {
+		hits.increment();
+		hitNanos.add(nanos);
+	}
+
+	void recordMiss(long nanos) {
+		misses.increment();
+		missNanos.add(nanos);
+	}
+
+	/**
+	 * @return the hit counts and latencies since startup
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(hits.sum(), misses.sum(), hitNanos.sum(), missNanos.sum());
+	}
+
+	/**
+	 * Normalizes the given phrase the way it is used in keys, i.e. trimmed, with single spaces and in
+	 * upper case since the search is case insensitive
+	 *
+	 * @param phrase the phrase
+	 * @return the normalized phrase
+	 */
+	public static String normalizePhrase(String phrase) {
+		return WHITESPACE.matcher(phrase.trim()).replaceAll(" ").toUpperCase();
+	}
+
+	/**
+	 * The key of a concept search, the phrase is normalized and the filters are the string
+	 * representation of all other search parameters.
+	 */
+	public static final class Key implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String phrase;
+
+		private final String filters;
+
+		private Key(String normalizedPhrase, String filters) {
+			this.phrase = normalizedPhrase;
+			this.filters = filters;
+		}
+
+		/**
+		 * @param phrase the searched phrase
+		 * @param filters all other search parameters, they must have a string representation which
+		 *            identifies them
+		 * @return the key
+		 */
+		public static Key forSearch(String phrase, Object... filters) {
+			return new Key(normalizePhrase(phrase), Arrays.deepToString(filters));
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return phrase.equals(key.phrase) && filters.equals(key.filters);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(phrase, filters);
+		}
+
+		@Override
+		public String toString() {
+			return phrase + " " + filters;
+		}
+	}
+
+	private static final class StopWordsKey implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Locale locale;
+
+		StopWordsKey(Locale locale) {
+			this.locale = locale;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof StopWordsKey && Objects.equals(locale, ((StopWordsKey) o).locale);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(locale);
+		}
+	}
+
+	/**
+	 * The cached result of a concept search, i.e. the ids of the matching concept names in the order
+	 * of relevance. A complete entry holds all matching names,
+	 * otherwise only the first {@value ConceptSearchCache#MAX_CACHED_RESULTS}.
+	 */
+	public static final class Entry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<Integer> conceptNameIds;
+
+		private final long totalResults;
+
+		/**
+		 * @param conceptNameIds the ids of the matching concept names in order of relevance
+		 * @param totalResults the number of all matching names
+		 */
+		public Entry(List<Integer> conceptNameIds, long totalResults) {
+			this.conceptNameIds = Collections.unmodifiableList(new ArrayList<>(conceptNameIds));
+			this.totalResults = totalResults;
+		}
+
+		public long getTotalResults() {
+			return totalResults;
+		}
+
+		public boolean isComplete() {
+			return conceptNameIds.size() == totalResults;
+		}
+
+		/**
+		 * @param start the index of the first result or null to start at the first
+		 * @param size the maximum number of results or null for all
+		 * @return true if the requested results are cached
+		 */
+		public boolean contains(Integer start, Integer size) {
+			if (isComplete()) {
+				return true;
+			}
+			int from = start == null ? 0 : start;
+			return size != null && from + size <= conceptNameIds.size();
+		}
+
+		/**
+		 * @param start the index of the first result or null to start at the first
+		 * @param size the maximum number of results or null for all
+		 * @return the ids of the requested concept names
+		 */
+		public List<Integer> getConceptNameIds(Integer start, Integer size) {
+			int from = Math.min(start == null ? 0 : start, conceptNameIds.size());
+			int to = size == null ? conceptNameIds.size() : Math.min(from + size, conceptNameIds.size());
+			return conceptNameIds.subList(from, to);
+		}
+	}
+
+	/**
+	 * A snapshot of the hit counts and latencies of the concept search cache
+	 */
+	public static final class Statistics {
+
+		private final long hits;
+
+		private final long misses;
+
+		private final long hitNanos;
+
+		private final long missNanos;
+
+		Statistics(long hits, long misses, long hitNanos, long missNanos) {
+			this.hits = hits;
+			this.misses = misses;
+			this.hitNanos = hitNanos;
+			this.missNanos = missNanos;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public double getHitRate() {
+			long lookups = hits + misses;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+
+		/**
+		 * @return the average time in milliseconds to answer a search from the cache
+		 */
+		public double getAverageHitMillis() {
+			return average(hitNanos, hits);
+		}
+
+		/**
+		 * @return the average time in milliseconds to run and cache a search that was not cached
+		 */
+		public double getAverageMissMillis() {
+			return average(missNanos, misses);
+		}
+
+		private static double average(long nanos, long count) {
+			return count == 0 ? 0 : (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d, misses=%d, hitRate=%.2f, avgHit=%.3fms, avgMiss=%.3fms", hits, misses,
+			    getHitRate(), getAverageHitMillis(), getAverageMissMillis());
+		}
+	}
+}
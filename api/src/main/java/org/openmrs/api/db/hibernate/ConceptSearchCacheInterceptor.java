@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.Concept;
+import org.openmrs.ConceptAnswer;
+import org.openmrs.ConceptName;
+import org.openmrs.ConceptStopWord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clears the {@link ConceptSearchCache} when a concept, concept name, concept answer or concept
+ * stop word is saved or deleted. The cache is cleared right away and again when the transaction
+ * completes, since the search index is only updated on commit and searches in between may have
+ * cached the old results.
+ *
+ * @since 2.7.0
+ */
+@Component
+public class ConceptSearchCacheInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient ThreadLocal<Boolean> changed = new ThreadLocal<>();
+
+	private final transient ConceptSearchCache conceptSearchCache;
+
+	@Autowired
+	public ConceptSearchCacheInterceptor(ConceptSearchCache conceptSearchCache) {
+		this.conceptSearchCache = conceptSearchCache;
+	}
+
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		clearIfSearched(entity);
+		return false;
+	}
+
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		clearIfSearched(entity);
+		return false;
+	}
+
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		clearIfSearched(entity);
+	}
+
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		if (changed.get() != null) {
+			changed.remove();
+			conceptSearchCache.clear();
+		}
+	}
+
+	private void clearIfSearched(Object entity) {
+		if (entity instanceof Concept || entity instanceof ConceptName || entity instanceof ConceptAnswer
+		        || entity instanceof ConceptStopWord) {
+			changed.set(Boolean.TRUE);
+			conceptSearchCache.clear();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.Transaction;
+import org.hibernate.type.Type;
+import org.openmrs.EncounterType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the view privileges of the encounter types read by
+ * {@link HibernateEncounterDAO#getEncounterTypeViewPrivileges()}, so that finding the encounter
+ * types a user may view does not query them for every encounter search. As a session interceptor
+ * it clears them when an encounter type is saved, changed or deleted, and again when the
+ * transaction completes, so that privileges read while the change was not committed are not kept.
+ *
+ * @since 2.7.0
+ */
+@Component("encounterTypeViewPrivilegeCache")
+public class EncounterTypeViewPrivilegeCache extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	private final transient ThreadLocal<Boolean> changed = new ThreadLocal<>();
+
+	private transient volatile Map<Integer, String> viewPrivileges;
+
+	/**
+	 * @param loader reads the view privileges if they are not held
+	 * @return the view privileges by encounter type id
+	 */
+	public Map<Integer, String> get(Supplier<Map<Integer, String>> loader) {
+		Map<Integer, String> privileges = viewPrivileges;
+		if (privileges == null) {
+			privileges = Collections.unmodifiableMap(loader.get());
+			// the privileges read by a transaction that changed an encounter type are its own
+			if (changed.get() == null) {
+				viewPrivileges = privileges;
+			}
+		}
+		return privileges;
+	}
+
+	/**
+	 * Drops the held view privileges, they are read again when next needed
+	 */
+	public void clear() {
+		viewPrivileges = null;
+	}
+
+	@Override
+	public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		clearIfEncounterType(entity);
+		return false;
+	}
+
+	@Override
+	public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+	        String[] propertyNames, Type[] types) {
+		clearIfEncounterType(entity);
+		return false;
+	}
+
+	@Override
+	public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		clearIfEncounterType(entity);
+	}
+
+	@Override
+	public void afterTransactionCompletion(Transaction tx) {
+		if (changed.get() != null) {
+			changed.remove();
+			clear();
+		}
+	}
+
+	private void clearIfEncounterType(Object entity) {
+		if (entity instanceof EncounterType) {
+			changed.set(Boolean.TRUE);
+			clear();
+		}
+	}
+}
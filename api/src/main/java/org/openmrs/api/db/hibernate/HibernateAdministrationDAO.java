@@ -19,6 +19,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.hibernate.FlushMode;
 import org.hibernate.MappingException;
@@ -38,14 +40,18 @@ import org.openmrs.OpenmrsObject;
 import org.openmrs.api.APIException;
 import org.openmrs.api.db.AdministrationDAO;
 import org.openmrs.api.db.DAOException;
+import org.openmrs.api.db.DatabaseStatistics;
 import org.openmrs.util.DatabaseUtil;
 import org.openmrs.util.HandlerUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
@@ -56,7 +62,7 @@ import org.springframework.validation.Validator;
  * @see org.openmrs.api.db.AdministrationDAO
  * @see org.openmrs.api.AdministrationService
  */
-public class HibernateAdministrationDAO implements AdministrationDAO, ApplicationContextAware {
+public class HibernateAdministrationDAO implements AdministrationDAO, ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernateAdministrationDAO.class);
 	private static final String PROPERTY = "property";
@@ -68,6 +74,15 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 
 	private Metadata metadata;
 	
+	@Autowired
+	private HibernateStatisticsMonitor statisticsMonitor;
+	
+	/**
+	 * Validation plans keyed by the class of the validated objects, see
+	 * {@link #getValidationPlan(Object)}
+	 */
+	private final Map<Class<?>, ValidationPlan> validationPlans = new ConcurrentHashMap<>();
+	
 	public HibernateAdministrationDAO() {
 	}
 	
@@ -244,6 +259,26 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		metadata = sessionFactoryBean.getMetadata();
 	}
 	
+	/**
+	 * Clears the cached validation plans whenever the application context is refreshed, e.g. when
+	 * modules are started or stopped, since that may change the registered validators and the
+	 * hibernate mappings.
+	 * 
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		clearValidationPlans();
+	}
+	
+	/**
+	 * Discards all cached validation plans, they get rebuilt lazily on the next call to
+	 * {@link #validate(Object, Errors)}
+	 */
+	public void clearValidationPlans() {
+		validationPlans.clear();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.AdministrationDAO#validate(java.lang.Object, Errors)
 	 * <strong>Should</strong> Pass validation if field lengths are correct
@@ -251,54 +286,23 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	 * <strong>Should</strong> Fail validation for location class if field lengths are not correct
 	 * <strong>Should</strong> Pass validation for location class if field lengths are correct
 	 */
-	
-	//@SuppressWarnings({ "deprecation", "unchecked", "rawtypes" })
 	@Override
 	public void validate(Object object, Errors errors) throws DAOException {
-		Class entityClass = object.getClass();
-		ClassMetadata metadata = null;
-		try {
-			metadata = sessionFactory.getClassMetadata(entityClass);
-		}
-		catch (MappingException ex) {
-			log.debug(entityClass + " is not a hibernate mapped entity", ex);
+		ValidationPlan plan = getValidationPlan(object);
+		
+		if (plan.identifierCheck != null) {
+			String identifierValue = (String) plan.classMetadata.getIdentifier(object,
+			    (SessionImplementor) sessionFactory.getCurrentSession());
+			plan.identifierCheck.check(identifierValue, errors);
 		}
-		if (metadata != null) {
-			String[] propNames = metadata.getPropertyNames();
-			Object identifierType = metadata.getIdentifierType();
-			String identifierName = metadata.getIdentifierPropertyName();
-			if (identifierType instanceof StringType || identifierType instanceof TextType) {
-				int maxLength = getMaximumPropertyLength(entityClass, identifierName);
-				String identifierValue = (String) metadata.getIdentifier(object,
-				    (SessionImplementor) sessionFactory.getCurrentSession());
-				if (identifierValue != null) {
-					int identifierLength = identifierValue.length();
-					if (identifierLength > maxLength) {
-						
-						errors.rejectValue(identifierName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-						    null);
-					}
-				}
-			}
-			for (String propName : propNames) {
-				Type propType = metadata.getPropertyType(propName);
-				if (propType instanceof StringType || propType instanceof TextType) {
-					String propertyValue = (String) metadata.getPropertyValue(object, propName);
-					if (propertyValue != null) {
-						int maxLength = getMaximumPropertyLength(entityClass, propName);
-						int propertyValueLength = propertyValue.length();
-						if (propertyValueLength > maxLength) {
-							errors.rejectValue(propName, "error.exceededMaxLengthOfField", new Object[] { maxLength },
-									null);
-						}
-					}
-				}
-			}
+		for (FieldLengthCheck check : plan.propertyChecks) {
+			check.check((String) plan.classMetadata.getPropertyValue(object, check.propertyName), errors);
 		}
+		
 		FlushMode previousFlushMode = sessionFactory.getCurrentSession().getHibernateFlushMode();
 		sessionFactory.getCurrentSession().setHibernateFlushMode(FlushMode.MANUAL);
 		try {
-			for (Validator validator : getValidators(object)) {
+			for (Validator validator : plan.validators) {
 				validator.validate(object, errors);
 			}
 			
@@ -311,18 +315,67 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 	}
 	
 	/**
-	 * Fetches all validators that are registered
+	 * Gets the cached validation plan for the class of the given object, building it from the
+	 * hibernate metadata and the validators returned by {@link #getValidators(Object)} if it does not
+	 * exist yet
+	 * 
+	 * @param object the object to validate
+	 * @return the validation plan for the class of the object
+	 */
+	ValidationPlan getValidationPlan(Object object) {
+		return validationPlans.computeIfAbsent(object.getClass(), entityClass -> buildValidationPlan(object));
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ValidationPlan buildValidationPlan(Object object) {
+		Class<?> entityClass = object.getClass();
+		ClassMetadata classMetadata = null;
+		try {
+			classMetadata = sessionFactory.getClassMetadata(entityClass);
+		}
+		catch (MappingException ex) {
+			log.debug(entityClass + " is not a hibernate mapped entity", ex);
+		}
+		
+		FieldLengthCheck identifierCheck = null;
+		List<FieldLengthCheck> propertyChecks = new ArrayList<>();
+		if (classMetadata != null) {
+			Class<? extends OpenmrsObject> mappedClass = (Class<? extends OpenmrsObject>) entityClass;
+			Type identifierType = classMetadata.getIdentifierType();
+			if (isStringType(identifierType)) {
+				String identifierName = classMetadata.getIdentifierPropertyName();
+				identifierCheck = new FieldLengthCheck(identifierName,
+				        getMaximumPropertyLength(mappedClass, identifierName));
+			}
+			for (String propName : classMetadata.getPropertyNames()) {
+				if (isStringType(classMetadata.getPropertyType(propName))) {
+					propertyChecks.add(new FieldLengthCheck(propName, getMaximumPropertyLength(mappedClass, propName)));
+				}
+			}
+		}
+		
+		return new ValidationPlan(classMetadata, identifierCheck, propertyChecks, getValidators(object));
+	}
+	
+	private boolean isStringType(Type type) {
+		return type instanceof StringType || type instanceof TextType;
+	}
+	
+	/**
+	 * Fetches all validators that are registered. This is called once per class when its
+	 * {@link ValidationPlan} is built, the plan holds on to the validators
 	 *
 	 * @param obj the object that will be validated
 	 * @return list of compatible validators
 	 */
 	protected List<Validator> getValidators(Object obj) {
+		Class<?> type = obj.getClass();
 		List<Validator> matchingValidators = new ArrayList<>();
 
-		List<Validator> validators = HandlerUtil.getHandlersForType(Validator.class, obj.getClass());
+		List<Validator> validators = HandlerUtil.getHandlersForType(Validator.class, type);
 		
 		for (Validator validator : validators) {
-			if (validator.supports(obj.getClass())) {
+			if (validator.supports(type)) {
 				matchingValidators.add(validator);
 			}
 		}
@@ -330,6 +383,66 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 		return matchingValidators;
 	}
 	
+	/**
+	 * The precomputed validation steps for a single class, i.e. the string properties to check
+	 * along with their maximum lengths and the validators that support the class
+	 */
+	static class ValidationPlan {
+		
+		private final ClassMetadata classMetadata;
+		
+		private final FieldLengthCheck identifierCheck;
+		
+		private final List<FieldLengthCheck> propertyChecks;
+		
+		private final List<Validator> validators;
+		
+		ValidationPlan(ClassMetadata classMetadata, FieldLengthCheck identifierCheck, List<FieldLengthCheck> propertyChecks,
+		    List<Validator> validators) {
+			this.classMetadata = classMetadata;
+			this.identifierCheck = identifierCheck;
+			this.propertyChecks = Collections.unmodifiableList(propertyChecks);
+			this.validators = Collections.unmodifiableList(validators);
+		}
+		
+		List<FieldLengthCheck> getPropertyChecks() {
+			return propertyChecks;
+		}
+		
+		List<Validator> getValidators() {
+			return validators;
+		}
+	}
+	
+	/**
+	 * Checks the length of a single string property against the length of its mapped column
+	 */
+	static class FieldLengthCheck {
+		
+		private final String propertyName;
+		
+		private final int maxLength;
+		
+		FieldLengthCheck(String propertyName, int maxLength) {
+			this.propertyName = propertyName;
+			this.maxLength = maxLength;
+		}
+		
+		String getPropertyName() {
+			return propertyName;
+		}
+		
+		int getMaxLength() {
+			return maxLength;
+		}
+		
+		void check(String value, Errors errors) {
+			if (value != null && value.length() > maxLength) {
+				errors.rejectValue(propertyName, "error.exceededMaxLengthOfField", new Object[] { maxLength }, null);
+			}
+		}
+	}
+	
 	@Override
 	public boolean isDatabaseStringComparisonCaseSensitive() {
 		GlobalProperty gp = (GlobalProperty) sessionFactory.getCurrentSession().get(GlobalProperty.class,
@@ -429,4 +542,20 @@ public class HibernateAdministrationDAO implements AdministrationDAO, Applicatio
 			});
 		}
 	}
+	
+	/**
+	 * @see org.openmrs.api.db.AdministrationDAO#getDatabaseStatistics()
+	 */
+	@Override
+	public DatabaseStatistics getDatabaseStatistics() throws DAOException {
+		return statisticsMonitor.getStatistics();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.AdministrationDAO#resetDatabaseStatistics()
+	 */
+	@Override
+	public void resetDatabaseStatistics() throws DAOException {
+		statisticsMonitor.reset();
+	}
 }
@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -86,6 +87,8 @@ public class HibernateConceptDAO implements ConceptDAO {
 	
 	private SessionFactory sessionFactory;
 	
+	private ConceptSearchCache conceptSearchCache;
+	
 	/**
 	 * Sets the session factory
 	 * 
@@ -94,6 +97,16 @@ public class HibernateConceptDAO implements ConceptDAO {
 	public void setSessionFactory(SessionFactory sessionFactory) {
 		this.sessionFactory = sessionFactory;
 	}
+	
+	/**
+	 * Sets the cache of concept search results, searches are not cached if it is not set
+	 * 
+	 * @param conceptSearchCache
+	 * @since 2.7.0
+	 */
+	public void setConceptSearchCache(ConceptSearchCache conceptSearchCache) {
+		this.conceptSearchCache = conceptSearchCache;
+	}
 
 	/**
 	 * @see org.openmrs.api.db.ConceptDAO#getConceptComplex(java.lang.Integer)
@@ -676,10 +689,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 	private List<String> tokenizeConceptName(final String escapedName, final Set<Locale> locales) {
 		List<String> words = new ArrayList<>(Arrays.asList(escapedName.trim().split(" ")));
 		
-		Set<String> stopWords = new HashSet<>();
-		for (Locale locale : locales) {
-			stopWords.addAll(Context.getConceptService().getConceptStopWords(locale));
-		}
+		Set<String> stopWords = getSearchStopWords(locales);
 		
 		List<String> tokenizedName = new ArrayList<>();
 		
@@ -694,6 +704,18 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return tokenizedName;
 	}
 	
+	private Set<String> getSearchStopWords(final Set<Locale> locales) {
+		Set<String> stopWords = new HashSet<>();
+		for (Locale locale : locales) {
+			if (conceptSearchCache != null) {
+				stopWords.addAll(conceptSearchCache.getStopWords(locale, () -> getConceptStopWords(locale)));
+			} else {
+				stopWords.addAll(Context.getConceptService().getConceptStopWords(locale));
+			}
+		}
+		return stopWords;
+	}
+	
 	/**
 	 * gets questions for the given answer concept
 	 * 
@@ -1513,14 +1535,20 @@ public class HibernateConceptDAO implements ConceptDAO {
 	        final List<ConceptDatatype> requireDatatypes, final List<ConceptDatatype> excludeDatatypes,
 	        final Concept answersToConcept, final Integer start, final Integer size) throws DAOException {
 		
-		LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
-		    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
-		
-		ListPart<ConceptName> names = query.listPart(start, size);
+		List<ConceptName> names;
+		ConceptSearchCache.Entry entry = getCachedConceptSearch(phrase, locales, includeRetired, requireClasses,
+		    excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+		if (entry != null && entry.contains(start, size)) {
+			names = getConceptNamesByIds(entry.getConceptNameIds(start, size));
+		} else {
+			LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
+			    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+			names = query.listPart(start, size).getList();
+		}
 		
 		List<ConceptSearchResult> results = new ArrayList<>();
 		
-		for (ConceptName name : names.getList()) {
+		for (ConceptName name : names) {
 			results.add(new ConceptSearchResult(phrase, name.getConcept(), name));
 		}
 		
@@ -1532,6 +1560,12 @@ public class HibernateConceptDAO implements ConceptDAO {
 	        List<ConceptClass> requireClasses, List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
 	        List<ConceptDatatype> excludeDatatypes, Concept answersToConcept) throws DAOException {
 		
+		ConceptSearchCache.Entry entry = getCachedConceptSearch(phrase, locales, includeRetired, requireClasses,
+		    excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+		if (entry != null) {
+			return (int) entry.getTotalResults();
+		}
+		
 		LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
 		    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
 		
@@ -1539,6 +1573,87 @@ public class HibernateConceptDAO implements ConceptDAO {
 		return size.intValue();
 	}
 	
+	/**
+	 * Gets the result of a concept search from the cache, running and caching the search if it is not
+	 * cached yet. The search runs a projection on the ids of the matching names, hence it is cheaper
+	 * than loading them, and the names are loaded for the requested page only, so like an uncached
+	 * search a miss queries the index once and the database once.
+	 * 
+	 * @return the cached result or null if searches are not cached or the phrase is blank
+	 */
+	private ConceptSearchCache.Entry getCachedConceptSearch(final String phrase, List<Locale> locales,
+	        boolean includeRetired, List<ConceptClass> requireClasses, List<ConceptClass> excludeClasses,
+	        List<ConceptDatatype> requireDatatypes, List<ConceptDatatype> excludeDatatypes, Concept answersToConcept) {
+		if (conceptSearchCache == null || StringUtils.isBlank(phrase)) {
+			return null;
+		}
+		
+		long start = System.nanoTime();
+		Set<Locale> searchLocales = getSearchLocales(locales);
+		ConceptSearchCache.Key key = ConceptSearchCache.Key.forSearch(phrase, new TreeSet<>(
+		        searchLocales.stream().map(Locale::toString).collect(Collectors.toSet())), includeRetired,
+		    transformToIds(requireClasses), transformToIds(excludeClasses), transformToIds(requireDatatypes),
+		    transformToIds(excludeDatatypes), answersToConcept == null ? null : answersToConcept.getId());
+		
+		ConceptSearchCache.Entry entry = conceptSearchCache.get(key);
+		if (entry != null) {
+			conceptSearchCache.recordHit(System.nanoTime() - start);
+			return entry;
+		}
+		
+		LuceneQuery<ConceptName> query = newConceptNameLuceneQuery(phrase, true, locales, false, includeRetired,
+		    requireClasses, excludeClasses, requireDatatypes, excludeDatatypes, answersToConcept);
+		ListPart<Object[]> rows = query.listPartProjection(0, ConceptSearchCache.MAX_CACHED_RESULTS, "conceptNameId");
+		
+		List<Integer> conceptNameIds = new ArrayList<>(rows.getList().size());
+		for (Object[] row : rows.getList()) {
+			conceptNameIds.add((Integer) row[0]);
+		}
+		entry = new ConceptSearchCache.Entry(conceptNameIds, rows.getTotalElements());
+		conceptSearchCache.put(key, entry);
+		
+		conceptSearchCache.recordMiss(System.nanoTime() - start);
+		if (log.isDebugEnabled()) {
+			log.debug("Concept search cache miss for {}, {}", key, conceptSearchCache.getStatistics());
+		}
+		return entry;
+	}
+	
+	/**
+	 * @return the concept names with the given ids in the same order, skipping ids which no longer
+	 *         exist
+	 */
+	private List<ConceptName> getConceptNamesByIds(List<Integer> conceptNameIds) {
+		if (conceptNameIds.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		List<ConceptName> conceptNames = sessionFactory.getCurrentSession().createQuery(
+		    "from ConceptName cn where cn.conceptNameId in (:ids)", ConceptName.class).setParameterList("ids",
+		    conceptNameIds).getResultList();
+		Map<Integer, ConceptName> conceptNamesById = new HashMap<>();
+		for (ConceptName conceptName : conceptNames) {
+			conceptNamesById.put(conceptName.getConceptNameId(), conceptName);
+		}
+		
+		List<ConceptName> names = new ArrayList<>(conceptNameIds.size());
+		for (Integer conceptNameId : conceptNameIds) {
+			ConceptName conceptName = conceptNamesById.get(conceptNameId);
+			if (conceptName != null) {
+				names.add(conceptName);
+			}
+		}
+		return names;
+	}
+	
+	private Set<Locale> getSearchLocales(List<Locale> locales) {
+		if (locales == null) {
+			return new HashSet<>(Collections.singletonList(Context.getLocale()));
+		} else {
+			return new HashSet<>(locales);
+		}
+	}
+	
 	private LuceneQuery<ConceptName> newConceptNameLuceneQuery(final String phrase, boolean searchKeywords,
 	        List<Locale> locales, boolean searchExactLocale, boolean includeRetired, List<ConceptClass> requireClasses,
 	        List<ConceptClass> excludeClasses, List<ConceptDatatype> requireDatatypes,
@@ -1546,13 +1661,7 @@ public class HibernateConceptDAO implements ConceptDAO {
 		final StringBuilder query = new StringBuilder();
 		
 		if (!StringUtils.isBlank(phrase)) {
-			final Set<Locale> searchLocales;
-			
-			if (locales == null) {
-				searchLocales = new HashSet<>(Collections.singletonList(Context.getLocale()));
-			} else {
-				searchLocales = new HashSet<>(locales);
-			}
+			final Set<Locale> searchLocales = getSearchLocales(locales);
 			
 			query.append(newConceptNameQuery(phrase, searchKeywords, searchLocales, searchExactLocale));
 		}
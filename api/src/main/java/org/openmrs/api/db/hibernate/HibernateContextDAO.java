@@ -17,8 +17,6 @@ import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.search.FullTextSession;
-import org.hibernate.stat.QueryStatistics;
-import org.hibernate.stat.Statistics;
 import org.hibernate.type.StandardBasicTypes;
 import org.openmrs.GlobalProperty;
 import org.openmrs.User;
@@ -71,6 +69,12 @@ public class HibernateContextDAO implements ContextDAO {
 	@Autowired
 	private FullTextSessionFactory fullTextSessionFactory;
 	
+	@Autowired
+	private ConceptSearchCache conceptSearchCache;
+	
+	@Autowired
+	private HibernateStatisticsMonitor statisticsMonitor;
+	
 	private UserDAO userDao;
 	
 	/**
@@ -394,6 +398,7 @@ public class HibernateContextDAO implements ContextDAO {
 	 */
 	@Override
 	public void shutdown() {
+		statisticsMonitor.stopExport();
 		if (log.isInfoEnabled()) {
 			showUsageStatistics();
 		}
@@ -417,23 +422,10 @@ public class HibernateContextDAO implements ContextDAO {
 	}
 	
 	/**
-	 * Convenience method to print out the hibernate cache usage stats to the log
+	 * Convenience method to print out the hibernate query and cache usage stats to the log
 	 */
 	private void showUsageStatistics() {
-		if (sessionFactory.getStatistics().isStatisticsEnabled()) {
-			log.debug("Getting query statistics: ");
-			Statistics stats = sessionFactory.getStatistics();
-			for (String query : stats.getQueries()) {
-				log.info("QUERY: " + query);
-				QueryStatistics qstats = stats.getQueryStatistics(query);
-				log.info("Cache Hit Count : " + qstats.getCacheHitCount());
-				log.info("Cache Miss Count: " + qstats.getCacheMissCount());
-				log.info("Cache Put Count : " + qstats.getCachePutCount());
-				log.info("Execution Count : " + qstats.getExecutionCount());
-				log.info("Average time    : " + qstats.getExecutionAvgTime());
-				log.info("Row Count       : " + qstats.getExecutionRowCount());
-			}
-		}
+		statisticsMonitor.logStatistics();
 	}
 	
 	/**
@@ -516,6 +508,7 @@ public class HibernateContextDAO implements ContextDAO {
 		finally {
 			session.setHibernateFlushMode(flushMode);
 			session.setCacheMode(cacheMode);
+			conceptSearchCache.clear();
 		}
 	}
 	
@@ -528,6 +521,7 @@ public class HibernateContextDAO implements ContextDAO {
 		FullTextSession session = fullTextSessionFactory.getFullTextSession();
 		session.index(object);
 		session.flushToIndexes();
+		conceptSearchCache.clear();
 	}
 	
 	/**
@@ -542,6 +536,16 @@ public class HibernateContextDAO implements ContextDAO {
 		}
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.ContextDAO#setupStatistics()
+	 */
+	@Override
+	public void setupStatistics() {
+		statisticsMonitor.configure(
+		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED),
+		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GP_DATABASE_STATISTICS_EXPORT_INTERVAL));
+	}
+	
 	/**
 	 * @see ContextDAO#updateSearchIndex()
 	 */
@@ -550,6 +554,7 @@ public class HibernateContextDAO implements ContextDAO {
 		try {
 			log.info("Updating the search index... It may take a few minutes.");
 			fullTextSessionFactory.getFullTextSession().createIndexer().startAndWait();
+			conceptSearchCache.clear();
 			GlobalProperty gp = Context.getAdministrationService().getGlobalPropertyObject(
 			    OpenmrsConstants.GP_SEARCH_INDEX_VERSION);
 			if (gp == null) {
@@ -67,6 +67,8 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	private SessionFactory sessionFactory;
 	
+	private EncounterTypeViewPrivilegeCache encounterTypeViewPrivilegeCache;
+	
 	/**
 	 * Set session factory
 	 *
@@ -76,6 +78,17 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		this.sessionFactory = sessionFactory;
 	}
 	
+	/**
+	 * Sets the cache of the encounter type view privileges, they are queried every time if it is not
+	 * set
+	 * 
+	 * @param encounterTypeViewPrivilegeCache
+	 * @since 2.7.0
+	 */
+	public void setEncounterTypeViewPrivilegeCache(EncounterTypeViewPrivilegeCache encounterTypeViewPrivilegeCache) {
+		this.encounterTypeViewPrivilegeCache = encounterTypeViewPrivilegeCache;
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.EncounterDAO#saveEncounter(org.openmrs.Encounter)
 	 */
@@ -106,6 +119,19 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public List<Encounter> getEncountersByPatientId(Integer patientId) throws DAOException {
+		return getEncountersByPatientId(patientId, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByPatientId(java.lang.Integer, java.util.Collection)
+	 */
+	@Override
+	public List<Encounter> getEncountersByPatientId(Integer patientId, Collection<Integer> encounterTypeIds)
+	        throws DAOException {
+		if (encounterTypeIds != null && encounterTypeIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Encounter> cq = cb.createQuery(Encounter.class);
@@ -113,10 +139,13 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		
 		Join<Encounter, Patient> patientJoin = encounterRoot.join("patient");
 
-		cq.select(encounterRoot).where(
-			cb.equal(patientJoin.get("patientId"), patientId), 
-			cb.isFalse(encounterRoot.get("voided"))
-		).orderBy(cb.desc(encounterRoot.get("encounterDatetime")));
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(cb.equal(patientJoin.get("patientId"), patientId));
+		predicates.add(cb.isFalse(encounterRoot.get("voided")));
+		addEncounterTypePredicate(encounterRoot, encounterTypeIds, predicates);
+
+		cq.select(encounterRoot).where(predicates.toArray(new Predicate[]{}))
+			.orderBy(cb.desc(encounterRoot.get("encounterDatetime")));
 		
 		return session.createQuery(cq).getResultList();
 	}
@@ -126,6 +155,19 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public List<Encounter> getEncounters(EncounterSearchCriteria searchCriteria) {
+		return getEncounters(searchCriteria, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounters(org.openmrs.parameter.EncounterSearchCriteria,
+	 *      java.util.Collection)
+	 */
+	@Override
+	public List<Encounter> getEncounters(EncounterSearchCriteria searchCriteria, Collection<Integer> encounterTypeIds) {
+		if (encounterTypeIds != null && encounterTypeIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Encounter> cq = cb.createQuery(Encounter.class);
@@ -174,6 +216,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		if (!searchCriteria.getIncludeVoided()) {
 			predicates.add(cb.isFalse(encounter.get("voided")));
 		}
+		addEncounterTypePredicate(encounter, encounterTypeIds, predicates);
 
 		cq.select(encounter).where(predicates.toArray(new Predicate[]{}))
 			.orderBy(cb.asc(encounter.get("encounterDatetime")));
@@ -303,7 +346,17 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	        boolean includeVoided) {
-		if (StringUtils.isBlank(query) && patientId == null) {
+		return getEncounters(query, patientId, start, length, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounters(String, Integer, Integer, Integer,
+	 *      boolean, Collection)
+	 */
+	@Override
+	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
+	        boolean includeVoided, Collection<Integer> encounterTypeIds) {
+		if ((StringUtils.isBlank(query) && patientId == null) || (encounterTypeIds != null && encounterTypeIds.isEmpty())) {
 			return Collections.emptyList();
 		}
 
@@ -313,6 +366,7 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		Root<Encounter> root = cq.from(Encounter.class);
 
 		QueryResult queryResult = createEncounterByQueryPredicates(cb, root, query, patientId, includeVoided, true);
+		addEncounterTypePredicate(root, encounterTypeIds, queryResult.getPredicates());
 		
 		cq.where(queryResult.getPredicates().toArray(new Predicate[]{}))
 			.orderBy(queryResult.getOrders());
@@ -413,18 +467,68 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided) {
+		return getCountOfEncounters(query, patientId, includeVoided, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getCountOfEncounters(java.lang.String,
+	 *      java.lang.Integer, boolean, java.util.Collection)
+	 */
+	@Override
+	public Long getCountOfEncounters(String query, Integer patientId, boolean includeVoided,
+	        Collection<Integer> encounterTypeIds) {
+		if (encounterTypeIds != null && encounterTypeIds.isEmpty()) {
+			return 0L;
+		}
+		
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Long> cq = cb.createQuery(Long.class);
 		Root<Encounter> root = cq.from(Encounter.class);
 
 		QueryResult queryResult = createEncounterByQueryPredicates(cb, root, query, patientId, includeVoided, false);
+		addEncounterTypePredicate(root, encounterTypeIds, queryResult.getPredicates());
 		cq.select(cb.countDistinct(root.get("encounterId")))
 			.where(queryResult.getPredicates().toArray(new Predicate[]{}));
 
 		return session.createQuery(cq).getSingleResult();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncounterTypeViewPrivileges()
+	 */
+	@Override
+	public Map<Integer, String> getEncounterTypeViewPrivileges() {
+		if (encounterTypeViewPrivilegeCache != null) {
+			return encounterTypeViewPrivilegeCache.get(this::queryEncounterTypeViewPrivileges);
+		}
+		return queryEncounterTypeViewPrivileges();
+	}
+	
+	private Map<Integer, String> queryEncounterTypeViewPrivileges() {
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select et.encounterTypeId, vp.privilege from EncounterType et left join et.viewPrivilege vp", Object[].class)
+		        .getResultList();
+		
+		Map<Integer, String> viewPrivileges = new HashMap<>();
+		for (Object[] row : rows) {
+			viewPrivileges.put((Integer) row[0], (String) row[1]);
+		}
+		return viewPrivileges;
+	}
+	
+	/**
+	 * Restricts the encounters to the given types
+	 * 
+	 * @param encounterTypeIds the ids of the encounter types, null to not restrict the types
+	 */
+	private void addEncounterTypePredicate(Root<Encounter> encounterRoot, Collection<Integer> encounterTypeIds,
+	        List<Predicate> predicates) {
+		if (encounterTypeIds != null) {
+			predicates.add(encounterRoot.get("encounterType").get("encounterTypeId").in(encounterTypeIds));
+		}
+	}
+	
 	/**
 	 * Utility method that returns a criteria for searching for patient encounters that match the
 	 * specified search phrase
@@ -634,14 +738,24 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	@Override
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 														   Integer start, Integer length) {
+		return getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatient(Patient, boolean, String, Integer,
+	 *      Integer, Collection)
+	 */
+	@Override
+	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
+	        Integer start, Integer length, Collection<Integer> encounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 
 		// Query for Encounters
 		CriteriaQuery<Encounter> encounterQuery = cb.createQuery(Encounter.class);
 		Root<Encounter> encounterRoot = encounterQuery.from(Encounter.class);
-		encounterQuery.where(createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided, query)
-			.toArray(new Predicate[]{}));
+		encounterQuery.where(createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided, query,
+			encounterTypeIds).toArray(new Predicate[]{}));
 		encounterQuery.orderBy(
 			cb.desc(encounterRoot.get("visit").get("startDatetime")),
 			cb.desc(encounterRoot.get("visit").get("visitId")),
@@ -695,6 +809,16 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	 */
 	@Override
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query) {
+		return getEncountersByVisitsAndPatientCount(patient, includeVoided, query, null);
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.EncounterDAO#getEncountersByVisitsAndPatientCount(Patient, boolean, String,
+	 *      Collection)
+	 */
+	@Override
+	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query,
+	        Collection<Integer> encounterTypeIds) {
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
 		CriteriaQuery<Long> visitQuery = cb.createQuery(Long.class);
@@ -711,7 +835,8 @@ public class HibernateEncounterDAO implements EncounterDAO {
 		Root<Encounter> encounterRoot = encounterQuery.from(Encounter.class);
 		encounterQuery.select(cb.count(encounterRoot));
 
-		List<Predicate> encounterPredicates = createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided, query);
+		List<Predicate> encounterPredicates = createEncountersByPatientPredicates(cb, encounterRoot, patient, includeVoided,
+			query, encounterTypeIds);
 		encounterQuery.where(encounterPredicates.toArray(new Predicate[]{}));
 
 		Long encounterCount = session.createQuery(encounterQuery).getSingleResult();
@@ -746,10 +871,15 @@ public class HibernateEncounterDAO implements EncounterDAO {
 	}
 
 	private List<Predicate> createEncountersByPatientPredicates(CriteriaBuilder cb, Root<Encounter> root,
-			Patient patient, boolean includeVoided, String query) {
+			Patient patient, boolean includeVoided, String query, Collection<Integer> encounterTypeIds) {
 		List<Predicate> predicates = new ArrayList<>();
 
 		predicates.add(cb.equal(root.get("patient"), patient));
+		if (encounterTypeIds != null && encounterTypeIds.isEmpty()) {
+			predicates.add(cb.disjunction());
+		} else {
+			addEncounterTypePredicate(root, encounterTypeIds, predicates);
+		}
 
 		Join<Encounter, Visit> visitJoin = root.join("visit", JoinType.LEFT);
 
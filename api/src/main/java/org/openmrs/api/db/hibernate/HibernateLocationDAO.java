@@ -21,22 +21,33 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
 import org.openmrs.Location;
 import org.openmrs.LocationAttribute;
 import org.openmrs.LocationAttributeType;
 import org.openmrs.LocationTag;
+import org.openmrs.api.APIException;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.LocationDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Hibernate location-related database functions
  */
 public class HibernateLocationDAO implements LocationDAO {
 	
+	private static final Logger log = LoggerFactory.getLogger(HibernateLocationDAO.class);
+	
+	private static final int HIERARCHY_BATCH_SIZE = 1000;
+	
 	private SessionFactory sessionFactory;
 	
 	/**
@@ -421,6 +432,229 @@ public class HibernateLocationDAO implements LocationDAO {
 		return session.createQuery(mainQuery).getResultList();
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getLocationIdsHavingAnyTag(java.util.List)
+	 */
+	@Override
+	public List<Integer> getLocationIdsHavingAnyTag(List<Integer> locationTagIds) {
+		if (locationTagIds.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		CriteriaQuery<Integer> cq = cb.createQuery(Integer.class);
+		Root<Location> locationRoot = cq.from(Location.class);
+		
+		// a location having several of the tags is only selected once by the subquery
+		Subquery<Integer> taggedSubquery = cq.subquery(Integer.class);
+		Root<Location> subRoot = taggedSubquery.from(Location.class);
+		Join<Location, LocationTag> tagsJoin = subRoot.join("tags");
+		taggedSubquery.select(subRoot.get("locationId")).where(tagsJoin.get("locationTagId").in(locationTagIds));
+		
+		cq.select(locationRoot.get("locationId"))
+			.where(cb.and(
+				cb.isFalse(locationRoot.get("retired")),
+				locationRoot.get("locationId").in(taggedSubquery)
+			))
+			.orderBy(cb.asc(locationRoot.get("name")));
+		
+		return session.createQuery(cq).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getDescendantLocationIds(java.lang.Integer, boolean)
+	 */
+	@Override
+	public List<Integer> getDescendantLocationIds(Integer locationId, boolean includeRetired) {
+		StringBuilder hql = new StringBuilder("select h.descendantId from LocationHierarchyEntry h, Location l"
+		        + " where l.locationId = h.descendantId and h.ancestorId = :locationId and h.depth > 0");
+		if (!includeRetired) {
+			// leave out the descendants of retired locations the same way as Location#getDescendantLocations
+			hql.append(" and not exists (select p.descendantId from LocationHierarchyEntry p, LocationHierarchyEntry q,"
+			        + " Location r where q.ancestorId = :locationId and q.depth > 0 and p.ancestorId = q.descendantId"
+			        + " and p.descendantId = h.descendantId and r.locationId = p.ancestorId and r.retired = true)");
+		}
+		hql.append(" order by h.depth, l.name");
+		
+		return sessionFactory.getCurrentSession().createQuery(hql.toString(), Integer.class)
+		        .setParameter("locationId", locationId).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#getAncestorLocationIds(java.lang.Integer)
+	 */
+	@Override
+	public List<Integer> getAncestorLocationIds(Integer locationId) {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select h.ancestorId from LocationHierarchyEntry h where h.descendantId = :locationId and h.depth > 0"
+		            + " order by h.depth", Integer.class).setParameter("locationId", locationId).getResultList();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#updateLocationHierarchy(org.openmrs.Location)
+	 */
+	@Override
+	public void updateLocationHierarchy(Location location) {
+		Integer locationId = location.getLocationId();
+		if (locationId == null) {
+			return;
+		}
+		
+		// the row of the location itself comes before the row of its parent
+		List<Integer> storedAncestorIds = sessionFactory.getCurrentSession().createQuery(
+		    "select h.ancestorId from LocationHierarchyEntry h where h.descendantId = :locationId and h.depth <= 1"
+		            + " order by h.depth", Integer.class).setParameter("locationId", locationId).getResultList();
+		boolean inHierarchy = !storedAncestorIds.isEmpty();
+		Integer storedParentId = storedAncestorIds.size() > 1 ? storedAncestorIds.get(1) : null;
+		
+		Location parent = location.getParentLocation();
+		Integer parentId = parent == null ? null : parent.getLocationId();
+		
+		if (!inHierarchy) {
+			createHierarchyQuery(
+			    "insert into location_hierarchy (ancestor_id, descendant_id, depth) values (:locationId, :locationId, 0)")
+			        .setParameter("locationId", locationId).executeUpdate();
+		}
+		if (!inHierarchy || !Objects.equals(storedParentId, parentId)) {
+			if (parentId != null && !isInLocationHierarchy(parentId)) {
+				updateLocationHierarchy(parent);
+			}
+			moveSubtree(location, parent);
+		}
+		
+		// children that were saved by cascading from this location
+		Set<Location> childLocations = location.getChildLocations();
+		if (childLocations != null && Hibernate.isInitialized(childLocations) && !childLocations.isEmpty()) {
+			List<Integer> linkedChildIds = sessionFactory.getCurrentSession().createQuery(
+			    "select h.descendantId from LocationHierarchyEntry h where h.ancestorId = :locationId and h.depth = 1",
+			    Integer.class).setParameter("locationId", locationId).getResultList();
+			for (Location child : childLocations) {
+				if (child.getLocationId() != null && !linkedChildIds.contains(child.getLocationId())
+				        && location.equals(child.getParentLocation())) {
+					updateLocationHierarchy(child);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#deleteLocationHierarchy(org.openmrs.Location)
+	 */
+	@Override
+	public void deleteLocationHierarchy(Location location) {
+		if (location.getLocationId() == null) {
+			return;
+		}
+		
+		// the descendants are purged along with the location
+		List<Integer> subtreeIds = getSubtreeIds(location.getLocationId());
+		for (int i = 0; i < subtreeIds.size(); i += HIERARCHY_BATCH_SIZE) {
+			List<Integer> chunk = subtreeIds.subList(i, Math.min(i + HIERARCHY_BATCH_SIZE, subtreeIds.size()));
+			createHierarchyQuery("delete from location_hierarchy where descendant_id in (:subtreeIds)")
+			        .setParameterList("subtreeIds", chunk).executeUpdate();
+		}
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#rebuildLocationHierarchy()
+	 */
+	@Override
+	public int rebuildLocationHierarchy() {
+		Session session = sessionFactory.getCurrentSession();
+		session.flush();
+		
+		createHierarchyQuery("delete from location_hierarchy").executeUpdate();
+		int rows = createHierarchyQuery(
+		    "insert into location_hierarchy (ancestor_id, descendant_id, depth) select location_id, location_id, 0"
+		            + " from location").executeUpdate();
+		
+		// link the children of the locations found at each depth, pairs which are already linked are
+		// skipped so that a loop in the parent links ends once its locations are linked to each other
+		int depth = 0;
+		int inserted = rows;
+		while (inserted > 0) {
+			inserted = createHierarchyQuery("insert into location_hierarchy (ancestor_id, descendant_id, depth)"
+			        + " select h.ancestor_id, l.location_id, h.depth + 1 from location_hierarchy h"
+			        + " join location l on l.parent_location = h.descendant_id where h.depth = :depth"
+			        + " and not exists (select 1 from location_hierarchy x"
+			        + " where x.ancestor_id = h.ancestor_id and x.descendant_id = l.location_id)")
+			        .setParameter("depth", depth).executeUpdate();
+			rows += inserted;
+			depth++;
+		}
+		
+		List<?> loopIds = createHierarchyQuery("select l.location_id from location l join location_hierarchy h"
+		        + " on h.ancestor_id = l.location_id and h.descendant_id = l.parent_location").getResultList();
+		if (!loopIds.isEmpty()) {
+			log.warn("The parent locations of the locations with ids {} form a loop, fix them and rebuild the"
+			        + " location hierarchy", loopIds);
+		}
+		
+		return rows;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.LocationDAO#isLocationHierarchyIncomplete()
+	 */
+	@Override
+	public boolean isLocationHierarchyIncomplete() {
+		Session session = sessionFactory.getCurrentSession();
+		Long locationCount = session.createQuery("select count(*) from Location", Long.class).getSingleResult();
+		Long linkedCount = session.createQuery("select count(*) from LocationHierarchyEntry h where h.depth = 0",
+		    Long.class).getSingleResult();
+		return !locationCount.equals(linkedCount);
+	}
+	
+	/**
+	 * Links the given location and its descendants to the ancestors of the given parent instead of
+	 * their current ancestors outside of the subtree
+	 */
+	private void moveSubtree(Location location, Location parent) {
+		Integer locationId = location.getLocationId();
+		List<Integer> subtreeIds = getSubtreeIds(locationId);
+		if (parent != null && subtreeIds.contains(parent.getLocationId())) {
+			throw new APIException("Location.hierarchy.loop", new Object[] { location, parent });
+		}
+		
+		List<Integer> oldAncestorIds = getAncestorLocationIds(locationId);
+		if (!oldAncestorIds.isEmpty()) {
+			for (int i = 0; i < subtreeIds.size(); i += HIERARCHY_BATCH_SIZE) {
+				List<Integer> chunk = subtreeIds.subList(i, Math.min(i + HIERARCHY_BATCH_SIZE, subtreeIds.size()));
+				createHierarchyQuery(
+				    "delete from location_hierarchy where descendant_id in (:subtreeIds) and ancestor_id in (:ancestorIds)")
+				        .setParameterList("subtreeIds", chunk).setParameterList("ancestorIds", oldAncestorIds)
+				        .executeUpdate();
+			}
+		}
+		
+		if (parent != null) {
+			createHierarchyQuery("insert into location_hierarchy (ancestor_id, descendant_id, depth)"
+			        + " select a.ancestor_id, d.descendant_id, a.depth + d.depth + 1"
+			        + " from location_hierarchy a, location_hierarchy d"
+			        + " where a.descendant_id = :parentId and d.ancestor_id = :locationId")
+			        .setParameter("parentId", parent.getLocationId()).setParameter("locationId", locationId)
+			        .executeUpdate();
+		}
+	}
+	
+	private List<Integer> getSubtreeIds(Integer locationId) {
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select h.descendantId from LocationHierarchyEntry h where h.ancestorId = :locationId", Integer.class)
+		        .setParameter("locationId", locationId).getResultList();
+	}
+	
+	private boolean isInLocationHierarchy(Integer locationId) {
+		return !sessionFactory.getCurrentSession().createQuery(
+		    "select h.depth from LocationHierarchyEntry h where h.ancestorId = :locationId and h.descendantId = :locationId",
+		    Integer.class).setParameter("locationId", locationId).getResultList().isEmpty();
+	}
+	
+	private NativeQuery<?> createHierarchyQuery(String sql) {
+		return sessionFactory.getCurrentSession().createNativeQuery(sql)
+		        .addSynchronizedEntityClass(LocationHierarchyEntry.class);
+	}
+	
 	/**
 	 * Extract locationTagIds from the list of LocationTag objects provided.
 	 *
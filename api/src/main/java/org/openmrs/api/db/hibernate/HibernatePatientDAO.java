@@ -11,28 +11,42 @@ package org.openmrs.api.db.hibernate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
+import org.hibernate.FlushMode;
 import org.hibernate.Query;
 import org.hibernate.SQLQuery;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.proxy.HibernateProxy;
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
 import org.openmrs.Location;
+import org.openmrs.Obs;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
@@ -41,11 +55,14 @@ import org.openmrs.PatientProgram;
 import org.openmrs.Person;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.User;
+import org.openmrs.Visit;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.DAOException;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.search.LuceneQuery;
 import org.openmrs.collection.ListPart;
+import org.openmrs.person.PersonMergeLogData;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -62,6 +79,11 @@ public class HibernatePatientDAO implements PatientDAO {
 	
 	private static final Logger log = LoggerFactory.getLogger(HibernatePatientDAO.class);
 	
+	/**
+	 * the number of patients saved between session flushes if no JDBC batch size is configured
+	 */
+	private static final int DEFAULT_SAVE_BATCH_SIZE = 50;
+	
 	/**
 	 * Hibernate session factory
 	 */
@@ -119,6 +141,56 @@ public class HibernatePatientDAO implements PatientDAO {
 		}
 	}
 	
+	/**
+	 * Saves the patients like {@link #savePatient(Patient)}, flushing the session every
+	 * <code>hibernate.jdbc.batch_size</code> patients and evicting the flushed patients so that the
+	 * session does not grow with the number of patients. The evictions cascade to their names,
+	 * addresses, attributes and identifiers while the other objects in the session stay attached.
+	 * <p>
+	 * The rows of new patients are not inserted in JDBC batches where their ids are generated by the
+	 * database, e.g. the identity columns used on MySQL, hibernate then inserts the person, patient
+	 * and child rows one at a time when each patient is saved. Only the updates of existing rows, and
+	 * the inserts on databases whose ids come from sequences, are grouped into batches at the flushes.
+	 * 
+	 * @see org.openmrs.api.db.PatientDAO#savePatients(List)
+	 */
+	@Override
+	public void savePatients(List<Patient> patients) throws DAOException {
+		Session session = sessionFactory.getCurrentSession();
+		int batchSize = sessionFactory.getSessionFactoryOptions().getJdbcBatchSize();
+		if (batchSize <= 0) {
+			batchSize = DEFAULT_SAVE_BATCH_SIZE;
+		}
+		
+		List<Patient> batch = new ArrayList<>(batchSize);
+		for (Patient patient : patients) {
+			savePatient(patient);
+			batch.add(patient);
+			if (batch.size() == batchSize) {
+				session.flush();
+				batch.forEach(session::evict);
+				batch.clear();
+			}
+		}
+		session.flush();
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#runWithoutFlushing(Supplier)
+	 */
+	@Override
+	public <T> T runWithoutFlushing(Supplier<T> work) {
+		Session session = sessionFactory.getCurrentSession();
+		FlushMode flushMode = session.getHibernateFlushMode();
+		session.setHibernateFlushMode(FlushMode.MANUAL);
+		try {
+			return work.get();
+		}
+		finally {
+			session.setHibernateFlushMode(flushMode);
+		}
+	}
+	
 	/**
 	 * Inserts a row into the patient table This avoids hibernate's bunging of our
 	 * person/patient/user inheritance
@@ -630,6 +702,89 @@ public class HibernatePatientDAO implements PatientDAO {
 		return !"0".equals(query.uniqueResult().toString());
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<PatientIdentifier> getPatientIdentifiersInUseByAnotherPatient(List<PatientIdentifier> patientIdentifiers) {
+		if (patientIdentifiers.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Set<String> identifiers = new HashSet<>();
+		Set<Integer> identifierTypeIds = new HashSet<>();
+		for (PatientIdentifier pi : patientIdentifiers) {
+			identifiers.add(pi.getIdentifier());
+			identifierTypeIds.add(pi.getIdentifierType().getPatientIdentifierTypeId());
+		}
+		
+		// fetch every use of the identifiers at once, the patient and location are compared below
+		List<Object[]> rows = sessionFactory.getCurrentSession().createQuery(
+		    "select pi.identifier, pi.identifierType.patientIdentifierTypeId, l.locationId, p.patientId "
+		            + "from PatientIdentifier pi join pi.patient p left join pi.location l "
+		            + "where p.voided = false and pi.voided = false and pi.identifier in (:identifiers) "
+		            + "and pi.identifierType.patientIdentifierTypeId in (:idTypes)")
+		        .setParameterList("identifiers", identifiers).setParameterList("idTypes", identifierTypeIds).list();
+		
+		// a use equal to an identifier matches it with any collation, whether a use which is only similar
+		// to an identifier, e.g. in case, accents or trailing spaces, matches it is left to the database
+		Set<PatientIdentifier> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+		Set<PatientIdentifier> toVerify = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (Object[] row : rows) {
+			String identifier = (String) row[0];
+			List<PatientIdentifier> sameUses = new ArrayList<>();
+			boolean attributed = false;
+			for (PatientIdentifier pi : patientIdentifiers) {
+				if (isSameUseByAnotherPatient(pi, row)) {
+					sameUses.add(pi);
+					if (pi.getIdentifier().equals(identifier)) {
+						inUse.add(pi);
+						attributed = true;
+					} else if (normalizeIdentifier(pi.getIdentifier()).equals(normalizeIdentifier(identifier))) {
+						toVerify.add(pi);
+						attributed = true;
+					}
+				}
+			}
+			if (!attributed) {
+				// the row matched one of the identifiers by a collation rule not covered above
+				toVerify.addAll(sameUses);
+			}
+		}
+		for (PatientIdentifier pi : toVerify) {
+			if (!inUse.contains(pi) && isIdentifierInUseByAnotherPatient(pi)) {
+				inUse.add(pi);
+			}
+		}
+		
+		List<PatientIdentifier> result = new ArrayList<>(inUse.size());
+		for (PatientIdentifier pi : patientIdentifiers) {
+			if (inUse.contains(pi)) {
+				result.add(pi);
+			}
+		}
+		return result;
+	}
+	
+	private static String normalizeIdentifier(String identifier) {
+		return StringUtils.stripAccents(StringUtils.stripEnd(identifier, " ")).toLowerCase();
+	}
+	
+	private boolean isSameUseByAnotherPatient(PatientIdentifier patientIdentifier, Object[] row) {
+		if (!patientIdentifier.getIdentifierType().getPatientIdentifierTypeId().equals(row[1])) {
+			return false;
+		}
+		Patient patient = patientIdentifier.getPatient();
+		if (patient != null && patient.getPatientId() != null && patient.getPatientId().equals(row[3])) {
+			return false;
+		}
+		Location location = patientIdentifier.getLocation();
+		return location == null
+		        || patientIdentifier.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.LOCATION
+		        || Objects.equals(location.getLocationId(), row[2]);
+	}
+	
 	/**
      * @param patientIdentifierId  the patientIdentifier id
      * @return                     the patientIdentifier matching the Id
@@ -1006,4 +1161,171 @@ public class HibernatePatientDAO implements PatientDAO {
         criteria.add(Restrictions.eq("patientProgram", patientProgram));
         return criteria.list();
     }
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#movePatientData(Patient, Patient, User, Date, PersonMergeLogData)
+	 */
+	@Override
+	public void movePatientData(Patient from, Patient to, User changedBy, Date dateChanged,
+	        PersonMergeLogData mergedData) {
+		Session session = sessionFactory.getCurrentSession();
+		// write pending changes before they are bypassed by the bulk updates
+		session.flush();
+		
+		for (String uuid : getUuids("select v.uuid from Visit v where v.patient = :from", from)) {
+			mergedData.addMovedVisit(uuid);
+		}
+		int visits = session.createQuery(
+		    "update Visit set patient = :to, changedBy = :changedBy, dateChanged = :dateChanged where patient = :from")
+		        .setParameter("to", to).setParameter("changedBy", changedBy).setParameter("dateChanged", dateChanged)
+		        .setParameter("from", from).executeUpdate();
+		
+		for (String uuid : getUuids("select e.uuid from Encounter e where e.patient = :from", from)) {
+			mergedData.addMovedEncounter(uuid);
+		}
+		int encounters = session.createQuery(
+		    "update Encounter set patient = :to, changedBy = :changedBy, dateChanged = :dateChanged where patient = :from")
+		        .setParameter("to", to).setParameter("changedBy", changedBy).setParameter("dateChanged", dateChanged)
+		        .setParameter("from", from).executeUpdate();
+		
+		// orders are mapped with joined subclasses, a native update avoids the temporary id tables hibernate
+		// would use, the synchronized entity class still evicts their cache region
+		int orders = session.createNativeQuery("update orders set patient_id = :to where patient_id = :from")
+		        .addSynchronizedEntityClass(org.openmrs.Order.class).setParameter("to", to.getPatientId())
+		        .setParameter("from", from.getPatientId()).executeUpdate();
+		
+		int obs = moveObs(session, from, to, changedBy, dateChanged, mergedData);
+		
+		for (String uuid : getUuids("select pp.uuid from PatientProgram pp where pp.patient = :from", from)) {
+			mergedData.addMovedProgram(uuid);
+		}
+		int programs = session.createQuery(
+		    "update PatientProgram set patient = :to, changedBy = :changedBy, dateChanged = :dateChanged "
+		            + "where patient = :from").setParameter("to", to).setParameter("changedBy", changedBy)
+		        .setParameter("dateChanged", dateChanged).setParameter("from", from).executeUpdate();
+		
+		refreshMovedEntities(session, from);
+		log.debug("Moved {} visits, {} encounters, {} orders, {} obs and {} program enrollments from patient {} to {}",
+		    visits, encounters, orders, obs, programs, from.getPatientId(), to.getPatientId());
+	}
+	
+	/**
+	 * Moves the obs of a patient the way saving them with another person would, the obs which are not
+	 * voided are copied to the other patient with the original as their previous version and are
+	 * then voided, the obs which were already voided are moved in place
+	 * 
+	 * @return the number of obs moved or copied
+	 */
+	private int moveObs(Session session, Patient from, Patient to, User changedBy, Date dateChanged,
+	        PersonMergeLogData mergedData) {
+		for (String uuid : getUuids("select o.uuid from Obs o where o.person = :from and o.encounter is null "
+		        + "and o.voided = true", from)) {
+			mergedData.addMovedIndependentObservation(uuid);
+		}
+		int voidedObs = session.createQuery("update Obs set person = :to where person = :from and voided = true")
+		        .setParameter("to", to).setParameter("from", from).executeUpdate();
+		
+		// uuid() is the function of MySQL, core defines it on PostgreSQL and H2 has it built in
+		int copiedObs = session.createNativeQuery("insert into obs (person_id, concept_id, encounter_id, order_id, "
+		        + "obs_datetime, location_id, obs_group_id, accession_number, value_group_id, value_coded, "
+		        + "value_coded_name_id, value_drug, value_datetime, value_numeric, value_modifier, value_text, "
+		        + "value_complex, comments, form_namespace_and_path, status, interpretation, previous_version, creator, "
+		        + "date_created, voided, uuid) "
+		        + "select :to, concept_id, encounter_id, order_id, obs_datetime, location_id, obs_group_id, "
+		        + "accession_number, value_group_id, value_coded, value_coded_name_id, value_drug, value_datetime, "
+		        + "value_numeric, value_modifier, value_text, value_complex, comments, form_namespace_and_path, "
+		        + "case when status = 'FINAL' then 'AMENDED' else status end, interpretation, obs_id, :changedBy, "
+		        + ":dateChanged, :voided, uuid() from obs where person_id = :from and voided = :voided")
+		        .addSynchronizedEntityClass(Obs.class).setParameter("to", to.getPatientId())
+		        .setParameter("changedBy", changedBy.getUserId()).setParameter("dateChanged", dateChanged)
+		        .setParameter("voided", false).setParameter("from", from.getPatientId()).executeUpdate();
+		
+		// the copied members still point to the original groups, each group gets its copy, the members
+		// which were already voided keep pointing to the original
+		List<Object[]> groupCopies = session.createQuery("select o.previousVersion.obsId, o.obsId from Obs o "
+		        + "where o.person = :to and o.voided = false and o.previousVersion.person = :from "
+		        + "and exists (select m from Obs m where m.obsGroup = o.previousVersion)", Object[].class)
+		        .setParameter("to", to).setParameter("from", from).list();
+		for (Object[] groupCopy : groupCopies) {
+			session.createNativeQuery("update obs set obs_group_id = :copy where obs_group_id = :group "
+			        + "and person_id = :to and voided = :voided").addSynchronizedEntityClass(Obs.class)
+			        .setParameter("copy", groupCopy[1]).setParameter("group", groupCopy[0])
+			        .setParameter("to", to.getPatientId()).setParameter("voided", false).executeUpdate();
+		}
+		
+		for (String uuid : getUuids("select o.uuid from Obs o where o.person = :to and o.encounter is null "
+		        + "and o.voided = false and o.previousVersion.person = :from", from, to)) {
+			mergedData.addMovedIndependentObservation(uuid);
+		}
+		session.createQuery("update Obs set voided = true, voidedBy = :changedBy, dateVoided = :dateChanged, "
+		        + "voidReason = :reason where person = :from and voided = false").setParameter("changedBy", changedBy)
+		        .setParameter("dateChanged", dateChanged)
+		        .setParameter("reason", "Merged from patient #" + from.getPatientId()).setParameter("from", from)
+		        .executeUpdate();
+		return voidedObs + copiedObs;
+	}
+	
+	/**
+	 * @see org.openmrs.api.db.PatientDAO#getEncounterTypesOfPatient(Patient, Collection)
+	 */
+	@Override
+	public List<EncounterType> getEncounterTypesOfPatient(Patient patient, Collection<EncounterType> encounterTypes) {
+		if (encounterTypes.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return sessionFactory.getCurrentSession().createQuery(
+		    "select distinct e.encounterType from Encounter e where e.patient = :patient and e.encounterType in (:types)",
+		    EncounterType.class).setParameter("patient", patient).setParameterList("types", encounterTypes).list();
+	}
+	
+	private List<String> getUuids(String hql, Patient from) {
+		return sessionFactory.getCurrentSession().createQuery(hql, String.class).setParameter("from", from).list();
+	}
+	
+	private List<String> getUuids(String hql, Patient from, Patient to) {
+		return sessionFactory.getCurrentSession().createQuery(hql, String.class).setParameter("from", from)
+		        .setParameter("to", to).list();
+	}
+	
+	/**
+	 * Reloads the moved entities which are already in the session, they still reference the patient
+	 * they were moved from
+	 */
+	private void refreshMovedEntities(Session session, Patient from) {
+		PersistenceContext persistenceContext = session.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+		List<Object> moved = new ArrayList<>();
+		for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+			Object entity = entry.getKey();
+			Person person = null;
+			if (entity instanceof Visit) {
+				person = ((Visit) entity).getPatient();
+			} else if (entity instanceof Encounter) {
+				person = ((Encounter) entity).getPatient();
+			} else if (entity instanceof Obs) {
+				person = ((Obs) entity).getPerson();
+			} else if (entity instanceof org.openmrs.Order) {
+				person = ((org.openmrs.Order) entity).getPatient();
+			} else if (entity instanceof PatientProgram) {
+				person = ((PatientProgram) entity).getPatient();
+			}
+			if (person != null && from.getPersonId().equals(getPersonId(person))) {
+				moved.add(entity);
+			}
+		}
+		for (Object entity : moved) {
+			if (session.contains(entity)) {
+				session.refresh(entity);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the id of a person without initializing it if it is a proxy
+	 */
+	private static Object getPersonId(Person person) {
+		if (person instanceof HibernateProxy) {
+			return ((HibernateProxy) person).getHibernateLazyInitializer().getIdentifier();
+		}
+		return person.getPersonId();
+	}
 }
@@ -44,6 +44,8 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	
 	private List<Class<? extends OpenmrsObject>> supportedTypes;
 	
+	private SerializedObjectCache serializedObjectCache;
+	
 	/**
 	 * Private Constructor to support a singleton instance
 	 */
@@ -269,6 +271,7 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		}
 		
 		sessionFactory.getCurrentSession().saveOrUpdate(serializedObject);
+		evictFromCache(serializedObject);
 		
 		object.setId(serializedObject.getId());
 		return object;
@@ -281,6 +284,7 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 	public void purgeObject(Integer id) throws DAOException {
 		SerializedObject o = getSerializedObject(id);
 		sessionFactory.getCurrentSession().delete(o);
+		evictFromCache(o);
 	}
 	
 	/**
@@ -324,6 +328,21 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		if (serializedObject == null) {
 			return null;
 		}
+		T obj = serializedObjectCache == null ? null : (T) serializedObjectCache.get(serializedObject);
+		if (obj == null) {
+			obj = deserialize(serializedObject);
+			if (serializedObjectCache != null) {
+				serializedObjectCache.put(serializedObject, obj);
+			}
+		}
+		obj.setId(serializedObject.getId());
+		obj.setUuid(serializedObject.getUuid());
+		return obj;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T extends OpenmrsObject> T deserialize(SerializedObject serializedObject) throws DAOException {
+		long start = System.nanoTime();
 		OpenmrsSerializer serializer = getSerializer(serializedObject);
 		T obj;
 		try {
@@ -338,11 +357,18 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 			// it's probably impossible to reach this code branch
 			throw new DAOException("Unable to deserialize object: " + serializedObject);
 		}
-		obj.setId(serializedObject.getId());
-		obj.setUuid(serializedObject.getUuid());
+		if (serializedObjectCache != null) {
+			serializedObjectCache.recordDeserialization(System.nanoTime() - start);
+		}
 		return obj;
 	}
 	
+	private void evictFromCache(SerializedObject serializedObject) {
+		if (serializedObjectCache != null && serializedObject != null) {
+			serializedObjectCache.evict(serializedObject.getUuid());
+		}
+	}
+	
 	/**
 	 * Private method for retrieving the Serializer that should be used for the passed
 	 * SerializedObject, defaulting to the default system serializer if none is explicitly set on
@@ -366,6 +392,14 @@ public class HibernateSerializedObjectDAO implements SerializedObjectDAO {
 		this.sessionFactory = sessionFactory;
 	}
 	
+	/**
+	 * @param serializedObjectCache the cache of deserialized objects
+	 * @since 2.7.0
+	 */
+	public void setSerializedObjectCache(SerializedObjectCache serializedObjectCache) {
+		this.serializedObjectCache = serializedObjectCache;
+	}
+	
 	/**
 	 * @return the supportedTypes
 	 */
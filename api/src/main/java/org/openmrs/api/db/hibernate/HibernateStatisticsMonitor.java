@@ -0,0 +1,245 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.openmrs.GlobalProperty;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.db.DatabaseStatistics;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns the hibernate statistics into {@link DatabaseStatistics} snapshots, switches their
+ * collection on and off and periodically writes a snapshot to the log. Both are controlled by the
+ * {@link OpenmrsConstants#GP_DATABASE_STATISTICS_ENABLED} and
+ * {@link OpenmrsConstants#GP_DATABASE_STATISTICS_EXPORT_INTERVAL} global properties and take effect
+ * as soon as they are saved.
+ *
+ * @since 2.7.0
+ */
+@Component("hibernateStatisticsMonitor")
+public class HibernateStatisticsMonitor implements GlobalPropertyListener {
+
+	private static final Logger log = LoggerFactory.getLogger(HibernateStatisticsMonitor.class);
+
+	/**
+	 * The number of queries with the highest total execution time written to the log
+	 */
+	private static final int LOGGED_QUERIES = 20;
+
+	private final SessionFactory sessionFactory;
+
+	private Timer exportTimer;
+
+	private int exportInterval;
+
+	@Autowired
+	public HibernateStatisticsMonitor(SessionFactory sessionFactory) {
+		this.sessionFactory = sessionFactory;
+	}
+
+	/**
+	 * @return true if statistics are being collected
+	 */
+	public boolean isEnabled() {
+		return sessionFactory.getStatistics().isStatisticsEnabled();
+	}
+
+	/**
+	 * Starts or stops collecting statistics, the statistics collected so far are kept
+	 *
+	 * @param enabled true to collect statistics
+	 */
+	public void setEnabled(boolean enabled) {
+		if (enabled != isEnabled()) {
+			log.info("{} collecting database statistics", enabled ? "Started" : "Stopped");
+			sessionFactory.getStatistics().setStatisticsEnabled(enabled);
+		}
+	}
+
+	/**
+	 * Schedules writing a snapshot of the statistics to the log
+	 *
+	 * @param minutes the interval in minutes, 0 to stop writing snapshots
+	 */
+	public synchronized void setExportInterval(int minutes) {
+		if (minutes == exportInterval) {
+			return;
+		}
+
+		stopExport();
+		exportInterval = Math.max(minutes, 0);
+		if (exportInterval > 0) {
+			long period = TimeUnit.MINUTES.toMillis(exportInterval);
+			exportTimer = new Timer("OpenMRS database statistics export", true);
+			exportTimer.schedule(new TimerTask() {
+
+				@Override
+				public void run() {
+					logStatistics();
+				}
+			}, period, period);
+		}
+	}
+
+	/**
+	 * Applies the values of the global properties, called on startup
+	 *
+	 * @param enabled the value of {@link OpenmrsConstants#GP_DATABASE_STATISTICS_ENABLED}
+	 * @param exportInterval the value of {@link OpenmrsConstants#GP_DATABASE_STATISTICS_EXPORT_INTERVAL}
+	 */
+	public void configure(String enabled, String exportInterval) {
+		setEnabled(!"false".equalsIgnoreCase(StringUtils.trim(enabled)));
+		setExportInterval(NumberUtils.toInt(StringUtils.trim(exportInterval), 0));
+	}
+
+	/**
+	 * Stops writing snapshots to the log, called on shutdown
+	 */
+	public synchronized void stopExport() {
+		if (exportTimer != null) {
+			exportTimer.cancel();
+			exportTimer = null;
+		}
+		exportInterval = 0;
+	}
+
+	/**
+	 * Discards the statistics collected so far
+	 */
+	public void reset() {
+		sessionFactory.getStatistics().clear();
+	}
+
+	/**
+	 * @return a snapshot of the statistics collected since startup or the last reset
+	 * <strong>Should</strong> include the latency percentiles of executed queries
+	 * <strong>Should</strong> include the load count of loaded entities
+	 */
+	public DatabaseStatistics getStatistics() {
+		Statistics statistics = sessionFactory.getStatistics();
+
+		List<DatabaseStatistics.QueryStatistics> queries = new ArrayList<>();
+		for (String query : statistics.getQueries()) {
+			QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+			if (queryStatistics.getExecutionCount() == 0) {
+				continue;
+			}
+			LatencyHistogram latencies = statistics instanceof OpenmrsStatistics
+			        ? ((OpenmrsStatistics) statistics).getQueryLatencies(query) : null;
+			queries.add(new DatabaseStatistics.QueryStatistics(query, queryStatistics.getExecutionCount(),
+			        queryStatistics.getExecutionRowCount(), queryStatistics.getExecutionAvgTime(),
+			        queryStatistics.getExecutionMaxTime(), getPercentile(latencies, 50), getPercentile(latencies, 95),
+			        getPercentile(latencies, 99)));
+		}
+		queries.sort(Comparator.comparingLong(DatabaseStatistics.QueryStatistics::getTotalMillis).reversed());
+
+		List<DatabaseStatistics.EntityStatistics> entities = new ArrayList<>();
+		for (String entityName : statistics.getEntityNames()) {
+			EntityStatistics entityStatistics = statistics.getEntityStatistics(entityName);
+			if (entityStatistics.getLoadCount() > 0 || entityStatistics.getFetchCount() > 0) {
+				entities.add(new DatabaseStatistics.EntityStatistics(entityName, entityStatistics.getLoadCount(),
+				        entityStatistics.getFetchCount()));
+			}
+		}
+
+		List<DatabaseStatistics.CacheRegionStatistics> cacheRegions = new ArrayList<>();
+		for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(regionName);
+			if (regionStatistics != null) {
+				cacheRegions.add(new DatabaseStatistics.CacheRegionStatistics(regionName, regionStatistics.getHitCount(),
+				        regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+			}
+		}
+
+		return new DatabaseStatistics(new Date(), new Date(statistics.getStartTime()), statistics.isStatisticsEnabled(),
+		        statistics.getEntityLoadCount(), statistics.getEntityFetchCount(), statistics.getQueryExecutionCount(),
+		        queries, entities, cacheRegions);
+	}
+
+	/**
+	 * Writes a snapshot of the statistics to the log
+	 */
+	public void logStatistics() {
+		if (!isEnabled() || !log.isInfoEnabled()) {
+			return;
+		}
+
+		try {
+			DatabaseStatistics statistics = getStatistics();
+			log.info("{}", statistics);
+			for (DatabaseStatistics.CacheRegionStatistics cacheRegion : statistics.getCacheRegions()) {
+				log.info("Cache region {}", cacheRegion);
+			}
+			List<DatabaseStatistics.QueryStatistics> queries = statistics.getQueries();
+			for (DatabaseStatistics.QueryStatistics query : queries.subList(0, Math.min(LOGGED_QUERIES, queries.size()))) {
+				log.info("Query {}", query);
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("Unable to log the database statistics", e);
+		}
+	}
+
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED.equals(propertyName)
+		        || OpenmrsConstants.GP_DATABASE_STATISTICS_EXPORT_INTERVAL.equals(propertyName);
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		if (OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED.equals(newValue.getProperty())) {
+			setEnabled(!"false".equalsIgnoreCase(StringUtils.trim(newValue.getPropertyValue())));
+		} else {
+			setExportInterval(NumberUtils.toInt(StringUtils.trim(newValue.getPropertyValue()), 0));
+		}
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		if (OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED.equals(propertyName)) {
+			setEnabled(true);
+		} else {
+			setExportInterval(0);
+		}
+	}
+
+	private long getPercentile(LatencyHistogram latencies, double percentile) {
+		return latencies == null ? -1 : latencies.getPercentile(percentile);
+	}
+}
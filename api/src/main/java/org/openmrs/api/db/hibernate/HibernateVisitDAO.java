@@ -241,6 +241,34 @@ public class HibernateVisitDAO implements VisitDAO {
 		return visits;
 	}
 	
+	/**
+	 * @see org.openmrs.api.db.VisitDAO#getVisitsByPatientAtDate(Patient, Date, Collection)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Visit> getVisitsByPatientAtDate(Patient patient, Date date, Collection<Location> locations) {
+		Session session = sessionFactory.getCurrentSession();
+		CriteriaBuilder cb = session.getCriteriaBuilder();
+		CriteriaQuery<Visit> cq = cb.createQuery(Visit.class);
+		Root<Visit> root = cq.from(Visit.class);
+		
+		List<Predicate> predicates = new ArrayList<>();
+		predicates.add(cb.equal(root.get("patient"), patient));
+		predicates.add(cb.isFalse(root.get("voided")));
+		predicates.add(cb.lessThanOrEqualTo(root.get("startDatetime"), date));
+		predicates.add(cb.or(cb.isNull(root.get("stopDatetime")), cb.greaterThanOrEqualTo(root.get("stopDatetime"), date)));
+		if (locations.isEmpty()) {
+			predicates.add(cb.isNull(root.get("location")));
+		} else {
+			predicates.add(cb.or(cb.isNull(root.get("location")), root.get("location").in(locations)));
+		}
+		
+		cq.where(predicates.toArray(new Predicate[] {})).orderBy(cb.desc(root.get("startDatetime")),
+		    cb.desc(root.get("visitId")));
+		
+		return session.createQuery(cq).getResultList();
+	}
+	
 	/**
 	 * @see org.openmrs.api.db.VisitDAO#getAllVisitAttributeTypes()
 	 */
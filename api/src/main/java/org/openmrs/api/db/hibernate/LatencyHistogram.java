@@ -0,0 +1,79 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in buckets with fixed upper bounds so that recording is a lock free increment.
+ * Percentiles are reported as the upper bound of the bucket they fall into, latencies above the
+ * largest bound are reported as that bound.
+ *
+ * @since 2.7.0
+ */
+class LatencyHistogram {
+
+	/**
+	 * The inclusive upper bounds of the buckets in milliseconds
+	 */
+	static final long[] BUCKET_BOUNDS = { 0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000,
+	        60000 };
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.length);
+
+	/**
+	 * @param millis the latency to record
+	 */
+	void record(long millis) {
+		int index = Arrays.binarySearch(BUCKET_BOUNDS, millis);
+		if (index < 0) {
+			index = Math.min(-index - 1, BUCKET_BOUNDS.length - 1);
+		}
+		counts.incrementAndGet(index);
+	}
+
+	/**
+	 * @return the number of recorded latencies
+	 */
+	long getCount() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * @param percentile the percentile between 0 and 100
+	 * @return the upper bound of the bucket containing the percentile or -1 if nothing was recorded
+	 */
+	long getPercentile(double percentile) {
+		long[] snapshot = new long[counts.length()];
+		long count = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return -1;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return BUCKET_BOUNDS[i];
+			}
+		}
+		return BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1];
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * One row of the closure of the location hierarchy, it links a location to each of its ancestors
+ * and to itself. The depth is the number of parent links between them, 0 for the row linking a
+ * location to itself. The rows are maintained by the {@link org.openmrs.api.LocationService} when
+ * locations are saved or purged, and only queried by the {@link HibernateLocationDAO}.
+ *
+ * @since 2.7.0
+ */
+@Entity
+@Table(name = "location_hierarchy")
+class LocationHierarchyEntry implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	@Column(name = "ancestor_id", nullable = false)
+	private Integer ancestorId;
+
+	@Id
+	@Column(name = "descendant_id", nullable = false)
+	private Integer descendantId;
+
+	@Column(name = "depth", nullable = false)
+	private Integer depth;
+
+	public LocationHierarchyEntry() {
+	}
+
+	public LocationHierarchyEntry(Integer ancestorId, Integer descendantId, Integer depth) {
+		this.ancestorId = ancestorId;
+		this.descendantId = descendantId;
+		this.depth = depth;
+	}
+
+	public Integer getAncestorId() {
+		return ancestorId;
+	}
+
+	public void setAncestorId(Integer ancestorId) {
+		this.ancestorId = ancestorId;
+	}
+
+	public Integer getDescendantId() {
+		return descendantId;
+	}
+
+	public void setDescendantId(Integer descendantId) {
+		this.descendantId = descendantId;
+	}
+
+	public Integer getDepth() {
+		return depth;
+	}
+
+	public void setDepth(Integer depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LocationHierarchyEntry)) {
+			return false;
+		}
+		LocationHierarchyEntry other = (LocationHierarchyEntry) obj;
+		return Objects.equals(ancestorId, other.ancestorId) && Objects.equals(descendantId, other.descendantId);
+	}
+
+	/**
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(ancestorId, descendantId);
+	}
+}
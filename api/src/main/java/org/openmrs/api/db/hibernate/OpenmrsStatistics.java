@@ -0,0 +1,81 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+/**
+ * Extends the hibernate statistics with a latency histogram per query, hibernate itself only keeps
+ * the average, minimum and maximum. Like the other statistics, latencies are only recorded while
+ * statistics are enabled. The number of queries with a histogram is bounded by
+ * hibernate.statistics.query_max_size, the same limit hibernate applies to its query statistics.
+ * <p>
+ * Installed with the hibernate.stats.factory property in hibernate.default.properties.
+ *
+ * @since 2.7.0
+ */
+public class OpenmrsStatistics extends StatisticsImpl {
+
+	private final Map<String, LatencyHistogram> queryLatencies = new ConcurrentHashMap<>();
+
+	private final int maxQueries;
+
+	public OpenmrsStatistics(SessionFactoryImplementor sessionFactory) {
+		super(sessionFactory);
+		this.maxQueries = sessionFactory.getSessionFactoryOptions().getQueryStatisticsMaxSize();
+	}
+
+	@Override
+	public void queryExecuted(String hql, int rows, long time) {
+		super.queryExecuted(hql, rows, time);
+		if (hql != null) {
+			LatencyHistogram histogram = queryLatencies.get(hql);
+			if (histogram == null) {
+				if (queryLatencies.size() >= maxQueries) {
+					return;
+				}
+				histogram = queryLatencies.computeIfAbsent(hql, q -> new LatencyHistogram());
+			}
+			histogram.record(time);
+		}
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		queryLatencies.clear();
+	}
+
+	/**
+	 * @param hql the query
+	 * @return the latency histogram of the query or null if it was not executed while statistics
+	 *         were enabled
+	 */
+	LatencyHistogram getQueryLatencies(String hql) {
+		return queryLatencies.get(hql);
+	}
+
+	/**
+	 * Creates the {@link OpenmrsStatistics} of a session factory
+	 */
+	public static class Factory implements StatisticsFactory {
+
+		@Override
+		public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+			return new OpenmrsStatistics(sessionFactory);
+		}
+	}
+}
@@ -0,0 +1,326 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.openmrs.GlobalProperty;
+import org.openmrs.OpenmrsObject;
+import org.openmrs.api.GlobalPropertyListener;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SerializedObject;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded cache of the objects deserialized by {@link HibernateSerializedObjectDAO}, it saves
+ * parsing the same serialized data again when e.g. a report definition is read several times per
+ * page. The entries are keyed by the uuid of the serialized object and only used as long as its
+ * date changed, subtype and serialized data are unchanged, so changes made by other means than
+ * the DAO are noticed. The entries are removed when an object is saved or purged through the DAO.
+ * <p>
+ * Each caller gets its own copy of the cached object, made with java serialization, so changes to
+ * it are not seen by other callers. This means objects which are not {@link Serializable} are not
+ * cached, and persistent objects referenced by a copy are detached copies too rather than objects
+ * of the current session. The cache is therefore only used if the
+ * {@link OpenmrsConstants#GP_SERIALIZED_OBJECT_CACHE_ENABLED} global property is true. The number
+ * of entries is limited by the configuration of the {@value #CACHE_NAME} cache in
+ * ehcache-api.xml.
+ *
+ * @since 2.7.0
+ */
+@Component("serializedObjectCache")
+public class SerializedObjectCache implements GlobalPropertyListener {
+
+	private static final Logger log = LoggerFactory.getLogger(SerializedObjectCache.class);
+
+	public static final String CACHE_NAME = "serializedObjects";
+
+	private final Cache cache;
+
+	private volatile Boolean enabled;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder uncacheable = new LongAdder();
+
+	private final LongAdder copyNanos = new LongAdder();
+
+	private final LongAdder deserializations = new LongAdder();
+
+	private final LongAdder deserializationNanos = new LongAdder();
+
+	@Autowired
+	public SerializedObjectCache(@Qualifier("apiCacheManager") CacheManager cacheManager) {
+		this.cache = cacheManager.getCache(CACHE_NAME);
+	}
+
+	/**
+	 * @return true if deserialized objects are cached
+	 */
+	public boolean isEnabled() {
+		Boolean isEnabled = enabled;
+		if (isEnabled == null) {
+			isEnabled = Boolean.valueOf(StringUtils.trim(Context.getAdministrationService().getGlobalProperty(
+			    OpenmrsConstants.GP_SERIALIZED_OBJECT_CACHE_ENABLED)));
+			enabled = isEnabled;
+		}
+		return isEnabled;
+	}
+
+	/**
+	 * Switches the cache on or off, the cached objects are discarded
+	 *
+	 * @param enabled true to cache deserialized objects
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		cache.clear();
+	}
+
+	/**
+	 * Gets a copy of the object deserialized from the given serialized object
+	 *
+	 * @param serializedObject the serialized object
+	 * @return the copy or null if the object is not cached or the serialized object changed since
+	 */
+	public OpenmrsObject get(SerializedObject serializedObject) {
+		if (serializedObject.getUuid() == null || !isEnabled()) {
+			return null;
+		}
+
+		Entry entry = cache.get(serializedObject.getUuid(), Entry.class);
+		if (entry == null || !entry.matches(serializedObject)) {
+			misses.increment();
+			return null;
+		}
+		if (entry.object == null) {
+			uncacheable.increment();
+			return null;
+		}
+
+		long start = System.nanoTime();
+		OpenmrsObject copy = (OpenmrsObject) SerializationUtils.clone(entry.object);
+		copyNanos.add(System.nanoTime() - start);
+		hits.increment();
+		return copy;
+	}
+
+	/**
+	 * Caches a copy of the object deserialized from the given serialized object, objects that
+	 * cannot be copied are remembered as such and deserialized each time
+	 *
+	 * @param serializedObject the serialized object
+	 * @param object the deserialized object
+	 */
+	public void put(SerializedObject serializedObject, OpenmrsObject object) {
+		if (serializedObject.getUuid() == null || !isEnabled()) {
+			return;
+		}
+
+		Serializable copy = null;
+		if (object instanceof Serializable) {
+			try {
+				copy = SerializationUtils.clone((Serializable) object);
+			}
+			catch (org.apache.commons.lang3.SerializationException e) {
+				log.debug("Not caching {} because it cannot be copied", serializedObject, e);
+			}
+		}
+		cache.put(serializedObject.getUuid(), new Entry(serializedObject, copy));
+	}
+
+	/**
+	 * Removes the object deserialized from the serialized object with the given uuid
+	 *
+	 * @param uuid the uuid of the serialized object
+	 */
+	public void evict(String uuid) {
+		if (uuid != null) {
+			cache.evict(uuid);
+		}
+	}
+
+	/**
+	 * Removes all cached objects
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	void recordDeserialization(long nanos) {
+		deserializations.increment();
+		deserializationNanos.add(nanos);
+	}
+
+	/**
+	 * @return the hit counts and latencies since startup
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(hits.sum(), misses.sum(), uncacheable.sum(), copyNanos.sum(), deserializations.sum(),
+		        deserializationNanos.sum());
+	}
+
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_SERIALIZED_OBJECT_CACHE_ENABLED.equals(propertyName);
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		setEnabled(Boolean.parseBoolean(StringUtils.trim(newValue.getPropertyValue())));
+	}
+
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		setEnabled(false);
+	}
+
+	/**
+	 * A copy of a deserialized object and the version of the serialized object it was deserialized
+	 * from, the object is null if it cannot be copied.
+	 */
+	private static final class Entry {
+
+		private final Date dateChanged;
+
+		private final String subtype;
+
+		private final int dataLength;
+
+		private final int dataHash;
+
+		private final Serializable object;
+
+		Entry(SerializedObject serializedObject, Serializable object) {
+			this.dateChanged = serializedObject.getDateChanged();
+			this.subtype = serializedObject.getSubtype();
+			String data = serializedObject.getSerializedData();
+			this.dataLength = data == null ? -1 : data.length();
+			this.dataHash = Objects.hashCode(data);
+			this.object = object;
+		}
+
+		boolean matches(SerializedObject serializedObject) {
+			String data = serializedObject.getSerializedData();
+			return Objects.equals(toMillis(dateChanged), toMillis(serializedObject.getDateChanged()))
+			        && Objects.equals(subtype, serializedObject.getSubtype())
+			        && dataLength == (data == null ? -1 : data.length()) && dataHash == Objects.hashCode(data);
+		}
+
+		private static Long toMillis(Date date) {
+			return date == null ? null : date.getTime();
+		}
+	}
+
+	/**
+	 * The hit counts and latencies of the cache
+	 */
+	public static final class Statistics {
+
+		private final long hits;
+
+		private final long misses;
+
+		private final long uncacheable;
+
+		private final long copyNanos;
+
+		private final long deserializations;
+
+		private final long deserializationNanos;
+
+		Statistics(long hits, long misses, long uncacheable, long copyNanos, long deserializations,
+		    long deserializationNanos) {
+			this.hits = hits;
+			this.misses = misses;
+			this.uncacheable = uncacheable;
+			this.copyNanos = copyNanos;
+			this.deserializations = deserializations;
+			this.deserializationNanos = deserializationNanos;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		/**
+		 * @return the number of lookups of objects that are deserialized each time since they cannot
+		 *         be copied
+		 */
+		public long getUncacheable() {
+			return uncacheable;
+		}
+
+		public double getHitRate() {
+			long lookups = hits + misses + uncacheable;
+			return lookups == 0 ? 0 : (double) hits / lookups;
+		}
+
+		/**
+		 * @return the average time in milliseconds to copy a cached object
+		 */
+		public double getAverageCopyMillis() {
+			return average(copyNanos, hits);
+		}
+
+		/**
+		 * @return the number of objects deserialized from their serialized data
+		 */
+		public long getDeserializations() {
+			return deserializations;
+		}
+
+		/**
+		 * @return the average time in milliseconds to deserialize an object from its serialized data
+		 */
+		public double getAverageDeserializationMillis() {
+			return average(deserializationNanos, deserializations);
+		}
+
+		private static double average(long nanos, long count) {
+			return count == 0 ? 0 : (double) nanos / count / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d, misses=%d, uncacheable=%d, hitRate=%.2f, avgCopy=%.3fms, deserializations=%d, "
+			        + "avgDeserialization=%.3fms", hits, misses, uncacheable, getHitRate(), getAverageCopyMillis(),
+			    deserializations, getAverageDeserializationMillis());
+		}
+	}
+}
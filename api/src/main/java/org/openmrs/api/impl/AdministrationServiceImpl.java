@@ -42,6 +42,7 @@ import org.openmrs.api.EventListeners;
 import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.AdministrationDAO;
+import org.openmrs.api.db.DatabaseStatistics;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.module.Module;
 import org.openmrs.module.ModuleFactory;
@@ -942,4 +943,20 @@ public class AdministrationServiceImpl extends BaseOpenmrsService implements Adm
 		dao.updatePostgresSequence();
 	}
 	
+	/**
+	 * @see org.openmrs.api.AdministrationService#getDatabaseStatistics()
+	 */
+	@Override
+	public DatabaseStatistics getDatabaseStatistics() {
+		return dao.getDatabaseStatistics();
+	}
+	
+	/**
+	 * @see org.openmrs.api.AdministrationService#resetDatabaseStatistics()
+	 */
+	@Override
+	public void resetDatabaseStatistics() {
+		dao.resetDatabaseStatistics();
+	}
+	
 }
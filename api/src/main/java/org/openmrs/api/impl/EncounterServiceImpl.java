@@ -12,9 +12,11 @@ package org.openmrs.api.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -24,6 +26,7 @@ import org.openmrs.Encounter;
 import org.openmrs.EncounterRole;
 import org.openmrs.EncounterType;
 import org.openmrs.Form;
+import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Obs;
 import org.openmrs.Order;
@@ -38,6 +41,7 @@ import org.openmrs.api.APIException;
 import org.openmrs.api.DiagnosisService;
 import org.openmrs.api.EncounterService;
 import org.openmrs.api.EncounterTypeLockedException;
+import org.openmrs.api.GlobalPropertyListener;
 import org.openmrs.api.ObsService;
 import org.openmrs.api.OrderService;
 import org.openmrs.api.context.Context;
@@ -51,6 +55,8 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Default implementation of the {@link EncounterService}
@@ -62,10 +68,16 @@ import org.springframework.transaction.annotation.Transactional;
  * @see org.openmrs.api.EncounterService
  */
 @Transactional
-public class EncounterServiceImpl extends BaseOpenmrsService implements EncounterService {
+public class EncounterServiceImpl extends BaseOpenmrsService implements EncounterService, GlobalPropertyListener {
 	
 	private EncounterDAO dao;
 	
+	/**
+	 * the handler configured by {@link OpenmrsConstants#GP_VISIT_ASSIGNMENT_HANDLER}, empty if none
+	 * is, null until needed after the global property changed
+	 */
+	private volatile Optional<EncounterVisitHandler> activeEncounterVisitHandler;
+	
 	/**
 	 * @see org.openmrs.api.EncounterService#setEncounterDAO(org.openmrs.api.db.EncounterDAO)
 	 */
@@ -84,8 +96,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 			throw new IllegalArgumentException("The 'query' parameter is required and cannot be null");
 		}
 		
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, null, null, null, includeVoided), null);
+		return dao.getEncounters(query, null, null, null, includeVoided, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -337,7 +348,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncountersByPatient(String query) throws APIException {
 		
-		return Context.getEncounterService().filterEncountersByViewPermissions(getEncountersByPatient(query, false), null);
+		return getEncountersByPatient(query, false);
 	}
 	
 	/**
@@ -349,8 +360,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		if (patientId == null) {
 			throw new IllegalArgumentException("The 'patientId' parameter is requred and cannot be null");
 		}
-		return Context.getEncounterService()
-		        .filterEncountersByViewPermissions(dao.getEncountersByPatientId(patientId), null);
+		return dao.getEncountersByPatientId(patientId, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -363,11 +373,12 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 			throw new IllegalArgumentException("The 'identifier' parameter is required and cannot be null");
 		}
 		
+		Collection<Integer> viewableEncounterTypeIds = getViewableEncounterTypeIds(null);
 		List<Encounter> encs = new ArrayList<>();
 		for (Patient p : Context.getPatientService().getPatients(identifier, null, null, false)) {
-			encs.addAll(Context.getEncounterService().getEncountersByPatientId(p.getPatientId()));
+			encs.addAll(dao.getEncountersByPatientId(p.getPatientId(), viewableEncounterTypeIds));
 		}
-		return Context.getEncounterService().filterEncountersByViewPermissions(encs, null);
+		return encs;
 	}
 	
 	/**
@@ -397,9 +408,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	 */
 	@Override
 	public List<Encounter> getEncounters(EncounterSearchCriteria encounterSearchCriteria) {
-		// the second search parameter is null as it defaults to authenticated user from context
-		return Context.getEncounterService().filterEncountersByViewPermissions(dao.getEncounters(encounterSearchCriteria),
-		    null);
+		return dao.getEncounters(encounterSearchCriteria, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -657,8 +666,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer start, Integer length, boolean includeVoided)
 	    throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, null, start, length, includeVoided), null);
+		return dao.getEncounters(query, null, start, length, includeVoided, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -669,8 +677,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncounters(String query, Integer patientId, Integer start, Integer length,
 	                                     boolean includeVoided) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncounters(query, patientId, start, length, includeVoided), null);
+		return dao.getEncounters(query, patientId, start, length, includeVoided, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -679,7 +686,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public Integer getCountOfEncounters(String query, boolean includeVoided) {
-		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided));
+		return OpenmrsUtil.convertToInteger(dao.getCountOfEncounters(query, null, includeVoided,
+		    getViewableEncounterTypeIds(null)));
 	}
 	
 	/**
@@ -705,7 +713,15 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public EncounterVisitHandler getActiveEncounterVisitHandler() throws APIException {
-		
+		Optional<EncounterVisitHandler> handler = activeEncounterVisitHandler;
+		if (handler == null) {
+			handler = Optional.ofNullable(loadActiveEncounterVisitHandler());
+			activeEncounterVisitHandler = handler;
+		}
+		return handler.orElse(null);
+	}
+	
+	private EncounterVisitHandler loadActiveEncounterVisitHandler() throws APIException {
 		String handlerGlobalValue = Context.getAdministrationService().getGlobalProperty(
 		    OpenmrsConstants.GP_VISIT_ASSIGNMENT_HANDLER, null);
 		
@@ -831,8 +847,8 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public List<Encounter> getEncountersByVisitsAndPatient(Patient patient, boolean includeVoided, String query,
 	                                                       Integer start, Integer length) throws APIException {
-		return Context.getEncounterService().filterEncountersByViewPermissions(
-		    dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length), null);
+		return dao.getEncountersByVisitsAndPatient(patient, includeVoided, query, start, length,
+		    getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -843,7 +859,7 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Transactional(readOnly = true)
 	public Integer getEncountersByVisitsAndPatientCount(Patient patient, boolean includeVoided, String query)
 	    throws APIException {
-		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query);
+		return dao.getEncountersByVisitsAndPatientCount(patient, includeVoided, query, getViewableEncounterTypeIds(null));
 	}
 	
 	/**
@@ -853,17 +869,24 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public List<Encounter> filterEncountersByViewPermissions(List<Encounter> encounters, User user) {
-		if (encounters != null) {
+		if (encounters != null && !encounters.isEmpty()) {
 			// if user is not specified then use authenticated user from context by default
 			if (user == null) {
 				user = Context.getAuthenticatedUser();
 			}
+			Collection<Integer> viewableEncounterTypeIds = getViewableEncounterTypeIds(user);
+			if (viewableEncounterTypeIds == null) {
+				return encounters;
+			}
+			Set<Integer> viewable = new HashSet<>(viewableEncounterTypeIds);
 			for (Iterator<Encounter> iterator = encounters.iterator(); iterator.hasNext();) {
 				Encounter encounter = iterator.next();
 				// determine whether it's need to include this encounter into result or not
-				// as it can be not accessed by current user due to permissions lack
+				// as it can be not accessed by current user due to permissions lack, encounter types
+				// which are not saved yet are checked by their own view privilege
 				EncounterType et = encounter.getEncounterType();
-				if (et != null && !userHasEncounterPrivilege(et.getViewPrivilege(), user)) {
+				if (et != null && (et.getEncounterTypeId() == null ? !userHasEncounterPrivilege(et.getViewPrivilege(), user)
+				        : !viewable.contains(et.getEncounterTypeId()))) {
 					// exclude this encounter from result
 					iterator.remove();
 				}
@@ -878,14 +901,39 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 	@Override
 	@Transactional(readOnly = true)
 	public boolean canViewAllEncounterTypes(User subject) {
-		boolean canView = Boolean.TRUE;
-		for (EncounterType et : Context.getEncounterService().getAllEncounterTypes()) {
-			if (!userHasEncounterPrivilege(et.getViewPrivilege(), subject)) {
-				canView = Boolean.FALSE;
-				break;
+		return getViewableEncounterTypeIds(subject) == null;
+	}
+	
+	/**
+	 * Gets the ids of the encounter types whose encounters the given user can view, so that encounter
+	 * queries can be restricted to them rather than removing the other encounters after loading them.
+	 * The view privileges of all encounter types are read with a single query, which is held until an
+	 * encounter type changes and is skipped for super users.
+	 * 
+	 * @param user the user to check, the authenticated user if null
+	 * @return the ids of the viewable encounter types or null if the user can view the encounters of
+	 *         all types
+	 */
+	private Collection<Integer> getViewableEncounterTypeIds(User user) {
+		// if user is not specified then use authenticated user from context by default
+		if (user == null) {
+			user = Context.getAuthenticatedUser();
+		}
+		if (user != null && user.isSuperUser()) {
+			return null;
+		}
+		
+		boolean canViewAll = true;
+		List<Integer> viewableEncounterTypeIds = new ArrayList<>();
+		for (Map.Entry<Integer, String> entry : dao.getEncounterTypeViewPrivileges().entrySet()) {
+			// if the view privilege is null, everyone can see the encounters
+			if (entry.getValue() == null || (user != null && user.hasPrivilege(entry.getValue()))) {
+				viewableEncounterTypeIds.add(entry.getKey());
+			} else {
+				canViewAll = false;
 			}
 		}
-		return canView;
+		return canViewAll ? null : viewableEncounterTypeIds;
 	}
 	
 	/**
@@ -1000,4 +1048,42 @@ public class EncounterServiceImpl extends BaseOpenmrsService implements Encounte
 		
 		return saveEncounter(encounterCopy);
 	}
+	
+	/**
+	 * @see GlobalPropertyListener#supportsPropertyName(String)
+	 */
+	@Override
+	public boolean supportsPropertyName(String propertyName) {
+		return OpenmrsConstants.GP_VISIT_ASSIGNMENT_HANDLER.equals(propertyName);
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyChanged(org.openmrs.GlobalProperty)
+	 */
+	@Override
+	public void globalPropertyChanged(GlobalProperty newValue) {
+		clearActiveEncounterVisitHandler();
+	}
+	
+	/**
+	 * @see GlobalPropertyListener#globalPropertyDeleted(String)
+	 */
+	@Override
+	public void globalPropertyDeleted(String propertyName) {
+		clearActiveEncounterVisitHandler();
+	}
+	
+	private void clearActiveEncounterVisitHandler() {
+		activeEncounterVisitHandler = null;
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			// the handler loaded while the change was not committed yet must not outlive a rollback
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				
+				@Override
+				public void afterCompletion(int status) {
+					activeEncounterVisitHandler = null;
+				}
+			});
+		}
+	}
 }
@@ -10,9 +10,14 @@
 package org.openmrs.api.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.openmrs.Address;
@@ -27,6 +32,10 @@ import org.openmrs.api.db.LocationDAO;
 import org.openmrs.customdatatype.CustomDatatypeUtil;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
@@ -43,6 +52,10 @@ import org.springframework.util.StringUtils;
 @Transactional
 public class LocationServiceImpl extends BaseOpenmrsService implements LocationService {
 	
+	private static final String LOCATION_IDS_BY_TAG_CACHE_NAME = "locationIdsByTag";
+	
+	private static final Logger log = LoggerFactory.getLogger(LocationServiceImpl.class);
+	
 	private LocationDAO dao;
 	
 	/**
@@ -57,6 +70,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#saveLocation(org.openmrs.Location)
 	 */
 	@Override
+	@CacheEvict(value = LOCATION_IDS_BY_TAG_CACHE_NAME, allEntries = true)
 	public Location saveLocation(Location location) throws APIException {
 		if (location.getName() == null) {
 			throw new APIException("Location.name.required", (Object[]) null);
@@ -85,7 +99,9 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 		
 		CustomDatatypeUtil.saveAttributesIfNecessary(location);
 		
-		return dao.saveLocation(location);
+		Location savedLocation = dao.saveLocation(location);
+		dao.updateLocationHierarchy(savedLocation);
+		return savedLocation;
 	}
 	
 	/**
@@ -204,15 +220,20 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	@Override
 	@Transactional(readOnly = true)
 	public List<Location> getLocationsByTag(LocationTag tag) throws APIException {
-		List<Location> locations = new ArrayList<>();
-		
-		for (Location l : dao.getAllLocations(false)) {
-			if (l.getTags() != null && l.getTags().contains(tag)) {
-				locations.add(l);
-			}
+		if (tag == null || tag.getLocationTagId() == null) {
+			return new ArrayList<>();
 		}
-		
-		return locations;
+		return getLocationsByIds(Context.getLocationService().getLocationIdsByTag(tag.getLocationTagId()));
+	}
+	
+	/**
+	 * @see org.openmrs.api.LocationService#getLocationIdsByTag(Integer)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@Cacheable(value = LOCATION_IDS_BY_TAG_CACHE_NAME)
+	public List<Integer> getLocationIdsByTag(Integer locationTagId) throws APIException {
+		return dao.getLocationIdsHavingAnyTag(Collections.singletonList(locationTagId));
 	}
 	
 	/**
@@ -230,16 +251,34 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	@Override
 	@Transactional(readOnly = true)
 	public List<Location> getLocationsHavingAnyTag(List<LocationTag> tags) throws APIException {
-		List<Location> locations = new ArrayList<>();
-		
-		for (Location loc : dao.getAllLocations(false)) {
-			for (LocationTag t : tags) {
-				if (loc.getTags().contains(t) && !locations.contains(loc)) {
-					locations.add(loc);
-				}
+		Set<Integer> tagIds = new LinkedHashSet<>();
+		for (LocationTag tag : tags) {
+			if (tag != null && tag.getLocationTagId() != null) {
+				tagIds.add(tag.getLocationTagId());
 			}
 		}
+		if (tagIds.size() == 1) {
+			return getLocationsByIds(Context.getLocationService().getLocationIdsByTag(tagIds.iterator().next()));
+		}
 		
+		Set<Integer> locationIds = new LinkedHashSet<>();
+		for (Integer tagId : tagIds) {
+			locationIds.addAll(Context.getLocationService().getLocationIdsByTag(tagId));
+		}
+		List<Location> locations = getLocationsByIds(locationIds);
+		// keep the order of getAllLocations(false) the locations of several tags were merged from
+		locations.sort(Comparator.comparing(Location::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+		return locations;
+	}
+	
+	private List<Location> getLocationsByIds(Collection<Integer> locationIds) {
+		List<Location> locations = new ArrayList<>(locationIds.size());
+		for (Integer locationId : locationIds) {
+			Location location = dao.getLocation(locationId);
+			if (location != null) {
+				locations.add(location);
+			}
+		}
 		return locations;
 	}
 	
@@ -266,14 +305,62 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#purgeLocation(org.openmrs.Location)
 	 */
 	@Override
+	@CacheEvict(value = LOCATION_IDS_BY_TAG_CACHE_NAME, allEntries = true)
 	public void purgeLocation(Location location) throws APIException {
+		dao.deleteLocationHierarchy(location);
 		dao.deleteLocation(location);
 	}
 	
+	/**
+	 * @see org.openmrs.api.LocationService#getDescendantLocationIds(Location, boolean)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> getDescendantLocationIds(Location location, boolean includeRetired) throws APIException {
+		if (location == null || location.getLocationId() == null) {
+			return new ArrayList<>();
+		}
+		return dao.getDescendantLocationIds(location.getLocationId(), includeRetired);
+	}
+	
+	/**
+	 * @see org.openmrs.api.LocationService#getAncestorLocationIds(Location)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Integer> getAncestorLocationIds(Location location) throws APIException {
+		if (location == null || location.getLocationId() == null) {
+			return new ArrayList<>();
+		}
+		return dao.getAncestorLocationIds(location.getLocationId());
+	}
+	
+	/**
+	 * @see org.openmrs.api.LocationService#rebuildLocationHierarchy()
+	 */
+	@Override
+	public void rebuildLocationHierarchy() throws APIException {
+		int rows = dao.rebuildLocationHierarchy();
+		log.info("Rebuilt the location hierarchy with {} rows", rows);
+	}
+	
+	/**
+	 * Rebuilds the location hierarchy when locations were added without it, e.g. before it existed
+	 * 
+	 * @see org.openmrs.api.OpenmrsService#onStartup()
+	 */
+	@Override
+	public void onStartup() {
+		if (dao.isLocationHierarchyIncomplete()) {
+			rebuildLocationHierarchy();
+		}
+	}
+	
 	/**
 	 * @see org.openmrs.api.LocationService#saveLocationTag(org.openmrs.LocationTag)
 	 */
 	@Override
+	@CacheEvict(value = LOCATION_IDS_BY_TAG_CACHE_NAME, allEntries = true)
 	public LocationTag saveLocationTag(LocationTag tag) throws APIException {
 		return dao.saveLocationTag(tag);
 	}
@@ -362,6 +449,7 @@ public class LocationServiceImpl extends BaseOpenmrsService implements LocationS
 	 * @see org.openmrs.api.LocationService#purgeLocationTag(org.openmrs.LocationTag)
 	 */
 	@Override
+	@CacheEvict(value = LOCATION_IDS_BY_TAG_CACHE_NAME, allEntries = true)
 	public void purgeLocationTag(LocationTag tag) throws APIException {
 		dao.deleteLocationTag(tag);
 	}
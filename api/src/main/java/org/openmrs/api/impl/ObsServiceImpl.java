@@ -32,6 +32,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.db.ObsDAO;
 import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataStream;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.handler.AbstractHandler;
 import org.openmrs.util.OpenmrsClassLoader;
@@ -517,6 +518,19 @@ public class ObsServiceImpl extends BaseOpenmrsService implements ObsService {
 		return obs;
 	}
 	
+	/**
+	 * @see org.openmrs.api.ObsService#getComplexDataStream(Obs, String)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public ComplexDataStream getComplexDataStream(Obs obs, String view) throws APIException {
+		if (obs == null || !obs.isComplex()) {
+			return null;
+		}
+		ComplexObsHandler handler = getHandler(obs);
+		return handler == null ? null : handler.getComplexDataStream(obs, view);
+	}
+	
 	/**
 	 * Internal method to remove ComplexData when an Obs is purged.
 	 */
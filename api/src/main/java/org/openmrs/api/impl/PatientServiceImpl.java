@@ -14,22 +14,25 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmrs.Allergen;
 import org.openmrs.Allergies;
 import org.openmrs.Allergy;
-import org.openmrs.BaseOpenmrsMetadata;
 import org.openmrs.Concept;
 import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
 import org.openmrs.Location;
 import org.openmrs.Obs;
+import org.openmrs.OpenmrsObject;
 import org.openmrs.Order;
 import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
@@ -42,10 +45,12 @@ import org.openmrs.PersonName;
 import org.openmrs.Relationship;
 import org.openmrs.User;
 import org.openmrs.Visit;
+import org.openmrs.aop.RequiredDataAdvice;
 import org.openmrs.api.APIException;
 import org.openmrs.api.BlankIdentifierException;
 import org.openmrs.api.DuplicateIdentifierException;
 import org.openmrs.api.EncounterService;
+import org.openmrs.api.IdentifierNotUniqueException;
 import org.openmrs.api.InsufficientIdentifiersException;
 import org.openmrs.api.MissingRequiredIdentifierException;
 import org.openmrs.api.ObsService;
@@ -59,6 +64,7 @@ import org.openmrs.api.VisitService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.db.PatientDAO;
 import org.openmrs.api.db.hibernate.HibernateUtil;
+import org.openmrs.api.handler.SaveHandler;
 import org.openmrs.parameter.EncounterSearchCriteria;
 import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
@@ -70,9 +76,12 @@ import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
+import org.openmrs.validator.ValidateUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Default implementation of the patient service. This class should not be used on its own. The
@@ -95,6 +104,18 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 */
 	private static Map<Class<? extends IdentifierValidator>, IdentifierValidator> identifierValidators = null;
 	
+	/**
+	 * the validators by class name as configured on identifier types, so that the classes are not
+	 * loaded again for every identifier checked
+	 */
+	private static final Map<String, IdentifierValidator> identifierValidatorsByClassName = new ConcurrentHashMap<>();
+	
+	/**
+	 * the names of the required identifier types by id, null until needed after identifier types
+	 * were saved or purged
+	 */
+	private volatile Map<Integer, String> requiredIdentifierTypeNames;
+	
 	/**
 	 * @see org.openmrs.api.PatientService#setPatientDAO(org.openmrs.api.db.PatientDAO)
 	 */
@@ -136,15 +157,112 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		return dao.savePatient(patient);
 	}
 
+	/**
+	 * @see org.openmrs.api.PatientService#savePatients(java.util.List)
+	 */
+	@Override
+	public Map<Patient, APIException> savePatients(List<Patient> patients) throws APIException {
+		// the queries of the checks must not flush the changes of existing patients that fail them
+		Map<Patient, APIException> errors = dao.runWithoutFlushing(() -> checkPatientsToSave(patients));
+		
+		List<Patient> toSave = new ArrayList<>(patients.size());
+		Map<Patient, APIException> result = new LinkedHashMap<>();
+		for (Patient patient : patients) {
+			if (errors.containsKey(patient)) {
+				result.put(patient, errors.get(patient));
+				if (patient.getPatientId() != null) {
+					Context.evictFromSession(patient);
+				}
+			} else {
+				setPreferredPatientIdentifier(patient);
+				setPreferredPatientName(patient);
+				setPreferredPatientAddress(patient);
+				toSave.add(patient);
+			}
+		}
+		
+		dao.savePatients(toSave);
+		return result;
+	}
+	
+	/**
+	 * Prepares the given patients for saving and checks them like {@link #savePatient(Patient)} does,
+	 * the identifiers of all patients are checked for uniqueness at once
+	 * 
+	 * @return the errors of the patients which may not be saved
+	 */
+	private Map<Patient, APIException> checkPatientsToSave(List<Patient> patients) {
+		Map<Patient, APIException> errors = new IdentityHashMap<>();
+		Map<Patient, List<PatientIdentifier>> activeIdentifiers = new IdentityHashMap<>();
+		Set<String> grantedPrivileges = new HashSet<>();
+		// the whole batch gets the same creator and date created like the children of one patient do
+		User currentUser = Context.getAuthenticatedUser();
+		Date currentDate = new Date();
+		
+		for (Patient patient : patients) {
+			try {
+				for (String privilege : getPatientModificationPrivileges(patient)) {
+					if (!grantedPrivileges.contains(privilege)) {
+						Context.requirePrivilege(privilege);
+						grantedPrivileges.add(privilege);
+					}
+				}
+				RequiredDataAdvice.recursivelyHandle(SaveHandler.class, patient, currentUser, currentDate, null,
+				    (Set<OpenmrsObject>) null);
+				
+				// uniqueness is checked for the whole batch below
+				List<PatientIdentifier> identifiers = patient.getVoided() ? Collections.emptyList()
+				        : new ArrayList<>(patient.getActiveIdentifiers());
+				PatientIdentifierValidator.runWithoutCheckingIdentifiersInUse(identifiers, () -> ValidateUtil.validate(patient));
+				
+				if (!patient.getVoided()) {
+					if (patient.getIdentifiers().size() == 1) {
+						patient.getPatientIdentifier().setPreferred(true);
+					}
+					activeIdentifiers.put(patient, checkPatientIdentifiersIgnoringUniqueness(patient));
+					checkForMissingRequiredIdentifiers(new ArrayList<>(patient.getIdentifiers()));
+				}
+			}
+			catch (APIException e) {
+				errors.put(patient, e);
+				activeIdentifiers.remove(patient);
+			}
+		}
+		
+		Map<PatientIdentifier, Patient> identifiersToCheck = new IdentityHashMap<>();
+		List<PatientIdentifier> identifiersInOrder = new ArrayList<>();
+		for (Patient patient : patients) {
+			for (PatientIdentifier pi : activeIdentifiers.getOrDefault(patient, Collections.emptyList())) {
+				identifiersToCheck.put(pi, patient);
+				identifiersInOrder.add(pi);
+			}
+		}
+		Map<PatientIdentifier, IdentifierNotUniqueException> notUnique = PatientIdentifierValidator
+		        .getIdentifiersNotUnique(identifiersInOrder);
+		for (Map.Entry<PatientIdentifier, IdentifierNotUniqueException> entry : notUnique.entrySet()) {
+			errors.putIfAbsent(identifiersToCheck.get(entry.getKey()), entry.getValue());
+		}
+		
+		return errors;
+	}
+	
 	private void requireAppropriatePatientModificationPrivilege(Patient patient) {
+		for (String privilege : getPatientModificationPrivileges(patient)) {
+			Context.requirePrivilege(privilege);
+		}
+	}
+	
+	private List<String> getPatientModificationPrivileges(Patient patient) {
+		List<String> privileges = new ArrayList<>(2);
 		if (patient.getPatientId() == null) {
-			Context.requirePrivilege(PrivilegeConstants.ADD_PATIENTS);
+			privileges.add(PrivilegeConstants.ADD_PATIENTS);
 		} else {
-			Context.requirePrivilege(PrivilegeConstants.EDIT_PATIENTS);
+			privileges.add(PrivilegeConstants.EDIT_PATIENTS);
 		}
 		if (patient.getVoided()) {
-			Context.requirePrivilege(PrivilegeConstants.DELETE_PATIENTS);
+			privileges.add(PrivilegeConstants.DELETE_PATIENTS);
 		}
+		return privileges;
 	}
 
 	private void setPreferredPatientIdentifier(Patient patient) {
@@ -270,20 +388,39 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	@Transactional(readOnly = true)
 	public void checkPatientIdentifiers(Patient patient) throws PatientIdentifierException {
+		final List<PatientIdentifier> patientIdentifiers = new ArrayList<>(patient.getIdentifiers());
+
+		final List<PatientIdentifier> activeIdentifiers = checkPatientIdentifiersIgnoringUniqueness(patient);
+
+		// check all identifiers against the other patients with one query
+		PatientIdentifierValidator.checkIdentifiersNotInUse(activeIdentifiers);
+
+		checkForMissingRequiredIdentifiers(patientIdentifiers);
+
+	}
+
+	/**
+	 * Checks the identifiers of the patient like {@link #checkPatientIdentifiers(Patient)} does,
+	 * except for whether other patients use them and for the required identifier types
+	 * 
+	 * @return the non voided identifiers of the patient
+	 */
+	private List<PatientIdentifier> checkPatientIdentifiersIgnoringUniqueness(Patient patient)
+	        throws PatientIdentifierException {
 		// check patient has at least one identifier
 		if (!patient.getVoided() && patient.getActiveIdentifiers().isEmpty()) {
 			throw new InsufficientIdentifiersException("At least one nonvoided Patient Identifier is required");
 		}
 
-		final List<PatientIdentifier> patientIdentifiers = new ArrayList<>(patient.getIdentifiers());
-
 		final Set<String> uniqueIdentifiers = new HashSet<>();
 
-		patientIdentifiers.stream()
+		final List<PatientIdentifier> activeIdentifiers = patient.getIdentifiers().stream()
 			.filter(pi -> !pi.getVoided())
-			.forEach(pi -> {
+			.collect(Collectors.toList());
+
+		activeIdentifiers.forEach(pi -> {
 				try {
-					PatientIdentifierValidator.validateIdentifier(pi);
+					PatientIdentifierValidator.validateIdentifierIgnoringUniqueness(pi);
 				}
 				catch (BlankIdentifierException bie) {
 					patient.removeIdentifier(pi);
@@ -298,21 +435,19 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 				}
 			});
 
-		checkForMissingRequiredIdentifiers(patientIdentifiers);
-
+		return activeIdentifiers;
 	}
 
 	private void checkForMissingRequiredIdentifiers(List<PatientIdentifier> patientIdentifiers) {
-		final Set<PatientIdentifierType> patientIdentifierTypes =
+		final Set<Integer> patientIdentifierTypeIds =
 				patientIdentifiers.stream()
-						.map(PatientIdentifier::getIdentifierType)
+						.map(pi -> pi.getIdentifierType().getPatientIdentifierTypeId())
 						.collect(Collectors.toSet());
 
-		final List<PatientIdentifierType> requiredTypes = this.getPatientIdentifierTypes(null, null, true, null);
 		final Set<String> missingRequiredTypeNames =
-				requiredTypes.stream()
-						.filter(requiredType -> !patientIdentifierTypes.contains(requiredType))
-						.map(BaseOpenmrsMetadata::getName)
+				getRequiredIdentifierTypeNames().entrySet().stream()
+						.filter(requiredType -> !patientIdentifierTypeIds.contains(requiredType.getKey()))
+						.map(Map.Entry::getValue)
 						.collect(Collectors.toSet());
 
 		if(! missingRequiredTypeNames.isEmpty()) {
@@ -321,6 +456,52 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}
 	}
 
+	/**
+	 * Gets the names of the non retired required identifier types by id, they are loaded once and
+	 * kept until identifier types are saved or purged
+	 */
+	private Map<Integer, String> getRequiredIdentifierTypeNames() {
+		Map<Integer, String> names = requiredIdentifierTypeNames;
+		if (names == null) {
+			names = new LinkedHashMap<>();
+			for (PatientIdentifierType requiredType : dao.getPatientIdentifierTypes(null, null, true, null)) {
+				names.put(requiredType.getPatientIdentifierTypeId(), requiredType.getName());
+			}
+			names = Collections.unmodifiableMap(names);
+			requiredIdentifierTypeNames = names;
+			// types changed behind the service's back in a transaction that is rolled back must not stay
+			clearIdentifierTypeCachesAfterCompletion(false);
+		}
+		return names;
+	}
+
+	/**
+	 * Discards what is cached about identifier types now and again once the current transaction
+	 * completes, so that other threads do not keep what they read before it is committed
+	 */
+	private void clearIdentifierTypeCaches() {
+		requiredIdentifierTypeNames = null;
+		identifierValidatorsByClassName.clear();
+		PatientIdentifierValidator.clearCachedFormats();
+		clearIdentifierTypeCachesAfterCompletion(true);
+	}
+
+	private void clearIdentifierTypeCachesAfterCompletion(boolean evenIfCommitted) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCompletion(int status) {
+				if (evenIfCommitted || status != STATUS_COMMITTED) {
+					requiredIdentifierTypeNames = null;
+					identifierValidatorsByClassName.clear();
+				}
+			}
+		});
+	}
+
 	/**
 	 * @see org.openmrs.api.PatientService#voidPatient(org.openmrs.Patient, java.lang.String)
 	 */
@@ -394,6 +575,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	public PatientIdentifierType savePatientIdentifierType(PatientIdentifierType patientIdentifierType) throws APIException {
 		checkIfPatientIdentifierTypesAreLocked();
+		clearIdentifierTypeCaches();
 		return dao.savePatientIdentifierType(patientIdentifierType);
 	}
 	
@@ -493,6 +675,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	@Override
 	public void purgePatientIdentifierType(PatientIdentifierType patientIdentifierType) throws APIException {
 		checkIfPatientIdentifierTypesAreLocked();
+		clearIdentifierTypeCaches();
 		dao.deletePatientIdentifierType(patientIdentifierType);
 	}
 	
@@ -573,11 +756,18 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}
 		requireNoActiveOrderOfSameType(preferred,notPreferred);
 		PersonMergeLogData mergedData = new PersonMergeLogData();
-		mergeVisits(preferred, notPreferred, mergedData);
-		mergeEncounters(preferred, notPreferred, mergedData);
-		mergeProgramEnrolments(preferred, notPreferred, mergedData);
-		mergeRelationships(preferred, notPreferred, mergedData);
-		mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		if (isSetBasedMergeEnabled()) {
+			moveClinicalData(preferred, notPreferred, mergedData);
+			// a patient has few relationships and each needs to be checked against the existing ones of the
+			// preferred patient, so they are merged one by one
+			mergeRelationships(preferred, notPreferred, mergedData);
+		} else {
+			mergeVisits(preferred, notPreferred, mergedData);
+			mergeEncounters(preferred, notPreferred, mergedData);
+			mergeProgramEnrolments(preferred, notPreferred, mergedData);
+			mergeRelationships(preferred, notPreferred, mergedData);
+			mergeObservationsNotContainedInEncounters(preferred, notPreferred, mergedData);
+		}
 		mergeIdentifiers(preferred, notPreferred, mergedData);
 		
 		mergeNames(preferred, notPreferred, mergedData);
@@ -625,6 +815,39 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 		}));
 	}
 
+	private boolean isSetBasedMergeEnabled() {
+		return Boolean.parseBoolean(StringUtils.trim(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_PATIENT_MERGE_SET_BASED, "false")));
+	}
+	
+	/**
+	 * Moves the visits, encounters, obs, orders and program enrollments of the non preferred patient
+	 * with a few bulk updates instead of saving each of them, see
+	 * {@link OpenmrsConstants#GP_PATIENT_MERGE_SET_BASED}
+	 */
+	private void moveClinicalData(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
+		// the bulk updates bypass the edit privilege check of saveEncounter, only encounters of types the
+		// user may not edit need to be looked for
+		EncounterService es = Context.getEncounterService();
+		User user = Context.getAuthenticatedUser();
+		List<EncounterType> deniedTypes = new ArrayList<>();
+		for (EncounterType type : es.getAllEncounterTypes(true)) {
+			if (type.getEditPrivilege() != null && !user.hasPrivilege(type.getEditPrivilege().getPrivilege())) {
+				deniedTypes.add(type);
+			}
+		}
+		// the encounters of types the user may not view either must be found, so the dao is asked directly
+		List<EncounterType> deniedTypesInUse = dao.getEncounterTypesOfPatient(notPreferred, deniedTypes);
+		if (!deniedTypesInUse.isEmpty()) {
+			throw new APIException("Encounter.error.privilege.required.edit", new Object[] { deniedTypesInUse.get(0)
+			        .getEditPrivilege() });
+		}
+		
+		log.debug("Moving the visits, encounters, obs, orders and program enrollments of patient {} to {}",
+		    notPreferred.getPatientId(), preferred.getPatientId());
+		dao.movePatientData(notPreferred, preferred, user, new Date(), mergedData);
+	}
+	
 	private void mergeProgramEnrolments(Patient preferred, Patient notPreferred, PersonMergeLogData mergedData) {
 		// copy all program enrollments
 		ProgramWorkflowService programService = Context.getProgramWorkflowService();
@@ -1276,6 +1499,7 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 	 * @param identifierValidators
 	 */
 	public void setIdentifierValidators(Map<Class<? extends IdentifierValidator>, IdentifierValidator> identifierValidators) {
+		identifierValidatorsByClassName.clear();
 		if (identifierValidators == null) {
 			PatientServiceImpl.setStaticIdentifierValidators(null);
 			return;
@@ -1314,12 +1538,33 @@ public class PatientServiceImpl extends BaseOpenmrsService implements PatientSer
 			return null;
 		}
 		
+		IdentifierValidator validator = identifierValidatorsByClassName.get(pivClassName);
+		if (validator != null) {
+			return validator;
+		}
+		
 		try {
-			return getIdentifierValidator((Class<IdentifierValidator>) Context.loadClass(pivClassName));
+			validator = getIdentifierValidator((Class<IdentifierValidator>) Context.loadClass(pivClassName));
 		}
 		catch (ClassNotFoundException e) {
 			throw new PatientIdentifierException("Could not find patient identifier validator " + pivClassName, e);
 		}
+		if (validator != null) {
+			identifierValidatorsByClassName.put(pivClassName, validator);
+		}
+		return validator;
+	}
+	
+	/**
+	 * @see org.openmrs.api.PatientService#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<PatientIdentifier> getPatientIdentifiersInUseByAnotherPatient(List<PatientIdentifier> patientIdentifiers) {
+		if (patientIdentifiers == null || patientIdentifiers.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return dao.getPatientIdentifiersInUseByAnotherPatient(patientIdentifiers);
 	}
 	
 	/**
@@ -30,6 +30,7 @@ import org.openmrs.util.LocaleUtility;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.openmrs.util.PrivilegeConstants;
+import org.openmrs.util.PrivilegeIndex;
 import org.openmrs.util.RoleConstants;
 import org.openmrs.util.Security;
 import org.slf4j.Logger;
@@ -249,6 +250,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deletePrivilege(privilege);
+		PrivilegeIndex.invalidate();
 	}
 	
 	/**
@@ -256,7 +258,9 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 	 */
 	@Override
 	public Privilege savePrivilege(Privilege privilege) throws APIException {
-		return dao.savePrivilege(privilege);
+		Privilege savedPrivilege = dao.savePrivilege(privilege);
+		PrivilegeIndex.invalidate();
+		return savedPrivilege;
 	}
 	
 	/**
@@ -295,6 +299,7 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		}
 		
 		dao.deleteRole(role);
+		PrivilegeIndex.invalidate();
 	}
 	
 	/**
@@ -310,7 +315,9 @@ public class UserServiceImpl extends BaseOpenmrsService implements UserService {
 		
 		checkPrivileges(role);
 		
-		return dao.saveRole(role);
+		Role savedRole = dao.saveRole(role);
+		PrivilegeIndex.invalidate();
+		return savedRole;
 	}
 	
 	/**
@@ -13,8 +13,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -277,6 +279,25 @@ public class VisitServiceImpl extends BaseOpenmrsService implements VisitService
 		    includeInactive, includeVoided);
 	}
 	
+	/**
+	 * @see org.openmrs.api.VisitService#getVisitsByPatientAtDate(Patient, Date, Location)
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Visit> getVisitsByPatientAtDate(Patient patient, Date date, Location location) throws APIException {
+		if (patient == null || patient.getId() == null || date == null) {
+			return Collections.emptyList();
+		}
+		
+		// a visit includes the encounters at the locations below its own location
+		Set<Location> locations = new LinkedHashSet<>();
+		Location current = location;
+		while (current != null && locations.add(current)) {
+			current = current.getParentLocation();
+		}
+		return dao.getVisitsByPatientAtDate(patient, date, locations);
+	}
+	
 	/**
 	 * @see org.openmrs.api.VisitService#getAllVisitAttributeTypes()
 	 */
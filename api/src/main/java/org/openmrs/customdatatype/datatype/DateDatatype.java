@@ -17,6 +17,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.customdatatype.CustomDatatype;
 import org.openmrs.customdatatype.InvalidCustomValueException;
 import org.openmrs.customdatatype.SerializingCustomDatatype;
+import org.openmrs.util.OpenmrsUtil;
 import org.springframework.stereotype.Component;
 
 /**
@@ -33,7 +34,7 @@ public class DateDatatype extends SerializingCustomDatatype<Date> {
 	 */
 	@Override
 	public CustomDatatype.Summary doGetTextSummary(Date typedValue) {
-		return new CustomDatatype.Summary(Context.getDateFormat().format(typedValue), true);
+		return new CustomDatatype.Summary(OpenmrsUtil.formatDate(typedValue, Context.getLocale()), true);
 	}
 	
 	/**
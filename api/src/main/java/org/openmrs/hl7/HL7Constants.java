@@ -103,6 +103,13 @@ public class HL7Constants {
 	 */
 	public static final String NUMBER_OF_FAILED_TRANSFERS_KEY = "failures";
 	
+	/**
+	 * the key to be used for the number of archives transferred per second in the progressStatusMap
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String NUMBER_TRANSFERRED_PER_SECOND_KEY = "transferredPerSecond";
+	
 	/**
 	 * time taken before static/state properties of an instance of the hl7 in archive migration
 	 * thread are reset
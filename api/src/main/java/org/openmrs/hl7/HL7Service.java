@@ -447,16 +447,43 @@ public interface HL7Service extends OpenmrsService {
 	
 	/**
 	 * Method is called by the archives migration thread to transfer hl7 in archives from the
-	 * hl7_in_archives database table to the file system
+	 * hl7_in_archives database table to the file system. The archives are migrated in batches
+	 * ordered by id, each batch in its own transaction when this method is called outside of one, and
+	 * a stopped migration resumes after the last migrated batch.
 	 * 
 	 * @param progressStatusMap the map holding the number of archives transferred and failed
-	 *            transfers
+	 *            transfers and the number of archives transferred per second
 	 * @throws APIException
+	 * @see #migrateHl7InArchiveBatchToFileSystem(Integer, Map)
+	 * <strong>Should</strong> migrate all archives and clear the last migrated id
 	 */
 	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
 			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException;
 	
+	/**
+	 * Transfers the next batch of hl7 in archives to the file system, the files are written in
+	 * parallel and the archives are marked as migrated with one batch of updates. The id of the last
+	 * archive of the batch is stored in the
+	 * {@link org.openmrs.util.OpenmrsConstants#GP_HL7_ARCHIVE_MIGRATION_LAST_ID} global property in
+	 * the same transaction. Archives which cannot be written are counted as failed transfers and left
+	 * as they are.
+	 * 
+	 * @param afterArchiveId the id of the last archive of the previous batch, null to start with the
+	 *            first archive
+	 * @param progressStatusMap the map holding the number of archives transferred and failed
+	 *            transfers
+	 * @return the id of the last archive of the batch or null if there are no more archives to migrate
+	 * @throws APIException
+	 * @since 2.7.0
+	 * <strong>Should</strong> migrate the archives after the given id and store the last migrated id
+	 * <strong>Should</strong> return null if there are no archives to migrate
+	 */
+	@Authorized(requireAll = true, value = { PrivilegeConstants.GET_HL7_IN_ARCHIVE, PrivilegeConstants.PRIV_PURGE_HL7_IN_ARCHIVE,
+			PrivilegeConstants.PRIV_ADD_HL7_IN_QUEUE })
+	public Integer migrateHl7InArchiveBatchToFileSystem(Integer afterArchiveId, Map<String, Integer> progressStatusMap)
+	        throws APIException;
+	
 	/**
 	 * finds a UUID from an array of identifiers
 	 * 
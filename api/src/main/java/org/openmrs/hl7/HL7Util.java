@@ -10,9 +10,16 @@
 package org.openmrs.hl7;
 
 import java.io.File;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.Date;
 
 import org.apache.commons.lang3.StringUtils;
@@ -37,10 +44,20 @@ public class HL7Util {
 	
 	private static final Logger log = LoggerFactory.getLogger(HL7Util.class);
 	
-	// Date and time format parsers
-	private static final String TIMESTAMP_FORMAT = "yyyyMMddHHmmss.SSSZ";
+	// Date and time format parsers, lenient like the SimpleDateFormat they replace
+	private static final DateTimeFormatter DAY_FORMAT = new DateTimeFormatterBuilder().appendPattern("yyyyMMdd")
+	        .toFormatter().withResolverStyle(ResolverStyle.LENIENT);
 	
-	private static final String TIME_FORMAT = "HHmmss.SSSZ";
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = new DateTimeFormatterBuilder()
+	        .appendPattern("yyyyMMddHHmmss.SSS").appendOffset("+HHmm", "+0000").toFormatter()
+	        .withResolverStyle(ResolverStyle.LENIENT);
+	
+	private static final DateTimeFormatter TIME_FORMAT = new DateTimeFormatterBuilder().appendPattern("HHmmss.SSS")
+	        .appendOffset("+HHmm", "+0000").toFormatter().withResolverStyle(ResolverStyle.LENIENT);
+	
+	private static final DateTimeFormatter TIMEZONE_OFFSET_FORMAT = DateTimeFormatter.ofPattern("Z");
+	
+	private static final LocalDate EPOCH = LocalDate.of(1970, 1, 1);
 	
 	public static final String LOCAL_TIMEZONE_OFFSET = new SimpleDateFormat("Z").format(new Date());
 	
@@ -97,10 +114,11 @@ public class HL7Util {
 		// Parse timezone (optional in HL7 format)
 		String timeZoneOffset;
 		try {
-			Date parsedDay = new SimpleDateFormat("yyyyMMdd").parse(s.substring(0, 8));
+			LocalDate day = LocalDate.parse(s.substring(0, 8), DAY_FORMAT);
+			Date parsedDay = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
 			timeZoneOffset = getTimeZoneOffset(s, parsedDay);
 		}
-		catch (ParseException e) {
+		catch (DateTimeParseException e) {
 			throw new HL7Exception("Error parsing date: '" + s.substring(0, 8) + "' for time zone offset'" + s + "'", e);
 		}
 		s = s.replace(timeZoneOffset, ""); // remove the timezone from the string
@@ -146,9 +164,9 @@ public class HL7Util {
 		
 		Date date;
 		try {
-			date = new SimpleDateFormat(TIMESTAMP_FORMAT).parse(dateString.toString());
+			date = Date.from(OffsetDateTime.parse(dateString, TIMESTAMP_FORMAT).toInstant());
 		}
-		catch (ParseException e) {
+		catch (DateTimeParseException e) {
 			throw new HL7Exception("Error parsing date '" + s + "'");
 		}
 		return date;
@@ -187,9 +205,8 @@ public class HL7Util {
 			
 		} else {
 			//set default timezone offset from the current day
-			Calendar cal = Calendar.getInstance();
-			cal.setTime(givenDate);
-			timeZoneOffset = new SimpleDateFormat("Z").format(cal.getTime());
+			timeZoneOffset = TIMEZONE_OFFSET_FORMAT
+			        .format(Instant.ofEpochMilli(givenDate.getTime()).atZone(ZoneId.systemDefault()));
 		}
 		
 		return timeZoneOffset;
@@ -272,9 +289,9 @@ public class HL7Util {
 		
 		Date date;
 		try {
-			date = new SimpleDateFormat(TIME_FORMAT).parse(timeString.toString());
+			date = Date.from(OffsetTime.parse(timeString, TIME_FORMAT).atDate(EPOCH).toInstant());
 		}
-		catch (ParseException e) {
+		catch (DateTimeParseException e) {
 			throw new HL7Exception("Invalid time format: '" + s + "' [" + timeString + "]", e);
 		}
 		return date;
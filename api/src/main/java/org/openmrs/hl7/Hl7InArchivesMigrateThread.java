@@ -28,8 +28,8 @@ public class Hl7InArchivesMigrateThread extends Thread {
 	private static final Logger log = LoggerFactory.getLogger(Hl7InArchivesMigrateThread.class);
 	
 	/**
-	 * Map holds data about the progress of the transfer process, that is numberTransferred and
-	 * numberOfFailedTransfers
+	 * Map holds data about the progress of the transfer process, that is numberTransferred,
+	 * numberOfFailedTransfers and numberTransferredPerSecond
 	 */
 	private static Map<String, Integer> progressStatusMap;
 	
@@ -76,6 +76,7 @@ public class Hl7InArchivesMigrateThread extends Thread {
 		setProgressStatusMap(new HashMap<>());
 		progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, 0);
 		progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, 0);
+		progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_PER_SECOND_KEY, 0);
 	}
 	
 	/**
@@ -193,6 +194,17 @@ public class Hl7InArchivesMigrateThread extends Thread {
 		return progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY);
 	}
 	
+	/**
+	 * @return the number of archives transferred per second during migration
+	 * @since 2.7.0
+	 */
+	public static Integer getNumberTransferredPerSecond() {
+		if (progressStatusMap == null) {
+			return 0;
+		}
+		return progressStatusMap.getOrDefault(HL7Constants.NUMBER_TRANSFERRED_PER_SECOND_KEY, 0);
+	}
+	
 	/**
 	 * @return the userContext
 	 */
@@ -10,6 +10,7 @@
 package org.openmrs.hl7.db;
 
 import java.util.List;
+import java.util.Map;
 
 import org.openmrs.api.db.DAOException;
 import org.openmrs.hl7.HL7InArchive;
@@ -159,6 +160,26 @@ public interface HL7DAO {
 	 */
 	public List<HL7InArchive> getHL7InArchivesToMigrate();
 	
+	/**
+	 * Gets the archives to be migrated ordered by id, it allows paging through them by passing the
+	 * id of the last archive of the previous page
+	 * 
+	 * @param afterArchiveId only archives with a greater id are returned, null for the first page
+	 * @param maxResults the maximum number of archives to return
+	 * @return the archives to be migrated
+	 * @since 2.7.0
+	 */
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterArchiveId, int maxResults);
+	
+	/**
+	 * Marks the given archives as migrated and replaces their data with the given file locations in
+	 * one batch of updates, the archives are removed from the session afterwards.
+	 * 
+	 * @param hl7DataByArchive the location of the file each archive was written to
+	 * @since 2.7.0
+	 */
+	public void markHL7InArchivesMigrated(Map<HL7InArchive, String> hl7DataByArchive) throws DAOException;
+	
 	/* HL7InError */
 
 	/**
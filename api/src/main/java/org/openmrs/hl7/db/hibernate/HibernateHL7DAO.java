@@ -15,9 +15,11 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -386,6 +388,14 @@ public class HibernateHL7DAO implements HL7DAO {
 	 */
 	@Override
 	public List<HL7InArchive> getHL7InArchivesToMigrate() {
+		return getHL7InArchivesToMigrate(null, HL7Constants.MIGRATION_MAX_BATCH_SIZE);
+	}
+	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#getHL7InArchivesToMigrate(Integer, int)
+	 */
+	@Override
+	public List<HL7InArchive> getHL7InArchivesToMigrate(Integer afterArchiveId, int maxResults) {
 		Integer daysToKeep = Hl7InArchivesMigrateThread.getDaysKept();
 		Session session = sessionFactory.getCurrentSession();
 		CriteriaBuilder cb = session.getCriteriaBuilder();
@@ -399,11 +409,42 @@ public class HibernateHL7DAO implements HL7DAO {
 			cal.add(Calendar.DATE, -1 * daysToKeep);
 			predicates.add(cb.lessThan(root.get("dateCreated"), cal.getTime()));
 		}
+		
+		if (afterArchiveId != null) {
+			predicates.add(cb.greaterThan(root.get("HL7InArchiveId"), afterArchiveId));
+		}
 
-		cq.where(predicates.toArray(new Predicate[]{}));
+		cq.where(predicates.toArray(new Predicate[]{})).orderBy(cb.asc(root.get("HL7InArchiveId")));
 		return session.createQuery(cq)
-			.setMaxResults(HL7Constants.MIGRATION_MAX_BATCH_SIZE)
+			.setMaxResults(maxResults)
 			.getResultList();
 	}
 	
+	/**
+	 * @see org.openmrs.hl7.db.HL7DAO#markHL7InArchivesMigrated(Map)
+	 */
+	@Override
+	public void markHL7InArchivesMigrated(Map<HL7InArchive, String> hl7DataByArchive) throws DAOException {
+		if (hl7DataByArchive.isEmpty()) {
+			return;
+		}
+		
+		Session session = sessionFactory.getCurrentSession();
+		session.doWork(connection -> {
+			try (PreparedStatement statement = connection
+			        .prepareStatement("update hl7_in_archive set hl7_data = ?, message_state = ? where hl7_in_archive_id = ?")) {
+				for (Map.Entry<HL7InArchive, String> entry : hl7DataByArchive.entrySet()) {
+					statement.setString(1, entry.getValue());
+					statement.setInt(2, HL7Constants.HL7_STATUS_MIGRATED);
+					statement.setInt(3, entry.getKey().getHL7InArchiveId());
+					statement.addBatch();
+				}
+				statement.executeBatch();
+			}
+		});
+		
+		// the archives in the session still hold their data, loading them again gets the file locations
+		hl7DataByArchive.keySet().forEach(session::evict);
+	}
+	
 }
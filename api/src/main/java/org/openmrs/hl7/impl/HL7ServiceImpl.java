@@ -23,9 +23,15 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -39,7 +45,6 @@ import org.openmrs.User;
 import org.openmrs.api.APIException;
 import org.openmrs.api.PatientIdentifierException;
 import org.openmrs.api.context.Context;
-import org.openmrs.api.db.DAOException;
 import org.openmrs.api.impl.BaseOpenmrsService;
 import org.openmrs.hl7.HL7Constants;
 import org.openmrs.hl7.HL7InArchive;
@@ -58,6 +63,7 @@ import org.openmrs.util.PrivilegeConstants;
 import org.openmrs.validator.PatientIdentifierValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -95,6 +101,9 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	
 	private MessageTypeRouter router;
 	
+	/** The pool the batches of the archive migration running on this thread write their archives on */
+	private final ThreadLocal<ExecutorService> migrationExecutor = new ThreadLocal<>();
+	
 	/**
 	 * Private constructor to only support on singleton instance.
 	 *
@@ -1055,82 +1064,174 @@ public class HL7ServiceImpl extends BaseOpenmrsService implements HL7Service {
 	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchivesToFileSystem(Map)
 	 */
 	@Override
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public void migrateHl7InArchivesToFileSystem(Map<String, Integer> progressStatusMap) throws APIException {
+		// each batch is committed on its own when not called in a transaction, so go through the proxy
+		HL7Service hl7Service = Context.getHL7Service();
+		Integer lastArchiveId = getLastMigratedArchiveId();
+		boolean completed = false;
 		int numberTransferred = 0;
-		int numberOfFailedTransfers = 0;
-		
-		// HL7Constants.HL7_STATUS_ARCHIVED indicates the HL7 has been archived to the filesystem
-		List<HL7InArchive> hl7InArchives = getHL7InArchivesToMigrate();
+		long start = System.nanoTime();
 		
-		// while we still we have any archives to be processed, process them
-		while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-		        && hl7InArchives != null && !hl7InArchives.isEmpty()) {
-			
-			Iterator<HL7InArchive> iterator = hl7InArchives.iterator();
-			
-			while (Hl7InArchivesMigrateThread.isActive() && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING
-			        && iterator.hasNext()) {
-				HL7InArchive archive = iterator.next();
-				
-				try {
-					migrateHL7InArchive(archive);
-					progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_KEY, numberTransferred++);
-				}
-				catch (DAOException e) {
-					progressStatusMap.put(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, numberOfFailedTransfers++);
+		// the batches all write their archives on this pool
+		ExecutorService executor = Executors.newFixedThreadPool(getMigrationThreads());
+		migrationExecutor.set(executor);
+		try {
+			while (Hl7InArchivesMigrateThread.isActive()
+			        && Hl7InArchivesMigrateThread.getTransferStatus() == Status.RUNNING) {
+				Integer transferredBefore = progressStatusMap.getOrDefault(HL7Constants.NUMBER_TRANSFERRED_KEY, 0);
+				Integer batchLastArchiveId = hl7Service.migrateHl7InArchiveBatchToFileSystem(lastArchiveId,
+				    progressStatusMap);
+				if (batchLastArchiveId == null) {
+					completed = true;
+					break;
 				}
+				
+				lastArchiveId = batchLastArchiveId;
+				numberTransferred += progressStatusMap.getOrDefault(HL7Constants.NUMBER_TRANSFERRED_KEY, 0)
+				        - transferredBefore;
+				long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				int transferredPerSecond = (int) (numberTransferred * 1000L / elapsedMillis);
+				progressStatusMap.put(HL7Constants.NUMBER_TRANSFERRED_PER_SECOND_KEY, transferredPerSecond);
+				log.info("Migrated hl7 in archives up to id {}, {} archives at {} per second", lastArchiveId,
+				    numberTransferred, transferredPerSecond);
 			}
-			
-			// fetch more archives to be processed
-			hl7InArchives = getHL7InArchivesToMigrate();
+		}
+		finally {
+			migrationExecutor.remove();
+			executor.shutdownNow();
+		}
+		
+		if (completed && lastArchiveId != null) {
+			// start from the beginning next time so that the archives which failed are retried
+			Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID, "");
 		}
 		
 		log.debug("Transfer of HL7 archives has completed or has been stopped");
 	}
 	
 	/**
-	 * moves data to the filesystem from an HL7InArchive
-	 *
-	 * @param archive
-	 * @throws APIException
+	 * @see org.openmrs.hl7.HL7Service#migrateHl7InArchiveBatchToFileSystem(Integer, Map)
 	 */
-	private void migrateHL7InArchive(HL7InArchive archive) throws APIException {
-		if (archive == null) {
-			throw new APIException("Hl7Service.migrate.null.archive", (Object[]) null);
+	@Override
+	public Integer migrateHl7InArchiveBatchToFileSystem(Integer afterArchiveId, Map<String, Integer> progressStatusMap)
+	        throws APIException {
+		List<HL7InArchive> hl7InArchives = dao.getHL7InArchivesToMigrate(afterArchiveId,
+		    HL7Constants.MIGRATION_MAX_BATCH_SIZE);
+		if (hl7InArchives.isEmpty()) {
+			return null;
 		}
 		
-		if (!OpenmrsUtil.nullSafeEquals(archive.getMessageState(), HL7Constants.HL7_STATUS_PROCESSED)) {
-			throw new APIException("Hl7Service.migrate.archive.state", (Object[]) null);
+		Map<HL7InArchive, String> hl7DataByArchive = writeHL7InArchivesToFileSystem(hl7InArchives);
+		dao.markHL7InArchivesMigrated(hl7DataByArchive);
+		
+		Integer lastArchiveId = hl7InArchives.get(hl7InArchives.size() - 1).getHL7InArchiveId();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID,
+		    lastArchiveId.toString());
+		
+		progressStatusMap.merge(HL7Constants.NUMBER_TRANSFERRED_KEY, hl7DataByArchive.size(), Integer::sum);
+		progressStatusMap.merge(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY, hl7InArchives.size()
+		        - hl7DataByArchive.size(), Integer::sum);
+		return lastArchiveId;
+	}
+	
+	/**
+	 * Gets the id of the last archive of the last migrated batch
+	 *
+	 * @return the id or null if the migration should start with the first archive
+	 */
+	private Integer getLastMigratedArchiveId() {
+		String lastArchiveId = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID);
+		try {
+			return StringUtils.isBlank(lastArchiveId) ? null : Integer.valueOf(lastArchiveId.trim());
 		}
+		catch (NumberFormatException e) {
+			log.warn("Ignoring invalid value '{}' of global property '{}'", lastArchiveId,
+			    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID);
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the given archives to the file system on the pool of the running migration, or on a
+	 * pool of its own if the batch is migrated on its own
+	 *
+	 * @param hl7InArchives the archives to write
+	 * @return the location of the file each archive was written to, archives which could not be
+	 *         written are left out
+	 */
+	private Map<HL7InArchive, String> writeHL7InArchivesToFileSystem(List<HL7InArchive> hl7InArchives)
+	        throws APIException {
+		// the worker threads have no user context, so resolve everything that needs one up front
+		File destinationDir = HL7Util.getHl7ArchivesDirectory();
+		Locale locale = Context.getLocale();
 		
+		Map<HL7InArchive, String> hl7DataByArchive = new LinkedHashMap<>();
+		ExecutorService executor = migrationExecutor.get();
+		boolean ownExecutor = executor == null;
+		if (ownExecutor) {
+			executor = Executors.newFixedThreadPool(Math.min(getMigrationThreads(), hl7InArchives.size()));
+		}
 		try {
-			URI uri = writeHL7InArchiveToFileSystem(archive);
-			archive.setHL7Data(uri.toString());
-			archive.setMessageState(HL7Constants.HL7_STATUS_MIGRATED);
-			saveHL7InArchive(archive);
+			List<Future<URI>> futures = new ArrayList<>(hl7InArchives.size());
+			for (HL7InArchive hl7InArchive : hl7InArchives) {
+				futures.add(executor.submit(() -> writeHL7InArchiveToFileSystem(hl7InArchive, destinationDir, locale)));
+			}
+			
+			for (int i = 0; i < hl7InArchives.size(); i++) {
+				HL7InArchive hl7InArchive = hl7InArchives.get(i);
+				try {
+					hl7DataByArchive.put(hl7InArchive, futures.get(i).get().toString());
+				}
+				catch (ExecutionException e) {
+					log.warn("Unable to migrate HL7 archive with id '{}'", hl7InArchive.getHL7InArchiveId(), e.getCause());
+				}
+			}
 		}
-		catch (APIException e) {
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
 			throw new APIException("Hl7Service.migrate.archive", null, e);
 		}
-		
+		finally {
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+		return hl7DataByArchive;
+	}
+	
+	private int getMigrationThreads() {
+		String threads = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_THREADS);
+		try {
+			return StringUtils.isBlank(threads) ? 1 : Math.max(1, Integer.parseInt(threads.trim()));
+		}
+		catch (NumberFormatException e) {
+			log.warn("Invalid value '{}' of global property '{}', using 1 thread", threads,
+			    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_THREADS);
+			return 1;
+		}
 	}
 	
 	/**
 	 * writes a given hl7 archive to the file system
 	 *
 	 * @param hl7InArchive the hl7 archive to write to the file system
+	 * @param destinationDir the hl7 archives directory
+	 * @param locale the locale of the calendar the date folders are named after
 	 */
-	private URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive) throws APIException {
+	private static URI writeHL7InArchiveToFileSystem(HL7InArchive hl7InArchive, File destinationDir, Locale locale)
+	        throws APIException {
 		
 		PrintWriter writer = null;
-		File destinationDir = HL7Util.getHl7ArchivesDirectory();
 		try {
 			// number formatter used to format month and day with zero padding
 			DecimalFormat df = new DecimalFormat("00");
 			
 			//write the archive to a separate file while grouping them according to
 			//the year, month and date of month when they were stored in the archives table
-			Calendar calendar = Calendar.getInstance(Context.getLocale());
+			Calendar calendar = Calendar.getInstance(locale);
 			calendar.setTime(hl7InArchive.getDateCreated());
 			
 			//resolve the year folder from the date of creation of the archive
@@ -0,0 +1,208 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.liquibase;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes a fingerprint of the state of the Liquibase change logs applied to an OpenMRS database.
+ * The fingerprint consists of a checksum of all Liquibase snapshot and update files bundled with
+ * OpenMRS and the row count and a checksum of the Liquibase change log table. If the fingerprint of
+ * a database matches the one recorded after the last successful check for updates, neither the
+ * bundled change logs nor the applied change sets have changed since, hence the expensive parsing of
+ * the change log files can be skipped.
+ *
+ * @since 2.7.0
+ */
+public class ChangeLogFingerprint {
+
+	/*
+	 * Log statements from this class are to be logged underneath 'org.openmrs.api' as the log level for this
+	 * package is 'INFO', hence the deviation of the actual package and the logger name.
+	 */
+	private static final Logger log = LoggerFactory.getLogger("org.openmrs.api.ChangeLogFingerprint");
+
+	/**
+	 * The name of the file in the application data directory that holds the fingerprint recorded
+	 * after the last successful check for database updates
+	 */
+	public static final String FINGERPRINT_FILE_NAME = "liquibase-changelog-fingerprint.properties";
+
+	static final String CHANGE_LOG_TABLE_NAME = "liquibasechangelog";
+
+	static final String CHANGE_LOG_CHECKSUM = "changelog.checksum";
+
+	static final String CHANGE_LOG_TABLE_ROW_COUNT = "changelog.table.rowcount";
+
+	static final String CHANGE_LOG_TABLE_CHECKSUM = "changelog.table.checksum";
+
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+
+	private static final char SLASH = '/';
+
+	private final ChangeLogVersionFinder changeLogVersionFinder;
+
+	public ChangeLogFingerprint() {
+		this(new ChangeLogVersionFinder());
+	}
+
+	/**
+	 * Allows to inject a change log version finder for unit testing.
+	 *
+	 * @param changeLogVersionFinder provides the names of the bundled change log files
+	 */
+	public ChangeLogFingerprint(ChangeLogVersionFinder changeLogVersionFinder) {
+		this.changeLogVersionFinder = changeLogVersionFinder;
+	}
+
+	/**
+	 * Computes the fingerprint of the bundled change logs and the change log table of the given
+	 * database.
+	 *
+	 * @param connection the connection to the OpenMRS database, it is not closed by this method
+	 * @param classLoader the class loader used to look up the bundled change log files
+	 * @return the fingerprint
+	 * @throws SQLException if the change log table cannot be read
+	 * @throws IOException if a change log file cannot be read
+	 */
+	public Properties compute(Connection connection, ClassLoader classLoader) throws SQLException, IOException {
+		Properties fingerprint = new Properties();
+		fingerprint.setProperty(CHANGE_LOG_CHECKSUM, computeChangeLogChecksum(classLoader));
+
+		MessageDigest digest = newDigest();
+		long rowCount = 0;
+		try (Statement statement = connection.createStatement();
+		        ResultSet resultSet = statement.executeQuery("SELECT ID, AUTHOR, FILENAME, MD5SUM FROM "
+		                + CHANGE_LOG_TABLE_NAME + " ORDER BY ID, AUTHOR, FILENAME")) {
+			while (resultSet.next()) {
+				for (int column = 1; column <= 4; column++) {
+					update(digest, resultSet.getString(column));
+				}
+				rowCount++;
+			}
+		}
+		fingerprint.setProperty(CHANGE_LOG_TABLE_ROW_COUNT, String.valueOf(rowCount));
+		fingerprint.setProperty(CHANGE_LOG_TABLE_CHECKSUM, toHex(digest.digest()));
+
+		return fingerprint;
+	}
+
+	/**
+	 * Computes a checksum of the names and contents of all Liquibase snapshot and update files bundled
+	 * with OpenMRS.
+	 *
+	 * @param classLoader the class loader used to look up the change log files
+	 * @return the checksum as hex string
+	 * @throws IOException if a change log file cannot be read
+	 */
+	String computeChangeLogChecksum(ClassLoader classLoader) throws IOException {
+		SortedSet<String> changeLogFileNames = new TreeSet<>();
+		for (List<String> fileNames : changeLogVersionFinder.getChangeLogCombinations().values()) {
+			changeLogFileNames.addAll(fileNames);
+		}
+
+		MessageDigest digest = newDigest();
+		byte[] buffer = new byte[8192];
+		for (String fileName : changeLogFileNames) {
+			String resourceName = fileName.replace(File.separatorChar, SLASH);
+			update(digest, resourceName);
+			try (InputStream in = classLoader.getResourceAsStream(resourceName)) {
+				if (in == null) {
+					log.debug("change log file '{}' was not found", resourceName);
+					continue;
+				}
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, read);
+				}
+			}
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Reads the fingerprint recorded in the given file.
+	 *
+	 * @param file the file holding the fingerprint
+	 * @return the fingerprint or null if the file does not exist or cannot be read
+	 */
+	public Properties read(File file) {
+		if (!file.isFile()) {
+			return null;
+		}
+		Properties fingerprint = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			fingerprint.load(in);
+			return fingerprint;
+		}
+		catch (IOException e) {
+			log.warn("Unable to read the Liquibase change log fingerprint from '{}'", file, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Records the given fingerprint in the given file.
+	 *
+	 * @param file the file to write to
+	 * @param fingerprint the fingerprint to record
+	 */
+	public void write(File file, Properties fingerprint) {
+		try (OutputStream out = new FileOutputStream(file)) {
+			fingerprint.store(out, "Fingerprint of the Liquibase change logs applied to the OpenMRS database");
+		}
+		catch (IOException e) {
+			log.warn("Unable to write the Liquibase change log fingerprint to '{}'", file, e);
+		}
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		if (value != null) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+		}
+		digest.update((byte) 0);
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported by this JVM", e);
+		}
+	}
+}
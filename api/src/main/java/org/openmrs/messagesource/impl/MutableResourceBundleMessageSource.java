@@ -16,6 +16,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -50,56 +52,52 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	 */
 	private String[] basenames = new String[0];
 	
-	private int cacheMilliseconds = -1;
-	
-	private long lastCached = System.currentTimeMillis();
-	
-	/** Cached list of available locales. */
-	private Collection<Locale> locales;
+	/**
+	 * The properties files and the codes they define, built on first use and again when modules were
+	 * started or stopped since.
+	 */
+	private volatile PropertiesFileIndex index;
 	
 	/**
 	 * @see org.openmrs.messagesource.MessageSourceService#getLocales()
+	 * <strong>Should</strong> return the locales of the properties files without scanning them again
 	 */
 	@Override
 	public Collection<Locale> getLocales() {
-		long now = System.currentTimeMillis();
-		if (locales == null || cacheMilliseconds <= 0 || now - cacheMilliseconds > lastCached) {
-			locales = findLocales();
-			lastCached = now;
-		}
-		
-		return locales;
+		return getIndex().locales;
 	}
 	
+	/**
+	 * Also discards the index of the properties files, so that they are scanned again on next use.
+	 *
+	 * @see org.springframework.context.support.ReloadableResourceBundleMessageSource#clearCache()
+	 * <strong>Should</strong> scan the properties files again
+	 */
 	@Override
-	public void setCacheSeconds(int cacheSeconds) {
-		this.cacheMilliseconds = cacheSeconds * 1000;
-		super.setCacheSeconds(cacheSeconds);
+	public void clearCache() {
+		super.clearCache();
+		index = null;
 	}
 	
 	/**
-	 * This method looks at the current property files and deduces what locales are available from
-	 * those
+	 * Gets the index of the properties files, building it if there is none yet or if the module
+	 * class loaders changed since it was built, i.e. if modules were started or stopped
 	 *
-	 * @see #getLocales()
-	 * @see #findPropertiesFiles()
+	 * @return the index
 	 */
-	private Collection<Locale> findLocales() {
-		Collection<Locale> foundLocales = new HashSet<>();
-		
-		for (Resource propertiesFile : findPropertiesFiles()) {
-			String filename = propertiesFile.getFilename();
-			
-			Locale parsedLocale = parseLocaleFrom(filename);
-			
-			foundLocales.add(parsedLocale);
-			
-		}
-		
-		if (foundLocales.isEmpty()) {
-			log.warn("no locales found.");
+	private PropertiesFileIndex getIndex() {
+		Collection<ModuleClassLoader> moduleClassLoaders = ModuleFactory.getModuleClassLoaders();
+		PropertiesFileIndex current = index;
+		if (current == null || !current.isFor(moduleClassLoaders)) {
+			synchronized (this) {
+				current = index;
+				if (current == null || !current.isFor(moduleClassLoaders)) {
+					current = new PropertiesFileIndex(moduleClassLoaders, findPropertiesFiles(moduleClassLoaders));
+					index = current;
+				}
+			}
 		}
-		return foundLocales;
+		return current;
 	}
 	
 	/**
@@ -110,7 +108,7 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	 * @param filename the name to parse
 	 * @return Locale derived from the given string
 	 */
-	private Locale parseLocaleFrom(String filename) {
+	private static Locale parseLocaleFrom(String filename) {
 		Locale parsedLocale;
 		
 		// trim off leading basename
@@ -132,24 +130,18 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	 * Returns all available messages.
 	 *
 	 * @see org.openmrs.messagesource.MessageSourceService#getPresentations()
+	 * <strong>Should</strong> return the messages of every properties file
 	 */
 	@Override
 	public Collection<PresentationMessage> getPresentations() {
 		Collection<PresentationMessage> presentations = new ArrayList<>();
 		
-		for (Resource propertiesFile : findPropertiesFiles()) {
-			Locale currentLocale = parseLocaleFrom(propertiesFile.getFilename());
-			Properties props = new Properties();
-			try {
-				OpenmrsUtil.loadProperties(props, propertiesFile.getInputStream());
-				for (Map.Entry<Object, Object> property : props.entrySet()) {
-					presentations.add(new PresentationMessage(property.getKey().toString(), currentLocale, property
-					        .getValue().toString(), ""));
-				}
-			}
-			catch (Exception e) {
-				// skip over errors in loading a single file
-				log.error("Unable to load properties from file: " + propertiesFile.getFilename(), e);
+		PropertiesFileIndex currentIndex = getIndex();
+		for (Resource propertiesFile : currentIndex.files) {
+			Locale currentLocale = currentIndex.localeByFile.get(propertiesFile);
+			for (Map.Entry<Object, Object> property : currentIndex.propertiesByFile.get(propertiesFile).entrySet()) {
+				presentations.add(new PresentationMessage(property.getKey().toString(), currentLocale, property.getValue()
+				        .toString(), ""));
 			}
 		}
 		return presentations;
@@ -203,9 +195,8 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	public void addPresentation(PresentationMessage message) {
 		Resource propertyFile = findPropertiesFileFor(message.getCode());
 		if (propertyFile != null) {
-			Properties props = new Properties();
 			try {
-				OpenmrsUtil.loadProperties(props, propertyFile.getInputStream());
+				Properties props = getIndex().copyProperties(propertyFile);
 				props.setProperty(message.getCode(), message.getMessage());
 				
 				//TODO properties files are now in api jar files which cannot be modified. TRUNK-4097
@@ -225,9 +216,8 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	public void removePresentation(PresentationMessage message) {
 		Resource propertyFile = findPropertiesFileFor(message.getCode());
 		if (propertyFile != null) {
-			Properties props = new Properties();
 			try {
-				OpenmrsUtil.loadProperties(props, propertyFile.getInputStream());
+				Properties props = getIndex().copyProperties(propertyFile);
 				props.remove(message.getCode());
 				
 				//TODO properties files are now in api jar files which cannot be modified. TRUNK-4097
@@ -241,47 +231,31 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	}
 	
 	/**
-	 * Convenience method to scan the available properties files, looking for the one that has a
-	 * definition for the given code.
+	 * Convenience method to look up the properties file that has a definition for the given code.
 	 *
 	 * @param code
 	 * @return the file which defines the code, or null if not found
 	 */
 	private Resource findPropertiesFileFor(String code) {
-		Properties props = new Properties();
-		Resource foundFile = null;
-		
-		for (Resource propertiesFile : findPropertiesFiles()) {
-			props.clear();
-			try {
-				OpenmrsUtil.loadProperties(props, propertiesFile.getInputStream());
-			}
-			catch (Exception e) {
-				log.error("Error generated", e);
-			}
-			if (props.containsKey(code)) {
-				foundFile = propertiesFile;
-				break;
-			}
-		}
-		return foundFile;
+		return getIndex().fileByCode.get(code);
 	}
 	
 	/**
-	 * Searches the filesystem for message properties files. ABKTODO: consider caching this, rather
-	 * than searching every time
+	 * Searches the classpath of the core and the given module class loaders for message properties
+	 * files.
 	 *
-	 * @return an array of property file names
+	 * @param moduleClassLoaders the class loaders of the modules
+	 * @return the properties files
 	 */
-	private Resource[] findPropertiesFiles() {
-		Set<Resource> resourceSet = new HashSet<>();
+	private Resource[] findPropertiesFiles(Collection<ModuleClassLoader> moduleClassLoaders) {
+		Set<Resource> resourceSet = new LinkedHashSet<>();
 		try {
 			String pattern = "classpath*:messages*.properties";
 			ResourcePatternResolver resourceResolver = new PathMatchingResourcePatternResolver(OpenmrsClassLoader.getInstance());
 			Resource[] propertiesFiles = resourceResolver.getResources(pattern);
 			Collections.addAll(resourceSet, propertiesFiles);
 			
-			for (ModuleClassLoader moduleClassLoader : ModuleFactory.getModuleClassLoaders()) {
+			for (ModuleClassLoader moduleClassLoader : moduleClassLoaders) {
 				resourceResolver = new PathMatchingResourcePatternResolver(moduleClassLoader);
 				propertiesFiles = resourceResolver.getResources(pattern);
 				Collections.addAll(resourceSet, propertiesFiles);
@@ -302,32 +276,18 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 	@Override
 	public void merge(MutableMessageSource fromSource, boolean overwrite) {
 		
-		// collect all existing properties
-		Resource[] propertiesFiles = findPropertiesFiles();
-		Map<Locale, List<Resource>> localeToFilesMap = new HashMap<>();
+		// collect copies of all existing properties
+		PropertiesFileIndex currentIndex = getIndex();
 		Map<Resource, Properties> fileToPropertiesMap = new HashMap<>();
-		
-		for (Resource propertiesFile : propertiesFiles) {
-			Properties props = new Properties();
-			Locale propsLocale = parseLocaleFrom(propertiesFile.getFilename());
-			List<Resource> propList = localeToFilesMap.computeIfAbsent(propsLocale, k -> new ArrayList<>());
-			propList.add(propertiesFile);
-			
-			try {
-				OpenmrsUtil.loadProperties(props, propertiesFile.getInputStream());
-				fileToPropertiesMap.put(propertiesFile, props);
-			}
-			catch (Exception e) {
-				// skip over errors in loading a single file
-				log.error("Unable to load properties from file: " + propertiesFile.getFilename(), e);
-			}
+		for (Resource propertiesFile : currentIndex.files) {
+			fileToPropertiesMap.put(propertiesFile, currentIndex.copyProperties(propertiesFile));
 		}
 		
 		// merge in the new properties
 		for (PresentationMessage message : fromSource.getPresentations()) {
 			Locale messageLocale = message.getLocale();
 			
-			List<Resource> filelist = localeToFilesMap.get(messageLocale);
+			List<Resource> filelist = currentIndex.filesByLocale.get(messageLocale);
 			if (filelist != null) {
 				Properties propertyDestination = null;
 				boolean propExists = false;
@@ -371,4 +331,83 @@ public class MutableResourceBundleMessageSource extends ReloadableResourceBundle
 		return null;
 	}
 	
+	/**
+	 * The message properties files found on the classpath of the core and of the module class
+	 * loaders, with their locales and properties and the first file defining each code.
+	 */
+	private static final class PropertiesFileIndex {
+		
+		private final Set<ModuleClassLoader> moduleClassLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		private final List<Resource> files = new ArrayList<>();
+		
+		private final Map<Resource, Locale> localeByFile = new HashMap<>();
+		
+		private final Map<Resource, Properties> propertiesByFile = new HashMap<>();
+		
+		private final Map<Locale, List<Resource>> filesByLocale = new HashMap<>();
+		
+		private final Map<String, Resource> fileByCode = new HashMap<>();
+		
+		private final Collection<Locale> locales;
+		
+		PropertiesFileIndex(Collection<ModuleClassLoader> moduleClassLoaders, Resource[] propertiesFiles) {
+			this.moduleClassLoaders.addAll(moduleClassLoaders);
+			
+			for (Resource propertiesFile : propertiesFiles) {
+				Properties props = new Properties();
+				try {
+					OpenmrsUtil.loadProperties(props, propertiesFile.getInputStream());
+				}
+				catch (Exception e) {
+					// skip over errors in loading a single file
+					log.error("Unable to load properties from file: " + propertiesFile.getFilename(), e);
+					continue;
+				}
+				
+				Locale locale = parseLocaleFrom(propertiesFile.getFilename());
+				files.add(propertiesFile);
+				localeByFile.put(propertiesFile, locale);
+				propertiesByFile.put(propertiesFile, props);
+				filesByLocale.computeIfAbsent(locale, k -> new ArrayList<>()).add(propertiesFile);
+				for (Object code : props.keySet()) {
+					fileByCode.putIfAbsent(code.toString(), propertiesFile);
+				}
+			}
+			
+			if (filesByLocale.isEmpty()) {
+				log.warn("no locales found.");
+			}
+			locales = Collections.unmodifiableSet(new HashSet<>(filesByLocale.keySet()));
+		}
+		
+		/**
+		 * @param currentModuleClassLoaders the class loaders of the started modules
+		 * @return true if the index was built for the given module class loaders
+		 */
+		boolean isFor(Collection<ModuleClassLoader> currentModuleClassLoaders) {
+			if (currentModuleClassLoaders.size() != moduleClassLoaders.size()) {
+				return false;
+			}
+			for (ModuleClassLoader moduleClassLoader : currentModuleClassLoaders) {
+				if (!moduleClassLoaders.contains(moduleClassLoader)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		/**
+		 * @param propertiesFile the properties file
+		 * @return a copy of the properties of the given file, which may be changed by the caller
+		 */
+		Properties copyProperties(Resource propertiesFile) {
+			Properties copy = new Properties();
+			Properties props = propertiesByFile.get(propertiesFile);
+			if (props != null) {
+				copy.putAll(props);
+			}
+			return copy;
+		}
+	}
 }
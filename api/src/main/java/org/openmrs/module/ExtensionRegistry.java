@@ -0,0 +1,175 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the extensions of the started modules, see
+ * {@link ModuleFactory#getExtensions(String)}. A new snapshot is made whenever a module is started
+ * or stopped, so readers never see a registry that is being changed. Besides the extensions by
+ * extension id, it holds the lists returned for point ids without a media type, i.e. the
+ * extensions of the point id followed by the ones of the point id with each media type, so that
+ * looking them up does not create a list.
+ *
+ * @since 2.7.0
+ */
+final class ExtensionRegistry {
+
+	static final ExtensionRegistry EMPTY = new ExtensionRegistry(Collections.emptyMap());
+
+	private static final Comparator<Extension> SORT_ORDER = Comparator.comparingInt(Extension::getOrder);
+
+	/**
+	 * the extensions by extension id, in the order the modules were started and then by
+	 * {@link Extension#getOrder()}
+	 */
+	private final Map<String, List<Extension>> extensionsById;
+
+	/**
+	 * the lists returned by {@link #getExtensions(String)} by point id
+	 */
+	private final Map<String, List<Extension>> extensionsByPointId;
+
+	private ExtensionRegistry(Map<String, List<Extension>> extensionsById) {
+		this.extensionsById = extensionsById;
+		this.extensionsByPointId = mergeMediaTypes(extensionsById);
+	}
+
+	/**
+	 * Makes a registry that also contains the given extensions of a module which is started, they are
+	 * added after the existing extensions of the same extension id, ordered by
+	 * {@link Extension#getOrder()}
+	 *
+	 * @param moduleExtensions the extensions of the module
+	 * @return the new registry
+	 * <strong>Should</strong> append the extensions of a module sorted by order
+	 */
+	ExtensionRegistry withExtensions(Collection<Extension> moduleExtensions) {
+		if (moduleExtensions == null || moduleExtensions.isEmpty()) {
+			return this;
+		}
+
+		List<Extension> sorted = new ArrayList<>(moduleExtensions);
+		sorted.sort(SORT_ORDER);
+
+		Map<String, List<Extension>> changed = copyExtensionsById();
+		for (Extension ext : sorted) {
+			changed.computeIfAbsent(ext.getExtensionId(), k -> new ArrayList<>()).add(ext);
+		}
+		return new ExtensionRegistry(freeze(changed));
+	}
+
+	/**
+	 * Makes a registry without the given extensions of a module which is stopped
+	 *
+	 * @param moduleExtensions the extensions of the module
+	 * @return the new registry
+	 * <strong>Should</strong> remove the extensions of a module and the extension ids left without any
+	 */
+	ExtensionRegistry withoutExtensions(Collection<Extension> moduleExtensions) {
+		if (moduleExtensions == null || moduleExtensions.isEmpty()) {
+			return this;
+		}
+
+		Map<String, List<Extension>> changed = copyExtensionsById();
+		for (Extension ext : moduleExtensions) {
+			List<Extension> extensions = changed.get(ext.getExtensionId());
+			if (extensions != null) {
+				extensions.remove(ext);
+				if (extensions.isEmpty()) {
+					changed.remove(ext.getExtensionId());
+				}
+			}
+		}
+		return new ExtensionRegistry(freeze(changed));
+	}
+
+	/**
+	 * @param pointId the point id, with or without a media type
+	 * @return the extensions of the point id, for point ids without a media type these include the
+	 *         ones for every media type, an empty list if there are none
+	 * <strong>Should</strong> include the extensions of every media type for a point id without one
+	 * <strong>Should</strong> return the same list on every call
+	 */
+	List<Extension> getExtensions(String pointId) {
+		List<Extension> extensions = extensionsByPointId.get(pointId);
+		if (extensions == null) {
+			extensions = extensionsById.get(pointId);
+		}
+		return extensions == null ? Collections.emptyList() : extensions;
+	}
+
+	/**
+	 * @param extensionId the extension id
+	 * @return the extensions registered with exactly the given extension id or null if there are none
+	 */
+	List<Extension> getExtensionsById(String extensionId) {
+		return extensionsById.get(extensionId);
+	}
+
+	/**
+	 * @return the unmodifiable extensions by extension id
+	 */
+	Map<String, List<Extension>> getExtensionMap() {
+		return extensionsById;
+	}
+
+	private Map<String, List<Extension>> copyExtensionsById() {
+		Map<String, List<Extension>> copy = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Extension>> entry : extensionsById.entrySet()) {
+			copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+		}
+		return copy;
+	}
+
+	private static Map<String, List<Extension>> freeze(Map<String, List<Extension>> extensionsById) {
+		Map<String, List<Extension>> frozen = new LinkedHashMap<>();
+		for (Map.Entry<String, List<Extension>> entry : extensionsById.entrySet()) {
+			frozen.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(frozen);
+	}
+
+	/**
+	 * Computes the lists for the point ids without a media type, the same extension registered for
+	 * several media types is only contained once
+	 */
+	private static Map<String, List<Extension>> mergeMediaTypes(Map<String, List<Extension>> extensionsById) {
+		Set<String> pointIds = new LinkedHashSet<>();
+		for (List<Extension> extensions : extensionsById.values()) {
+			for (Extension ext : extensions) {
+				if (ext.getPointId() != null && !ext.getPointId().contains(Extension.EXTENSION_ID_SEPARATOR)) {
+					pointIds.add(ext.getPointId());
+				}
+			}
+		}
+
+		Map<String, List<Extension>> merged = new HashMap<>();
+		for (String pointId : pointIds) {
+			Set<Extension> extensions = new LinkedHashSet<>(extensionsById.getOrDefault(pointId, Collections.emptyList()));
+			for (Extension.MEDIA_TYPE mediaType : Extension.MEDIA_TYPE.values()) {
+				extensions.addAll(extensionsById.getOrDefault(Extension.toExtensionId(pointId, mediaType),
+				    Collections.emptyList()));
+			}
+			merged.put(pointId, Collections.unmodifiableList(new ArrayList<>(extensions)));
+		}
+		return merged;
+	}
+}
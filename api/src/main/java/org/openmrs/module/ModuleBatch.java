@@ -0,0 +1,465 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.openmrs.api.context.Context;
+import org.openmrs.util.CycleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.AbstractRefreshableApplicationContext;
+
+/**
+ * Stages several module start, stop and upgrade operations and applies them with a single refresh
+ * of the Spring application context, where {@link ModuleFactory#startModule(Module, boolean,
+ * AbstractRefreshableApplicationContext)} refreshes the context once per module.
+ * <p>
+ * All operations are checked before any of them is applied. The whole batch fails with a
+ * {@link ModuleException} and leaves the modules as they were if:
+ * <ul>
+ * <li>a module requires a module that is neither started nor started by the batch</li>
+ * <li>a mandatory or core module, or a module depending on one, would be stopped</li>
+ * <li>an upgrade is older than the loaded version</li>
+ * <li>the modules have cyclic dependencies</li>
+ * </ul>
+ * When committed, the batch:
+ * <ol>
+ * <li>stops the modules, dependents first</li>
+ * <li>replaces the upgraded modules</li>
+ * <li>starts the modules and the required modules they need in dependency order</li>
+ * <li>restarts the dependents that were only stopped because a module they require was restarted</li>
+ * <li>refreshes the context once and logs the time each phase took</li>
+ * </ol>
+ * A module that fails to start gets a startup error like with {@link ModuleFactory#startModule(Module)}
+ * and does not keep the others from starting.
+ *
+ * <pre>
+ * new ModuleBatch().stop(unwanted).upgrade(newVersionFile).start(module).commit(applicationContext);
+ * </pre>
+ *
+ * @since 2.7.0
+ */
+public class ModuleBatch {
+
+	private static final Logger log = LoggerFactory.getLogger(ModuleBatch.class);
+
+	private final Set<Module> modulesToStop = new LinkedHashSet<>();
+
+	private final Set<Module> modulesToStart = new LinkedHashSet<>();
+
+	private final List<File> moduleFilesToUpgrade = new ArrayList<>();
+
+	private boolean committed = false;
+
+	/**
+	 * Stages starting the given loaded module, modules staged to be stopped as well are restarted
+	 *
+	 * @param module the module to start
+	 * @return this batch
+	 */
+	public ModuleBatch start(Module module) {
+		checkNotCommitted();
+		modulesToStart.add(module);
+		return this;
+	}
+
+	/**
+	 * Stages stopping the given module, the modules depending on it are stopped as well
+	 *
+	 * @param module the module to stop
+	 * @return this batch
+	 */
+	public ModuleBatch stop(Module module) {
+		checkNotCommitted();
+		modulesToStop.add(module);
+		return this;
+	}
+
+	/**
+	 * Stages replacing the loaded module with the same id by the module in the given file and
+	 * starting it, the file is expected in the module repository e.g. as returned by
+	 * {@link ModuleUtil#insertModuleFile(java.io.InputStream, String)}
+	 *
+	 * @param moduleFile the file of the new module version
+	 * @return this batch
+	 */
+	public ModuleBatch upgrade(File moduleFile) {
+		checkNotCommitted();
+		moduleFilesToUpgrade.add(moduleFile);
+		return this;
+	}
+
+	/**
+	 * Applies the staged operations and refreshes the given application context once
+	 *
+	 * @param applicationContext the spring application context instance to refresh
+	 * @return the outcome of the batch
+	 * @throws ModuleException if the operations cannot be applied, nothing is changed then
+	 * @see ModuleUtil#refreshApplicationContextForModules(AbstractRefreshableApplicationContext,
+	 *      boolean, Collection)
+	 */
+	public Result commit(final AbstractRefreshableApplicationContext applicationContext) throws ModuleException {
+		return commit(
+		    startedModules -> ModuleUtil.refreshApplicationContextForModules(applicationContext, false, startedModules));
+	}
+
+	/**
+	 * Applies the staged operations, letting the given callback refresh the context once and do the
+	 * work of other layers like the web layer for each module
+	 *
+	 * @param callback the callback
+	 * @return the outcome of the batch
+	 * @throws ModuleException if the operations cannot be applied, nothing is changed then
+	 * <strong>Should</strong> start modules and their required modules with a single refresh
+	 * <strong>Should</strong> restart the dependents of a restarted module
+	 * <strong>Should</strong> upgrade a started module
+	 * <strong>Should</strong> not change anything if a required module is missing
+	 * <strong>Should</strong> not change anything if a mandatory module would be stopped
+	 * <strong>Should</strong> not allow committing twice
+	 */
+	public Result commit(Callback callback) throws ModuleException {
+		checkNotCommitted();
+		committed = true;
+
+		long validateStart = System.currentTimeMillis();
+		Plan plan = createPlan();
+		Result result = new Result();
+		result.phaseMillis.put("validate", System.currentTimeMillis() - validateStart);
+
+		long stopStart = System.currentTimeMillis();
+		for (Module module : plan.stopOrder) {
+			if (!ModuleFactory.isModuleStarted(module)) {
+				// already stopped as the dependent of a module stopped before
+				continue;
+			}
+			List<Module> stoppedModules = new ArrayList<>();
+			stoppedModules.add(module);
+			stoppedModules.addAll(ModuleFactory.stopModule(module, false, false));
+			for (Module stoppedModule : stoppedModules) {
+				result.stoppedModules.add(stoppedModule);
+				callback.moduleStopped(stoppedModule);
+			}
+		}
+		result.phaseMillis.put("stop", System.currentTimeMillis() - stopStart);
+
+		long upgradeStart = System.currentTimeMillis();
+		for (Module module : plan.upgrades) {
+			ModuleFactory.loadModule(module, true);
+		}
+		result.phaseMillis.put("upgrade", System.currentTimeMillis() - upgradeStart);
+
+		long startStart = System.currentTimeMillis();
+		for (Module module : plan.startOrder) {
+			if (!ModuleFactory.isModuleStarted(module)) {
+				ModuleFactory.startModule(module);
+			}
+			if (ModuleFactory.isModuleStarted(module) && !module.hasStartupError()) {
+				result.startedModules.add(module);
+				callback.moduleStarted(module);
+			} else {
+				result.failedModules.add(module);
+			}
+		}
+		result.phaseMillis.put("start", System.currentTimeMillis() - startStart);
+
+		long refreshStart = System.currentTimeMillis();
+		if (!result.startedModules.isEmpty() || !result.stoppedModules.isEmpty()) {
+			callback.refreshContext(Collections.unmodifiableList(result.startedModules));
+			// modules whose activator failed when the context was refreshed are stopped again
+			result.startedModules.removeIf(module -> !ModuleFactory.isModuleStarted(module));
+			callback.contextRefreshed(Collections.unmodifiableList(result.startedModules));
+		}
+		result.phaseMillis.put("refresh", System.currentTimeMillis() - refreshStart);
+
+		log.info("Committed module batch: stopped {}, upgraded {}, started {}, failed {}, timings in ms {}",
+		    result.stoppedModules, plan.upgrades, result.startedModules, result.failedModules, result.phaseMillis);
+
+		return result;
+	}
+
+	/**
+	 * Works out what the batch does and checks that it can be done without changing anything
+	 */
+	private Plan createPlan() throws ModuleException {
+		Plan plan = new Plan();
+
+		Set<Module> starting = new LinkedHashSet<>(modulesToStart);
+		Set<Module> stopping = new LinkedHashSet<>();
+		for (Module module : modulesToStop) {
+			if (ModuleFactory.isModuleStarted(module)) {
+				stopping.add(module);
+			}
+		}
+
+		for (File moduleFile : moduleFilesToUpgrade) {
+			Module newModule = new ModuleFileParser(Context.getMessageSourceService()).parse(moduleFile);
+			Module oldModule = ModuleFactory.getModuleById(newModule.getModuleId());
+			if (oldModule != null) {
+				if (ModuleUtil.compareVersion(oldModule.getVersion(), newModule.getVersion()) > 0) {
+					throw new ModuleException("Cannot upgrade to the older version " + newModule.getVersion(),
+					        newModule.getModuleId());
+				}
+				if (ModuleFactory.isModuleStarted(oldModule)) {
+					stopping.add(oldModule);
+				}
+			}
+			// modules are equal by id, so this replaces a start of the old version
+			starting.remove(newModule);
+			starting.add(newModule);
+			plan.upgrades.add(newModule);
+		}
+
+		// the started modules depending on the stopped ones are stopped too
+		Set<Module> dependents = new LinkedHashSet<>();
+		boolean added = true;
+		while (added) {
+			added = false;
+			for (Module module : ModuleFactory.getStartedModules()) {
+				if (!stopping.contains(module) && !dependents.contains(module)
+				        && (requiresAny(module, stopping) || requiresAny(module, dependents))) {
+					dependents.add(module);
+					added = true;
+				}
+			}
+		}
+		for (Module module : union(stopping, dependents)) {
+			if (module.isMandatory()) {
+				throw new MandatoryModuleException(module.getModuleId());
+			}
+			if (ModuleConstants.CORE_MODULES.containsKey(module.getModuleId())) {
+				throw new OpenmrsCoreModuleException(module.getModuleId());
+			}
+		}
+
+		Set<Module> remainingStarted = new LinkedHashSet<>(ModuleFactory.getStartedModules());
+		remainingStarted.removeAll(stopping);
+		remainingStarted.removeAll(dependents);
+
+		// start the loaded modules that the started ones require
+		Set<Module> checked = new LinkedHashSet<>();
+		while (!checked.containsAll(starting)) {
+			for (Module module : new ArrayList<>(starting)) {
+				if (checked.add(module)) {
+					addRequiredModules(module, starting, stopping, remainingStarted);
+				}
+			}
+		}
+
+		// restart the dependents whose required modules will all be started again
+		added = true;
+		while (added) {
+			added = false;
+			for (Module module : dependents) {
+				if (!starting.contains(module) && areRequiredModulesProvided(module, union(remainingStarted, starting))) {
+					starting.add(module);
+					added = true;
+				}
+			}
+		}
+
+		plan.stopOrder.addAll(inStartupOrder(stopping));
+		Collections.reverse(plan.stopOrder);
+		plan.startOrder.addAll(inStartupOrder(starting));
+
+		return plan;
+	}
+
+	private void addRequiredModules(Module module, Set<Module> starting, Set<Module> stopping,
+	        Set<Module> remainingStarted) throws ModuleException {
+		List<String> missingModules = new ArrayList<>();
+		for (String requiredPackage : module.getRequiredModules()) {
+			String requiredVersion = module.getRequiredModuleVersion(requiredPackage);
+			if (isProvided(requiredPackage, requiredVersion, union(remainingStarted, starting))) {
+				continue;
+			}
+
+			Module requiredModule = ModuleFactory.getModuleByPackage(requiredPackage);
+			if (requiredModule != null && !stopping.contains(requiredModule)
+			        && (requiredVersion == null
+			                || ModuleUtil.compareVersion(requiredModule.getVersion(), requiredVersion) >= 0)) {
+				starting.add(requiredModule);
+			} else {
+				missingModules.add(requiredPackage.replace("org.openmrs.module.", "").replace("org.openmrs.", "")
+				        + (requiredVersion != null ? " " + requiredVersion : ""));
+			}
+		}
+
+		if (!missingModules.isEmpty()) {
+			String[] params = { module.getName(), String.join(",", missingModules) };
+			throw new ModuleException(Context.getMessageSourceService().getMessage("Module.error.moduleCannotBeStarted",
+			    params, Context.getLocale()), module.getModuleId());
+		}
+	}
+
+	private static boolean areRequiredModulesProvided(Module module, Collection<Module> modules) {
+		for (String requiredPackage : module.getRequiredModules()) {
+			if (!isProvided(requiredPackage, module.getRequiredModuleVersion(requiredPackage), modules)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isProvided(String modulePackage, String requiredVersion, Collection<Module> modules) {
+		for (Module module : modules) {
+			if (module.getPackageName().equals(modulePackage)) {
+				return requiredVersion == null || ModuleUtil.compareVersion(module.getVersion(), requiredVersion) >= 0;
+			}
+		}
+		return false;
+	}
+
+	private static boolean requiresAny(Module module, Collection<Module> modules) {
+		for (Module requiredModule : modules) {
+			if (module.getRequiredModules() != null && module.getRequiredModules().contains(requiredModule.getPackageName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Set<Module> union(Collection<Module> modules, Collection<Module> otherModules) {
+		Set<Module> union = new LinkedHashSet<>(modules);
+		union.addAll(otherModules);
+		return union;
+	}
+
+	/**
+	 * Sorts the given modules in dependency order, the returned list only contains the given module
+	 * instances even where the dependencies refer to other loaded versions of them
+	 */
+	private static List<Module> inStartupOrder(Collection<Module> modules) throws ModuleException {
+		Map<String, Module> modulesById = new LinkedHashMap<>();
+		for (Module module : modules) {
+			modulesById.put(module.getModuleId(), module);
+		}
+
+		List<Module> sorted = new ArrayList<>(modules.size());
+		try {
+			for (Module module : ModuleFactory.getModulesInStartupOrder(modules)) {
+				Module batchModule = modulesById.remove(module.getModuleId());
+				if (batchModule != null) {
+					sorted.add(batchModule);
+				}
+			}
+		}
+		catch (CycleException e) {
+			throw new ModuleException("The modules of the batch have cyclic dependencies", e);
+		}
+		// modules without any dependency
+		sorted.addAll(modulesById.values());
+		return sorted;
+	}
+
+	private void checkNotCommitted() {
+		if (committed) {
+			throw new ModuleException("The module batch has already been committed");
+		}
+	}
+
+	/**
+	 * Refreshes the context for a {@link ModuleBatch} and is told about the modules it stops and
+	 * starts, e.g. so that the web layer can copy or remove their web resources
+	 */
+	@FunctionalInterface
+	public interface Callback {
+
+		/**
+		 * Called after a module has been stopped
+		 *
+		 * @param module the stopped module
+		 */
+		default void moduleStopped(Module module) {
+		}
+
+		/**
+		 * Called after a module has been started, before the context is refreshed
+		 *
+		 * @param module the started module
+		 */
+		default void moduleStarted(Module module) {
+		}
+
+		/**
+		 * Refreshes the context, called once per batch
+		 *
+		 * @param startedModules the modules started by the batch
+		 */
+		void refreshContext(Collection<Module> startedModules);
+
+		/**
+		 * Called after the context has been refreshed
+		 *
+		 * @param startedModules the modules started by the batch that are still started
+		 */
+		default void contextRefreshed(Collection<Module> startedModules) {
+		}
+	}
+
+	/**
+	 * The modules stopped, started and failed to start by a committed {@link ModuleBatch}
+	 */
+	public static class Result {
+
+		private final List<Module> stoppedModules = new ArrayList<>();
+
+		private final List<Module> startedModules = new ArrayList<>();
+
+		private final List<Module> failedModules = new ArrayList<>();
+
+		private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+
+		/**
+		 * @return the modules stopped, including dependents and the old versions of upgraded modules
+		 */
+		public List<Module> getStoppedModules() {
+			return stoppedModules;
+		}
+
+		/**
+		 * @return the modules started in the order they were started
+		 */
+		public List<Module> getStartedModules() {
+			return startedModules;
+		}
+
+		/**
+		 * @return the modules that failed to start, see {@link Module#getStartupErrorMessage()}
+		 */
+		public List<Module> getFailedModules() {
+			return failedModules;
+		}
+
+		/**
+		 * @return the milliseconds each phase of the batch took by phase name
+		 */
+		public Map<String, Long> getPhaseMillis() {
+			return phaseMillis;
+		}
+	}
+
+	private static class Plan {
+
+		private final List<Module> stopOrder = new ArrayList<>();
+
+		private final List<Module> upgrades = new ArrayList<>();
+
+		private final List<Module> startOrder = new ArrayList<>();
+	}
+}
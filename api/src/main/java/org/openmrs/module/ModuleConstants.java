@@ -78,6 +78,22 @@ public class ModuleConstants {
 	 */
 	public static final String REPOSITORY_FOLDER_RUNTIME_PROPERTY = "module.repository_folder";
 	
+	/**
+	 * Name of the runtime property with the maximum number of modules started at the same time at
+	 * startup, 1 starts them one after another
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String RUNTIMEPROPERTY_STARTUP_THREADS = "module.startup_threads";
+	
+	/**
+	 * Number of modules started at the same time if the {@link #RUNTIMEPROPERTY_STARTUP_THREADS}
+	 * runtime property is not set, unless there are fewer processors
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final int DEFAULT_STARTUP_THREADS = 4;
+	
 	/**
 	 * A module message.properties file containing this key mapped to "true" will be allowed to define messages outside of the module's namespace.
 	 *
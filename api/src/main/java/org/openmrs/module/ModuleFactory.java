@@ -18,7 +18,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -40,7 +39,6 @@ import org.openmrs.api.AdministrationService;
 import org.openmrs.api.OpenmrsService;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Daemon;
-import org.openmrs.module.Extension.MEDIA_TYPE;
 import org.openmrs.util.CycleException;
 import org.openmrs.util.DatabaseUpdater;
 import org.openmrs.util.Graph;
@@ -73,7 +71,18 @@ public class ModuleFactory {
 	protected static final Cache<String, Module> startedModules = CacheBuilder.newBuilder()
 		.softValues().build();
 	
-	protected static final Map<String, List<Extension>> extensionMap = new HashMap<>();
+	/**
+	 * the extensions of the started modules, replaced by a new snapshot whenever a module is started
+	 * or stopped
+	 */
+	private static volatile ExtensionRegistry extensionRegistry = ExtensionRegistry.EMPTY;
+	
+	private static final Object extensionRegistryLock = new Object();
+	
+	/**
+	 * held while a module runs its sql diffs and liquibase changesets or updates the core dataset
+	 */
+	private static final Object databaseUpdateLock = new Object();
 	
 	// maps to keep track of the memory and objects to free/close
 	protected static final Cache<Module, ModuleClassLoader> moduleClassLoaders = CacheBuilder.newBuilder().weakKeys()
@@ -86,7 +95,7 @@ public class ModuleFactory {
 	
 	private static final Cache<String, DaemonToken> daemonTokens = CacheBuilder.newBuilder().softValues().build();
 	
-	private static final Set<String> actualStartupOrder = new LinkedHashSet<>();
+	private static final Set<String> actualStartupOrder = Collections.synchronizedSet(new LinkedHashSet<>());
 	
 	/**
 	 * Add a module (in the form of a jar file) to the list of openmrs modules Returns null if an error
@@ -226,7 +235,9 @@ public class ModuleFactory {
 	 * Try to start all of the loaded modules that have the global property <i>moduleId</i>.started is
 	 * set to "true" or the property does not exist. Otherwise, leave it as only "loaded"<br>
 	 * <br>
-	 * Modules that are already started will be skipped.
+	 * Modules that are already started will be skipped. Modules which do not require and are not aware
+	 * of each other are started at the same time by up to
+	 * {@link ModuleConstants#RUNTIMEPROPERTY_STARTUP_THREADS} threads.
 	 */
 	public static void startModules() {
 		
@@ -245,33 +256,8 @@ public class ModuleFactory {
 				modules = (List<Module>) ex.getExtraData();
 			}
 			
-			// try and start the modules that should be started
-			for (Module mod : modules) {
-				
-				if (mod.isStarted()) {
-					// skip over modules that are already started
-					continue;
-				}
-				
-				// Skip module if required ones are not started
-				if (!requiredModulesStarted(mod)) {
-					String message = getFailedToStartModuleMessage(mod);
-					log.error(message);
-					mod.setStartupErrorMessage(message);
-					notifySuperUsersAboutModuleFailure(mod);
-					continue;
-				}
-				
-				try {
-					log.debug("starting module: {}", mod.getModuleId());
-					startModule(mod);
-				}
-				catch (Exception e) {
-					log.error("Error while starting module: " + mod.getName(), e);
-					mod.setStartupErrorMessage("Error while starting module", e);
-					notifySuperUsersAboutModuleFailure(mod);
-				}
-			}
+			// try and start the modules that should be started, independent ones at the same time
+			new ModuleStartup(modules, ModuleStartup.getConfiguredThreads()).run();
 		}
 	}
 	
@@ -356,7 +342,7 @@ public class ModuleFactory {
 	 *
 	 * @param mod The Module that failed
 	 */
-	private static void notifySuperUsersAboutModuleFailure(Module mod) {
+	static void notifySuperUsersAboutModuleFailure(Module mod) {
 		try {
 			// Add the privileges necessary for notifySuperUsers
 			Context.addProxyPrivilege(PrivilegeConstants.MANAGE_ALERTS);
@@ -492,8 +478,10 @@ public class ModuleFactory {
 	public static List<Module> getStartedModulesInOrder() {
 		List<Module> modules = new ArrayList<>();
 		if (actualStartupOrder != null) {
-			for (String moduleId : actualStartupOrder) {
-				modules.add(getStartedModulesMap().get(moduleId));
+			synchronized (actualStartupOrder) {
+				for (String moduleId : actualStartupOrder) {
+					modules.add(getStartedModulesMap().get(moduleId));
+				}
 			}
 		} else {
 			modules.addAll(getStartedModules());
@@ -501,6 +489,22 @@ public class ModuleFactory {
 		return modules;
 	}
 	
+	/**
+	 * Moves the given modules, which were started at the same time, to the end of the startup order
+	 * in the given order, so that it does not depend on which one finished first
+	 *
+	 * @param modules the started modules in startup order
+	 */
+	static void reorderStartupOrder(List<Module> modules) {
+		synchronized (actualStartupOrder) {
+			for (Module module : modules) {
+				if (actualStartupOrder.remove(module.getModuleId())) {
+					actualStartupOrder.add(module.getModuleId());
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Returns the modules that have been successfully started in the form of a map&lt;ModuleId,
 	 * Module&gt;
@@ -659,31 +663,8 @@ public class ModuleFactory {
 				// into spring yet.  All advice for all modules must be reloaded
 				// a spring context refresh anyway
 				
-				// map extension point to a list of extensions for this module only
-				Map<String, List<Extension>> moduleExtensionMap = new HashMap<>();
-				for (Extension ext : module.getExtensions()) {
-					
-					String extId = ext.getExtensionId();
-					List<Extension> tmpExtensions = moduleExtensionMap.computeIfAbsent(extId, k -> new ArrayList<>());
-					
-					tmpExtensions.add(ext);
-				}
-				
-				// Sort this module's extensions, and merge them into the full extensions map
-				Comparator<Extension> sortOrder = (e1, e2) -> Integer.valueOf(e1.getOrder()).compareTo(e2.getOrder());
-				for (Map.Entry<String, List<Extension>> moduleExtensionEntry : moduleExtensionMap.entrySet()) {
-					// Sort this module's extensions for current extension point
-					List<Extension> sortedModuleExtensions = moduleExtensionEntry.getValue();
-					sortedModuleExtensions.sort(sortOrder);
-					
-					// Get existing extensions, and append the ones from the new module
-					List<Extension> extensions = getExtensionMap().computeIfAbsent(moduleExtensionEntry.getKey(),
-						k -> new ArrayList<>());
-					for (Extension ext : sortedModuleExtensions) {
-						log.debug("Adding to mapping ext: " + ext.getExtensionId() + " ext.class: " + ext.getClass());
-						extensions.add(ext);
-					}
-				}
+				// merge this module's extensions, sorted by order, into the extension registry
+				addExtensions(module.getExtensions());
 				
 				// run the module's sql update script
 				// This and the property updates are the only things that can't
@@ -691,29 +672,32 @@ public class ModuleFactory {
 				// calls that might hinder startup
 				SortedMap<String, String> diffs = SqlDiffFileParser.getSqlDiffs(module);
 				
-				try {
-					// this method must check and run queries against the database.
-					// to do this, it must be "authenticated".  Give the current
-					// "user" the proxy privilege so this can be done. ("user" might
-					// be nobody because this is being run at startup)
-					Context.addProxyPrivilege("");
-					
-					for (Map.Entry<String, String> entry : diffs.entrySet()) {
-						String version = entry.getKey();
-						String sql = entry.getValue();
-						if (StringUtils.hasText(sql)) {
-							runDiff(module, version, sql);
+				// modules started at the same time update the database one after another
+				synchronized (databaseUpdateLock) {
+					try {
+						// this method must check and run queries against the database.
+						// to do this, it must be "authenticated".  Give the current
+						// "user" the proxy privilege so this can be done. ("user" might
+						// be nobody because this is being run at startup)
+						Context.addProxyPrivilege("");
+						
+						for (Map.Entry<String, String> entry : diffs.entrySet()) {
+							String version = entry.getKey();
+							String sql = entry.getValue();
+							if (StringUtils.hasText(sql)) {
+								runDiff(module, version, sql);
+							}
 						}
 					}
-				}
-				finally {
-					// take the "authenticated" privilege away from the current "user"
-					Context.removeProxyPrivilege("");
+					finally {
+						// take the "authenticated" privilege away from the current "user"
+						Context.removeProxyPrivilege("");
+					}
+					
+					// run module's optional liquibase.xml immediately after sqldiff.xml
+					runLiquibase(module);
 				}
 				
-				// run module's optional liquibase.xml immediately after sqldiff.xml
-				runLiquibase(module);
-				
 				// effectively mark this module as started successfully
 				getStartedModulesMap().put(moduleId, module);
 
@@ -742,7 +726,9 @@ public class ModuleFactory {
 				// done at initial app startup)
 				if (!module.getPrivileges().isEmpty() || !module.getGlobalProperties().isEmpty()) {
 					log.debug("Updating core dataset");
-					Context.checkCoreDataset();
+					synchronized (databaseUpdateLock) {
+						Context.checkCoreDataset();
+					}
 					// checkCoreDataset() currently doesn't throw an error. If
 					// it did, it needs to be
 					// caught and the module needs to be stopped and given a
@@ -801,29 +787,28 @@ public class ModuleFactory {
 	
 	private static void registerProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
-			
-			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
-			if (set != null) {
-				newSet.addAll(set);
-			}
-			
-			newSet.add(moduleClassLoader);
-			providedPackages.put(providedPackage, newSet);
+			// copy on write, atomically since modules may be started at the same time
+			providedPackages.compute(providedPackage, (packageName, set) -> {
+				Set<ModuleClassLoader> newSet = new HashSet<>();
+				if (set != null) {
+					newSet.addAll(set);
+				}
+				newSet.add(moduleClassLoader);
+				return newSet;
+			});
 		}
 	}
 	
 	private static void unregisterProvidedPackages(ModuleClassLoader moduleClassLoader) {
 		for (String providedPackage : moduleClassLoader.getProvidedPackages()) {
-			Set<ModuleClassLoader> newSet = new HashSet<>();
-			
-			Set<ModuleClassLoader> set = providedPackages.get(providedPackage);
-			if (set != null) {
-				newSet.addAll(set);
-			}
-			newSet.remove(moduleClassLoader);
-			
-			providedPackages.put(providedPackage, newSet);
+			providedPackages.compute(providedPackage, (packageName, set) -> {
+				Set<ModuleClassLoader> newSet = new HashSet<>();
+				if (set != null) {
+					newSet.addAll(set);
+				}
+				newSet.remove(moduleClassLoader);
+				return newSet;
+			});
 		}
 	}
 	
@@ -842,7 +827,7 @@ public class ModuleFactory {
 	 * @param module the module that has failed to start.
 	 * @return the message text.
 	 */
-	private static String getFailedToStartModuleMessage(Module module) {
+	static String getFailedToStartModuleMessage(Module module) {
 		String[] params = { module.getName(), String.join(",", getMissingRequiredModules(module)) };
 		return Context.getMessageSourceService().getMessage("Module.error.moduleCannotBeStarted", params,
 			Context.getLocale());
@@ -1121,17 +1106,7 @@ public class ModuleFactory {
 				
 				// remove all extensions by this module
 				try {
-					for (Extension ext : mod.getExtensions()) {
-						String extId = ext.getExtensionId();
-						try {
-							List<Extension> tmpExtensions = getExtensions(extId);
-							tmpExtensions.remove(ext);
-							getExtensionMap().put(extId, tmpExtensions);
-						}
-						catch (Exception exterror) {
-							log.warn("Error while getting extension: " + ext, exterror);
-						}
-					}
+					removeExtensions(mod.getExtensions());
 				}
 				catch (Exception t) {
 					log.warn("Error while getting extensions from module: " + moduleId, t);
@@ -1240,42 +1215,16 @@ public class ModuleFactory {
 	
 	/**
 	 * Return all of the extensions associated with the given <code>pointId</code> Returns empty
-	 * extension list if no modules extend this pointId
+	 * extension list if no modules extend this pointId. For a pointId without a media type the
+	 * extensions of the pointId with each media type are included. The returned list is unmodifiable
+	 * and is not changed when modules are started or stopped.
 	 *
 	 * @param pointId
 	 * @return List of extensions
 	 */
 	public static List<Extension> getExtensions(String pointId) {
-		List<Extension> extensions;
-		Map<String, List<Extension>> extensionMap = getExtensionMap();
-		
-		// get all extensions for this exact pointId
-		extensions = extensionMap.get(pointId);
-		if (extensions == null) {
-			extensions = new ArrayList<>();
-		}
-		
-		// if this pointId doesn't contain the separator character, search
-		// for this point prepended with each MEDIA TYPE
-		if (!pointId.contains(Extension.EXTENSION_ID_SEPARATOR)) {
-			for (MEDIA_TYPE mediaType : Extension.MEDIA_TYPE.values()) {
-				
-				// get all extensions for this type and point id
-				List<Extension> tmpExtensions = extensionMap.get(Extension.toExtensionId(pointId, mediaType));
-				
-				// 'extensions' should be a unique list
-				if (tmpExtensions != null) {
-					for (Extension ext : tmpExtensions) {
-						if (!extensions.contains(ext)) {
-							extensions.add(ext);
-						}
-					}
-				}
-			}
-		}
-		
-		log.debug("Getting extensions defined by : " + pointId);
-		return extensions;
+		log.debug("Getting extensions defined by : {}", pointId);
+		return extensionRegistry.getExtensions(pointId);
 	}
 	
 	/**
@@ -1287,13 +1236,50 @@ public class ModuleFactory {
 	 * @return List of extensions
 	 */
 	public static List<Extension> getExtensions(String pointId, Extension.MEDIA_TYPE type) {
+		ExtensionRegistry registry = extensionRegistry;
 		String key = Extension.toExtensionId(pointId, type);
-		List<Extension> extensions = getExtensionMap().get(key);
+		List<Extension> extensions = registry.getExtensionsById(key);
 		if (extensions != null) {
-			log.debug("Getting extensions defined by : " + key);
+			log.debug("Getting extensions defined by : {}", key);
 			return extensions;
 		} else {
-			return getExtensions(pointId);
+			return registry.getExtensions(pointId);
+		}
+	}
+	
+	/**
+	 * Adds the extensions of a module which is started by replacing the extension registry
+	 *
+	 * @param moduleExtensions the extensions of the module
+	 */
+	private static void addExtensions(List<Extension> moduleExtensions) {
+		if (log.isDebugEnabled()) {
+			for (Extension ext : moduleExtensions) {
+				log.debug("Adding to mapping ext: " + ext.getExtensionId() + " ext.class: " + ext.getClass());
+			}
+		}
+		synchronized (extensionRegistryLock) {
+			extensionRegistry = extensionRegistry.withExtensions(moduleExtensions);
+		}
+	}
+	
+	/**
+	 * Removes the extensions of a module which is stopped by replacing the extension registry
+	 *
+	 * @param moduleExtensions the extensions of the module
+	 */
+	private static void removeExtensions(List<Extension> moduleExtensions) {
+		synchronized (extensionRegistryLock) {
+			extensionRegistry = extensionRegistry.withoutExtensions(moduleExtensions);
+		}
+	}
+	
+	/**
+	 * Removes all extensions, used when all modules are shut down
+	 */
+	static void clearExtensions() {
+		synchronized (extensionRegistryLock) {
+			extensionRegistry = ExtensionRegistry.EMPTY;
 		}
 	}
 	
@@ -1418,12 +1404,13 @@ public class ModuleFactory {
 	}
 	
 	/**
-	 * Return the current extension map keyed on extension point id
+	 * Return the current extension map keyed on extension point id. The map is an unmodifiable
+	 * snapshot, extensions are added and removed by starting and stopping modules.
 	 *
 	 * @return Map&lt;String, List&lt;Extension&gt;&gt;
 	 */
 	public static Map<String, List<Extension>> getExtensionMap() {
-		return extensionMap;
+		return extensionRegistry.getExtensionMap();
 	}
 	
 	/**
@@ -1433,21 +1420,25 @@ public class ModuleFactory {
 	 * @param module
 	 * @return true/false boolean whether this module's required modules are all started
 	 */
-	private static boolean requiredModulesStarted(Module module) {
+	static boolean requiredModulesStarted(Module module) {
+		List<String> requiredModules = module.getRequiredModules();
+		if (requiredModules == null || requiredModules.isEmpty()) {
+			return true;
+		}
+		
+		Map<String, Module> startedModulesByPackage = new HashMap<>();
+		for (Module mod : getStartedModules()) {
+			startedModulesByPackage.putIfAbsent(mod.getPackageName(), mod);
+		}
+		
 		//required
-		for (String reqModPackage : module.getRequiredModules()) {
-			boolean started = false;
-			for (Module mod : getStartedModules()) {
-				if (mod.getPackageName().equals(reqModPackage)) {
-					String reqVersion = module.getRequiredModuleVersion(reqModPackage);
-					if (reqVersion == null || ModuleUtil.compareVersion(mod.getVersion(), reqVersion) >= 0) {
-						started = true;
-					}
-					break;
-				}
+		for (String reqModPackage : requiredModules) {
+			Module mod = startedModulesByPackage.get(reqModPackage);
+			if (mod == null) {
+				return false;
 			}
-			
-			if (!started) {
+			String reqVersion = module.getRequiredModuleVersion(reqModPackage);
+			if (reqVersion != null && ModuleUtil.compareVersion(mod.getVersion(), reqVersion) < 0) {
 				return false;
 			}
 		}
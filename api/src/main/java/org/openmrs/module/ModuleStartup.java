@@ -0,0 +1,266 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts modules on a bounded pool of threads, see {@link ModuleFactory#startModules()}. The
+ * dependency graph of the modules is built once, a module is started as soon as all the modules it
+ * requires or is aware of have been started or failed to start, so independent modules run their
+ * class loader creation, database updates and {@link ModuleActivator#willStart()} at the same time.
+ * The outcome and time of each module are logged in startup order once all modules are done, and
+ * the modules are recorded as started in that order, no matter in which order the threads finished.
+ *
+ * @since 2.7.0
+ */
+final class ModuleStartup {
+
+	private static final Logger log = LoggerFactory.getLogger(ModuleStartup.class);
+
+	private final List<Module> modules;
+
+	private final int threads;
+
+	/**
+	 * the modules waiting for each module, by module id
+	 */
+	private final Map<String, List<Module>> dependents = new HashMap<>();
+
+	private final Map<String, AtomicInteger> pendingDependencies = new HashMap<>();
+
+	private final Map<String, Long> startupNanos = new ConcurrentHashMap<>();
+
+	private final Map<String, Boolean> newlyStarted = new ConcurrentHashMap<>();
+	
+	/**
+	 * the modules that failed to start, the super users are notified about them from the thread
+	 * calling {@link #run()} since the startup threads have no user context
+	 */
+	private final Map<String, Boolean> failed = new ConcurrentHashMap<>();
+
+	/**
+	 * @param modulesInStartupOrder the modules to start, in the order returned by
+	 *            {@link ModuleFactory#getModulesInStartupOrder(java.util.Collection)}
+	 * @param threads the maximum number of modules started at the same time
+	 */
+	ModuleStartup(List<Module> modulesInStartupOrder, int threads) {
+		this.modules = new ArrayList<>(modulesInStartupOrder);
+		this.threads = Math.max(1, threads);
+
+		Map<String, Module> modulesByPackage = new HashMap<>();
+		for (Module module : modules) {
+			// a module only waits for modules before it, so that modules ordered despite a cycle still start
+			List<Module> waitsFor = new ArrayList<>();
+			for (String packageName : getPrerequisitePackages(module)) {
+				Module prerequisite = modulesByPackage.get(packageName);
+				if (prerequisite != null && !waitsFor.contains(prerequisite)) {
+					waitsFor.add(prerequisite);
+					dependents.computeIfAbsent(prerequisite.getModuleId(), k -> new ArrayList<>()).add(module);
+				}
+			}
+			pendingDependencies.put(module.getModuleId(), new AtomicInteger(waitsFor.size()));
+			modulesByPackage.put(module.getPackageName(), module);
+		}
+	}
+
+	/**
+	 * Starts the modules and waits until all of them are started or failed to start
+	 */
+	void run() {
+		long start = System.nanoTime();
+		if (threads == 1 || modules.size() <= 1) {
+			for (Module module : modules) {
+				startModule(module);
+			}
+		} else {
+			runInParallel();
+		}
+
+		ModuleFactory.reorderStartupOrder(getNewlyStartedModules());
+		for (Module module : modules) {
+			if (failed.containsKey(module.getModuleId())) {
+				ModuleFactory.notifySuperUsersAboutModuleFailure(module);
+			}
+		}
+		logOutcome(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	/**
+	 * @return the time it took to start each module in milliseconds, in startup order, modules which
+	 *         were already started or whose required modules did not start are left out
+	 */
+	Map<Module, Long> getStartupMillis() {
+		Map<Module, Long> millis = new LinkedHashMap<>();
+		for (Module module : modules) {
+			Long nanos = startupNanos.get(module.getModuleId());
+			if (nanos != null) {
+				millis.put(module, TimeUnit.NANOSECONDS.toMillis(nanos));
+			}
+		}
+		return millis;
+	}
+
+	private void runInParallel() {
+		CountDownLatch done = new CountDownLatch(modules.size());
+		AtomicInteger threadNumber = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, modules.size()), runnable -> {
+			Thread thread = new Thread(runnable, "OpenMRS-module-startup-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (Module module : modules) {
+				if (pendingDependencies.get(module.getModuleId()).get() == 0) {
+					submit(executor, module, done);
+				}
+			}
+			done.await();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			log.warn("Interrupted while waiting for modules to start");
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private void submit(ExecutorService executor, Module module, CountDownLatch done) {
+		executor.execute(() -> {
+			try {
+				startModule(module);
+			}
+			finally {
+				done.countDown();
+				for (Module dependent : dependents.getOrDefault(module.getModuleId(), Collections.emptyList())) {
+					if (pendingDependencies.get(dependent.getModuleId()).decrementAndGet() == 0) {
+						submit(executor, dependent, done);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Starts the given module unless it is started already, the errors are reported like
+	 * {@link ModuleFactory#startModules()} always did
+	 */
+	private void startModule(Module mod) {
+		if (mod.isStarted()) {
+			// skip over modules that are already started
+			return;
+		}
+
+		// Skip module if required ones are not started
+		if (!ModuleFactory.requiredModulesStarted(mod)) {
+			String message = ModuleFactory.getFailedToStartModuleMessage(mod);
+			log.error(message);
+			mod.setStartupErrorMessage(message);
+			failed.put(mod.getModuleId(), Boolean.TRUE);
+			return;
+		}
+
+		long start = System.nanoTime();
+		try {
+			log.debug("starting module: {}", mod.getModuleId());
+			ModuleFactory.startModule(mod);
+		}
+		catch (Exception e) {
+			log.error("Error while starting module: " + mod.getName(), e);
+			mod.setStartupErrorMessage("Error while starting module", e);
+			failed.put(mod.getModuleId(), Boolean.TRUE);
+		}
+		finally {
+			startupNanos.put(mod.getModuleId(), System.nanoTime() - start);
+		}
+		if (mod.isStarted()) {
+			newlyStarted.put(mod.getModuleId(), Boolean.TRUE);
+		}
+	}
+
+	private List<Module> getNewlyStartedModules() {
+		List<Module> started = new ArrayList<>();
+		for (Module module : modules) {
+			if (newlyStarted.containsKey(module.getModuleId())) {
+				started.add(module);
+			}
+		}
+		return started;
+	}
+
+	private void logOutcome(long totalMillis) {
+		if (!log.isInfoEnabled()) {
+			return;
+		}
+		Map<Module, Long> millis = getStartupMillis();
+		for (Module module : modules) {
+			Long moduleMillis = millis.get(module);
+			if (newlyStarted.containsKey(module.getModuleId())) {
+				log.info("Started module {} in {} ms", module.getModuleId(), moduleMillis);
+			} else if (module.getStartupErrorMessage() != null) {
+				log.info("Module {} failed to start{}: {}", module.getModuleId(), moduleMillis == null ? "" : " after "
+				        + moduleMillis + " ms", module.getStartupErrorMessage());
+			}
+		}
+		log.info("Started {} of {} modules in {} ms using up to {} threads", newlyStarted.size(), modules.size(),
+		    totalMillis, threads);
+	}
+
+	private static List<String> getPrerequisitePackages(Module module) {
+		List<String> packages = new ArrayList<>(module.getRequiredModules());
+		if (module.getAwareOfModules() != null) {
+			packages.addAll(module.getAwareOfModules());
+		}
+		return packages;
+	}
+
+	/**
+	 * @param runtimeProperty the value of the {@link ModuleConstants#RUNTIMEPROPERTY_STARTUP_THREADS}
+	 *            runtime property
+	 * @return the number of threads modules are started with
+	 */
+	static int getThreads(String runtimeProperty) {
+		if (runtimeProperty != null && !runtimeProperty.trim().isEmpty()) {
+			try {
+				return Math.max(1, Integer.parseInt(runtimeProperty.trim()));
+			}
+			catch (NumberFormatException e) {
+				log.warn("Invalid value '{}' of runtime property '{}', starting modules one after another",
+				    runtimeProperty, ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS);
+				return 1;
+			}
+		}
+		return Math.min(ModuleConstants.DEFAULT_STARTUP_THREADS, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @return the number of threads configured with the
+	 *         {@link ModuleConstants#RUNTIMEPROPERTY_STARTUP_THREADS} runtime property
+	 */
+	static int getConfiguredThreads() {
+		return getThreads(Context.getRuntimeProperties().getProperty(ModuleConstants.RUNTIMEPROPERTY_STARTUP_THREADS));
+	}
+}
@@ -164,7 +164,7 @@ public class ModuleUtil {
 		log.debug("done shutting down modules");
 		
 		// clean up the static variables just in case they weren't done before
-		ModuleFactory.extensionMap.clear();
+		ModuleFactory.clearExtensions();
 		ModuleFactory.loadedModules.invalidateAll();
 		ModuleFactory.moduleClassLoaders.invalidateAll();
 		ModuleFactory.startedModules.invalidateAll();
@@ -820,6 +820,28 @@ public class ModuleUtil {
 	 */
 	public static AbstractRefreshableApplicationContext refreshApplicationContext(AbstractRefreshableApplicationContext ctx,
 	        boolean isOpenmrsStartup, Module startedModule) {
+		if (startedModule == null) {
+			return refreshApplicationContextForModules(ctx, isOpenmrsStartup, Collections.emptySet());
+		}
+		return refreshApplicationContextForModules(ctx, isOpenmrsStartup, Collections.singleton(startedModule));
+	}
+	
+	/**
+	 * Refreshes the given application context like
+	 * {@link #refreshApplicationContext(AbstractRefreshableApplicationContext, boolean, Module)} but
+	 * for several modules that were started and are waiting on the context refresh, see
+	 * {@link ModuleBatch}
+	 *
+	 * @param ctx Spring application context that needs refreshing.
+	 * @param isOpenmrsStartup if this refresh is being done at application startup.
+	 * @param justStartedModules the modules that were just started and waiting on the context refresh.
+	 * @return AbstractRefreshableApplicationContext The newly refreshed application context.
+	 * @since 2.7.0
+	 */
+	public static AbstractRefreshableApplicationContext refreshApplicationContextForModules(
+	        AbstractRefreshableApplicationContext ctx, boolean isOpenmrsStartup, Collection<Module> justStartedModules) {
+		long closeStart = System.currentTimeMillis();
+		
 		//notify all started modules that we are about to refresh the context
 		Set<Module> startedModules = new LinkedHashSet<>(ModuleFactory.getStartedModulesInOrder());
 		for (Module module : startedModules) {
@@ -851,6 +873,7 @@ public class ModuleUtil {
 		ctx.setClassLoader(OpenmrsClassLoader.getInstance());
 		Thread.currentThread().setContextClassLoader(OpenmrsClassLoader.getInstance());
 		
+		long refreshStart = System.currentTimeMillis();
 		ServiceContext.getInstance().startRefreshingContext();
 		try {
 			ctx.refresh();
@@ -868,6 +891,7 @@ public class ModuleUtil {
 		OpenmrsClassLoader.setThreadsToNewClassLoader();
 		
 		// reload the advice points that were lost when refreshing Spring
+		long adviceStart = System.currentTimeMillis();
 		log.debug("Reloading advice for all started modules: {}", startedModules.size());
 		
 		try {
@@ -892,8 +916,8 @@ public class ModuleUtil {
 							if (isOpenmrsStartup) {
 								module.getModuleActivator().started();
 							}
-							//if refreshing the context after a user started or uploaded a new module
-							else if (!isOpenmrsStartup && module.equals(startedModule)) {
+							//if refreshing the context after a user started or uploaded new modules
+							else if (!isOpenmrsStartup && justStartedModules.contains(module)) {
 								module.getModuleActivator().started();
 							}
 						}
@@ -913,6 +937,10 @@ public class ModuleUtil {
 			Context.closeSessionWithCurrentUser();
 		}
 		
+		log.info("Refreshed the application context for {} started module(s) in {} ms (close {} ms, refresh {} ms, "
+		        + "advice and activators {} ms)", startedModules.size(), System.currentTimeMillis() - closeStart,
+		    refreshStart - closeStart, adviceStart - refreshStart, System.currentTimeMillis() - adviceStart);
+		
 		return ctx;
 	}
 	
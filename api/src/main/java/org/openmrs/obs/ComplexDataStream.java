@@ -0,0 +1,163 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.io.input.BoundedInputStream;
+
+/**
+ * Gives streaming access to the stored data of a complex obs without loading it into memory. The
+ * file is only opened when it is first read and must be closed by the caller, e.g.
+ *
+ * <pre>
+ * try (ComplexDataStream stream = Context.getObsService().getComplexDataStream(obs, ComplexObsHandler.RAW_VIEW)) {
+ * 	response.setContentLengthLong(stream.getLength());
+ * 	stream.transferTo(0, stream.getLength(), Channels.newChannel(response.getOutputStream()));
+ * }
+ * </pre>
+ *
+ * Instances are not thread safe, all reads share one channel.
+ *
+ * @see ComplexObsHandler#getComplexDataStream(org.openmrs.Obs, String)
+ * @since 2.7.0
+ */
+public class ComplexDataStream implements Closeable {
+
+	private final String title;
+
+	private final String mimeType;
+
+	private final Path path;
+
+	private final long length;
+
+	private FileChannel channel;
+
+	/**
+	 * @param title the title of the complex data, typically the original file name
+	 * @param mimeType the MIME type of the data
+	 * @param path the file containing the data
+	 * @param length the length of the file in bytes
+	 */
+	public ComplexDataStream(String title, String mimeType, Path path, long length) {
+		this.title = title;
+		this.mimeType = mimeType;
+		this.path = path;
+		this.length = length;
+	}
+
+	/**
+	 * @return the title of the complex data, typically the original file name
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * @return the MIME type of the data
+	 */
+	public String getMimeType() {
+		return mimeType;
+	}
+
+	/**
+	 * @return the length of the data in bytes
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the channel to read the data from, opening it on the first call
+	 *
+	 * @return a seekable channel positioned at the start of the data on the first call
+	 * @throws IOException if the data cannot be opened
+	 */
+	public SeekableByteChannel getChannel() throws IOException {
+		return getFileChannel();
+	}
+
+	/**
+	 * Returns a stream of a range of the data, e.g. to answer an HTTP range request. Reading the
+	 * stream moves the position of the {@link #getChannel() channel}, closing it closes the channel.
+	 *
+	 * @param offset the position of the first byte to read
+	 * @param count the maximum number of bytes to read
+	 * @return the stream of the range
+	 * @throws IOException if the data cannot be opened
+	 * <strong>Should</strong> read only the requested range
+	 */
+	public InputStream getInputStream(long offset, long count) throws IOException {
+		checkRange(offset, count);
+		FileChannel fileChannel = getFileChannel();
+		fileChannel.position(offset);
+		return new BoundedInputStream(Channels.newInputStream(fileChannel), count);
+	}
+
+	/**
+	 * Copies a range of the data to the target, letting the operating system copy it directly from
+	 * the file where possible
+	 *
+	 * @param offset the position of the first byte to copy
+	 * @param count the maximum number of bytes to copy
+	 * @param target the channel to copy to
+	 * @return the number of bytes copied
+	 * @throws IOException if the data cannot be read or written
+	 * <strong>Should</strong> copy only the requested range
+	 */
+	public long transferTo(long offset, long count, WritableByteChannel target) throws IOException {
+		checkRange(offset, count);
+		FileChannel fileChannel = getFileChannel();
+		long end = Math.min(length, offset + count);
+		long position = offset;
+		while (position < end) {
+			long transferred = fileChannel.transferTo(position, end - position, target);
+			if (transferred <= 0) {
+				break;
+			}
+			position += transferred;
+		}
+		return position - offset;
+	}
+
+	/**
+	 * Closes the channel if it was opened
+	 */
+	@Override
+	public void close() throws IOException {
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	private FileChannel getFileChannel() throws IOException {
+		if (channel == null || !channel.isOpen()) {
+			channel = FileChannel.open(path, StandardOpenOption.READ);
+		}
+		return channel;
+	}
+
+	private void checkRange(long offset, long count) {
+		if (offset < 0 || count < 0 || offset > length) {
+			throw new IllegalArgumentException("Invalid range of " + count + " bytes at " + offset + " in " + length
+			        + " bytes");
+		}
+	}
+}
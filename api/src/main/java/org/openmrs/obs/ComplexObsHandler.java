@@ -44,6 +44,11 @@ public interface ComplexObsHandler {
 	
 	public static final String URI_VIEW = "URI_VIEW";
 	
+	/**
+	 * @since 2.7.0
+	 */
+	public static final String THUMBNAIL_VIEW = "THUMBNAIL_VIEW";
+	
 	/**
 	 * Save a complex obs. This extracts the ComplexData from an Obs, stores it to a location
 	 * determined by the handler, and returns the Obs with the ComplexData nullified.
@@ -67,6 +72,20 @@ public interface ComplexObsHandler {
 	 */
 	public Obs getObs(Obs obs, String view);
 	
+	/**
+	 * Gives streaming access to the stored data of a complex obs in the given view, so that large
+	 * files can be served without loading them into memory. The data is not opened until it is read
+	 * and the returned stream must be closed by the caller.
+	 * 
+	 * @param obs an obs without complex data filled in
+	 * @param view the view of the data, typically {@link #RAW_VIEW}
+	 * @return the stream or null if the handler cannot stream the view or the data does not exist
+	 * @since 2.7.0
+	 */
+	public default ComplexDataStream getComplexDataStream(Obs obs, String view) {
+		return null;
+	}
+	
 	/**
 	 * Completely removes the ComplexData Object from its storage location. <br>
 	 * <br>
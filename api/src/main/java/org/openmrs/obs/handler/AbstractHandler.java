@@ -13,12 +13,17 @@ import java.io.File;
 import java.io.IOException;
 import java.text.NumberFormat;
 import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.openmrs.Obs;
 import org.openmrs.api.context.Context;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataStream;
+import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.util.OpenmrsConstants;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -27,6 +32,14 @@ import org.slf4j.LoggerFactory;
 /**
  * Abstract handler for some convenience methods Files are stored in the location specified by the
  * global property: "obs.complex_obs_dir"
+ * <p>
+ * New files are spread over subdirectories of that directory named after the leading hex digits of
+ * the obs uuid in the file name, e.g. <code>9b/66/title_9b6639b2-....png</code>, the number of
+ * levels is set by the global property {@link OpenmrsConstants#GP_COMPLEX_OBS_DIR_SHARD_LEVELS}.
+ * The value complex of an obs only holds the file name, so files are looked up at every number of
+ * levels: files stored directly in the directory by earlier versions or before the global property
+ * was changed are still found, and they can be moved to the current number of levels by the
+ * {@link org.openmrs.scheduler.tasks.ShardComplexObsDirTask}.
  * 
  * @since 1.5
  */
@@ -34,6 +47,14 @@ public class AbstractHandler {
 	
 	private static final Logger log = LoggerFactory.getLogger(AbstractHandler.class);
 	
+	/**
+	 * The maximum number of subdirectory levels, each level uses two hex digits of the uuid
+	 */
+	public static final int MAX_SHARD_LEVELS = 4;
+	
+	private static final Pattern UUID_PATTERN = Pattern
+	        .compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+	
 	protected NumberFormat nf;
 	
 	/**
@@ -67,9 +88,12 @@ public class AbstractHandler {
 			filename = uuid + extension;
 		}
 		
-		File dir = OpenmrsUtil.getDirectoryInApplicationDataDirectory(
-		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR));
-		return new File(dir, filename);
+		File file = new File(getComplexObsDir(), getShardedPath(filename, getShardLevels()));
+		File dir = file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+			throw new IOException("Unable to create the directory " + dir.getAbsolutePath());
+		}
+		return file;
 	}
 	
 	/**
@@ -121,6 +145,54 @@ public class AbstractHandler {
 		return obs;
 	}
 	
+	/**
+	 * Streams the stored file for the raw view, handlers which support other views of the stored
+	 * file or know its MIME type better should override this method.
+	 * 
+	 * @see org.openmrs.obs.ComplexObsHandler#getComplexDataStream(Obs, String)
+	 * @since 2.7.0
+	 */
+	public ComplexDataStream getComplexDataStream(Obs obs, String view) {
+		if (!ComplexObsHandler.RAW_VIEW.equals(view)) {
+			return null;
+		}
+		File file = getComplexDataFile(obs);
+		return createComplexDataStream(file, getOriginalFilename(obs), OpenmrsUtil.getFileMimeType(file));
+	}
+	
+	/**
+	 * Creates a stream of a stored file without opening it
+	 * 
+	 * @param file the stored file
+	 * @param title the title of the complex data
+	 * @param mimeType the MIME type of the file
+	 * @return the stream or null if the file does not exist
+	 * @since 2.7.0
+	 */
+	protected ComplexDataStream createComplexDataStream(File file, String title, String mimeType) {
+		if (!file.isFile()) {
+			log.error("Unable to find file " + file.getAbsolutePath());
+			return null;
+		}
+		return new ComplexDataStream(title, mimeType, file.toPath(), file.length());
+	}
+	
+	/**
+	 * Returns the original file name stored in the value complex of an obs, without commas and
+	 * whitespace which browsers do not handle well in downloaded file names
+	 * 
+	 * @param obs the complex obs
+	 * @return the original file name or the name of the stored file if there is none
+	 * @since 2.7.0
+	 */
+	protected String getOriginalFilename(Obs obs) {
+		String[] names = obs.getValueComplex().split("\\|");
+		if (names.length < 2) {
+			return getComplexDataFile(obs).getName();
+		}
+		return names[0].replace(",", "").replaceAll("\\s", "");
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#purgeComplexData(org.openmrs.Obs)
 	 */
@@ -139,7 +211,9 @@ public class AbstractHandler {
 	}
 	
 	/**
-	 * Convenience method to create and return a file for the stored ComplexData.data Object
+	 * Convenience method to create and return a file for the stored ComplexData.data Object. Files
+	 * stored directly in the complex obs directory are returned if they have not been moved into
+	 * their subdirectory yet.
 	 * 
 	 * @param obs
 	 * @return File object
@@ -147,9 +221,86 @@ public class AbstractHandler {
 	public static File getComplexDataFile(Obs obs) {
 		String[] names = obs.getValueComplex().split("\\|");
 		String filename = names.length < 2 ? names[0] : names[names.length - 1];
-		File dir = OpenmrsUtil.getDirectoryInApplicationDataDirectory(
+		return getComplexDataFile(getComplexObsDir(), filename, getShardLevels());
+	}
+	
+	/**
+	 * Resolves a stored file, preferring its subdirectory at the given number of levels and falling
+	 * back to the other numbers of levels, including the flat layout used before 2.7.0, since the
+	 * files written before the number of levels was changed stay where they are
+	 * 
+	 * @param dir the complex obs directory
+	 * @param filename the name of the stored file
+	 * @param shardLevels the number of subdirectory levels
+	 * @return the existing file or where the file would be written if it does not exist
+	 * <strong>Should</strong> find files in their subdirectory
+	 * <strong>Should</strong> find files stored in the flat layout
+	 * <strong>Should</strong> find files stored with another number of levels
+	 * @since 2.7.0
+	 */
+	public static File getComplexDataFile(File dir, String filename, int shardLevels) {
+		File file = new File(dir, getShardedPath(filename, shardLevels));
+		if (file.exists()) {
+			return file;
+		}
+		for (int levels = 0; levels <= MAX_SHARD_LEVELS; levels++) {
+			if (levels != Math.max(0, Math.min(shardLevels, MAX_SHARD_LEVELS))) {
+				File other = new File(dir, getShardedPath(filename, levels));
+				if (other.exists()) {
+					return other;
+				}
+			}
+		}
+		return file;
+	}
+	
+	/**
+	 * @return the directory set by {@link OpenmrsConstants#GLOBAL_PROPERTY_COMPLEX_OBS_DIR}
+	 * @since 2.7.0
+	 */
+	public static File getComplexObsDir() {
+		return OpenmrsUtil.getDirectoryInApplicationDataDirectory(
 		    Context.getAdministrationService().getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR));
-		return new File(dir, filename);
+	}
+	
+	/**
+	 * @return the number of subdirectory levels set by
+	 *         {@link OpenmrsConstants#GP_COMPLEX_OBS_DIR_SHARD_LEVELS}, 0 for the flat layout
+	 * @since 2.7.0
+	 */
+	public static int getShardLevels() {
+		String levels = Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_COMPLEX_OBS_DIR_SHARD_LEVELS);
+		return Math.max(0, Math.min(MAX_SHARD_LEVELS, NumberUtils.toInt(StringUtils.trim(levels), 0)));
+	}
+	
+	/**
+	 * Returns the path of a stored file relative to the complex obs directory. The subdirectories
+	 * are named after the leading hex digits of the uuid in the file name, so that the derived files
+	 * of a handler which share that uuid end up next to it. File names without a uuid are
+	 * partitioned by a hash of the name.
+	 * 
+	 * @param filename the name of the stored file
+	 * @param shardLevels the number of subdirectory levels
+	 * @return the relative path, e.g. <code>9b/66/title_9b6639b2-....png</code>
+	 * <strong>Should</strong> partition files by the uuid in their name
+	 * <strong>Should</strong> partition files without a uuid by a hash of their name
+	 * <strong>Should</strong> return the file name for the flat layout
+	 * @since 2.7.0
+	 */
+	public static String getShardedPath(String filename, int shardLevels) {
+		if (shardLevels <= 0) {
+			return filename;
+		}
+		
+		Matcher matcher = UUID_PATTERN.matcher(filename);
+		String key = matcher.find() ? matcher.group().replace("-", "") : String.format("%08x", filename.hashCode());
+		key = key.toLowerCase();
+		StringBuilder path = new StringBuilder();
+		for (int level = 0; level < Math.min(shardLevels, MAX_SHARD_LEVELS); level++) {
+			path.append(key, level * 2, level * 2 + 2).append('/');
+		}
+		return path.append(filename).toString();
 	}
 	
 	/**
@@ -9,23 +9,39 @@
  */
 package org.openmrs.obs.handler;
 
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
-import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 
+import org.apache.commons.io.FilenameUtils;
 import org.openmrs.Obs;
 import org.openmrs.api.APIException;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataStream;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.util.OpenmrsUtil;
 import java.io.ByteArrayInputStream;
@@ -37,19 +53,36 @@ import org.slf4j.LoggerFactory;
  * taken from the image name. if the .* image name suffix matches
  * {@link javax.imageio.ImageIO#getWriterFormatNames()} then that mime type will be used to save the
  * image. Images are stored in the location specified by the global property: "obs.complex_obs_dir"
- * 
+ * <p>
+ * Besides the raw image, the handler supports a view per configured derivative size, by default a
+ * {@link ComplexObsHandler#THUMBNAIL_VIEW} of at most 200 pixels. A derivative is scaled down from
+ * the image the first time it is viewed and kept next to the image, named after the image file and
+ * the size, e.g. photo_&lt;uuid&gt;.png.200px.png. The MIME type and dimensions of the image are
+ * not stored on the obs but in a sidecar photo_&lt;uuid&gt;.png.properties file next to the image,
+ * so that they can be read without decoding the image. Images saved before metadata was stored get
+ * their sidecar file when their metadata is first read. Derivatives and metadata are deleted with
+ * the image by {@link #purgeComplexData(Obs)}.
+ *
  * @see org.openmrs.util.OpenmrsConstants#GLOBAL_PROPERTY_COMPLEX_OBS_DIR
  * @since 1.5
  */
 public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 	
-	/** Views supported by this handler */
-	private static final String[] supportedViews = { ComplexObsHandler.RAW_VIEW };
-	
 	private static final Logger log = LoggerFactory.getLogger(ImageHandler.class);
 	
+	private static final String METADATA_EXTENSION = ".properties";
+	
+	private static final String MIME_TYPE = "mimeType";
+	
+	private static final String WIDTH = "width";
+	
+	private static final String HEIGHT = "height";
+	
 	private Set<String> extensions;
 	
+	/** Derivative views and the maximum width and height of their images */
+	private Map<String, Integer> derivativeSizes = Collections.singletonMap(ComplexObsHandler.THUMBNAIL_VIEW, 200);
+	
 	/**
 	 * Constructor initializes formats for alternative file names to protect from unintentionally
 	 * overwriting existing files.
@@ -63,69 +96,141 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 	}
 	
 	/**
-	 * Currently supports all views and puts the Image file data into the ComplexData object
-	 * 
+	 * Supports the raw view and the derivative views and puts the image into the ComplexData object
+	 *
 	 * @see org.openmrs.obs.ComplexObsHandler#getObs(org.openmrs.Obs, java.lang.String)
+	 * <strong>Should</strong> return a scaled down image for the thumbnail view
+	 * <strong>Should</strong> reuse the thumbnail generated for an earlier view
 	 */
 	@Override
 	public Obs getObs(Obs obs, String view) {
 		File file = getComplexDataFile(obs);
 		
-		// Raw image
+		File imageFile;
 		if (ComplexObsHandler.RAW_VIEW.equals(view)) {
-			BufferedImage img = null;
-			try {
-				img = ImageIO.read(file);
-			}
-			catch (IOException e) {
-				log.error("Trying to read file: " + file.getAbsolutePath(), e);
-			}
-			
-			ComplexData complexData = new ComplexData(file.getName(), img);
-			
-			String mimeType = null;
-			
-			// Image MIME type
-			try {
-				FileImageInputStream imgStream = new FileImageInputStream(file);
-				Iterator<ImageReader> imgReader = ImageIO.getImageReaders(imgStream);
-				imgStream.close();
-				if (imgReader.hasNext()) {
-					mimeType = "image/" + imgReader.next().getFormatName().toLowerCase();
-				} else {
-					log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
-				}
-			}
-			catch (FileNotFoundException e) {
-				log.error("Image " + file.getAbsolutePath() + " was not found", e);
-			}
-			catch (IOException e) {
-				log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
-			}
-					
-			// If the mimetype is still null, determine it via getFileMimeType()
-			mimeType = mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
-			
-			complexData.setMimeType(mimeType);	
-			
-			obs.setComplexData(complexData);
+			imageFile = file;
+		} else if (view != null && derivativeSizes.containsKey(view)) {
+			imageFile = getDerivativeFile(file, derivativeSizes.get(view));
 		} else {
 			// No other view supported
-			// NOTE: if adding support for another view, don't forget to update supportedViews list above
+			// NOTE: if adding support for another view, add it to the derivative sizes
 			return null;
 		}
 		
+		// the image is only decoded if its data is asked for, use getComplexDataStream to stream it instead
+		ComplexData complexData = new LazyImageData(file.getName(), imageFile);
+		
+		complexData.setMimeType(getMimeType(obs, file, imageFile));
+		
+		obs.setComplexData(complexData);
+		
 		return obs;
 	}
 	
+	/**
+	 * Streams the image for the raw view and its derivative for the derivative views
+	 *
+	 * @see org.openmrs.obs.ComplexObsHandler#getComplexDataStream(Obs, String)
+	 * <strong>Should</strong> report the MIME type of the derivative for the thumbnail view
+	 */
+	@Override
+	public ComplexDataStream getComplexDataStream(Obs obs, String view) {
+		File file = getComplexDataFile(obs);
+		File imageFile;
+		if (ComplexObsHandler.RAW_VIEW.equals(view)) {
+			imageFile = file;
+		} else if (view != null && derivativeSizes.containsKey(view)) {
+			imageFile = getDerivativeFile(file, derivativeSizes.get(view));
+		} else {
+			return null;
+		}
+		
+		return createComplexDataStream(imageFile, file.getName(), getMimeType(obs, file, imageFile));
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#getSupportedViews()
 	 */
 	@Override
 	public String[] getSupportedViews() {
+		String[] supportedViews = new String[derivativeSizes.size() + 1];
+		supportedViews[0] = ComplexObsHandler.RAW_VIEW;
+		int i = 1;
+		for (String view : derivativeSizes.keySet()) {
+			supportedViews[i++] = view;
+		}
 		return supportedViews;
 	}
 	
+	/**
+	 * Sets the derivative views supported besides the raw view
+	 *
+	 * @param derivativeSizes the maximum width and height of the images of each view
+	 * @since 2.7.0
+	 */
+	public void setDerivativeSizes(Map<String, Integer> derivativeSizes) {
+		this.derivativeSizes = new LinkedHashMap<>(derivativeSizes);
+	}
+	
+	/**
+	 * Returns the MIME type and dimensions of the image of an obs. These are read from the sidecar
+	 * &lt;image file&gt;.properties file next to the image, or from the image header if the image was
+	 * saved before metadata was stored, in which case the sidecar file is written.
+	 *
+	 * @param obs the complex obs
+	 * @return the metadata or null if the image cannot be read
+	 * @since 2.7.0
+	 * <strong>Should</strong> return the dimensions of a saved image
+	 */
+	public ImageMetadata getImageMetadata(Obs obs) {
+		File file = getComplexDataFile(obs);
+		File metadataFile = getMetadataFile(file);
+		if (metadataFile.exists()) {
+			Properties properties = new Properties();
+			try (InputStream in = new FileInputStream(metadataFile)) {
+				properties.load(in);
+				return new ImageMetadata(properties.getProperty(MIME_TYPE),
+				        Integer.parseInt(properties.getProperty(WIDTH)), Integer.parseInt(properties.getProperty(HEIGHT)));
+			}
+			catch (IOException | RuntimeException e) {
+				log.warn("Ignoring unreadable image metadata " + metadataFile.getAbsolutePath(), e);
+			}
+		}
+		
+		if (!file.exists()) {
+			return null;
+		}
+		return storeImageMetadata(file);
+	}
+	
+	/**
+	 * Deletes the derivatives and metadata of the image along with the image. All derivatives named
+	 * after the image are deleted, including those made for sizes which are no longer configured.
+	 *
+	 * @see org.openmrs.obs.ComplexObsHandler#purgeComplexData(org.openmrs.Obs)
+	 * <strong>Should</strong> delete the thumbnail and metadata of the image
+	 * <strong>Should</strong> delete derivatives made for other sizes
+	 * <strong>Should</strong> not delete other files in the directory
+	 */
+	@Override
+	public boolean purgeComplexData(Obs obs) {
+		File file = getComplexDataFile(obs);
+		List<File> derivedFiles = new ArrayList<>();
+		Pattern derivativeName = Pattern.compile(Pattern.quote(file.getName()) + "\\.\\d+px\\.[^.]+");
+		File[] derivatives = file.getParentFile() == null ? null
+		        : file.getParentFile().listFiles((dir, name) -> derivativeName.matcher(name).matches());
+		if (derivatives != null) {
+			Collections.addAll(derivedFiles, derivatives);
+		}
+		derivedFiles.add(getMetadataFile(file));
+		for (File derivedFile : derivedFiles) {
+			if (derivedFile.exists() && !derivedFile.delete()) {
+				log.warn("Could not delete " + derivedFile.getAbsolutePath() + " of obsId=" + obs.getObsId());
+			}
+		}
+		return super.purgeComplexData(obs);
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#saveObs(org.openmrs.Obs)
 	 */
@@ -187,7 +292,237 @@ public class ImageHandler extends AbstractHandler implements ComplexObsHandler {
 			throw new APIException("Obs.error.trying.write.complex", null, ioe);
 		}
 		
+		storeImageMetadata(outfile);
+		
 		return obs;
 	}
 	
+	/**
+	 * Reads the MIME type and dimensions from the image header and stores them next to the image
+	 */
+	private ImageMetadata storeImageMetadata(File file) {
+		ImageMetadata metadata;
+		try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			ImageReader reader = getImageReader(in);
+			if (reader == null) {
+				log.warn("MIME type of " + file.getAbsolutePath() + " is not known");
+				return null;
+			}
+			try {
+				metadata = new ImageMetadata("image/" + reader.getFormatName().toLowerCase(), reader.getWidth(0),
+				        reader.getHeight(0));
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		catch (IOException e) {
+			log.error("Trying to determine MIME type of " + file.getAbsolutePath(), e);
+			return null;
+		}
+		
+		Properties properties = new Properties();
+		properties.setProperty(MIME_TYPE, metadata.getMimeType());
+		properties.setProperty(WIDTH, String.valueOf(metadata.getWidth()));
+		properties.setProperty(HEIGHT, String.valueOf(metadata.getHeight()));
+		try (OutputStream out = new FileOutputStream(getMetadataFile(file))) {
+			properties.store(out, null);
+		}
+		catch (IOException e) {
+			log.warn("Could not store the metadata of " + file.getAbsolutePath(), e);
+		}
+		return metadata;
+	}
+	
+	/**
+	 * Returns the MIME type of the file shown for a view. That is the MIME type of the image for the
+	 * raw view, but derivatives of images in formats which cannot be written are stored as png.
+	 */
+	private String getMimeType(Obs obs, File file, File imageFile) {
+		if (!imageFile.equals(file)) {
+			Iterator<ImageWriter> writers = ImageIO
+			        .getImageWritersBySuffix(FilenameUtils.getExtension(imageFile.getName()));
+			if (writers.hasNext()) {
+				String[] mimeTypes = writers.next().getOriginatingProvider().getMIMETypes();
+				if (mimeTypes != null && mimeTypes.length > 0) {
+					return mimeTypes[0];
+				}
+			}
+			return OpenmrsUtil.getFileMimeType(imageFile);
+		}
+		
+		// If the mimetype is not known, determine it via getFileMimeType()
+		ImageMetadata metadata = getImageMetadata(obs);
+		String mimeType = metadata != null ? metadata.getMimeType() : null;
+		return mimeType != null ? mimeType : OpenmrsUtil.getFileMimeType(file);
+	}
+	
+	/**
+	 * Returns the derivative of an image with the given size, scaling the image down if the
+	 * derivative does not exist yet. Images which are already small enough are returned as is.
+	 */
+	private File getDerivativeFile(File file, int size) {
+		File derivative = newDerivativeFile(file, size);
+		String format = FilenameUtils.getExtension(derivative.getName());
+		if (derivative.exists() || !file.exists()) {
+			return derivative.exists() ? derivative : file;
+		}
+		
+		try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+			ImageReader reader = getImageReader(in);
+			if (reader == null) {
+				return file;
+			}
+			
+			BufferedImage scaled;
+			try {
+				int width = reader.getWidth(0);
+				int height = reader.getHeight(0);
+				if (width <= size && height <= size) {
+					return file;
+				}
+				
+				// decode every nth pixel of large images, leaving twice the target size for smooth scaling
+				ImageReadParam param = reader.getDefaultReadParam();
+				int subsampling = Math.max(1, Math.max(width, height) / (size * 2));
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				scaled = scale(reader.read(0, param), size);
+			}
+			finally {
+				reader.dispose();
+			}
+			
+			// write to a temporary file first so concurrent views never read a partial derivative
+			File tmp = File.createTempFile(derivative.getName(), ".tmp", file.getParentFile());
+			try {
+				ImageIO.write(scaled, format, tmp);
+				Files.move(tmp.toPath(), derivative.toPath(), StandardCopyOption.REPLACE_EXISTING,
+				    StandardCopyOption.ATOMIC_MOVE);
+			}
+			finally {
+				Files.deleteIfExists(tmp.toPath());
+			}
+			return derivative;
+		}
+		catch (IOException e) {
+			log.error("Trying to create a " + size + "px derivative of " + file.getAbsolutePath(), e);
+			return file;
+		}
+	}
+	
+	/**
+	 * Returns where the derivative of an image with the given size is kept, whether it exists or not
+	 */
+	private File newDerivativeFile(File file, int size) {
+		String format = FilenameUtils.getExtension(file.getName()).toLowerCase();
+		if (!extensions.contains(format)) {
+			format = "png";
+		}
+		return new File(file.getParentFile(), file.getName() + "." + size + "px." + format);
+	}
+	
+	private BufferedImage scale(BufferedImage image, int size) {
+		double factor = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+		int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+		int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+		
+		BufferedImage scaled = new BufferedImage(width, height, type);
+		Graphics2D graphics = scaled.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		}
+		finally {
+			graphics.dispose();
+		}
+		return scaled;
+	}
+	
+	private ImageReader getImageReader(ImageInputStream in) {
+		if (in == null) {
+			return null;
+		}
+		Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+		if (!readers.hasNext()) {
+			return null;
+		}
+		ImageReader reader = readers.next();
+		reader.setInput(in, true, true);
+		return reader;
+	}
+	
+	private File getMetadataFile(File file) {
+		return new File(file.getParentFile(), file.getName() + METADATA_EXTENSION);
+	}
+	
+	/**
+	 * Complex data holding an image file which is decoded when its data is first asked for, so that
+	 * getting an image obs does not decode the image if only its title or MIME type are used
+	 */
+	private static class LazyImageData extends ComplexData {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final File imageFile;
+		
+		private transient boolean read;
+		
+		private transient BufferedImage image;
+		
+		LazyImageData(String title, File imageFile) {
+			super(title, null);
+			this.imageFile = imageFile;
+		}
+		
+		@Override
+		public synchronized Object getData() {
+			Object data = super.getData();
+			if (data != null) {
+				return data;
+			}
+			if (!read) {
+				try {
+					image = ImageIO.read(imageFile);
+				}
+				catch (IOException e) {
+					log.error("Trying to read file: " + imageFile.getAbsolutePath(), e);
+				}
+				read = true;
+			}
+			return image;
+		}
+	}
+	
+	/**
+	 * The MIME type and dimensions of the image of a complex obs
+	 *
+	 * @since 2.7.0
+	 */
+	public static class ImageMetadata {
+		
+		private final String mimeType;
+		
+		private final int width;
+		
+		private final int height;
+		
+		public ImageMetadata(String mimeType, int width, int height) {
+			this.mimeType = mimeType;
+			this.width = width;
+			this.height = height;
+		}
+		
+		public String getMimeType() {
+			return mimeType;
+		}
+		
+		public int getWidth() {
+			return width;
+		}
+		
+		public int getHeight() {
+			return height;
+		}
+	}
 }
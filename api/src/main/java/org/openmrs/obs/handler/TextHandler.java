@@ -23,6 +23,7 @@ import org.apache.commons.io.IOUtils;
 import org.openmrs.Obs;
 import org.openmrs.api.APIException;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataStream;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
@@ -97,6 +98,22 @@ public class TextHandler extends AbstractHandler implements ComplexObsHandler {
 		return obs;
 	}
 	
+	/**
+	 * Streams the stored text for the raw and text views
+	 * 
+	 * @see org.openmrs.obs.ComplexObsHandler#getComplexDataStream(Obs, String)
+	 */
+	@Override
+	public ComplexDataStream getComplexDataStream(Obs obs, String view) {
+		if (!ComplexObsHandler.TEXT_VIEW.equals(view) && !ComplexObsHandler.RAW_VIEW.equals(view)) {
+			return null;
+		}
+		File file = getComplexDataFile(obs);
+		String mimeType = OpenmrsUtil.getFileMimeType(file);
+		mimeType = !(mimeType.equals("application/octet-stream")) ? mimeType : "text/plain";
+		return createComplexDataStream(file, getOriginalFilename(obs), mimeType);
+	}
+	
 	/**
 	 * @see org.openmrs.obs.ComplexObsHandler#getSupportedViews()
 	 */
@@ -42,6 +42,13 @@ public class PersonMergeLogData {
 	 */
 	private List<String> createdPrograms;
 	
+	/**
+	 * List of UUIDs of patient programs moved from non-preferred to preferred
+	 * 
+	 * @since 2.7.0
+	 */
+	private List<String> movedPrograms;
+	
 	/**
 	 * List of UUIDs of voided relationships
 	 */
@@ -154,6 +161,23 @@ public class PersonMergeLogData {
 		createdPrograms.add(uuid);
 	}
 	
+	/**
+	 * @since 2.7.0
+	 */
+	public List<String> getMovedPrograms() {
+		return movedPrograms;
+	}
+	
+	/**
+	 * @since 2.7.0
+	 */
+	public void addMovedProgram(String uuid) {
+		if (movedPrograms == null) {
+			movedPrograms = new ArrayList<>();
+		}
+		movedPrograms.add(uuid);
+	}
+	
 	public List<String> getVoidedRelationships() {
 		return voidedRelationships;
 	}
@@ -326,6 +350,9 @@ public class PersonMergeLogData {
 		if (getCreatedPrograms() != null) {
 			str += getCreatedPrograms().toString();
 		}
+		if (getMovedPrograms() != null) {
+			str += getMovedPrograms().toString();
+		}
 		if (getCreatedRelationships() != null) {
 			str += getCreatedRelationships().toString();
 		}
@@ -11,7 +11,10 @@ package org.openmrs.propertyeditor;
 
 import java.beans.PropertyEditorSupport;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.Date;
 
 import org.apache.commons.lang3.StringUtils;
@@ -63,10 +66,11 @@ public class DateOrDatetimeEditor extends PropertyEditorSupport {
 		if (date == null) {
 			return "";
 		}
-		if ("0000".equals(new SimpleDateFormat("HmsS").format(date))) {
-			return Context.getDateFormat().format(date);
+		LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+		if (LocalTime.MIDNIGHT.equals(dateTime.toLocalTime())) {
+			return Context.getDateFormatter().format(dateTime);
 		} else {
-			return Context.getDateTimeFormat().format(date);
+			return Context.getDateTimeFormatter().format(dateTime);
 		}
 	}
 	
@@ -33,6 +33,30 @@ public class SchedulerConstants {
 	/** Scheduler admin email property - Used to email administrator if a task fails */
 	public static final String SCHEDULER_ADMIN_EMAIL_PROPERTY = "scheduler.admin_email";
 	
+	/**
+	 * Runtime property selecting the scheduler service implementation, either
+	 * {@link #SCHEDULER_IMPLEMENTATION_TIMER} (the default) or {@link #SCHEDULER_IMPLEMENTATION_EXECUTOR}
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY = "scheduler.implementation";
+	
+	/** @since 2.7.0 */
+	public static final String SCHEDULER_IMPLEMENTATION_TIMER = "timer";
+	
+	/** @since 2.7.0 */
+	public static final String SCHEDULER_IMPLEMENTATION_EXECUTOR = "executor";
+	
+	/**
+	 * Runtime property holding the number of threads the executor based scheduler runs tasks on
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY = "scheduler.pool_size";
+	
+	/** @since 2.7.0 */
+	public static final int SCHEDULER_DEFAULT_POOL_SIZE = 4;
+	
 	private SchedulerConstants() {
 	}
 	
@@ -10,6 +10,8 @@
 package org.openmrs.scheduler;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.SortedMap;
 
 import org.openmrs.annotation.Authorized;
@@ -167,4 +169,16 @@ public interface SchedulerService extends OpenmrsService {
 	 */
 	public void scheduleIfNotRunning(TaskDefinition taskDef);
 	
+	/**
+	 * Returns how often and how long the scheduled tasks ran. Only implementations which measure
+	 * their tasks return statistics, the default timer based implementation does not.
+	 * 
+	 * @return the statistics of the tasks which were scheduled since startup
+	 * @since 2.7.0
+	 */
+	@Authorized( { "Manage Scheduler" })
+	public default List<TaskExecutionStatistics> getTaskExecutionStatistics() {
+		return Collections.emptyList();
+	}
+	
 }
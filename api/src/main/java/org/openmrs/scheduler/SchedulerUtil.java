@@ -14,9 +14,13 @@ import java.util.Date;
 import java.util.Map;
 import java.util.Properties;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
 import org.openmrs.util.PrivilegeConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,6 +71,47 @@ public class SchedulerUtil {
 		}
 	}
 	
+	/**
+	 * Creates the scheduler service implementation selected by the
+	 * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property, used as
+	 * the factory method of the scheduler service bean.
+	 * 
+	 * @return the new scheduler service
+	 * @since 2.7.0
+	 */
+	public static SchedulerService createSchedulerService() {
+		return createSchedulerService(Context.getRuntimeProperties());
+	}
+	
+	/**
+	 * Creates the scheduler service implementation selected by the given properties
+	 * 
+	 * @param p the runtime properties
+	 * @return an {@link ExecutorSchedulerServiceImpl} if the
+	 *         {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} is
+	 *         {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_EXECUTOR}, otherwise a
+	 *         {@link TimerSchedulerServiceImpl}
+	 * <strong>Should</strong> create the timer scheduler by default
+	 * <strong>Should</strong> create the executor scheduler with the configured pool size
+	 * @since 2.7.0
+	 */
+	public static SchedulerService createSchedulerService(Properties p) {
+		String implementation = StringUtils.trim(p.getProperty(
+		    SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY, SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER));
+		if (!SchedulerConstants.SCHEDULER_IMPLEMENTATION_EXECUTOR.equalsIgnoreCase(implementation)) {
+			if (!SchedulerConstants.SCHEDULER_IMPLEMENTATION_TIMER.equalsIgnoreCase(implementation)) {
+				log.warn("Unknown scheduler implementation {}, using the timer based scheduler", implementation);
+			}
+			return new TimerSchedulerServiceImpl();
+		}
+		
+		ExecutorSchedulerServiceImpl schedulerService = new ExecutorSchedulerServiceImpl();
+		schedulerService.setPoolSize(NumberUtils.toInt(StringUtils.trim(p
+		        .getProperty(SchedulerConstants.SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY)),
+		    SchedulerConstants.SCHEDULER_DEFAULT_POOL_SIZE));
+		return schedulerService;
+	}
+	
 	/**
 	 * Shutdown the scheduler service that is statically associated with the Context class.
 	 */
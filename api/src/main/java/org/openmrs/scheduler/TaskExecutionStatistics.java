@@ -0,0 +1,138 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A snapshot of how often and how long a scheduled task ran. Lateness is the time between when an
+ * execution was due and when it started, it grows when earlier executions overran the repeat
+ * interval or all scheduler threads were busy.
+ *
+ * @see SchedulerService#getTaskExecutionStatistics()
+ * @since 2.7.0
+ */
+public class TaskExecutionStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Integer taskId;
+
+	private final String taskName;
+
+	private final boolean executing;
+
+	private final long executionCount;
+
+	private final long failureCount;
+
+	private final long skippedCount;
+
+	private final Date lastExecutionStart;
+
+	private final long lastDurationMillis;
+
+	private final long maxDurationMillis;
+
+	private final long totalDurationMillis;
+
+	private final long lastLatenessMillis;
+
+	private final long maxLatenessMillis;
+
+	public TaskExecutionStatistics(Integer taskId, String taskName, boolean executing, long executionCount,
+	    long failureCount, long skippedCount, Date lastExecutionStart, long lastDurationMillis, long maxDurationMillis,
+	    long totalDurationMillis, long lastLatenessMillis, long maxLatenessMillis) {
+		this.taskId = taskId;
+		this.taskName = taskName;
+		this.executing = executing;
+		this.executionCount = executionCount;
+		this.failureCount = failureCount;
+		this.skippedCount = skippedCount;
+		this.lastExecutionStart = lastExecutionStart;
+		this.lastDurationMillis = lastDurationMillis;
+		this.maxDurationMillis = maxDurationMillis;
+		this.totalDurationMillis = totalDurationMillis;
+		this.lastLatenessMillis = lastLatenessMillis;
+		this.maxLatenessMillis = maxLatenessMillis;
+	}
+
+	public Integer getTaskId() {
+		return taskId;
+	}
+
+	public String getTaskName() {
+		return taskName;
+	}
+
+	/**
+	 * @return true if the task is running right now
+	 */
+	public boolean isExecuting() {
+		return executing;
+	}
+
+	/**
+	 * @return the number of completed executions, including failed ones
+	 */
+	public long getExecutionCount() {
+		return executionCount;
+	}
+
+	/**
+	 * @return the number of executions which threw an exception
+	 */
+	public long getFailureCount() {
+		return failureCount;
+	}
+
+	/**
+	 * @return the number of executions skipped because the previous execution was still running
+	 */
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * @return when the last execution started or null if the task has not run yet
+	 */
+	public Date getLastExecutionStart() {
+		return lastExecutionStart;
+	}
+
+	public long getLastDurationMillis() {
+		return lastDurationMillis;
+	}
+
+	public long getMaxDurationMillis() {
+		return maxDurationMillis;
+	}
+
+	public long getAverageDurationMillis() {
+		return executionCount == 0 ? 0 : totalDurationMillis / executionCount;
+	}
+
+	public long getLastLatenessMillis() {
+		return lastLatenessMillis;
+	}
+
+	public long getMaxLatenessMillis() {
+		return maxLatenessMillis;
+	}
+
+	@Override
+	public String toString() {
+		return taskName + " (id=" + taskId + "): executions=" + executionCount + ", failures=" + failureCount
+		        + ", skipped=" + skippedCount + ", lastDuration=" + lastDurationMillis + "ms, avgDuration="
+		        + getAverageDurationMillis() + "ms, maxDuration=" + maxDurationMillis + "ms, lastLateness="
+		        + lastLatenessMillis + "ms, maxLateness=" + maxLatenessMillis + "ms";
+	}
+}
@@ -9,6 +9,8 @@
  */
 package org.openmrs.scheduler;
 
+import java.util.concurrent.Executor;
+
 import org.openmrs.scheduler.tasks.TaskThreadedInitializationWrapper;
 import org.openmrs.util.OpenmrsClassLoader;
 import org.slf4j.Logger;
@@ -45,13 +47,31 @@ public class TaskFactory {
 	 * @throws SchedulerException
 	 */
 	public Task createInstance(TaskDefinition taskDefinition) throws SchedulerException {
+		return createInstance(taskDefinition, null);
+	}
+	
+	/**
+	 * Creates a new instance of Schedulable used to run tasks, which is initialized on the given
+	 * executor instead of a new thread.
+	 *
+	 * @param taskDefinition
+	 * @param initializationExecutor the executor to run {@link Task#initialize(TaskDefinition)} on,
+	 *            null to start a new thread
+	 * @return the created Task
+	 * @throws SchedulerException
+	 * @since 2.7.0
+	 */
+	public Task createInstance(TaskDefinition taskDefinition, Executor initializationExecutor)
+	        throws SchedulerException {
 		try {
 			
 			// Retrieve the appropriate class
 			Class<?> taskClass = OpenmrsClassLoader.getInstance().loadClass(taskDefinition.getTaskClass());
 			
 			// Create a new instance of the schedulable class 
-			Task task = new TaskThreadedInitializationWrapper((Task) taskClass.newInstance());
+			Task instance = (Task) taskClass.newInstance();
+			Task task = initializationExecutor == null ? new TaskThreadedInitializationWrapper(instance)
+			        : new TaskThreadedInitializationWrapper(instance, initializationExecutor);
 			
 			log.debug("initializing {}", taskClass.getName());
 			// Initialize the schedulable object
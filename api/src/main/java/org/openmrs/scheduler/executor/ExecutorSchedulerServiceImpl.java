@@ -0,0 +1,269 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openmrs.api.APIException;
+import org.openmrs.scheduler.SchedulerConstants;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecutionStatistics;
+import org.openmrs.scheduler.TaskFactory;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduler service that runs all scheduled tasks on a fixed size pool of threads instead of a
+ * {@link java.util.Timer} thread per task. An execution of a task is skipped while the previous
+ * execution of the same task definition is still running, and the duration and lateness of every
+ * execution are available from {@link #getTaskExecutionStatistics()}. Task definitions are stored
+ * the same way as by the {@link TimerSchedulerServiceImpl}. It is selected by setting the
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY} runtime property to
+ * {@link SchedulerConstants#SCHEDULER_IMPLEMENTATION_EXECUTOR}.
+ *
+ * @since 2.7.0
+ */
+@Transactional
+public class ExecutorSchedulerServiceImpl extends TimerSchedulerServiceImpl {
+
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerServiceImpl.class);
+
+	private final Map<Integer, ExecutorSchedulerTask> scheduledTasks = new ConcurrentHashMap<>();
+
+	private final Map<Integer, TaskExecutionMetrics> metrics = new ConcurrentHashMap<>();
+
+	private int poolSize = SchedulerConstants.SCHEDULER_DEFAULT_POOL_SIZE;
+
+	private ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * @return the number of threads tasks are run on
+	 */
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * Sets the number of threads tasks are run on, takes effect when the scheduler is started
+	 *
+	 * @param poolSize the number of threads
+	 */
+	public void setPoolSize(int poolSize) {
+		this.poolSize = Math.max(1, poolSize);
+	}
+
+	/**
+	 * Shutdown hook for the scheduler and all of its scheduled tasks.
+	 */
+	@Override
+	public void onShutdown() {
+		log.debug("Gracefully shutting down scheduler service ...");
+		try {
+			shutdownAllTasks();
+		}
+		catch (APIException e) {
+			log.error("Failed to stop all tasks due to API exception", e);
+		}
+		finally {
+			shutdownExecutor();
+		}
+	}
+
+	/**
+	 * Schedule the given task according to the given schedule.
+	 *
+	 * @param taskDefinition the task to be scheduled
+	 * <strong>Should</strong> run the task on the executor
+	 * <strong>Should</strong> handle zero repeat interval
+	 */
+	@Override
+	public Task scheduleTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition == null) {
+			return null;
+		}
+
+		if (taskDefinition.getId() == null) {
+			saveTaskDefinition(taskDefinition);
+		}
+
+		// Cancel any existing instance of the same task definition
+		ExecutorSchedulerTask existingTask = scheduledTasks.remove(taskDefinition.getId());
+		if (existingTask != null) {
+			log.info("Shutting down the existing instance of task {} to avoid conflicts", taskDefinition.getName());
+			existingTask.shutdown();
+		}
+
+		try {
+			ScheduledThreadPoolExecutor scheduledExecutor = getExecutor();
+
+			// Initialize the task on the pool rather than on a new thread
+			Task clientTask = TaskFactory.getInstance().createInstance(taskDefinition, scheduledExecutor);
+			if (clientTask == null) {
+				return null;
+			}
+			taskDefinition.setTaskInstance(clientTask);
+
+			long repeatInterval = 0;
+			if (taskDefinition.getRepeatInterval() != null) {
+				repeatInterval = taskDefinition.getRepeatInterval() * SchedulerConstants.SCHEDULER_MILLIS_PER_SECOND;
+			}
+
+			long delay;
+			if (taskDefinition.getStartTime() != null) {
+				// The start time is most likely in the past, start at the next time it is due instead of catching up
+				Date nextTime = SchedulerUtil.getNextExecution(taskDefinition);
+				log.info("Starting task ... the task will execute for the first time at " + nextTime);
+				delay = Math.max(0, nextTime.getTime() - System.currentTimeMillis());
+			} else if (repeatInterval > 0) {
+				log.info("Delaying start time by " + SchedulerConstants.SCHEDULER_DEFAULT_DELAY + " milliseconds");
+				delay = SchedulerConstants.SCHEDULER_DEFAULT_DELAY;
+			} else {
+				log.info("Starting one-shot task");
+				delay = 0;
+			}
+
+			TaskExecutionMetrics taskMetrics = metrics.computeIfAbsent(taskDefinition.getId(), TaskExecutionMetrics::new);
+			taskMetrics.setTaskName(taskDefinition.getName());
+			ExecutorSchedulerTask schedulerTask = new ExecutorSchedulerTask(clientTask, taskDefinition.getName(),
+			        taskMetrics, System.currentTimeMillis() + delay, repeatInterval);
+
+			ScheduledFuture<?> future;
+			if (repeatInterval > 0) {
+				future = scheduledExecutor.scheduleAtFixedRate(schedulerTask, delay, repeatInterval,
+				    TimeUnit.MILLISECONDS);
+			} else {
+				future = scheduledExecutor.schedule(schedulerTask, delay, TimeUnit.MILLISECONDS);
+			}
+			schedulerTask.setFuture(future);
+
+			log.debug("Registering task {}", taskDefinition.getId());
+			scheduledTasks.put(taskDefinition.getId(), schedulerTask);
+
+			taskDefinition.setStarted(true);
+			saveTaskDefinition(taskDefinition);
+			return clientTask;
+		}
+		catch (Exception e) {
+			log.error("Failed to schedule task " + taskDefinition.getName(), e);
+			throw new SchedulerException("Failed to schedule task", e);
+		}
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#shutdownTask(TaskDefinition)
+	 */
+	@Override
+	public void shutdownTask(TaskDefinition taskDefinition) throws SchedulerException {
+		if (taskDefinition != null) {
+			if (taskDefinition.getId() != null) {
+				ExecutorSchedulerTask schedulerTask = scheduledTasks.remove(taskDefinition.getId());
+				if (schedulerTask != null) {
+					schedulerTask.shutdown();
+				}
+			}
+
+			taskDefinition.setStarted(false);
+			saveTaskDefinition(taskDefinition);
+		}
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getScheduledTasks()
+	 */
+	@Override
+	public Collection<TaskDefinition> getScheduledTasks() {
+		List<TaskDefinition> list = new ArrayList<>();
+		for (Integer id : scheduledTasks.keySet()) {
+			TaskDefinition task = getTask(id);
+			if (task != null) {
+				list.add(task);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getStatus(java.lang.Integer)
+	 */
+	@Override
+	public String getStatus(Integer id) {
+		ExecutorSchedulerTask scheduledTask = id == null ? null : scheduledTasks.get(id);
+		if (scheduledTask != null) {
+			if (scheduledTask.isExecuting()) {
+				return "Currently executing";
+			}
+			Date nextExecutionTime = scheduledTask.getNextExecutionTime();
+			if (nextExecutionTime != null) {
+				return "Scheduled to execute at " + nextExecutionTime;
+			}
+		}
+		return "Not Running";
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.SchedulerService#getTaskExecutionStatistics()
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<TaskExecutionStatistics> getTaskExecutionStatistics() {
+		List<TaskExecutionStatistics> statistics = new ArrayList<>();
+		for (TaskExecutionMetrics taskMetrics : metrics.values()) {
+			statistics.add(taskMetrics.getStatistics());
+		}
+		statistics.sort(Comparator.comparing(TaskExecutionStatistics::getTaskId));
+		return statistics;
+	}
+
+	private synchronized ScheduledThreadPoolExecutor getExecutor() {
+		if (executor == null) {
+			log.info("Starting the scheduler with {} threads", poolSize);
+			executor = new ScheduledThreadPoolExecutor(poolSize, new SchedulerThreadFactory());
+			executor.setRemoveOnCancelPolicy(true);
+			executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+		}
+		return executor;
+	}
+
+	private synchronized void shutdownExecutor() {
+		if (executor != null) {
+			// running tasks finish on their own, the threads do not keep the application alive
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	private static class SchedulerThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "OpenMRS Scheduler-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
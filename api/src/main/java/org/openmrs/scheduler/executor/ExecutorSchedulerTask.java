@@ -0,0 +1,140 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openmrs.api.context.Daemon;
+import org.openmrs.scheduler.SchedulerUtil;
+import org.openmrs.scheduler.Task;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a task on a thread of the {@link ExecutorSchedulerServiceImpl}. An execution is skipped if
+ * the previous execution of the same task definition is still running, and the duration and
+ * lateness of every execution are recorded.
+ *
+ * @since 2.7.0
+ */
+public class ExecutorSchedulerTask implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(ExecutorSchedulerTask.class);
+
+	private final Task task;
+
+	private final String taskName;
+
+	private final TaskExecutionMetrics metrics;
+
+	private final long repeatIntervalMillis;
+
+	/**
+	 * When the next execution is due, only read and written by the executions of this task which
+	 * never run concurrently
+	 */
+	private long nextExecutionTime;
+
+	private volatile ScheduledFuture<?> future;
+
+	ExecutorSchedulerTask(Task task, String taskName, TaskExecutionMetrics metrics, long firstExecutionTime,
+	    long repeatIntervalMillis) {
+		this.task = task;
+		this.taskName = taskName;
+		this.metrics = metrics;
+		this.nextExecutionTime = firstExecutionTime;
+		this.repeatIntervalMillis = repeatIntervalMillis;
+	}
+
+	/**
+	 * Executes the task unless its previous execution is still running
+	 *
+	 * @see java.lang.Runnable#run()
+	 */
+	@Override
+	public void run() {
+		long start = System.currentTimeMillis();
+		long lateness = Math.max(0, start - nextExecutionTime);
+		if (repeatIntervalMillis > 0) {
+			nextExecutionTime += repeatIntervalMillis;
+		}
+
+		if (!metrics.tryStart()) {
+			log.warn("Skipping an execution of task {} because the previous execution is still running", taskName);
+			metrics.recordSkipped();
+			return;
+		}
+
+		boolean failed = false;
+		try {
+			Thread.currentThread().setContextClassLoader(OpenmrsClassLoader.getInstance());
+			Daemon.executeScheduledTaskInCurrentThread(task);
+		}
+		catch (Exception e) {
+			// keep the executor from cancelling the following executions
+			failed = true;
+			log.error("FATAL ERROR: Task [" + task.getClass() + "] failed due to exception [" + e.getClass().getName()
+			        + "]", e);
+			SchedulerUtil.sendSchedulerError(e);
+		}
+		finally {
+			long duration = System.currentTimeMillis() - start;
+			metrics.recordExecution(start, duration, lateness, failed);
+			if (repeatIntervalMillis > 0 && duration > repeatIntervalMillis) {
+				log.warn("Task {} ran for {} ms which is longer than its repeat interval of {} ms", taskName, duration,
+				    repeatIntervalMillis);
+			}
+		}
+	}
+
+	/**
+	 * @return the task run by this scheduler task
+	 */
+	public Task getTask() {
+		return task;
+	}
+
+	/**
+	 * @return when the next execution is scheduled or null if there is none
+	 */
+	public Date getNextExecutionTime() {
+		ScheduledFuture<?> scheduledFuture = future;
+		if (scheduledFuture == null || scheduledFuture.isDone()) {
+			return null;
+		}
+		return new Date(System.currentTimeMillis() + scheduledFuture.getDelay(TimeUnit.MILLISECONDS));
+	}
+
+	/**
+	 * @return true if the task definition is running right now
+	 */
+	public boolean isExecuting() {
+		return metrics.isRunning();
+	}
+
+	void setFuture(ScheduledFuture<?> future) {
+		this.future = future;
+	}
+
+	/**
+	 * Cancels the following executions without interrupting a running one and invokes the task's
+	 * shutdown() callback method.
+	 */
+	public void shutdown() {
+		ScheduledFuture<?> scheduledFuture = future;
+		if (scheduledFuture != null) {
+			scheduledFuture.cancel(false);
+		}
+		task.shutdown();
+	}
+}
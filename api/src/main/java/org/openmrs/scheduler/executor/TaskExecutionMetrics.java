@@ -0,0 +1,95 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openmrs.scheduler.TaskExecutionStatistics;
+
+/**
+ * The running flag and execution measurements of one task definition. They are kept across
+ * reschedules of the task, so that an execution of a task which was just rescheduled does not
+ * overlap with the still running execution of the previous instance.
+ */
+class TaskExecutionMetrics {
+
+	private final Integer taskId;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private String taskName;
+
+	private long executionCount;
+
+	private long failureCount;
+
+	private long skippedCount;
+
+	private long lastExecutionStart;
+
+	private long lastDurationMillis;
+
+	private long maxDurationMillis;
+
+	private long totalDurationMillis;
+
+	private long lastLatenessMillis;
+
+	private long maxLatenessMillis;
+
+	TaskExecutionMetrics(Integer taskId) {
+		this.taskId = taskId;
+	}
+
+	/**
+	 * Marks the task as running
+	 *
+	 * @return false if the task is already running
+	 */
+	boolean tryStart() {
+		return running.compareAndSet(false, true);
+	}
+
+	boolean isRunning() {
+		return running.get();
+	}
+
+	synchronized void setTaskName(String taskName) {
+		this.taskName = taskName;
+	}
+
+	synchronized void recordSkipped() {
+		skippedCount++;
+	}
+
+	/**
+	 * Records a finished execution and marks the task as no longer running
+	 */
+	synchronized void recordExecution(long start, long durationMillis, long latenessMillis, boolean failed) {
+		executionCount++;
+		if (failed) {
+			failureCount++;
+		}
+		lastExecutionStart = start;
+		lastDurationMillis = durationMillis;
+		maxDurationMillis = Math.max(maxDurationMillis, durationMillis);
+		totalDurationMillis += durationMillis;
+		lastLatenessMillis = latenessMillis;
+		maxLatenessMillis = Math.max(maxLatenessMillis, latenessMillis);
+		running.set(false);
+	}
+
+	synchronized TaskExecutionStatistics getStatistics() {
+		return new TaskExecutionStatistics(taskId, taskName, running.get(), executionCount, failureCount, skippedCount,
+		        lastExecutionStart == 0 ? null : new Date(lastExecutionStart), lastDurationMillis, maxDurationMillis,
+		        totalDurationMillis, lastLatenessMillis, maxLatenessMillis);
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.openmrs.obs.handler.AbstractHandler;
+import org.openmrs.util.OpenmrsConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A scheduled task that moves complex obs files stored with another number of subdirectory levels,
+ * e.g. directly in the complex obs directory by versions before 2.7.0, to the number of levels set
+ * by the {@link OpenmrsConstants#GP_COMPLEX_OBS_DIR_SHARD_LEVELS} global property. Each run moves at
+ * most the "batchSize" task property (1000 by default) files, so the task is meant to be scheduled
+ * to repeat until it reports that no files are left to move. Moved files are found in their new
+ * location, so a run which was stopped or limited simply leaves the remaining files to the next
+ * run. Obs are not changed, they find their files at any number of levels.
+ * <p>
+ * The task is registered as "Shard Complex Obs Directory Task" but is not started, administrators
+ * start it on the scheduler page after changing the global property.
+ *
+ * @see AbstractHandler#getComplexDataFile(org.openmrs.Obs)
+ * @since 2.7.0
+ */
+public class ShardComplexObsDirTask extends AbstractTask {
+
+	private static final Logger log = LoggerFactory.getLogger(ShardComplexObsDirTask.class);
+
+	/**
+	 * The name of the task property holding the maximum number of files to move in one run
+	 */
+	public static final String BATCH_SIZE_PROPERTY = "batchSize";
+
+	private static final int DEFAULT_BATCH_SIZE = 1000;
+
+	private volatile boolean shutdown = false;
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#execute()
+	 */
+	@Override
+	public void execute() {
+		if (!isExecuting) {
+			log.debug("Starting Shard Complex Obs Dir Task...");
+
+			startExecuting();
+			shutdown = false;
+			try {
+				moveFiles(AbstractHandler.getComplexObsDir(), AbstractHandler.getShardLevels(), getBatchSize());
+			}
+			catch (Exception e) {
+				log.error("Error while moving complex obs files into their subdirectories:", e);
+			}
+			finally {
+				stopExecuting();
+			}
+		}
+	}
+
+	/**
+	 * @see org.openmrs.scheduler.tasks.AbstractTask#shutdown()
+	 */
+	@Override
+	public void shutdown() {
+		shutdown = true;
+		super.shutdown();
+	}
+
+	/**
+	 * Moves up to batchSize files which are stored in a directory with another number of
+	 * subdirectory levels than the given one to their place at the given number of levels, stopping
+	 * early if the task is shut down. Only the files directly in the directory and in subdirectories
+	 * which the complex obs handlers could have created are moved. Files which already exist at
+	 * their new place are left where they are and subdirectories which are emptied are deleted.
+	 *
+	 * @param dir the complex obs directory
+	 * @param shardLevels the number of subdirectory levels to move the files to
+	 * @param batchSize the maximum number of files to move
+	 * @return the number of files moved
+	 * @throws IOException if the directory cannot be read
+	 * <strong>Should</strong> move files into their subdirectories
+	 * <strong>Should</strong> move files between any numbers of levels
+	 * <strong>Should</strong> move at most batch size files
+	 * <strong>Should</strong> not overwrite files already in their subdirectory
+	 * <strong>Should</strong> not move files from unrelated subdirectories
+	 */
+	public int moveFiles(File dir, int shardLevels, int batchSize) throws IOException {
+		Path root = dir.toPath();
+		int levels = Math.max(0, Math.min(shardLevels, AbstractHandler.MAX_SHARD_LEVELS));
+		List<Path> toMove = new ArrayList<>();
+		int skipped;
+		try (Stream<Path> files = Files.walk(root, AbstractHandler.MAX_SHARD_LEVELS + 1)) {
+			skipped = collectFilesToMove(root, levels, batchSize, files.iterator(), toMove);
+		}
+
+		int moved = 0;
+		for (Path file : toMove) {
+			if (shutdown) {
+				log.info("Stopped moving complex obs files, the remaining files are moved the next time the task runs");
+				return moved;
+			}
+			Path target = root.resolve(AbstractHandler.getShardedPath(file.getFileName().toString(), levels));
+			Files.createDirectories(target.getParent());
+			move(file, target);
+			deleteEmptyDirectories(root, file.getParent());
+			moved++;
+		}
+
+		if (toMove.size() < batchSize) {
+			log.info("Finished moving {} complex obs files to {} subdirectory levels, {} files were left in place", moved,
+			    levels, skipped);
+		} else {
+			log.info("Moved {} complex obs files to {} subdirectory levels, the remaining files are moved the next time "
+			        + "the task runs", moved, levels);
+		}
+		return moved;
+	}
+
+	private int collectFilesToMove(Path root, int levels, int batchSize, Iterator<Path> files, List<Path> toMove) {
+		int skipped = 0;
+		while (files.hasNext() && toMove.size() < batchSize) {
+			Path file = files.next();
+			if (!Files.isRegularFile(file)) {
+				continue;
+			}
+			Path relative = root.relativize(file);
+			int fileLevels = relative.getNameCount() - 1;
+			String name = file.getFileName().toString();
+			if (fileLevels == levels || !isShardedPath(relative, name, fileLevels)) {
+				continue;
+			}
+			Path target = root.resolve(AbstractHandler.getShardedPath(name, levels));
+			if (Files.exists(target)) {
+				log.warn("Not moving {} because {} already exists", file, target);
+				skipped++;
+				continue;
+			}
+			toMove.add(file);
+		}
+		return skipped;
+	}
+
+	/**
+	 * Checks that a file is where the complex obs handlers would have stored it at its number of
+	 * levels, so that files in other subdirectories of the complex obs directory are not touched
+	 */
+	private boolean isShardedPath(Path relative, String name, int fileLevels) {
+		return relative.toString().replace(File.separatorChar, '/')
+		        .equals(AbstractHandler.getShardedPath(name, fileLevels));
+	}
+
+	private void deleteEmptyDirectories(Path root, Path dir) {
+		while (!dir.equals(root)) {
+			try {
+				Files.delete(dir);
+			}
+			catch (IOException e) {
+				// the directory still holds other files
+				return;
+			}
+			dir = dir.getParent();
+		}
+	}
+
+	private void move(Path file, Path target) throws IOException {
+		try {
+			Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(file, target);
+		}
+	}
+
+	private int getBatchSize() {
+		String batchSize = taskDefinition == null ? null : taskDefinition.getProperty(BATCH_SIZE_PROPERTY);
+		int size = NumberUtils.toInt(StringUtils.trim(batchSize), DEFAULT_BATCH_SIZE);
+		return size > 0 ? size : DEFAULT_BATCH_SIZE;
+	}
+}
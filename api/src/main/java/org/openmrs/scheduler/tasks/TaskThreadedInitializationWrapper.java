@@ -9,6 +9,7 @@
  */
 package org.openmrs.scheduler.tasks;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -30,6 +31,8 @@ public class TaskThreadedInitializationWrapper implements Task {
 	
 	private Task task;
 	
+	private final Executor initializationExecutor;
+	
 	private boolean initialized = false;
 	
 	private final Lock lock = new ReentrantLock();
@@ -42,7 +45,19 @@ public class TaskThreadedInitializationWrapper implements Task {
 	 * @param task the Task to wrap around
 	 */
 	public TaskThreadedInitializationWrapper(Task task) {
+		this(task, r -> new Thread(r).start());
+	}
+	
+	/**
+	 * Creates a wrapper which initializes the task on the given executor instead of a new thread
+	 * 
+	 * @param task the Task to wrap around
+	 * @param initializationExecutor the executor to run {@link Task#initialize(TaskDefinition)} on
+	 * @since 2.7.0
+	 */
+	public TaskThreadedInitializationWrapper(Task task, Executor initializationExecutor) {
 		this.task = task;
+		this.initializationExecutor = initializationExecutor;
 	}
 	
 	/**
@@ -71,7 +86,7 @@ public class TaskThreadedInitializationWrapper implements Task {
 	/**
 	 * @see org.openmrs.scheduler.Task#initialize(org.openmrs.scheduler.TaskDefinition) Initializes
 	 *      the task and sets the task definition. This method is non-blocking by executing in a new
-	 *      thread.
+	 *      thread or on the executor given to the constructor.
 	 */
 	@Override
 	public void initialize(final TaskDefinition config) {
@@ -87,7 +102,7 @@ public class TaskThreadedInitializationWrapper implements Task {
 			}
 		};
 		
-		new Thread(r).start();
+		initializationExecutor.execute(r);
 	}
 	
 	/**
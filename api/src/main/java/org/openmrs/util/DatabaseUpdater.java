@@ -37,6 +37,7 @@ import org.apache.commons.io.IOUtils;
 import org.openmrs.annotation.Authorized;
 import org.openmrs.api.context.Context;
 import org.openmrs.liquibase.ChangeLogDetective;
+import org.openmrs.liquibase.ChangeLogFingerprint;
 import org.openmrs.liquibase.ChangeLogVersionFinder;
 import org.openmrs.liquibase.ChangeSetExecutorCallback;
 import org.openmrs.liquibase.LiquibaseProvider;
@@ -94,11 +95,14 @@ public class DatabaseUpdater {
 	
 	private static final ChangeLogVersionFinder changeLogVersionFinder;
 	
+	private static final ChangeLogFingerprint changeLogFingerprint;
+	
 	private static LiquibaseProvider liquibaseProvider;
 	
 	static {
 		changeLogDetective = new ChangeLogDetective();
 		changeLogVersionFinder = new ChangeLogVersionFinder();
+		changeLogFingerprint = new ChangeLogFingerprint();
 	}
 	
 	/**
@@ -150,7 +154,9 @@ public class DatabaseUpdater {
 		
 		for (String changeLog : changeLogs) {
 			log.debug("applying Liquibase changelog '{}'", changeLog);
+			long start = System.currentTimeMillis();
 			executeChangelog(changeLog, (ChangeSetExecutorCallback) null);
+			log.info("applying Liquibase changelog '{}' took {} ms", changeLog, System.currentTimeMillis() - start);
 		}
 	}
 	
@@ -269,7 +275,28 @@ public class DatabaseUpdater {
 	 */
 	public static boolean updatesRequired() throws Exception {
 		log.debug("checking for updates");
+		long start = System.currentTimeMillis();
+		
+		Properties fingerprint = null;
+		if (allowFingerprintCheck()) {
+			fingerprint = getChangeLogFingerprint();
+			boolean unchanged = fingerprint != null && fingerprint.equals(changeLogFingerprint.read(getFingerprintFile()));
+			log.debug("computing the Liquibase change log fingerprint took {} ms", System.currentTimeMillis() - start);
+			if (unchanged && !isLocked()) {
+				log.debug("the Liquibase change logs and the applied change sets are unchanged, skipping the check for "
+				        + "database updates");
+				return false;
+			}
+		}
+		
+		long checkStart = System.currentTimeMillis();
 		List<OpenMRSChangeSet> changesets = getUnrunDatabaseChanges(new DatabaseUpdaterLiquibaseProvider());
+		log.debug("checking the Liquibase change logs for un-run change sets took {} ms",
+		    System.currentTimeMillis() - checkStart);
+		
+		if (changesets.isEmpty() && fingerprint != null) {
+			changeLogFingerprint.write(getFingerprintFile(), fingerprint);
+		}
 		
 		// if the db is locked, it means there was a crash
 		// or someone is executing db updates right now. either way
@@ -286,6 +313,38 @@ public class DatabaseUpdater {
 		return !changesets.isEmpty();
 	}
 	
+	/**
+	 * Indicates whether the check for database updates may be skipped when the fingerprint of the
+	 * Liquibase change logs is unchanged. The fast path is enabled unless the admin adds
+	 * 'database_update_fingerprint_check=false' to the runtime properties file.
+	 *
+	 * @return true/false whether the fingerprint check is enabled
+	 * @since 2.7.0
+	 */
+	public static boolean allowFingerprintCheck() {
+		String fingerprintCheck = Context.getRuntimeProperties()
+		        .getProperty(OpenmrsConstants.DATABASE_UPDATE_FINGERPRINT_CHECK_RUNTIME_PROPERTY, "true");
+		
+		return !"false".equals(fingerprintCheck);
+	}
+	
+	/**
+	 * @return the fingerprint of the Liquibase change logs or null if it could not be computed
+	 */
+	private static Properties getChangeLogFingerprint() {
+		try (Connection connection = getConnection()) {
+			return changeLogFingerprint.compute(connection, OpenmrsClassLoader.getInstance());
+		}
+		catch (Exception e) {
+			log.warn("Unable to compute the Liquibase change log fingerprint, checking all change logs for updates", e);
+			return null;
+		}
+	}
+	
+	private static File getFingerprintFile() {
+		return new File(OpenmrsUtil.getApplicationDataDirectoryAsFile(), ChangeLogFingerprint.FINGERPRINT_FILE_NAME);
+	}
+	
 	/**
 	 * Ask Liquibase if it needs to do any updates
 	 *
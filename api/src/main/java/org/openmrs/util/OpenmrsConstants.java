@@ -177,6 +177,16 @@ public final class OpenmrsConstants {
 	 */
 	public static final String AUTO_UPDATE_DATABASE_RUNTIME_PROPERTY = "auto_update_database";
 	
+	/**
+	 * The name of the runtime property that a user can set to disable skipping the check for database
+	 * updates on startup when neither the bundled Liquibase change logs nor the Liquibase change log
+	 * table have changed since the last check. The fast path is enabled by default.
+	 * 
+	 * @see org.openmrs.liquibase.ChangeLogFingerprint
+	 * @since 2.7.0
+	 */
+	public static final String DATABASE_UPDATE_FINGERPRINT_CHECK_RUNTIME_PROPERTY = "database_update_fingerprint_check";
+	
 	/**
 	 * These words are ignored in concept and patient searches
 	 *
@@ -253,6 +263,22 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY = "hl7_archive.dir";
 	
+	/**
+	 * Global property name for the number of threads writing hl7 in archives to the file system
+	 * during their migration
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_HL7_ARCHIVE_MIGRATION_THREADS = "hl7_archive.migration_threads";
+	
+	/**
+	 * Global property name for the id of the last hl7 in archive of the last migrated batch, an
+	 * interrupted migration resumes after it
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_HL7_ARCHIVE_MIGRATION_LAST_ID = "hl7_archive.migration_last_id";
+	
 	public static final String GLOBAL_PROPERTY_DEFAULT_THEME = "default_theme";
 	
 	public static final String GLOBAL_PROPERTY_APPLICATION_NAME = "application.name";
@@ -317,6 +343,14 @@ public final class OpenmrsConstants {
 	
 	public static final String GLOBAL_PROPERTY_COMPLEX_OBS_DIR = "obs.complex_obs_dir";
 	
+	/**
+	 * The number of subdirectory levels complex obs files are spread over, 0 stores them directly in
+	 * the {@link #GLOBAL_PROPERTY_COMPLEX_OBS_DIR}
+	 * 
+	 * @since 2.7.0
+	 */
+	public static final String GP_COMPLEX_OBS_DIR_SHARD_LEVELS = "obs.complex_obs_dir.shard_levels";
+	
 	public static final String GLOBAL_PROPERTY_MIN_SEARCH_CHARACTERS = "minSearchCharacters";
 	
 	public static final int GLOBAL_PROPERTY_DEFAULT_MIN_SEARCH_CHARACTERS = 2;
@@ -612,6 +646,38 @@ public final class OpenmrsConstants {
 	 * @since 1.11
 	 */
 	public static final Integer SEARCH_INDEX_VERSION = 7;
+	
+	/**
+	 * Global property name that switches the collection of database statistics on or off without a
+	 * restart
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_DATABASE_STATISTICS_ENABLED = "database.statistics.enabled";
+	
+	/**
+	 * Global property name for the interval in minutes at which a snapshot of the database statistics
+	 * is written to the log, 0 or blank disables the export
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_DATABASE_STATISTICS_EXPORT_INTERVAL = "database.statistics.exportInterval";
+	
+	/**
+	 * Global property name that makes merging patients move visits, encounters, obs, orders and
+	 * program enrollments with set based updates instead of saving them one by one
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_PATIENT_MERGE_SET_BASED = "patient.merge.setBased";
+	
+	/**
+	 * Global property name that switches caching the objects deserialized from serialized objects
+	 * on or off without a restart
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String GP_SERIALIZED_OBJECT_CACHE_ENABLED = "serializedObject.cache.enabled";
 
 	/**
 	 * @since 1.12
@@ -837,6 +903,12 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_COMPLEX_OBS_DIR, "complex_obs",
 		        "Default directory for storing complex obs."));
 		
+		props.add(new GlobalProperty(GP_COMPLEX_OBS_DIR_SHARD_LEVELS, "0",
+		        "The number of subdirectory levels (0 to 4) new complex obs files are spread over, named after the leading "
+		                + "hex digits of the obs uuid. 0 stores them directly in the complex obs directory. Files stored with "
+		                + "another number of levels are still found and can be moved to the current number of levels by "
+		                + "starting the 'Shard Complex Obs Directory Task' on the scheduler page."));
+		
 		props
 		        .add(new GlobalProperty(
 		                GLOBAL_PROPERTY_ENCOUNTER_FORM_OBS_SORT_ORDER,
@@ -905,6 +977,13 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY, HL7Constants.HL7_ARCHIVE_DIRECTORY_NAME,
 		        "The default name or absolute path for the folder where to write the hl7_in_archives."));
 		
+		props.add(new GlobalProperty(GP_HL7_ARCHIVE_MIGRATION_THREADS, "4",
+		        "The number of threads writing hl7_in_archives to the file system when they are migrated."));
+		
+		props.add(new GlobalProperty(GP_HL7_ARCHIVE_MIGRATION_LAST_ID, "",
+		        "The id of the last hl7_in_archive of the last migrated batch, a stopped migration resumes after it. "
+		                + "It is cleared when a migration completes so the next one retries failed archives."));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_REPORT_BUG_URL, "http://errors.openmrs.org/scrap",
 		        "The openmrs url where to submit bug reports"));
 		
@@ -1025,6 +1104,24 @@ public final class OpenmrsConstants {
 		props.add(new GlobalProperty(GP_SEARCH_INDEX_VERSION, "",
 		        "Indicates the index version. If it is blank, the index needs to be rebuilt."));
 		
+		props.add(new GlobalProperty(GP_DATABASE_STATISTICS_ENABLED, "true",
+		        "Set to false to stop collecting query, entity and cache statistics of the database layer.",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GP_DATABASE_STATISTICS_EXPORT_INTERVAL, "0",
+		        "The interval in minutes at which a snapshot of the database statistics is written to the log, 0 to disable."));
+		
+		props.add(new GlobalProperty(GP_PATIENT_MERGE_SET_BASED, "false",
+		        "Set to true to move the visits, encounters, obs, orders and program enrollments of merged patients with a "
+		                + "few bulk updates, voided ones included. Obs are still voided and copied to the preferred patient. "
+		                + "Relationships are merged one by one either way.",
+		        BooleanDatatype.class, null));
+		
+		props.add(new GlobalProperty(GP_SERIALIZED_OBJECT_CACHE_ENABLED, "false",
+		        "Set to true to cache the objects deserialized from serialized objects such as report definitions. Callers "
+		                + "get copies of the cached objects in which referenced persistent objects are detached.",
+		        BooleanDatatype.class, null));
+		
 		props.add(new GlobalProperty(GLOBAL_PROPERTY_ALLOW_OVERLAPPING_VISITS, "true",
 		        "true/false whether or not to allow visits of a given patient to overlap", BooleanDatatype.class, null));
 		
@@ -13,7 +13,6 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -26,6 +25,10 @@ public class OpenmrsDateFormat extends SimpleDateFormat {
 	
 	private static final long serialVersionUID = 1L;
 	
+	private static final Pattern FOUR_DIGIT_YEAR_PATTERN = Pattern.compile("\\Wyyyy$");
+	
+	private static final Pattern FOUR_DIGIT_YEAR_DATE = Pattern.compile("\\W\\d{4}$");
+	
 	public OpenmrsDateFormat(SimpleDateFormat sdf, Locale locale) {
 		super(sdf.toPattern(), locale);
 		this.setLenient(false);
@@ -33,25 +36,34 @@ public class OpenmrsDateFormat extends SimpleDateFormat {
 	
 	@Override
 	public Date parse(String text) throws ParseException {
+		validate(this.toPattern(), text);
 		
+		// if we've passed this validation, just call the SimpleDateFormat.parse() method
+		return super.parse(text);
+	}
+	
+	/**
+	 * Verifies that the given text ends in a four digit year if the given pattern ends in yyyy,
+	 * otherwise that it has the same length as the pattern
+	 * 
+	 * @param pattern the date pattern
+	 * @param text the date string to parse
+	 * @throws ParseException if the date string doesn't satisfy the rules
+	 */
+	static void validate(String pattern, String text) throws ParseException {
 		// first test to see if the pattern ends in "{non-alphanumeric-character}yyyy"
-		Matcher patternMatch = Pattern.compile("\\Wyyyy$").matcher(this.toPattern());
-		if (patternMatch.find()) {
+		if (FOUR_DIGIT_YEAR_PATTERN.matcher(pattern).find()) {
 			// if it does, make sure that the string to parse ends in "{non-alphanumeric-character}{digit}{digit}{digit}{digit}"
-			Matcher dateMatch = Pattern.compile("\\W\\d{4}$").matcher(text);
-			if (!dateMatch.find()) {
+			if (!FOUR_DIGIT_YEAR_DATE.matcher(text).find()) {
 				throw new ParseException("Unparseable date \"" + text + "\" - year must have 4 digits", 0);
 			}
 		}
 		// otherwise, verify that the pattern and the string are the same length
 		else {
-			if (this.toPattern().length() != text.length()) {
+			if (pattern.length() != text.length()) {
 				throw new ParseException("Unparseable date \"" + text
 				        + "\" - length of date string doesn't match length of date pattern", 0);
 			}
 		}
-		
-		// if we've passed this validation, just call the SimpleDateFormat.parse() method
-		return super.parse(text);
 	}
 }
@@ -33,7 +33,15 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.sql.Timestamp;
 import java.text.DateFormat;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
@@ -52,6 +60,7 @@ import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarFile;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -121,9 +130,17 @@ public class OpenmrsUtil {
 	
 	private static org.slf4j.Logger log = LoggerFactory.getLogger(OpenmrsUtil.class);
 	
-	private static Map<Locale, SimpleDateFormat> dateFormatCache = new HashMap<>();
+	private static final Map<Locale, SimpleDateFormat> dateFormatCache = new ConcurrentHashMap<>();
 	
-	private static Map<Locale, SimpleDateFormat> timeFormatCache = new HashMap<>();
+	private static final Map<Locale, SimpleDateFormat> timeFormatCache = new ConcurrentHashMap<>();
+	
+	private static final Map<Locale, DateTimeFormatter> dateFormatterCache = new ConcurrentHashMap<>();
+	
+	private static final Map<Locale, DateTimeFormatter> timeFormatterCache = new ConcurrentHashMap<>();
+	
+	private static final Map<Locale, DateTimeFormatter> dateTimeFormatterCache = new ConcurrentHashMap<>();
+	
+	private static final Map<Locale, DateTimeFormatter> dateParserCache = new ConcurrentHashMap<>();
 	
 	/**
 	 * Compares origList to newList returning map of differences
@@ -1277,14 +1294,162 @@ public class OpenmrsUtil {
 	 * @since 1.5
 	 */
 	public static SimpleDateFormat getDateFormat(Locale locale) {
-		if (dateFormatCache.containsKey(locale)) {
-			return (SimpleDateFormat) dateFormatCache.get(locale).clone();
+		return (SimpleDateFormat) getCachedDateFormat(locale).clone();
+	}
+	
+	/**
+	 * Get the current user's time format Will look similar to "hh:mm a". Depends on user's locale.
+	 * 
+	 * @return a simple time format
+	 * <strong>Should</strong> return a pattern with two h characters in it
+	 * <strong>Should</strong> not allow the returned SimpleDateFormat to be modified
+	 * @since 1.9
+	 */
+	public static SimpleDateFormat getTimeFormat(Locale locale) {
+		return (SimpleDateFormat) getCachedTimeFormat(locale).clone();
+	}
+	
+	/**
+	 * Get the current user's datetime format Will look similar to "mm-dd-yyyy hh:mm a". Depends on
+	 * user's locale.
+	 * 
+	 * @return a simple date format
+	 * <strong>Should</strong> return a pattern with four y characters and two h characters in it
+	 * <strong>Should</strong> not allow the returned SimpleDateFormat to be modified
+	 * @since 1.9
+	 */
+	public static SimpleDateFormat getDateTimeFormat(Locale locale) {
+		SimpleDateFormat sdf = new SimpleDateFormat();
+		sdf.applyPattern(getDateTimePattern(locale));
+		return sdf;
+	}
+	
+	/**
+	 * Gets the date formatter for the given locale, it uses the same pattern as
+	 * {@link #getDateFormat(Locale)} but unlike the latter it is immutable and thread safe, hence the
+	 * same instance is returned for each call with the same locale. Use
+	 * {@link #parseDate(String, Locale)} to parse user input the way the date format does.
+	 * 
+	 * @param locale the locale
+	 * @return the date formatter
+	 * <strong>Should</strong> use the same pattern as the date format
+	 * <strong>Should</strong> return the same instance for the same locale
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getDateFormatter(Locale locale) {
+		return dateFormatterCache.computeIfAbsent(locale,
+		    l -> toDateTimeFormatter(getCachedDateFormat(l).toPattern(), l, false));
+	}
+	
+	/**
+	 * Gets the time formatter for the given locale, it uses the same pattern as
+	 * {@link #getTimeFormat(Locale)} and is immutable and thread safe.
+	 * 
+	 * @param locale the locale
+	 * @return the time formatter
+	 * <strong>Should</strong> use the same pattern as the time format
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getTimeFormatter(Locale locale) {
+		return timeFormatterCache.computeIfAbsent(locale,
+		    l -> toDateTimeFormatter(getCachedTimeFormat(l).toPattern(), l, false));
+	}
+	
+	/**
+	 * Gets the datetime formatter for the given locale, it uses the same pattern as
+	 * {@link #getDateTimeFormat(Locale)} and is immutable and thread safe.
+	 * 
+	 * @param locale the locale
+	 * @return the datetime formatter
+	 * <strong>Should</strong> use the same pattern as the datetime format
+	 * @since 2.7.0
+	 */
+	public static DateTimeFormatter getDateTimeFormatter(Locale locale) {
+		return dateTimeFormatterCache.computeIfAbsent(locale, l -> toDateTimeFormatter(getDateTimePattern(l), l, false));
+	}
+	
+	/**
+	 * Formats the given date with the date formatter of the given locale in the default time zone
+	 * 
+	 * @param date the date to format
+	 * @param locale the locale
+	 * @return the formatted date
+	 * <strong>Should</strong> format the date like the date format
+	 * @since 2.7.0
+	 */
+	public static String formatDate(Date date, Locale locale) {
+		return getDateFormatter(locale).format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * Formats the time of the given date with the time formatter of the given locale in the default
+	 * time zone
+	 * 
+	 * @param date the date to format
+	 * @param locale the locale
+	 * @return the formatted time
+	 * @since 2.7.0
+	 */
+	public static String formatTime(Date date, Locale locale) {
+		return getTimeFormatter(locale).format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * Formats the given date with the datetime formatter of the given locale in the default time zone
+	 * 
+	 * @param date the date to format
+	 * @param locale the locale
+	 * @return the formatted date and time
+	 * <strong>Should</strong> format the date like the datetime format
+	 * @since 2.7.0
+	 */
+	public static String formatDateTime(Date date, Locale locale) {
+		return getDateTimeFormatter(locale).format(toLocalDateTime(date));
+	}
+	
+	/**
+	 * Parses the given text with the date pattern of the given locale, applying the same rules as
+	 * {@link OpenmrsDateFormat}, i.e. the year must have four digits and days and months must be
+	 * valid while single digit days and months are allowed.
+	 * 
+	 * @param text the text to parse
+	 * @param locale the locale
+	 * @return the date at the start of the day in the default time zone
+	 * @throws ParseException if the text is not a valid date in the date format of the locale
+	 * <strong>Should</strong> parse a valid date
+	 * <strong>Should</strong> allow single digit days and months
+	 * <strong>Should</strong> fail on a date with a two digit year
+	 * <strong>Should</strong> fail on a date with an invalid day or month
+	 * @since 2.7.0
+	 */
+	public static Date parseDate(String text, Locale locale) throws ParseException {
+		OpenmrsDateFormat.validate(getCachedDateFormat(locale).toPattern(), text);
+		try {
+			LocalDate date = LocalDate.parse(text, dateParserCache.computeIfAbsent(locale,
+			    l -> toDateTimeFormatter(getCachedDateFormat(l).toPattern(), l, true)));
+			return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
 		}
-		
+		catch (DateTimeParseException e) {
+			throw new ParseException("Unparseable date \"" + text + "\"", e.getErrorIndex());
+		}
+	}
+	
+	/**
+	 * The cached date format must never be handed out since SimpleDateFormat is mutable, callers
+	 * get a clone
+	 */
+	private static SimpleDateFormat getCachedDateFormat(Locale locale) {
 		// note that we are using the custom OpenmrsDateFormat class here which prevents erroneous parsing of 2-digit years
-		SimpleDateFormat sdf = new OpenmrsDateFormat((SimpleDateFormat) DateFormat.getDateInstance(DateFormat.SHORT, locale),
-		        locale);
-		String pattern = sdf.toPattern();
+		return dateFormatCache.computeIfAbsent(locale,
+		    l -> new OpenmrsDateFormat(new SimpleDateFormat(getDatePattern(l), l), l));
+	}
+	
+	private static SimpleDateFormat getCachedTimeFormat(Locale locale) {
+		return timeFormatCache.computeIfAbsent(locale, l -> new SimpleDateFormat(getTimePattern(l), l));
+	}
+	
+	private static String getDatePattern(Locale locale) {
+		String pattern = ((SimpleDateFormat) DateFormat.getDateInstance(DateFormat.SHORT, locale)).toPattern();
 		
 		if (!pattern.contains("yyyy")) {
 			// otherwise, change the pattern to be a four digit year
@@ -1294,71 +1459,67 @@ public class OpenmrsUtil {
 				regex = "y";
 			}
 			pattern = pattern.replaceFirst(regex, "yyyy");
-			sdf.applyPattern(pattern);
 		}
 		if (!pattern.contains("MM")) {
 			// change the pattern to be a two digit month
 			pattern = pattern.replaceFirst("M", "MM");
-			sdf.applyPattern(pattern);
 		}
 		if (!pattern.contains("dd")) {
 			// change the pattern to be a two digit day
 			pattern = pattern.replaceFirst("d", "dd");
-			sdf.applyPattern(pattern);
 		}
-		
-		dateFormatCache.put(locale, sdf);
-		
-		return (SimpleDateFormat) sdf.clone();
+		return pattern;
 	}
 	
-	/**
-	 * Get the current user's time format Will look similar to "hh:mm a". Depends on user's locale.
-	 * 
-	 * @return a simple time format
-	 * <strong>Should</strong> return a pattern with two h characters in it
-	 * <strong>Should</strong> not allow the returned SimpleDateFormat to be modified
-	 * @since 1.9
-	 */
-	public static SimpleDateFormat getTimeFormat(Locale locale) {
-		if (timeFormatCache.containsKey(locale)) {
-			return (SimpleDateFormat) timeFormatCache.get(locale).clone();
-		}
-		
-		SimpleDateFormat sdf = (SimpleDateFormat) DateFormat.getTimeInstance(DateFormat.SHORT, locale);
-		String pattern = sdf.toPattern();
+	private static String getTimePattern(Locale locale) {
+		String pattern = ((SimpleDateFormat) DateFormat.getTimeInstance(DateFormat.SHORT, locale)).toPattern();
 		
 		if (!(pattern.contains("hh") || pattern.contains("HH"))) {
 			// otherwise, change the pattern to be a two digit hour
 			pattern = pattern.replaceFirst("h", "hh").replaceFirst("H", "HH");
-			sdf.applyPattern(pattern);
 		}
-		
-		timeFormatCache.put(locale, sdf);
-		
-		return (SimpleDateFormat) sdf.clone();
+		return pattern;
+	}
+	
+	private static String getDateTimePattern(Locale locale) {
+		return getCachedDateFormat(locale).toPattern() + " " + getCachedTimeFormat(locale).toPattern();
 	}
 	
 	/**
-	 * Get the current user's datetime format Will look similar to "mm-dd-yyyy hh:mm a". Depends on
-	 * user's locale.
-	 * 
-	 * @return a simple date format
-	 * <strong>Should</strong> return a pattern with four y characters and two h characters in it
-	 * <strong>Should</strong> not allow the returned SimpleDateFormat to be modified
-	 * @since 1.9
+	 * Converts a SimpleDateFormat pattern into a strict DateTimeFormatter, the year of era 'y' is
+	 * replaced with the proleptic year 'u' outside of quoted text since the strict resolver cannot
+	 * resolve a year of era without an era. A formatter for parsing accepts numeric days, months and
+	 * years of any width like SimpleDateFormat does.
 	 */
-	public static SimpleDateFormat getDateTimeFormat(Locale locale) {
-		SimpleDateFormat dateFormat;
-		SimpleDateFormat timeFormat;
-		
-		dateFormat = getDateFormat(locale);
-		timeFormat = getTimeFormat(locale);
-		
-		String pattern = dateFormat.toPattern() + " " + timeFormat.toPattern();
-		SimpleDateFormat sdf = new SimpleDateFormat();
-		sdf.applyPattern(pattern);
-		return sdf;
+	private static DateTimeFormatter toDateTimeFormatter(String pattern, Locale locale, boolean forParsing) {
+		StringBuilder strictPattern = new StringBuilder(pattern.length());
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (!quoted) {
+				int count = 1;
+				while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+					count++;
+				}
+				if (c == 'y') {
+					c = 'u';
+				}
+				if (forParsing && (c == 'u' || c == 'd' || (c == 'M' && count <= 2))) {
+					strictPattern.append(c);
+					i += count - 1;
+					continue;
+				}
+			}
+			strictPattern.append(c);
+		}
+		return DateTimeFormatter.ofPattern(strictPattern.toString(), locale).withResolverStyle(ResolverStyle.STRICT);
+	}
+	
+	private static LocalDateTime toLocalDateTime(Date date) {
+		// Date#toInstant is not supported by java.sql.Date
+		return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
 	}
 	
 	/**
@@ -0,0 +1,92 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns each privilege name a small number, so that the privileges of a role including the ones
+ * it inherits can be kept as a bit set, see {@link org.openmrs.Role#hasEffectivePrivilege(String)}.
+ * Privilege names are compared ignoring case like in {@link org.openmrs.Role#hasPrivilege(String)}.
+ * It also holds a version number which is incremented whenever roles or privileges are saved or
+ * purged, the bit sets computed for an older version are computed again.
+ *
+ * @since 2.7.0
+ */
+public final class PrivilegeIndex {
+
+	/**
+	 * the indexes by lower case privilege name, and by the spelling used in checks once looked up
+	 */
+	private static final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger nextIndex = new AtomicInteger();
+
+	private static final AtomicInteger version = new AtomicInteger();
+
+	private PrivilegeIndex() {
+	}
+
+	/**
+	 * Gets the index of the given privilege, assigning the next free one if it has none yet
+	 *
+	 * @param privilegeName the name of the privilege
+	 * @return the index
+	 * <strong>Should</strong> return the same index for names differing in case
+	 */
+	public static int getOrAssignIndex(String privilegeName) {
+		Integer index = indexes.get(privilegeName);
+		if (index == null) {
+			index = indexes.computeIfAbsent(privilegeName.toLowerCase(Locale.ROOT), name -> nextIndex.getAndIncrement());
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the index of the given privilege
+	 *
+	 * @param privilegeName the name of the privilege
+	 * @return the index or -1 if no role has been given an index for the privilege, so no role has it
+	 * <strong>Should</strong> return -1 for privileges without an index
+	 */
+	public static int getIndex(String privilegeName) {
+		if (privilegeName == null) {
+			return -1;
+		}
+		Integer index = indexes.get(privilegeName);
+		if (index == null) {
+			index = indexes.get(privilegeName.toLowerCase(Locale.ROOT));
+			if (index == null) {
+				return -1;
+			}
+			// remember the spelling so that the next check with it is a single lookup
+			indexes.putIfAbsent(privilegeName, index);
+		}
+		return index;
+	}
+
+	/**
+	 * @return the version of the roles and privileges the bit sets are computed for
+	 */
+	public static int getVersion() {
+		return version.get();
+	}
+
+	/**
+	 * Makes all roles compute their privilege bit sets again, it is called when roles or privileges
+	 * are saved or purged
+	 */
+	public static void invalidate() {
+		version.incrementAndGet();
+	}
+}
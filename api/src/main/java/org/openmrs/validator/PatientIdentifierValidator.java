@@ -9,7 +9,20 @@
  */
 package org.openmrs.validator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
 import org.apache.commons.lang3.StringUtils;
+import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.LocationBehavior;
@@ -36,6 +49,19 @@ public class PatientIdentifierValidator implements Validator {
 	
 	private static final Logger log = LoggerFactory.getLogger(PatientIdentifierValidator.class);
 	
+	private static final int MAX_CACHED_FORMATS = 1000;
+	
+	/**
+	 * the compiled identifier formats by format, identifier types are few so all their formats fit
+	 */
+	private static final Map<String, Pattern> formatPatterns = new ConcurrentHashMap<>();
+	
+	/**
+	 * the identifiers whose uniqueness the caller checks itself in the current thread, see
+	 * {@link #runWithoutCheckingIdentifiersInUse(Collection, Runnable)}
+	 */
+	private static final ThreadLocal<Set<PatientIdentifier>> identifiersCheckedByCaller = new ThreadLocal<>();
+	
 	/**
 	 * @see org.springframework.validation.Validator#supports(java.lang.Class)
 	 */
@@ -85,27 +111,161 @@ public class PatientIdentifierValidator implements Validator {
 		// Only validate if the PatientIdentifier is not voided
 		if (!pi.getVoided()) {
 			
-			// Check that this is a valid identifier
-			validateIdentifier(pi.getIdentifier(), pi.getIdentifierType());
-			
-			// Check that location is included if it is required (default behavior is to require it)
-			LocationBehavior lb = pi.getIdentifierType().getLocationBehavior();
-			if (pi.getLocation() == null && (lb == null || lb == LocationBehavior.REQUIRED)) {
-				String identifierString = (pi.getIdentifier() != null) ? pi.getIdentifier() : "";
-				throw new PatientIdentifierException(Context.getMessageSourceService().getMessage(
-				    "PatientIdentifier.location.null", new Object[] { identifierString }, Context.getLocale()));
-			}
+			validateIdentifierIgnoringUniqueness(pi);
 			
-			if (pi.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.NON_UNIQUE
+			if (isUniquenessRequired(pi) && !isUniquenessCheckedByCaller(pi)
 			        && Context.getPatientService().isIdentifierInUseByAnotherPatient(pi)) {
 				// Check is already in use by another patient
-				throw new IdentifierNotUniqueException(Context.getMessageSourceService().getMessage(
-				    "PatientIdentifier.error.notUniqueWithParameter", new Object[] { pi.getIdentifier() },
-				    Context.getLocale()), pi);
+				throw newIdentifierNotUniqueException(pi);
 			}
 		}
 	}
 	
+	/**
+	 * Checks that the given {@link PatientIdentifier} is valid like
+	 * {@link #validateIdentifier(PatientIdentifier)} does except for whether another patient has the
+	 * same identifier, which {@link #checkIdentifiersNotInUse(Collection)} checks for several
+	 * identifiers at once
+	 * 
+	 * @param pi the non voided {@link PatientIdentifier} to validate
+	 * @throws PatientIdentifierException if the {@link PatientIdentifier} is invalid
+	 * @since 2.7.0
+	 */
+	public static void validateIdentifierIgnoringUniqueness(PatientIdentifier pi) throws PatientIdentifierException {
+		// Check that this is a valid identifier
+		validateIdentifier(pi.getIdentifier(), pi.getIdentifierType());
+		
+		// Check that location is included if it is required (default behavior is to require it)
+		LocationBehavior lb = pi.getIdentifierType().getLocationBehavior();
+		if (pi.getLocation() == null && (lb == null || lb == LocationBehavior.REQUIRED)) {
+			String identifierString = (pi.getIdentifier() != null) ? pi.getIdentifier() : "";
+			throw new PatientIdentifierException(Context.getMessageSourceService().getMessage(
+			    "PatientIdentifier.location.null", new Object[] { identifierString }, Context.getLocale()));
+		}
+	}
+	
+	/**
+	 * Checks with a single query that none of the given identifiers whose type requires them to be
+	 * unique is in use by another patient
+	 * 
+	 * @param identifiers the non voided identifiers to check
+	 * @throws IdentifierNotUniqueException for the first of the identifiers in use by another patient
+	 * <strong>Should</strong> fail validation if another patient has one of the identifiers
+	 * <strong>Should</strong> pass if in use and id type uniqueness is set to non unique
+	 * @since 2.7.0
+	 */
+	public static void checkIdentifiersNotInUse(Collection<PatientIdentifier> identifiers)
+	        throws IdentifierNotUniqueException {
+		List<PatientIdentifier> toCheck = new ArrayList<>(identifiers.size());
+		for (PatientIdentifier pi : identifiers) {
+			if (isUniquenessRequired(pi)) {
+				toCheck.add(pi);
+			}
+		}
+		if (toCheck.isEmpty()) {
+			return;
+		}
+		
+		List<PatientIdentifier> inUse = Context.getPatientService().getPatientIdentifiersInUseByAnotherPatient(toCheck);
+		if (!inUse.isEmpty()) {
+			throw newIdentifierNotUniqueException(inUse.get(0));
+		}
+	}
+	
+	/**
+	 * Checks with a single query which of the given identifiers of several patients, for instance
+	 * patients saved together, are in use by another patient, an identifier is also not unique if it
+	 * equals an identifier that comes before it and belongs to another of the given patients
+	 * 
+	 * @param identifiers the non voided identifiers to check
+	 * @return the exceptions for the identifiers that are not unique, in the order of the identifiers
+	 * <strong>Should</strong> return the identifiers in use by another patient
+	 * <strong>Should</strong> return the identifiers equal to an earlier identifier of another patient
+	 * <strong>Should</strong> ignore case when comparing identifiers of the given patients
+	 * @since 2.7.0
+	 */
+	public static Map<PatientIdentifier, IdentifierNotUniqueException> getIdentifiersNotUnique(
+	        Collection<PatientIdentifier> identifiers) {
+		Map<PatientIdentifier, IdentifierNotUniqueException> notUnique = new IdentityHashMap<>();
+		Map<String, Patient> patientsByIdentifier = new HashMap<>();
+		List<PatientIdentifier> toCheck = new ArrayList<>(identifiers.size());
+		for (PatientIdentifier pi : identifiers) {
+			if (!isUniquenessRequired(pi)) {
+				continue;
+			}
+			Patient patient = patientsByIdentifier.putIfAbsent(getUniquenessKey(pi), pi.getPatient());
+			if (patient != null && patient != pi.getPatient()) {
+				notUnique.put(pi, newIdentifierNotUniqueException(pi));
+			} else {
+				toCheck.add(pi);
+			}
+		}
+		if (!toCheck.isEmpty()) {
+			for (PatientIdentifier pi : Context.getPatientService().getPatientIdentifiersInUseByAnotherPatient(toCheck)) {
+				notUnique.put(pi, newIdentifierNotUniqueException(pi));
+			}
+		}
+		
+		Map<PatientIdentifier, IdentifierNotUniqueException> result = new LinkedHashMap<>();
+		for (PatientIdentifier pi : identifiers) {
+			if (notUnique.containsKey(pi)) {
+				result.put(pi, notUnique.get(pi));
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Runs the given validation without checking whether the given identifiers are in use by another
+	 * patient, the caller must check them itself afterwards, e.g. with
+	 * {@link #getIdentifiersNotUnique(Collection)} for the identifiers of several patients at once
+	 * 
+	 * @param identifiers the identifiers whose uniqueness the caller checks
+	 * @param validation the validation to run
+	 * @since 2.7.0
+	 */
+	public static void runWithoutCheckingIdentifiersInUse(Collection<PatientIdentifier> identifiers, Runnable validation) {
+		Set<PatientIdentifier> previous = identifiersCheckedByCaller.get();
+		Set<PatientIdentifier> checkedByCaller = Collections.newSetFromMap(new IdentityHashMap<>());
+		checkedByCaller.addAll(identifiers);
+		identifiersCheckedByCaller.set(checkedByCaller);
+		try {
+			validation.run();
+		}
+		finally {
+			if (previous == null) {
+				identifiersCheckedByCaller.remove();
+			} else {
+				identifiersCheckedByCaller.set(previous);
+			}
+		}
+	}
+	
+	private static boolean isUniquenessCheckedByCaller(PatientIdentifier pi) {
+		Set<PatientIdentifier> checkedByCaller = identifiersCheckedByCaller.get();
+		return checkedByCaller != null && checkedByCaller.contains(pi);
+	}
+	
+	private static String getUniquenessKey(PatientIdentifier pi) {
+		Integer locationId = null;
+		if (pi.getLocation() != null && pi.getIdentifierType().getUniquenessBehavior() == UniquenessBehavior.LOCATION) {
+			locationId = pi.getLocation().getLocationId();
+		}
+		// the database compares identifiers ignoring case
+		return pi.getIdentifierType().getPatientIdentifierTypeId() + "|" + locationId + "|"
+		        + StringUtils.lowerCase(pi.getIdentifier());
+	}
+	
+	private static boolean isUniquenessRequired(PatientIdentifier pi) {
+		return pi.getIdentifierType().getUniquenessBehavior() != UniquenessBehavior.NON_UNIQUE;
+	}
+	
+	private static IdentifierNotUniqueException newIdentifierNotUniqueException(PatientIdentifier pi) {
+		return new IdentifierNotUniqueException(Context.getMessageSourceService().getMessage(
+		    "PatientIdentifier.error.notUniqueWithParameter", new Object[] { pi.getIdentifier() }, Context.getLocale()),
+		        pi);
+	}
+	
 	/**
 	 * Validates that a given identifier string is valid for a given {@link PatientIdentifierType}
 	 * Checks for things like blank identifiers, invalid check digits, and invalid format.
@@ -170,7 +330,7 @@ public class PatientIdentifierValidator implements Validator {
 		}
 		
 		// Check identifier against regular expression format
-		if (!identifier.matches(format)) {
+		if (!getFormatPattern(format).matcher(identifier).matches()) {
 			log.debug("The two DO NOT match");
 			throw new InvalidIdentifierFormatException(getMessage("PatientIdentifier.error.invalidFormat", identifier,
 			    StringUtils.isNotBlank(formatDescription) ? formatDescription : format));
@@ -218,6 +378,35 @@ public class PatientIdentifierValidator implements Validator {
 		
 	}
 	
+	/**
+	 * Gets the compiled form of the given identifier format, compiling it once per format rather than
+	 * for every identifier checked against it
+	 * 
+	 * @param format the regular expression format
+	 * @return the compiled pattern
+	 */
+	static Pattern getFormatPattern(String format) {
+		Pattern pattern = formatPatterns.get(format);
+		if (pattern == null) {
+			if (formatPatterns.size() >= MAX_CACHED_FORMATS) {
+				formatPatterns.clear();
+			}
+			pattern = Pattern.compile(format);
+			formatPatterns.put(format, pattern);
+		}
+		return pattern;
+	}
+	
+	/**
+	 * Discards the compiled identifier formats, it is called when identifier types are saved or
+	 * purged
+	 * 
+	 * @since 2.7.0
+	 */
+	public static void clearCachedFormats() {
+		formatPatterns.clear();
+	}
+	
 	private static String getMessage(String messageKey, String... arguments) {
 		return Context.getMessageSourceService().getMessage(messageKey, arguments, Context.getLocale());
 	}
@@ -14,10 +14,12 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
+import org.openmrs.util.PrivilegeIndex;
 import org.openmrs.util.RoleConstants;
 
 /**
@@ -209,4 +211,66 @@ public class RoleTest {
 		assertEquals(6, grandparent.getAllChildRoles().size());
 	}
 	
+	/**
+	 * @see Role#hasEffectivePrivilege(String)
+	 */
+	@Test
+	public void hasEffectivePrivilege_shouldReturnTrueForPrivilegesOfInheritedRoles() {
+		Role grandparent = new Role("grandparent");
+		grandparent.addPrivilege(new Privilege("Grandparent Privilege"));
+		Role parent = new Role("parent");
+		parent.setInheritedRoles(new HashSet<>(Collections.singleton(grandparent)));
+		Role child = new Role("child");
+		child.addPrivilege(new Privilege("Child Privilege"));
+		child.setInheritedRoles(new HashSet<>(Collections.singleton(parent)));
+		
+		assertTrue(child.hasEffectivePrivilege("Child Privilege"));
+		assertTrue(child.hasEffectivePrivilege("grandparent privilege"));
+		assertFalse(parent.hasEffectivePrivilege("Child Privilege"));
+	}
+	
+	/**
+	 * @see Role#hasEffectivePrivilege(String)
+	 */
+	@Test
+	public void hasEffectivePrivilege_shouldReturnTrueForAnyPrivilegeNameIfSuperUserOrInheritingSuperUser() {
+		Role child = new Role("child");
+		child.setInheritedRoles(new HashSet<>(Collections.singleton(new Role(RoleConstants.SUPERUSER))));
+		
+		assertTrue(new Role(RoleConstants.SUPERUSER).hasEffectivePrivilege("Some Unknown Privilege"));
+		assertTrue(child.hasEffectivePrivilege("Some Unknown Privilege"));
+		assertTrue(child.hasEffectivePrivilege(null));
+	}
+	
+	/**
+	 * @see Role#hasEffectivePrivilege(String)
+	 */
+	@Test
+	public void hasEffectivePrivilege_shouldReturnFalseIfNotFound() {
+		Role role = new Role("role");
+		role.addPrivilege(new Privilege("Some Privilege"));
+		
+		assertFalse(role.hasEffectivePrivilege("Some Other Privilege"));
+		assertFalse(role.hasEffectivePrivilege("A Privilege Nobody Has"));
+		assertFalse(role.hasEffectivePrivilege(null));
+	}
+	
+	/**
+	 * @see Role#hasEffectivePrivilege(String)
+	 */
+	@Test
+	public void hasEffectivePrivilege_shouldSeePrivilegesAddedAfterTheFirstCheck() {
+		Role parent = new Role("parent");
+		Role child = new Role("child");
+		child.setInheritedRoles(new HashSet<>(Collections.singleton(parent)));
+		assertFalse(child.hasEffectivePrivilege("Added Privilege"));
+		
+		child.addPrivilege(new Privilege("Added Privilege"));
+		assertTrue(child.hasEffectivePrivilege("Added Privilege"));
+		
+		// a parent's privileges are seen once roles or privileges are saved
+		parent.addPrivilege(new Privilege("Added Parent Privilege"));
+		PrivilegeIndex.invalidate();
+		assertTrue(child.hasEffectivePrivilege("Added Parent Privilege"));
+	}
 }
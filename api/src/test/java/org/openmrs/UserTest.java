@@ -12,6 +12,9 @@ package org.openmrs;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.util.RoleConstants;
@@ -92,4 +95,32 @@ public class UserTest {
 		assertFalse(user.containsRole(ROLE_WHICH_DOES_NOT_EXIT));
 	}
 	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReturnTrueForPrivilegesOfTheParentsOfItsRoles() {
+		Role parent = new Role("Parent Role");
+		parent.addPrivilege(new Privilege("Parent Privilege"));
+		Role child = new Role("Child Role");
+		child.setInheritedRoles(new HashSet<>(Collections.singleton(parent)));
+		user.addRole(child);
+		
+		assertTrue(user.hasPrivilege("Parent Privilege"));
+		assertTrue(user.hasPrivilege(""));
+		assertFalse(user.hasPrivilege("Some Other Privilege"));
+	}
+	
+	/**
+	 * @see User#hasPrivilege(String)
+	 */
+	@Test
+	public void hasPrivilege_shouldReturnTrueForAnyPrivilegeIfARoleInheritsTheSuperUserRole() {
+		Role child = new Role("Child Role");
+		child.setInheritedRoles(new HashSet<>(Collections.singleton(new Role(RoleConstants.SUPERUSER))));
+		user.addRole(child);
+		
+		assertTrue(user.hasPrivilege("Some Other Privilege"));
+	}
+	
 }
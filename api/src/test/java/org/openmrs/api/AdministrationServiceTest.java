@@ -42,6 +42,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.context.Credentials;
 import org.openmrs.api.context.UserContext;
 import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.api.db.DatabaseStatistics;
 import org.openmrs.customdatatype.datatype.BooleanDatatype;
 import org.openmrs.customdatatype.datatype.DateDatatype;
 import org.openmrs.messagesource.MutableMessageSource;
@@ -1097,6 +1098,18 @@ public class AdministrationServiceTest extends BaseContextSensitiveTest {
 		assertThat(getCacheForCurrentUser(), nullValue());
 	}
 
+	@Test
+	public void getDatabaseStatistics_shouldReturnTheStatisticsOfExecutedQueries() {
+		adminService.resetDatabaseStatistics();
+		Context.getLocationService().getAllLocations();
+		
+		DatabaseStatistics statistics = adminService.getDatabaseStatistics();
+		
+		assertTrue(statistics.isEnabled());
+		assertTrue(statistics.getQueryExecutionCount() > 0);
+		assertFalse(statistics.getQueries().isEmpty());
+	}
+	
 	private Cache.ValueWrapper getCacheForCurrentUser(){
 		Object[] params = { Context.getLocale(), Context.getAuthenticatedUser() };
 		Object key = (new SimpleKeyGenerator()).generate(null, null, params);
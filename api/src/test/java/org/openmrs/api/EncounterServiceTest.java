@@ -31,6 +31,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -2411,8 +2412,10 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		encounter.setLocation(new Location(1));
 		encounter.setEncounterDatetime(new Date());
 		encounter.setPatient(Context.getPatientService().getPatient(3));
-		EncounterType encounterType = new EncounterType(1);
+		// the view privilege applies to all encounters of the type, patient 3 has none of this type yet
+		EncounterType encounterType = encounterService.getEncounterType(2);
 		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
 		encounter.setEncounterType(encounterType);
 		
 		EncounterRole role = new EncounterRole();
@@ -2482,6 +2485,99 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertEquals(beforeSize + 1, patientEncounters.size());
 	}
 	
+	/**
+	 * @see EncounterService#getEncounters(String, Integer, Integer, Integer, boolean)
+	 * @see EncounterService#getCountOfEncounters(String, boolean)
+	 */
+	@Test
+	public void getEncounters_shouldPageAndCountOnlyTheEncountersTheUserCanView() {
+		EncounterService encounterService = Context.getEncounterService();
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
+		
+		List<Encounter> viewable = new ArrayList<>();
+		for (Encounter encounter : encounterService.getEncountersByPatientId(7)) {
+			if (!encounterType.equals(encounter.getEncounterType())) {
+				viewable.add(encounter);
+			}
+		}
+		assertFalse(viewable.isEmpty());
+		
+		Context.logout();
+		Context.authenticate("test_user", "test");
+		Context.addProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+		try {
+			assertFalse(encounterService.canViewAllEncounterTypes(Context.getAuthenticatedUser()));
+			assertEquals(viewable, encounterService.getEncountersByPatientId(7));
+			List<Encounter> page = encounterService.getEncounters(null, 7, 0, viewable.size(), false);
+			assertEquals(viewable.size(), page.size());
+			assertTrue(viewable.containsAll(page));
+			assertEquals(viewable.size(), encounterService.getCountOfEncounters("Chebaskwony", false).intValue());
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.GET_ENCOUNTERS);
+			Context.logout();
+		}
+	}
+	
+	/**
+	 * @see EncounterService#getEncountersByVisitsAndPatient(Patient, boolean, String, Integer, Integer)
+	 * @see EncounterService#getEncountersByVisitsAndPatientCount(Patient, boolean, String)
+	 */
+	@Test
+	public void getEncountersByVisitsAndPatient_shouldPageAndCountOnlyTheEncountersTheUserCanView() {
+		EncounterService encounterService = Context.getEncounterService();
+		Patient patient = Context.getPatientService().getPatient(7);
+		EncounterType encounterType = encounterService.getEncounterType(1);
+		encounterType.setViewPrivilege(Context.getUserService().getPrivilege("Some Privilege For View Encounter Types"));
+		encounterService.saveEncounterType(encounterType);
+		
+		List<Encounter> all = encounterService.getEncountersByVisitsAndPatient(patient, false, null, null, null);
+		int viewable = (int) all.stream().filter(e -> !encounterType.equals(e.getEncounterType())).count();
+		assertTrue(viewable > 0 && viewable < all.size());
+		
+		Context.logout();
+		Context.authenticate("test_user", "test");
+		Context.addProxyPrivilege(PrivilegeConstants.GET_VISITS);
+		try {
+			List<Encounter> page = encounterService.getEncountersByVisitsAndPatient(patient, false, null, 0, viewable);
+			assertEquals(viewable, page.size());
+			for (Encounter encounter : page) {
+				assertNotEquals(encounterType, encounter.getEncounterType());
+			}
+			assertEquals(viewable, encounterService.getEncountersByVisitsAndPatientCount(patient, false, null).intValue());
+		}
+		finally {
+			Context.removeProxyPrivilege(PrivilegeConstants.GET_VISITS);
+			Context.logout();
+		}
+	}
+	
+	/**
+	 * @see EncounterService#filterEncountersByViewPermissions(List, User)
+	 */
+	@Test
+	public void filterEncountersByViewPermissions_shouldCheckEncounterTypesWhichAreNotSavedByTheirViewPrivilege() {
+		EncounterService encounterService = Context.getEncounterService();
+		Privilege viewPrivilege = Context.getUserService().getPrivilege("Some Privilege For View Encounter Types");
+		EncounterType savedType = encounterService.getEncounterType(1);
+		savedType.setViewPrivilege(viewPrivilege);
+		encounterService.saveEncounterType(savedType);
+		Encounter withoutPrivilege = new Encounter();
+		withoutPrivilege.setEncounterType(new EncounterType("unsaved", "desc"));
+		Encounter withPrivilege = new Encounter();
+		EncounterType restrictedType = new EncounterType("unsaved restricted", "desc");
+		restrictedType.setViewPrivilege(viewPrivilege);
+		withPrivilege.setEncounterType(restrictedType);
+		User user = Context.getUserService().getUserByUsername("test_user");
+		
+		List<Encounter> filtered = encounterService.filterEncountersByViewPermissions(
+		    new ArrayList<>(Arrays.asList(withoutPrivilege, withPrivilege)), user);
+		
+		assertEquals(Collections.singletonList(withoutPrivilege), filtered);
+	}
+	
 	/**
 	 * @see EncounterService#canViewAllEncounterTypes(User)
 	 */
@@ -2838,6 +2934,26 @@ public class EncounterServiceTest extends BaseContextSensitiveTest {
 		assertNotNull(activeEncounterVisitHandler);
 	}
 	
+	/**
+	 * @see EncounterService#getActiveEncounterVisitHandler()
+	 */
+	@Test
+	public void getActiveEncounterVisitHandler_shouldReturnTheSameHandlerUntilTheGlobalPropertyChanges() {
+		AdministrationService administrationService = Context.getAdministrationService();
+		administrationService.setGlobalProperty(OpenmrsConstants.GP_VISIT_ASSIGNMENT_HANDLER,
+		    ExistingVisitAssignmentHandler.class.getName());
+		
+		EncounterVisitHandler handler = Context.getEncounterService().getActiveEncounterVisitHandler();
+		
+		assertTrue(handler instanceof ExistingVisitAssignmentHandler);
+		assertSame(handler, Context.getEncounterService().getActiveEncounterVisitHandler());
+		
+		administrationService.setGlobalProperty(OpenmrsConstants.GP_VISIT_ASSIGNMENT_HANDLER,
+		    NoVisitAssignmentHandler.class.getName());
+		
+		assertTrue(Context.getEncounterService().getActiveEncounterVisitHandler() instanceof NoVisitAssignmentHandler);
+	}
+	
 	/**
 	 * Gets encounter and adds edit privilege to it
 	 *
@@ -18,10 +18,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,12 +38,17 @@ import org.openmrs.api.context.Context;
 import org.openmrs.customdatatype.datatype.FreeTextDatatype;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 
 /**
  * Tests all methods in the {@link LocationService}
  */
 public class LocationServiceTest extends BaseContextSensitiveTest {
 	
+	@Autowired
+	private CacheManager cacheManager;
+	
 	protected static final String LOC_INITIAL_DATA_XML = "org/openmrs/api/include/LocationServiceTest-initialData.xml";
 	
 	protected static final String LOC_ATTRIBUTE_DATA_XML = "org/openmrs/api/include/LocationServiceTest-attributes.xml";
@@ -55,6 +63,8 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 	@BeforeEach
 	public void runBeforeEachTest() {
 		executeDataSet(LOC_INITIAL_DATA_XML);
+		// the data set is inserted behind the service's back
+		cacheManager.getCache("locationIdsByTag").clear();
 	}
 	
 	/**
@@ -392,6 +402,47 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(0, ls.getLocationsByTag(ls.getLocationTagByName("Retired")).size());
 	}
 	
+	/**
+	 * @see LocationService#getLocationIdsByTag(Integer)
+	 */
+	@Test
+	public void getLocationIdsByTag_shouldGetTheIdsOfTheUnretiredLocationsHavingTheTag() {
+		LocationService ls = Context.getLocationService();
+		List<Integer> expected = new ArrayList<>();
+		for (Location location : ls.getAllLocations(false)) {
+			if (location.getTags().contains(ls.getLocationTag(4))) {
+				expected.add(location.getLocationId());
+			}
+		}
+		
+		assertEquals(4, expected.size());
+		assertEquals(expected, ls.getLocationIdsByTag(4));
+	}
+	
+	/**
+	 * @see LocationService#getLocationIdsByTag(Integer)
+	 */
+	@Test
+	public void getLocationIdsByTag_shouldReturnTheCachedIdsUntilALocationIsSaved() {
+		LocationService ls = Context.getLocationService();
+		LocationTag tag = ls.getLocationTag(1);
+		List<Location> locations = ls.getLocationsByTag(tag);
+		assertEquals(1, locations.size());
+		assertNotNull(cacheManager.getCache("locationIdsByTag").get(tag.getLocationTagId()));
+		
+		Location location = ls.getLocation(2);
+		assertFalse(locations.contains(location));
+		location.addTag(tag);
+		ls.saveLocation(location);
+		assertNull(cacheManager.getCache("locationIdsByTag").get(tag.getLocationTagId()));
+		
+		assertEquals(2, ls.getLocationsByTag(tag).size());
+		assertTrue(ls.getLocationsByTag(tag).contains(location));
+		
+		ls.retireLocation(location, "test");
+		assertEquals(1, ls.getLocationsByTag(tag).size());
+	}
+	
 	@Test
 	public void getLocationsHavingAllTags_shouldGetLocationsHavingAllTags() {
 		LocationService ls = Context.getLocationService();
@@ -458,6 +509,151 @@ public class LocationServiceTest extends BaseContextSensitiveTest {
 		assertEquals(0, ls.getLocationsHavingAnyTag(new ArrayList<>()).size());
 	}
 	
+	/**
+	 * @see LocationService#rebuildLocationHierarchy()
+	 */
+	@Test
+	public void rebuildLocationHierarchy_shouldLinkAllLocationsToTheirAncestors() {
+		LocationService ls = Context.getLocationService();
+		ls.rebuildLocationHierarchy();
+		
+		for (Location location : ls.getAllLocations(true)) {
+			assertEquals(getIds(location.getDescendantLocations(true)),
+			    new HashSet<>(ls.getDescendantLocationIds(location, true)));
+			assertEquals(getAncestorIds(location), ls.getAncestorLocationIds(location));
+		}
+	}
+	
+	/**
+	 * @see LocationService#rebuildLocationHierarchy()
+	 */
+	@Test
+	public void rebuildLocationHierarchy_shouldNotFailIfTheParentLocationsFormALoop() {
+		LocationService ls = Context.getLocationService();
+		Location first = createLocation("Loop first", null);
+		Location second = createLocation("Loop second", first);
+		Context.flushSession();
+		Context.getAdministrationService().executeSQL("update location set parent_location = "
+		        + second.getLocationId() + " where location_id = " + first.getLocationId(), false);
+		
+		ls.rebuildLocationHierarchy();
+		
+		assertTrue(ls.getDescendantLocationIds(first, true).contains(second.getLocationId()));
+		assertTrue(ls.getDescendantLocationIds(second, true).contains(first.getLocationId()));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location,boolean)
+	 */
+	@Test
+	public void getDescendantLocationIds_shouldReturnTheIdsOfAllDescendants() {
+		LocationService ls = Context.getLocationService();
+		Location root = createLocation("Deep root", null);
+		List<Location> chain = new ArrayList<>();
+		Location parent = root;
+		for (int i = 0; i < 50; i++) {
+			parent = createLocation("Deep " + i, parent);
+			chain.add(parent);
+		}
+		
+		Location wideRoot = createLocation("Wide root", null);
+		for (int i = 0; i < 50; i++) {
+			Location child = createLocation("Wide " + i, wideRoot);
+			for (int j = 0; j < 3; j++) {
+				createLocation("Wide " + i + "." + j, child);
+			}
+		}
+		Context.flushSession();
+		Context.clearSession();
+		
+		List<Integer> descendantIds = ls.getDescendantLocationIds(root, true);
+		assertEquals(getIds(chain), new HashSet<>(descendantIds));
+		assertEquals(chain.get(0).getLocationId(), descendantIds.get(0));
+		assertEquals(chain.get(49).getLocationId(), descendantIds.get(49));
+		assertEquals(49, ls.getDescendantLocationIds(chain.get(0), true).size());
+		assertEquals(50, ls.getAncestorLocationIds(chain.get(49)).size());
+		
+		wideRoot = ls.getLocation(wideRoot.getLocationId());
+		assertEquals(200, ls.getDescendantLocationIds(wideRoot, true).size());
+		assertEquals(getIds(wideRoot.getDescendantLocations(true)),
+		    new HashSet<>(ls.getDescendantLocationIds(wideRoot, true)));
+	}
+	
+	/**
+	 * @see LocationService#getDescendantLocationIds(Location,boolean)
+	 */
+	@Test
+	public void getDescendantLocationIds_shouldLeaveOutRetiredLocationsAndTheirDescendants() {
+		LocationService ls = Context.getLocationService();
+		Location root = createLocation("Root", null);
+		Location retired = createLocation("Retired child", root);
+		createLocation("Child of retired", retired);
+		Location child = createLocation("Child", root);
+		Location grandChild = createLocation("Grand child", child);
+		ls.retireLocation(retired, "test");
+		Context.flushSession();
+		Context.clearSession();
+		
+		root = ls.getLocation(root.getLocationId());
+		List<Integer> expected = new ArrayList<>();
+		expected.add(child.getLocationId());
+		expected.add(grandChild.getLocationId());
+		assertEquals(expected, ls.getDescendantLocationIds(root, false));
+		assertEquals(getIds(root.getDescendantLocations(false)), new HashSet<>(ls.getDescendantLocationIds(root, false)));
+		assertEquals(4, ls.getDescendantLocationIds(root, true).size());
+	}
+	
+	/**
+	 * @see LocationService#getAncestorLocationIds(Location)
+	 */
+	@Test
+	public void getAncestorLocationIds_shouldFollowALocationMovedToAnotherParent() {
+		LocationService ls = Context.getLocationService();
+		Location region = createLocation("Region", null);
+		Location district1 = createLocation("District 1", region);
+		Location district2 = createLocation("District 2", region);
+		Location facility = createLocation("Facility", district1);
+		Location ward = createLocation("Ward", facility);
+		
+		facility.setParentLocation(district2);
+		ls.saveLocation(facility);
+		
+		List<Integer> expected = new ArrayList<>();
+		expected.add(facility.getLocationId());
+		expected.add(district2.getLocationId());
+		expected.add(region.getLocationId());
+		assertEquals(expected, ls.getAncestorLocationIds(ward));
+		assertEquals(0, ls.getDescendantLocationIds(district1, true).size());
+		assertEquals(2, ls.getDescendantLocationIds(district2, true).size());
+		
+		ls.purgeLocation(ward);
+		assertEquals(1, ls.getDescendantLocationIds(district2, true).size());
+		assertEquals(3, ls.getDescendantLocationIds(region, true).size());
+	}
+	
+	private Location createLocation(String name, Location parent) {
+		Location location = new Location();
+		location.setName(name);
+		location.setParentLocation(parent);
+		return Context.getLocationService().saveLocation(location);
+	}
+	
+	private Set<Integer> getIds(Collection<Location> locations) {
+		Set<Integer> ids = new HashSet<>();
+		for (Location location : locations) {
+			ids.add(location.getLocationId());
+		}
+		return ids;
+	}
+	
+	private List<Integer> getAncestorIds(Location location) {
+		List<Integer> ids = new ArrayList<>();
+		for (Location parent = location.getParentLocation(); parent != null; parent = parent.getParentLocation()) {
+			ids.add(parent.getLocationId());
+		}
+		return ids;
+	}
+	
 	/**
 	 * @see LocationService#retireLocation(Location,String)
 	 */
@@ -25,7 +25,9 @@ import java.awt.image.WritableRaster;
 import java.io.CharArrayReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -41,6 +43,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Concept;
 import org.openmrs.ConceptName;
@@ -54,6 +57,7 @@ import org.openmrs.Person;
 import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.ObsServiceImpl;
 import org.openmrs.obs.ComplexData;
+import org.openmrs.obs.ComplexDataStream;
 import org.openmrs.obs.ComplexObsHandler;
 import org.openmrs.obs.handler.BinaryDataHandler;
 import org.openmrs.obs.handler.ImageHandler;
@@ -539,6 +543,38 @@ public class ObsServiceTest extends BaseContextSensitiveTest {
 		assertFalse(normalObs.isComplex());
 	}
 	
+	/**
+	 * @see ObsService#getComplexDataStream(Obs,String)
+	 */
+	@Test
+	public void getComplexDataStream_shouldStreamTheComplexDataOfAComplexObs() throws IOException {
+		executeDataSet(COMPLEX_OBS_XML);
+		File complexObsDir = OpenmrsUtil.getDirectoryInApplicationDataDirectory(Context.getAdministrationService()
+		        .getGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR));
+		File createdFile = new File(complexObsDir, "sometext.txt");
+		FileUtils.writeStringToFile(createdFile, "some text", StandardCharsets.UTF_8);
+		
+		try (ComplexDataStream stream = Context.getObsService().getComplexDataStream(Context.getObsService().getObs(45),
+		    ComplexObsHandler.RAW_VIEW)) {
+			assertEquals("text/plain", stream.getMimeType());
+			assertEquals(9, stream.getLength());
+			try (InputStream in = stream.getInputStream(5, 4)) {
+				assertEquals("text", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+		}
+		finally {
+			createdFile.delete();
+		}
+	}
+	
+	/**
+	 * @see ObsService#getComplexDataStream(Obs,String)
+	 */
+	@Test
+	public void getComplexDataStream_shouldReturnNullForNonComplexObs() {
+		assertNull(Context.getObsService().getComplexDataStream(Context.getObsService().getObs(7), ComplexObsHandler.RAW_VIEW));
+	}
+	
 	/**
 	 * @see ObsService#getHandler(String)
 	 */
@@ -10,6 +10,7 @@
 package org.openmrs.api;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
@@ -19,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -36,6 +38,7 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -49,6 +52,7 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Concept;
 import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
 import org.openmrs.GlobalProperty;
 import org.openmrs.Location;
 import org.openmrs.Obs;
@@ -63,6 +67,7 @@ import org.openmrs.Person;
 import org.openmrs.PersonAddress;
 import org.openmrs.PersonAttribute;
 import org.openmrs.PersonName;
+import org.openmrs.Privilege;
 import org.openmrs.Relationship;
 import org.openmrs.RelationshipType;
 import org.openmrs.User;
@@ -71,6 +76,7 @@ import org.openmrs.api.context.Context;
 import org.openmrs.api.impl.PatientServiceImpl;
 import org.openmrs.api.impl.PatientServiceImplTest;
 import org.openmrs.comparator.PatientIdentifierTypeDefaultComparator;
+import org.openmrs.parameter.EncounterSearchCriteriaBuilder;
 import org.openmrs.patient.IdentifierValidator;
 import org.openmrs.patient.impl.LuhnIdentifierValidator;
 import org.openmrs.person.PersonMergeLog;
@@ -1119,6 +1125,32 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		
 	}
 
+	/**
+	 * @see PatientService#checkPatientIdentifiers(Patient)
+	 */
+	@Test
+	public void checkPatientIdentifiers_shouldThrowErrorWhenAnotherPatientHasOneOfTheIdentifiers() throws Exception {
+		Patient patient = patientService.getPatient(7);
+		patient.addIdentifier(new PatientIdentifier("7TU-8", patientService.getPatientIdentifierType(1), new Location(1)));
+		
+		assertThrows(IdentifierNotUniqueException.class, () -> patientService.checkPatientIdentifiers(patient));
+	}
+	
+	/**
+	 * @see PatientService#checkPatientIdentifiers(Patient)
+	 */
+	@Test
+	public void checkPatientIdentifiers_shouldThrowErrorWhenAnIdentifierTypeIsMadeRequired() throws Exception {
+		Patient patient = patientService.getPatient(7);
+		patientService.checkPatientIdentifiers(patient);
+		
+		PatientIdentifierType identifierType = patientService.getPatientIdentifierType(2);
+		identifierType.setRequired(true);
+		patientService.savePatientIdentifierType(identifierType);
+		
+		assertThrows(MissingRequiredIdentifierException.class, () -> patientService.checkPatientIdentifiers(patient));
+	}
+
 	/**
 	 * @see PatientService#getAllIdentifierValidators()
 	 */
@@ -2438,6 +2470,186 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertTrue(isValueInList(Context.getEncounterService().getEncounter(3).getUuid(), audit.getPersonMergeLogData().getMovedEncounters()), "encounter creation not audited");
 	}
 	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveVisitsEncountersObsAndOrdersWithSetBasedUpdates() throws Exception {
+		executeDataSet(ENCOUNTERS_FOR_VISITS_XML);
+		enableSetBasedMerge();
+		Patient notPreferred = patientService.getPatient(2);
+		voidOrders(Collections.singleton(notPreferred));
+		Patient preferred = patientService.getPatient(6);
+		
+		List<String> visitUuids = Context.getVisitService().getVisitsByPatient(notPreferred, true, true).stream()
+		        .map(Visit::getUuid).collect(Collectors.toList());
+		List<String> encounterUuids = Context.getEncounterService()
+		        .getEncounters(new EncounterSearchCriteriaBuilder().setIncludeVoided(true).setPatient(notPreferred)
+		                .createEncounterSearchCriteria())
+		        .stream().map(Encounter::getUuid).collect(Collectors.toList());
+		List<Integer> encounterObsIds = Context.getObsService().getObservationsByPerson(notPreferred).stream()
+		        .filter(o -> o.getEncounter() != null).map(Obs::getObsId).collect(Collectors.toList());
+		List<Integer> orderIds = Context.getOrderService().getAllOrdersByPatient(notPreferred).stream()
+		        .map(Order::getOrderId).collect(Collectors.toList());
+		assertFalse(encounterObsIds.isEmpty());
+		assertFalse(orderIds.isEmpty());
+		
+		PersonMergeLogData mergeLogData = mergeAndRetrieveAudit(preferred, notPreferred).getPersonMergeLogData();
+		
+		assertThat(mergeLogData.getMovedVisits(), containsInAnyOrder(visitUuids.toArray()));
+		assertThat(mergeLogData.getMovedEncounters(), containsInAnyOrder(encounterUuids.toArray()));
+		assertThat(Context.getVisitService().getVisitsByPatient(preferred, true, true).size(), is(visitUuids.size() + 2));
+		for (String uuid : encounterUuids) {
+			Encounter encounter = Context.getEncounterService().getEncounterByUuid(uuid);
+			assertThat(encounter.getPatient(), is(preferred));
+			assertThat(encounter.getChangedBy(), is(Context.getAuthenticatedUser()));
+		}
+		for (Integer obsId : encounterObsIds) {
+			Obs original = Context.getObsService().getObs(obsId);
+			assertTrue(original.getVoided());
+			assertThat(original.getPerson().getId(), is(notPreferred.getId()));
+			Obs copy = getObsCopy(preferred, original);
+			assertThat(copy.getEncounter(), is(original.getEncounter()));
+			assertThat(copy.getConcept(), is(original.getConcept()));
+		}
+		for (Integer orderId : orderIds) {
+			assertThat(Context.getOrderService().getOrder(orderId).getPatient(), is(preferred));
+		}
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldVoidAndCopyIndependentObservationsWithSetBasedUpdates() throws Exception {
+		enableSetBasedMerge();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		Obs obs = Context.getObsService().getObs(7);
+		obs.setEncounter(null);
+		obs = Context.getObsService().saveObs(obs, "Reason cannot be blank");
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		Obs original = Context.getObsService().getObsByUuid(obs.getUuid());
+		assertTrue(original.getVoided());
+		assertThat(original.getPerson().getId(), is(notPreferred.getId()));
+		Obs copy = getObsCopy(preferred, original);
+		assertFalse(copy.getVoided());
+		assertThat(copy.getValueNumeric(), is(original.getValueNumeric()));
+		assertTrue(isValueInList(copy.getUuid(), audit.getPersonMergeLogData().getMovedIndependentObservations()));
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldCopyObsGroupsWithTheirMembersWithSetBasedUpdates() throws Exception {
+		enableSetBasedMerge();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		ObsService obsService = Context.getObsService();
+		Obs group = new Obs(notPreferred, Context.getConceptService().getConcept(23), new Date(), null);
+		Obs member = new Obs(notPreferred, Context.getConceptService().getConcept(5089), new Date(), null);
+		member.setValueNumeric(50.0);
+		group.addGroupMember(member);
+		group = obsService.saveObs(group, null);
+		member = group.getGroupMembers().iterator().next();
+		
+		mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		Obs groupCopy = getObsCopy(preferred, obsService.getObsByUuid(group.getUuid()));
+		Obs memberCopy = getObsCopy(preferred, obsService.getObsByUuid(member.getUuid()));
+		assertThat(memberCopy.getObsGroup(), is(groupCopy));
+		assertThat(groupCopy.getGroupMembers(), containsInAnyOrder(memberCopy));
+		assertThat(obsService.getObsByUuid(member.getUuid()).getObsGroup().getUuid(), is(group.getUuid()));
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldMoveVoidedObservationsAndProgramsWithSetBasedUpdates() throws Exception {
+		enableSetBasedMerge();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(2);
+		voidOrders(Collections.singleton(notPreferred));
+		Obs obs = new Obs(notPreferred, Context.getConceptService().getConcept(5089), new Date(), null);
+		obs.setValueNumeric(50.0);
+		obs = Context.getObsService().voidObs(Context.getObsService().saveObs(obs, null), "testing");
+		PatientProgram program = Context.getProgramWorkflowService()
+		        .getPatientPrograms(notPreferred, null, null, null, null, null, false).get(0);
+		Context.getProgramWorkflowService().voidPatientProgram(program, "testing");
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		Obs moved = Context.getObsService().getObsByUuid(obs.getUuid());
+		assertTrue(moved.getVoided());
+		assertThat(moved.getPerson().getId(), is(preferred.getId()));
+		assertTrue(isValueInList(obs.getUuid(), audit.getPersonMergeLogData().getMovedIndependentObservations()));
+		assertThat(Context.getProgramWorkflowService().getPatientProgramByUuid(program.getUuid()).getPatient(),
+		    is(preferred));
+		assertTrue(isValueInList(program.getUuid(), audit.getPersonMergeLogData().getMovedPrograms()));
+	}
+	
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldAuditPatientProgramsMovedWithSetBasedUpdates() throws Exception {
+		enableSetBasedMerge();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(2);
+		voidOrders(Collections.singleton(notPreferred));
+		PatientProgram program = Context.getProgramWorkflowService()
+		        .getPatientPrograms(notPreferred, null, null, null, null, null, false).get(0);
+		
+		PersonMergeLog audit = mergeAndRetrieveAudit(preferred, notPreferred);
+		
+		assertThat(Context.getProgramWorkflowService().getPatientProgramByUuid(program.getUuid()).getPatient(),
+		    is(preferred));
+		assertTrue(isValueInList(program.getUuid(), audit.getPersonMergeLogData().getMovedPrograms()));
+		assertNull(audit.getPersonMergeLogData().getCreatedPrograms());
+	}
+
+	/**
+	 * @see PatientService#mergePatients(Patient,Patient)
+	 */
+	@Test
+	public void mergePatients_shouldFailIfAnEncounterTheUserMayNeitherEditNorViewWouldBeMovedWithSetBasedUpdates()
+	        throws Exception {
+		enableSetBasedMerge();
+		Patient preferred = patientService.getPatient(999);
+		Patient notPreferred = patientService.getPatient(7);
+		voidOrders(Collections.singleton(notPreferred));
+		// encounter 3 is the only encounter of type 2
+		Privilege privilege = Context.getUserService().savePrivilege(new Privilege("Restricted Encounters"));
+		EncounterType encounterType = Context.getEncounterService().getEncounterType(2);
+		encounterType.setEditPrivilege(privilege);
+		encounterType.setViewPrivilege(privilege);
+		Context.getEncounterService().saveEncounterType(encounterType);
+
+		Context.becomeUser(Context.getUserService().getUserByUsername("butch").getSystemId());
+		OpenmrsUtil.getCorePrivileges().keySet().forEach(Context::addProxyPrivilege);
+
+		APIException exception = assertThrows(APIException.class, () -> patientService.mergePatients(preferred,
+		    notPreferred));
+		assertThat(exception.getMessage(), containsString(privilege.getPrivilege()));
+	}
+
+	private Obs getObsCopy(Patient patient, Obs original) {
+		return Context.getObsService().getObservationsByPerson(patient).stream()
+		        .filter(o -> original.equals(o.getPreviousVersion())).findFirst()
+		        .orElseThrow(() -> new AssertionError("obs " + original.getObsId() + " was not copied"));
+	}
+	
+	private void enableSetBasedMerge() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_PATIENT_MERGE_SET_BASED, "true"));
+	}
+	
 	/**
 	 * @see PatientService#mergePatients(Patient,Patient)
 	 */
@@ -2889,6 +3101,67 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		assertFalse(patientService.isIdentifierInUseByAnotherPatient(pi));
 	}
 	
+	/**
+	 * @see PatientService#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	@Test
+	public void getPatientIdentifiersInUseByAnotherPatient_shouldReturnTheIdentifiersInUseByOtherPatients()
+	    throws Exception {
+		PatientIdentifierType pit = patientService.getPatientIdentifierType(1);
+		PatientIdentifier notInUse = new PatientIdentifier("Nobody could possibly have this identifier", pit, null);
+		PatientIdentifier inUse = new PatientIdentifier("7TU-8", pit, null);
+		PatientIdentifier ownIdentifier = new PatientIdentifier("7TU-8", pit, null);
+		ownIdentifier.setPatient(patientService.getPatient(8));
+		
+		List<PatientIdentifier> identifiersInUse = patientService.getPatientIdentifiersInUseByAnotherPatient(Arrays.asList(
+		    notInUse, inUse, ownIdentifier));
+		
+		assertEquals(1, identifiersInUse.size());
+		assertSame(inUse, identifiersInUse.get(0));
+	}
+	
+	/**
+	 * @see PatientService#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	@Test
+	public void getPatientIdentifiersInUseByAnotherPatient_shouldRespectTheLocationOfIdentifiersWhoseTypeIsUniquePerLocation()
+	    throws Exception {
+		PatientIdentifier duplicateId = patientService.getPatientIdentifier(1);
+		PatientIdentifierType idType = duplicateId.getIdentifierType();
+		idType.setUniquenessBehavior(UniquenessBehavior.LOCATION);
+		patientService.savePatientIdentifierType(idType);
+		
+		PatientIdentifier otherLocation = new PatientIdentifier(duplicateId.getIdentifier(), idType, locationService
+		        .getLocation(2));
+		PatientIdentifier sameLocation = new PatientIdentifier(duplicateId.getIdentifier(), idType, duplicateId
+		        .getLocation());
+		
+		List<PatientIdentifier> identifiersInUse = patientService.getPatientIdentifiersInUseByAnotherPatient(Arrays.asList(
+		    otherLocation, sameLocation));
+		
+		assertEquals(1, identifiersInUse.size());
+		assertSame(sameLocation, identifiersInUse.get(0));
+	}
+	
+	/**
+	 * @see PatientService#getPatientIdentifiersInUseByAnotherPatient(List)
+	 */
+	@Test
+	public void getPatientIdentifiersInUseByAnotherPatient_shouldMatchTheIdentifiersLikeCheckingThemOneByOneDoes()
+	    throws Exception {
+		PatientIdentifierType pit = patientService.getPatientIdentifierType(1);
+		// whether the differing ones match depends on the collation of the database
+		List<PatientIdentifier> identifiers = Arrays.asList(new PatientIdentifier("7TU-8", pit, null),
+		    new PatientIdentifier("7tu-8", pit, null), new PatientIdentifier("7TU-8 ", pit, null));
+		List<PatientIdentifier> expected = identifiers.stream().filter(patientService::isIdentifierInUseByAnotherPatient)
+		        .collect(Collectors.toList());
+		
+		List<PatientIdentifier> identifiersInUse = patientService.getPatientIdentifiersInUseByAnotherPatient(identifiers);
+		
+		assertEquals(expected, identifiersInUse);
+		assertSame(identifiers.get(0), identifiersInUse.get(0));
+	}
+	
 	/**
 	 * @see PatientService#getAllPatientIdentifierTypes(boolean)
 	 */
@@ -3299,5 +3572,157 @@ public class PatientServiceTest extends BaseContextSensitiveTest {
 		PatientIdentifierException patientIdentifierException = assertThrows(PatientIdentifierException.class, () -> patientService.getIdentifierValidator("com.example.InvalidIdentifierValidator"));
 		assertEquals("Could not find patient identifier validator com.example.InvalidIdentifierValidator", patientIdentifierException.getMessage());
 	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldSaveThePatients() {
+		// more patients than fit in one batch, so that the saved patients are evicted in between
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			patients.add(createPatientWithIdentifier("BULK-" + i));
+		}
+		
+		Map<Patient, APIException> errors = patientService.savePatients(patients);
+		
+		assertTrue(errors.isEmpty());
+		for (Patient patient : patients) {
+			assertNotNull(patient.getPatientId());
+			assertNotNull(patient.getCreator());
+		}
+		Context.flushSession();
+		Context.clearSession();
+		Patient saved = patientService.getPatient(patients.get(59).getPatientId());
+		assertEquals("BULK-59", saved.getPatientIdentifier().getIdentifier());
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldKeepTheOtherObjectsInTheHibernateSessionAttached() {
+		Patient loaded = patientService.getPatient(2);
+		List<Patient> patients = new ArrayList<>();
+		for (int i = 0; i < 60; i++) {
+			patients.add(createPatientWithIdentifier("BULK-" + i));
+		}
+		
+		patientService.savePatients(patients);
+		
+		assertSame(loaded, patientService.getPatient(2));
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldReturnTheErrorsOfInvalidPatientsAndSaveTheOthers() {
+		Patient withoutGender = createPatientWithIdentifier("BULK-1");
+		withoutGender.setGender(null);
+		Patient withoutIdentifiers = createPatientWithIdentifier("BULK-2");
+		withoutIdentifiers.getIdentifiers().iterator().next().setVoided(true);
+		Patient valid = createPatientWithIdentifier("BULK-3");
+		
+		Map<Patient, APIException> errors = patientService.savePatients(Arrays.asList(withoutGender, withoutIdentifiers,
+		    valid));
+		
+		assertEquals(Arrays.asList(withoutGender, withoutIdentifiers), new ArrayList<>(errors.keySet()));
+		assertTrue(errors.get(withoutGender) instanceof ValidationException);
+		assertTrue(errors.get(withoutIdentifiers) instanceof ValidationException);
+		assertNull(withoutGender.getPatientId());
+		assertNull(withoutIdentifiers.getPatientId());
+		assertNotNull(valid.getPatientId());
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldReturnAnErrorForAnIdentifierUsedByAnEarlierPatient() {
+		Patient first = createPatientWithIdentifier("BULK-1");
+		Patient second = createPatientWithIdentifier("BULK-1");
+		
+		Map<Patient, APIException> errors = patientService.savePatients(Arrays.asList(first, second));
+		
+		assertEquals(Collections.singleton(second), errors.keySet());
+		assertTrue(errors.get(second) instanceof IdentifierNotUniqueException);
+		assertNotNull(first.getPatientId());
+		assertNull(second.getPatientId());
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldReturnAnErrorForAnIdentifierInUseByAnotherPatient() {
+		Patient patient = createPatientWithIdentifier("101");
+		
+		Map<Patient, APIException> errors = patientService.savePatients(Collections.singletonList(patient));
+		
+		assertTrue(errors.get(patient) instanceof IdentifierNotUniqueException);
+		assertNull(patient.getPatientId());
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldNotWriteTheChangesOfAnExistingPatientThatIsNotSaved() {
+		String sql = "select gender, changed_by, date_changed from person where person_id = 2";
+		List<List<Object>> before = Context.getAdministrationService().executeSQL(sql, true);
+		Patient patient = patientService.getPatient(2);
+		patient.setGender(null);
+		
+		Map<Patient, APIException> errors = patientService.savePatients(Collections.singletonList(patient));
+		
+		assertTrue(errors.get(patient) instanceof ValidationException);
+		Context.flushSession();
+		assertEquals(before, Context.getAdministrationService().executeSQL(sql, true));
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldUpdateAnExistingPatient() {
+		Patient patient = patientService.getPatient(2);
+		patient.setGender("F");
+		
+		Map<Patient, APIException> errors = patientService.savePatients(Collections.singletonList(patient));
+		
+		assertTrue(errors.isEmpty());
+		Context.flushSession();
+		Context.clearSession();
+		Patient saved = patientService.getPatient(2);
+		assertEquals("F", saved.getGender());
+		assertNotNull(saved.getDateChanged());
+	}
+	
+	/**
+	 * @see PatientService#savePatients(List)
+	 */
+	@Test
+	public void savePatients_shouldSetThePreferredNameAddressAndIdentifierIfNoneIsSpecified() {
+		Patient patient = createPatientWithIdentifier("BULK-1");
+		PersonAddress address = new PersonAddress();
+		address.setAddress1("some address");
+		patient.addAddress(address);
+		
+		patientService.savePatients(Collections.singletonList(patient));
+		
+		assertTrue(patient.getPatientIdentifier().getPreferred());
+		assertTrue(patient.getPersonName().getPreferred());
+		assertTrue(address.getPreferred());
+	}
+	
+	private Patient createPatientWithIdentifier(String identifier) {
+		Patient patient = new Patient();
+		patient.setGender("F");
+		patient.addName(new PersonName("givenName", null, "familyName"));
+		patient.addIdentifier(new PatientIdentifier(identifier, patientService.getPatientIdentifierType(2),
+		        locationService.getLocation(1)));
+		return patient;
+	}
 
 }
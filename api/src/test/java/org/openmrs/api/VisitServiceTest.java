@@ -22,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
@@ -455,6 +456,52 @@ public class VisitServiceTest extends BaseContextSensitiveTest {
 		assertEquals(8, visitService.getVisitsByPatient(new Patient(2), true, false).size());
 	}
 	
+	/**
+	 * @see VisitService#getVisitsByPatientAtDate(Patient, Date, Location)
+	 */
+	@Test
+	public void getVisitsByPatientAtDate_shouldReturnTheVisitsSpanningTheDate() throws ParseException {
+		executeDataSet(VISITS_WITH_DATES_XML);
+		Patient patient = new Patient(2);
+		Location location = Context.getLocationService().getLocation(1);
+		Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm").parse("2005-02-02 12:00");
+		
+		// visits 8 and 9 stopped before the date
+		assertEquals(Arrays.asList(12, 10, 7, 3, 2, 1), getVisitIds(visitService.getVisitsByPatientAtDate(patient, date,
+		    location)));
+		assertThat(visitService.getVisitsByPatientAtDate(patient, new Date(0), location), is(empty()));
+	}
+	
+	/**
+	 * @see VisitService#getVisitsByPatientAtDate(Patient, Date, Location)
+	 */
+	@Test
+	public void getVisitsByPatientAtDate_shouldReturnTheVisitsAtTheLocationOrOneOfItsParentLocationsOrWithoutLocation() {
+		LocationService locationService = Context.getLocationService();
+		Location parent = locationService.getLocation(1);
+		Location child = locationService.getLocation(2);
+		Date date = new Date();
+		
+		assertEquals(Arrays.asList(3, 2, 1), getVisitIds(visitService.getVisitsByPatientAtDate(new Patient(2), date,
+		    parent)));
+		assertEquals(Arrays.asList(3, 2), getVisitIds(visitService.getVisitsByPatientAtDate(new Patient(2), date,
+		    child)));
+		assertEquals(Arrays.asList(3, 2), getVisitIds(visitService.getVisitsByPatientAtDate(new Patient(2), date,
+		    null)));
+		
+		child.setParentLocation(parent);
+		assertEquals(Arrays.asList(3, 2, 1), getVisitIds(visitService.getVisitsByPatientAtDate(new Patient(2), date,
+		    child)));
+	}
+	
+	private List<Integer> getVisitIds(List<Visit> visits) {
+		List<Integer> ids = new ArrayList<>();
+		for (Visit visit : visits) {
+			ids.add(visit.getVisitId());
+		}
+		return ids;
+	}
+	
 	@Test
 	public void getVisitsByPatient_shouldReturnEmptyListGivenNullAndFalse() {
 		
@@ -9,19 +9,27 @@
  */
 package org.openmrs.api.db.hibernate;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openmrs.Location;
 import org.openmrs.Role;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.validator.RoleValidator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.BindException;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.Validator;
 
 public class HibernateAdministrationDAOTest extends BaseContextSensitiveTest {
 	
@@ -148,4 +156,59 @@ public class HibernateAdministrationDAOTest extends BaseContextSensitiveTest {
 		dao.validate(role, errors);
 		assertFalse(errors.hasFieldErrors("role"));
 	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getValidationPlan(Object)
+	 */
+	@Test
+	public void getValidationPlan_shouldCacheThePlanPerClass() {
+		HibernateAdministrationDAO.ValidationPlan plan = dao.getValidationPlan(new Role());
+		
+		assertSame(plan, dao.getValidationPlan(new Role()));
+		assertNotSame(plan, dao.getValidationPlan(new Location()));
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getValidationPlan(Object)
+	 */
+	@Test
+	public void getValidationPlan_shouldContainTheMaximumLengthsOfStringProperties() {
+		HibernateAdministrationDAO.ValidationPlan plan = dao.getValidationPlan(new Role());
+		
+		HibernateAdministrationDAO.FieldLengthCheck description = plan.getPropertyChecks().stream()
+		        .filter(c -> "description".equals(c.getPropertyName())).findFirst().get();
+		assertEquals(dao.getMaximumPropertyLength(Role.class, "description"), description.getMaxLength());
+		assertFalse(plan.getValidators().isEmpty());
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#getValidationPlan(Object)
+	 */
+	@Test
+	public void getValidationPlan_shouldUseTheValidatorsOfSubclasses() {
+		Validator validator = new RoleValidator();
+		HibernateAdministrationDAO subclass = new HibernateAdministrationDAO() {
+			
+			@Override
+			protected List<Validator> getValidators(Object obj) {
+				return Collections.singletonList(validator);
+			}
+		};
+		subclass.setSessionFactory(sessionFactory);
+		subclass.setApplicationContext(applicationContext);
+		
+		assertEquals(Collections.singletonList(validator), subclass.getValidationPlan(new Role()).getValidators());
+	}
+	
+	/**
+	 * @see HibernateAdministrationDAO#clearValidationPlans()
+	 */
+	@Test
+	public void clearValidationPlans_shouldRebuildThePlanOnNextValidation() {
+		HibernateAdministrationDAO.ValidationPlan plan = dao.getValidationPlan(new Role());
+		
+		dao.clearValidationPlans();
+		
+		assertNotSame(plan, dao.getValidationPlan(new Role()));
+	}
 }
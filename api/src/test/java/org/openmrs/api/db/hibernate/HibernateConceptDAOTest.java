@@ -10,13 +10,16 @@
 package org.openmrs.api.db.hibernate;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +31,7 @@ import org.openmrs.ConceptMap;
 import org.openmrs.ConceptMapType;
 import org.openmrs.ConceptName;
 import org.openmrs.ConceptReferenceTerm;
+import org.openmrs.ConceptSearchResult;
 import org.openmrs.ConceptSource;
 import org.openmrs.Drug;
 import org.openmrs.api.ConceptNameType;
@@ -43,6 +47,9 @@ public class HibernateConceptDAOTest extends BaseContextSensitiveTest {
 	@Autowired
 	private HibernateConceptDAO dao;
 	
+	@Autowired
+	private ConceptSearchCache conceptSearchCache;
+	
 	@BeforeEach
 	public void setUp() {
 		executeDataSet(PROVIDERS_INITIAL_XML);
@@ -241,4 +248,79 @@ public class HibernateConceptDAOTest extends BaseContextSensitiveTest {
 
 		assertTrue(datatypes.isEmpty());
 	}
+
+	/**
+	 * @see HibernateConceptDAO#getConcepts(String, List, boolean, List, List, List, List, Concept,
+	 *      Integer, Integer)
+	 */
+	@Test
+	public void getConcepts_shouldAnswerARepeatedSearchFromTheCache() {
+		List<ConceptSearchResult> first = searchConcepts("COUGH");
+		ConceptSearchCache.Statistics before = conceptSearchCache.getStatistics();
+		
+		List<ConceptSearchResult> second = searchConcepts("cough ");
+		
+		assertEquals(before.getHits() + 1, conceptSearchCache.getStatistics().getHits());
+		assertEquals(before.getMisses(), conceptSearchCache.getStatistics().getMisses());
+		assertEquals(getConceptNameIds(first), getConceptNameIds(second));
+		assertThat(getConceptNameIds(second), contains(2456));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getConcepts(String, List, boolean, List, List, List, List, Concept,
+	 *      Integer, Integer)
+	 */
+	@Test
+	public void getConcepts_shouldNotAnswerALongerPhraseFromTheCachedResultsOfAShorterOne() {
+		searchConcepts("CO");
+		ConceptSearchCache.Statistics before = conceptSearchCache.getStatistics();
+		
+		List<ConceptSearchResult> results = searchConcepts("COUG SY");
+		
+		assertEquals(before.getMisses() + 1, conceptSearchCache.getStatistics().getMisses());
+		assertThat(getConceptNameIds(results), contains(2456));
+	}
+	
+	/**
+	 * @see HibernateConceptDAO#getCountOfConcepts(String, List, boolean, List, List, List, List,
+	 *      Concept)
+	 */
+	@Test
+	public void getCountOfConcepts_shouldReturnTheSameCountAsWithoutTheCache() {
+		Integer cachedCount = dao.getCountOfConcepts("COUGH", null, false, null, null, null, null, null);
+		conceptSearchCache.clear();
+		dao.setConceptSearchCache(null);
+		try {
+			assertEquals(dao.getCountOfConcepts("COUGH", null, false, null, null, null, null, null), cachedCount);
+		}
+		finally {
+			dao.setConceptSearchCache(conceptSearchCache);
+		}
+	}
+	
+	/**
+	 * @see ConceptSearchCacheInterceptor
+	 */
+	@Test
+	public void getConcepts_shouldNotUseCachedResultsAfterAConceptNameIsSaved() {
+		searchConcepts("COUGH");
+		ConceptSearchCache.Statistics before = conceptSearchCache.getStatistics();
+		
+		Concept concept = dao.getConcept(3);
+		concept.addName(new ConceptName("COUGH MIXTURE", Locale.ENGLISH));
+		dao.saveConcept(concept);
+		Context.flushSession();
+		searchConcepts("COUGH");
+		
+		assertEquals(before.getMisses() + 1, conceptSearchCache.getStatistics().getMisses());
+	}
+	
+	private List<ConceptSearchResult> searchConcepts(String phrase) {
+		return dao.getConcepts(phrase, Collections.singletonList(Locale.ENGLISH), false, null, null, null, null, null, 0,
+		    10);
+	}
+	
+	private List<Integer> getConceptNameIds(List<ConceptSearchResult> results) {
+		return results.stream().map(result -> result.getConceptName().getConceptNameId()).collect(Collectors.toList());
+	}
 }
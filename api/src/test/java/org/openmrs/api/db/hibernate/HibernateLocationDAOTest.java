@@ -12,6 +12,7 @@ package org.openmrs.api.db.hibernate;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -74,4 +75,16 @@ public class HibernateLocationDAOTest extends BaseContextSensitiveTest {
 		assertEquals(1, dao.getLocationsHavingAllTags(list1).size());
 	}
 	
+	@Test
+	public void getLocationIdsHavingAnyTag_shouldGetTheIdsOfLocationsHavingAnyOfTheTags() {
+		assertEquals(1, dao.getLocationIdsHavingAnyTag(Arrays.asList(1, 2)).size());
+		assertEquals(4, dao.getLocationIdsHavingAnyTag(Arrays.asList(3, 4)).size());
+		assertEquals(3, dao.getLocationIdsHavingAnyTag(Arrays.asList(1, 2, 3)).size());
+	}
+	
+	@Test
+	public void getLocationIdsHavingAnyTag_shouldReturnEmptyListWhenGivenAnEmptyTagIdList() {
+		assertEquals(0, dao.getLocationIdsHavingAnyTag(Collections.emptyList()).size());
+	}
+	
 }
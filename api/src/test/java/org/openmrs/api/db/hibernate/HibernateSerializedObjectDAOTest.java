@@ -0,0 +1,128 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.Program;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.SerializedObject;
+import org.openmrs.serialization.SimpleXStreamSerializer;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class HibernateSerializedObjectDAOTest extends BaseContextSensitiveTest {
+
+	private static final String UUID = "4b6b2f2c-3d2a-4a57-9b4a-1c5e8b7f0a11";
+
+	@Autowired
+	private HibernateSerializedObjectDAO dao;
+
+	@Autowired
+	private SerializedObjectCache serializedObjectCache;
+
+	@BeforeEach
+	public void enableCache() {
+		((SimpleXStreamSerializer) Context.getSerializationService().getDefaultSerializer()).getXstream().allowTypes(
+		    new Class[] { Program.class });
+		dao.registerSupportedType(Program.class);
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_SERIALIZED_OBJECT_CACHE_ENABLED, "true");
+	}
+
+	@AfterEach
+	public void disableCache() {
+		dao.unregisterSupportedType(Program.class);
+		serializedObjectCache.setEnabled(false);
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldReturnACopyOfTheCachedObject() throws Exception {
+		SerializedObject serializedObject = createSerializedObject("Cached program");
+		long deserializations = serializedObjectCache.getStatistics().getDeserializations();
+		long hits = serializedObjectCache.getStatistics().getHits();
+
+		Program first = dao.convertSerializedObject(Program.class, serializedObject);
+		first.setName("Changed by the caller");
+		Program second = dao.convertSerializedObject(Program.class, serializedObject);
+
+		assertNotSame(first, second);
+		assertEquals("Cached program", second.getName());
+		assertEquals(UUID, second.getUuid());
+		assertEquals(deserializations + 1, serializedObjectCache.getStatistics().getDeserializations());
+		assertEquals(hits + 1, serializedObjectCache.getStatistics().getHits());
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldDeserializeAgainWhenTheSerializedDataChanged() throws Exception {
+		SerializedObject serializedObject = createSerializedObject("Old name");
+		assertEquals("Old name", dao.convertSerializedObject(Program.class, serializedObject).getName());
+
+		serializedObject.setSerializedData(createSerializedObject("New name").getSerializedData());
+
+		assertEquals("New name", dao.convertSerializedObject(Program.class, serializedObject).getName());
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#convertSerializedObject(Class, SerializedObject)
+	 */
+	@Test
+	public void convertSerializedObject_shouldNotCacheWhenDisabled() throws Exception {
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_SERIALIZED_OBJECT_CACHE_ENABLED, "false");
+		SerializedObject serializedObject = createSerializedObject("Not cached");
+		long deserializations = serializedObjectCache.getStatistics().getDeserializations();
+
+		dao.convertSerializedObject(Program.class, serializedObject);
+		dao.convertSerializedObject(Program.class, serializedObject);
+
+		assertEquals(deserializations + 2, serializedObjectCache.getStatistics().getDeserializations());
+	}
+
+	/**
+	 * @see HibernateSerializedObjectDAO#saveObject(org.openmrs.OpenmrsObject)
+	 */
+	@Test
+	public void saveObject_shouldEvictTheCachedObject() throws Exception {
+		SerializedObject serializedObject = createSerializedObject("Cached program");
+		dao.convertSerializedObject(Program.class, serializedObject);
+		assertEquals("Cached program", ((Program) serializedObjectCache.get(serializedObject)).getName());
+
+		Program program = new Program();
+		program.setName("Saved program");
+		program.setUuid(UUID);
+		dao.saveObject(program);
+
+		assertNull(serializedObjectCache.get(serializedObject));
+	}
+
+	private SerializedObject createSerializedObject(String name) throws Exception {
+		Program program = new Program();
+		program.setName(name);
+
+		SerializedObject serializedObject = new SerializedObject();
+		serializedObject.setUuid(UUID);
+		serializedObject.setType(Program.class.getName());
+		serializedObject.setSubtype(Program.class.getName());
+		serializedObject.setSerializationClass(SimpleXStreamSerializer.class);
+		serializedObject.setSerializedData(Context.getSerializationService().getDefaultSerializer().serialize(program));
+		return serializedObject;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.api.db.hibernate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.GlobalProperty;
+import org.openmrs.Location;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.db.DatabaseStatistics;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.openmrs.util.OpenmrsConstants;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class HibernateStatisticsMonitorTest extends BaseContextSensitiveTest {
+
+	private static final String QUERY = "from Location where retired = false";
+
+	@Autowired
+	private HibernateStatisticsMonitor monitor;
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@AfterEach
+	public void enableStatistics() {
+		monitor.setEnabled(true);
+	}
+
+	/**
+	 * @see HibernateStatisticsMonitor#getStatistics()
+	 */
+	@Test
+	public void getStatistics_shouldIncludeTheLatencyPercentilesOfExecutedQueries() {
+		monitor.reset();
+		sessionFactory.getCurrentSession().createQuery(QUERY).list();
+		sessionFactory.getCurrentSession().createQuery(QUERY).list();
+
+		DatabaseStatistics.QueryStatistics query = getQuery(monitor.getStatistics());
+
+		assertEquals(2, query.getExecutionCount());
+		assertTrue(query.getP50Millis() >= 0);
+		assertTrue(query.getP99Millis() >= query.getP50Millis());
+	}
+
+	/**
+	 * @see HibernateStatisticsMonitor#getStatistics()
+	 */
+	@Test
+	public void getStatistics_shouldIncludeTheLoadCountOfLoadedEntities() {
+		Context.clearSession();
+		monitor.reset();
+		int locations = sessionFactory.getCurrentSession().createQuery(QUERY).list().size();
+
+		DatabaseStatistics.EntityStatistics entity = monitor.getStatistics().getEntities().stream()
+		        .filter(e -> e.getEntityName().equals(Location.class.getName())).findFirst().get();
+
+		assertEquals(locations, entity.getLoadCount());
+	}
+
+	/**
+	 * @see HibernateStatisticsMonitor#globalPropertyChanged(GlobalProperty)
+	 */
+	@Test
+	public void globalPropertyChanged_shouldStopAndStartCollectingStatistics() {
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED, "false"));
+		assertFalse(monitor.isEnabled());
+		monitor.reset();
+		sessionFactory.getCurrentSession().createQuery(QUERY).list();
+		assertEquals(0, monitor.getStatistics().getQueryExecutionCount());
+
+		Context.getAdministrationService().saveGlobalProperty(
+		    new GlobalProperty(OpenmrsConstants.GP_DATABASE_STATISTICS_ENABLED, "true"));
+		assertTrue(monitor.isEnabled());
+	}
+
+	private DatabaseStatistics.QueryStatistics getQuery(DatabaseStatistics statistics) {
+		return statistics.getQueries().stream().filter(q -> q.getQuery().equals(QUERY)).findFirst().get();
+	}
+}
@@ -21,9 +21,12 @@ import static org.openmrs.util.OpenmrsUtil.deleteDirectory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import ca.uhn.hl7v2.HL7Exception;
@@ -36,8 +39,10 @@ import ca.uhn.hl7v2.model.v25.message.ORU_R01;
 import ca.uhn.hl7v2.model.v25.segment.NK1;
 import ca.uhn.hl7v2.model.v25.segment.ORC;
 import ca.uhn.hl7v2.model.v25.segment.PV1;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openmrs.Concept;
 import org.openmrs.GlobalProperty;
 import org.openmrs.Obs;
@@ -50,6 +55,7 @@ import org.openmrs.module.ModuleConstants;
 import org.openmrs.module.ModuleUtil;
 import org.openmrs.test.jupiter.BaseContextSensitiveTest;
 import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +67,9 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 	private static final Logger log = LoggerFactory.getLogger(HL7ServiceTest.class);
 	protected static final String XML_FILENAME = "org/openmrs/api/include/UserServiceTest.xml";
 	
+	@TempDir
+	public File hl7ArchivesDir;
+	
 	/**
 	 * @see HL7Service#saveHL7InQueue(HL7InQueue)
 	 */
@@ -799,4 +808,96 @@ public class HL7ServiceTest extends BaseContextSensitiveTest {
 		Integer userId = hl7service.resolveUserId(xcn);
 		assertThat(userId, is(502));
 	}
+
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchivesToFileSystem(java.util.Map)
+	 */
+	@Test
+	public void migrateHl7InArchivesToFileSystem_shouldMigrateAllArchivesAndClearTheLastMigratedId() throws Exception {
+		HL7Service hl7Service = Context.getHL7Service();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY,
+		    hl7ArchivesDir.getAbsolutePath());
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_THREADS, "2");
+		List<HL7InArchive> hl7InArchives = createHL7InArchivesToMigrate(5);
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		
+		Hl7InArchivesMigrateThread.setActive(true);
+		Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.RUNNING);
+		try {
+			hl7Service.migrateHl7InArchivesToFileSystem(progressStatusMap);
+		}
+		finally {
+			Hl7InArchivesMigrateThread.setActive(false);
+			Hl7InArchivesMigrateThread.setTransferStatus(Hl7InArchivesMigrateThread.Status.NONE);
+		}
+		
+		assertEquals(5, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY));
+		assertEquals(0, progressStatusMap.get(HL7Constants.NUMBER_OF_FAILED_TRANSFERS_KEY));
+		assertNotNull(progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_PER_SECOND_KEY));
+		assertTrue(StringUtils.isBlank(Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID)));
+		for (HL7InArchive hl7InArchive : hl7InArchives) {
+			HL7InArchive migrated = hl7Service.getHL7InArchiveByUuid(hl7InArchive.getUuid());
+			assertEquals(HL7Constants.HL7_STATUS_MIGRATED, migrated.getMessageState());
+			File file = new File(new URI(migrated.getHL7Data()));
+			assertTrue(file.getAbsolutePath().startsWith(hl7ArchivesDir.getAbsolutePath()));
+			assertEquals("data of " + hl7InArchive.getHL7SourceKey(), OpenmrsUtil.getFileAsString(file));
+		}
+	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchiveBatchToFileSystem(Integer, java.util.Map)
+	 */
+	@Test
+	public void migrateHl7InArchiveBatchToFileSystem_shouldMigrateTheArchivesAfterTheGivenIdAndStoreTheLastMigratedId()
+	        throws Exception {
+		HL7Service hl7Service = Context.getHL7Service();
+		Context.getAdministrationService().setGlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_HL7_ARCHIVE_DIRECTORY,
+		    hl7ArchivesDir.getAbsolutePath());
+		List<HL7InArchive> hl7InArchives = createHL7InArchivesToMigrate(3);
+		Map<String, Integer> progressStatusMap = new HashMap<>();
+		
+		Integer lastArchiveId = hl7Service.migrateHl7InArchiveBatchToFileSystem(hl7InArchives.get(0).getHL7InArchiveId(),
+		    progressStatusMap);
+		
+		assertEquals(hl7InArchives.get(2).getHL7InArchiveId(), lastArchiveId);
+		assertEquals(lastArchiveId.toString(), Context.getAdministrationService().getGlobalProperty(
+		    OpenmrsConstants.GP_HL7_ARCHIVE_MIGRATION_LAST_ID));
+		assertEquals(2, progressStatusMap.get(HL7Constants.NUMBER_TRANSFERRED_KEY));
+		assertEquals(HL7Constants.HL7_STATUS_PROCESSED, hl7Service.getHL7InArchiveByUuid(hl7InArchives.get(0).getUuid())
+		        .getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_MIGRATED, hl7Service.getHL7InArchiveByUuid(hl7InArchives.get(1).getUuid())
+		        .getMessageState());
+		assertEquals(HL7Constants.HL7_STATUS_MIGRATED, hl7Service.getHL7InArchiveByUuid(hl7InArchives.get(2).getUuid())
+		        .getMessageState());
+	}
+	
+	/**
+	 * @see HL7Service#migrateHl7InArchiveBatchToFileSystem(Integer, java.util.Map)
+	 */
+	@Test
+	public void migrateHl7InArchiveBatchToFileSystem_shouldReturnNullIfThereAreNoArchivesToMigrate() {
+		List<HL7InArchive> hl7InArchives = createHL7InArchivesToMigrate(1);
+		
+		assertNull(Context.getHL7Service().migrateHl7InArchiveBatchToFileSystem(hl7InArchives.get(0).getHL7InArchiveId(),
+		    new HashMap<>()));
+	}
+	
+	private List<HL7InArchive> createHL7InArchivesToMigrate(int count) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.YEAR, -2);
+		List<HL7InArchive> hl7InArchives = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			HL7InArchive hl7InArchive = new HL7InArchive();
+			hl7InArchive.setHL7Source(new HL7Source(1));
+			hl7InArchive.setHL7SourceKey("key" + i);
+			hl7InArchive.setHL7Data("data of key" + i);
+			hl7InArchive.setMessageState(HL7Constants.HL7_STATUS_PROCESSED);
+			hl7InArchive.setDateCreated(calendar.getTime());
+			hl7InArchives.add(Context.getHL7Service().saveHL7InArchive(hl7InArchive));
+		}
+		Context.flushSession();
+		return hl7InArchives;
+	}
 }
@@ -0,0 +1,117 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.liquibase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChangeLogFingerprintTest {
+
+	private static final String CONNECTION_URL = "jdbc:h2:mem:changelogfingerprint;DB_CLOSE_DELAY=-1";
+
+	private ChangeLogFingerprint changeLogFingerprint;
+
+	private Connection connection;
+
+	private ClassLoader classLoader;
+
+	@TempDir
+	public File tempDir;
+
+	@BeforeEach
+	public void setup() throws Exception {
+		changeLogFingerprint = new ChangeLogFingerprint();
+		classLoader = getClass().getClassLoader();
+		connection = DriverManager.getConnection(CONNECTION_URL, "sa", "");
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("CREATE TABLE liquibasechangelog (ID VARCHAR(255), AUTHOR VARCHAR(255), "
+			        + "FILENAME VARCHAR(255), MD5SUM VARCHAR(35))");
+			statement.execute("INSERT INTO liquibasechangelog VALUES ('1', 'ben', 'liquibase.xml', '8:abc')");
+		}
+	}
+
+	@AfterEach
+	public void tearDown() throws Exception {
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("DROP TABLE liquibasechangelog");
+		}
+		connection.close();
+	}
+
+	@Test
+	public void compute_shouldReturnTheSameFingerprintForAnUnchangedDatabase() throws Exception {
+		Properties first = changeLogFingerprint.compute(connection, classLoader);
+		Properties second = changeLogFingerprint.compute(connection, classLoader);
+
+		assertEquals(first, second);
+		assertEquals("1", first.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_ROW_COUNT));
+	}
+
+	@Test
+	public void compute_shouldChangeTheFingerprintWhenAChangeSetIsApplied() throws Exception {
+		Properties before = changeLogFingerprint.compute(connection, classLoader);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("INSERT INTO liquibasechangelog VALUES ('2', 'ben', 'liquibase.xml', '8:def')");
+		}
+		Properties after = changeLogFingerprint.compute(connection, classLoader);
+
+		assertNotEquals(before, after);
+		assertEquals("2", after.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_ROW_COUNT));
+	}
+
+	@Test
+	public void compute_shouldChangeTheFingerprintWhenAChangeSetChecksumChanges() throws Exception {
+		Properties before = changeLogFingerprint.compute(connection, classLoader);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("UPDATE liquibasechangelog SET MD5SUM = '8:xyz' WHERE ID = '1'");
+		}
+		Properties after = changeLogFingerprint.compute(connection, classLoader);
+
+		assertEquals(before.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_ROW_COUNT),
+		    after.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_ROW_COUNT));
+		assertNotEquals(before.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_CHECKSUM),
+		    after.getProperty(ChangeLogFingerprint.CHANGE_LOG_TABLE_CHECKSUM));
+	}
+
+	@Test
+	public void computeChangeLogChecksum_shouldBeStableForTheBundledChangeLogs() throws Exception {
+		assertEquals(changeLogFingerprint.computeChangeLogChecksum(classLoader),
+		    changeLogFingerprint.computeChangeLogChecksum(classLoader));
+	}
+
+	@Test
+	public void read_shouldReturnTheWrittenFingerprint() throws Exception {
+		File file = new File(tempDir, ChangeLogFingerprint.FINGERPRINT_FILE_NAME);
+		Properties fingerprint = changeLogFingerprint.compute(connection, classLoader);
+
+		changeLogFingerprint.write(file, fingerprint);
+
+		assertEquals(fingerprint, changeLogFingerprint.read(file));
+	}
+
+	@Test
+	public void read_shouldReturnNullIfNoFingerprintWasRecorded() {
+		assertNull(changeLogFingerprint.read(new File(tempDir, ChangeLogFingerprint.FINGERPRINT_FILE_NAME)));
+	}
+}
@@ -0,0 +1,62 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.messagesource.impl;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.messagesource.PresentationMessage;
+
+/**
+ * Tests {@link MutableResourceBundleMessageSource}.
+ */
+public class MutableResourceBundleMessageSourceTest {
+
+	private final MutableResourceBundleMessageSource messageSource = new MutableResourceBundleMessageSource();
+
+	/**
+	 * @see MutableResourceBundleMessageSource#getLocales()
+	 */
+	@Test
+	public void getLocales_shouldReturnTheLocalesOfThePropertiesFilesWithoutScanningThemAgain() {
+		Collection<Locale> locales = messageSource.getLocales();
+
+		assertTrue(locales.contains(Locale.FRENCH));
+		assertSame(locales, messageSource.getLocales());
+	}
+
+	/**
+	 * @see MutableResourceBundleMessageSource#clearCache()
+	 */
+	@Test
+	public void clearCache_shouldScanThePropertiesFilesAgain() {
+		Collection<Locale> locales = messageSource.getLocales();
+
+		messageSource.clearCache();
+
+		assertNotSame(locales, messageSource.getLocales());
+	}
+
+	/**
+	 * @see MutableResourceBundleMessageSource#getPresentations()
+	 */
+	@Test
+	public void getPresentations_shouldReturnTheMessagesOfEveryPropertiesFile() {
+		Collection<PresentationMessage> presentations = messageSource.getPresentations();
+
+		assertTrue(presentations.stream().anyMatch(p -> "general.save".equals(p.getCode())
+		        && Locale.FRENCH.equals(p.getLocale()) && "Sauvegarder (Enregistrer)".equals(p.getMessage())));
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ExtensionRegistryTest {
+
+	private static final String POINT_ID = "org.openmrs.patientDashboard";
+
+	/**
+	 * @see ExtensionRegistry#withExtensions(java.util.Collection)
+	 */
+	@Test
+	public void withExtensions_shouldAppendTheExtensionsOfAModuleSortedByOrder() {
+		Extension first = new TestExtension(POINT_ID, null, 5);
+		Extension second = new TestExtension(POINT_ID, null, 1);
+		Extension third = new TestExtension(POINT_ID, null, 3);
+
+		ExtensionRegistry registry = ExtensionRegistry.EMPTY.withExtensions(Collections.singletonList(first))
+		        .withExtensions(Arrays.asList(second, third));
+
+		assertEquals(Arrays.asList(first, second, third), registry.getExtensions(POINT_ID));
+		assertTrue(ExtensionRegistry.EMPTY.getExtensions(POINT_ID).isEmpty());
+	}
+
+	/**
+	 * @see ExtensionRegistry#withoutExtensions(java.util.Collection)
+	 */
+	@Test
+	public void withoutExtensions_shouldRemoveTheExtensionsOfAModuleAndTheExtensionIdsLeftWithoutAny() {
+		Extension kept = new TestExtension(POINT_ID, null, 0);
+		Extension removed = new TestExtension(POINT_ID, Extension.MEDIA_TYPE.html, 0);
+		ExtensionRegistry registry = ExtensionRegistry.EMPTY.withExtensions(Arrays.asList(kept, removed));
+
+		ExtensionRegistry changed = registry.withoutExtensions(Collections.singletonList(removed));
+
+		assertEquals(Collections.singletonList(kept), changed.getExtensions(POINT_ID));
+		assertNull(changed.getExtensionsById(removed.getExtensionId()));
+		assertFalse(changed.getExtensionMap().containsKey(removed.getExtensionId()));
+		assertEquals(Arrays.asList(kept, removed), registry.getExtensions(POINT_ID));
+	}
+
+	/**
+	 * @see ExtensionRegistry#getExtensions(String)
+	 */
+	@Test
+	public void getExtensions_shouldIncludeTheExtensionsOfEveryMediaTypeForAPointIdWithoutOne() {
+		Extension plain = new TestExtension(POINT_ID, null, 0);
+		Extension html = new TestExtension(POINT_ID, Extension.MEDIA_TYPE.html, 0);
+		Extension other = new TestExtension("org.openmrs.other", Extension.MEDIA_TYPE.html, 0);
+		ExtensionRegistry registry = ExtensionRegistry.EMPTY.withExtensions(Arrays.asList(plain, html, other));
+
+		assertEquals(Arrays.asList(plain, html), registry.getExtensions(POINT_ID));
+		assertEquals(Collections.singletonList(html), registry.getExtensions(html.getExtensionId()));
+		assertEquals(Collections.singletonList(other), registry.getExtensions("org.openmrs.other"));
+	}
+
+	/**
+	 * @see ExtensionRegistry#getExtensions(String)
+	 */
+	@Test
+	public void getExtensions_shouldReturnTheSameListOnEveryCall() {
+		ExtensionRegistry registry = ExtensionRegistry.EMPTY.withExtensions(Arrays.asList(new TestExtension(POINT_ID,
+		        null, 0), new TestExtension(POINT_ID, Extension.MEDIA_TYPE.html, 0)));
+
+		List<Extension> extensions = registry.getExtensions(POINT_ID);
+
+		assertSame(extensions, registry.getExtensions(POINT_ID));
+		assertThrows(UnsupportedOperationException.class, () -> extensions.add(new TestExtension(POINT_ID, null, 0)));
+	}
+
+	private static class TestExtension extends Extension {
+
+		private final Extension.MEDIA_TYPE mediaType;
+
+		private final int order;
+
+		TestExtension(String pointId, Extension.MEDIA_TYPE mediaType, int order) {
+			setPointId(pointId);
+			this.mediaType = mediaType;
+			this.order = order;
+		}
+
+		@Override
+		public Extension.MEDIA_TYPE getMediaType() {
+			return mediaType;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+}
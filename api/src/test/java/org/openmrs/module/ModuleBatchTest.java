@@ -0,0 +1,168 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+public class ModuleBatchTest extends BaseContextSensitiveTest {
+
+	private static final String MODULE1_PATH = "org/openmrs/module/include/test1-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE1_UPDATE_PATH = "org/openmrs/module/include/test1-2.0-SNAPSHOT.omod";
+
+	private static final String MODULE2_PATH = "org/openmrs/module/include/test2-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE3_PATH = "org/openmrs/module/include/test3-1.0-SNAPSHOT.omod";
+
+	/**
+	 * the module files are copied here since unloading a module deletes its file
+	 */
+	@TempDir
+	public File moduleRepository;
+
+	private final List<Collection<Module>> refreshes = new ArrayList<>();
+
+	@BeforeEach
+	public void before() {
+		ModuleUtil.shutdown();
+		refreshes.clear();
+	}
+
+	@AfterAll
+	public static void cleanUp() {
+		ModuleUtil.shutdown();
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldStartModulesAndTheirRequiredModulesWithASingleRefresh() throws Exception {
+		Module test1 = loadModule(MODULE1_PATH);
+		Module test2 = loadModule(MODULE2_PATH);
+		Module test3 = loadModule(MODULE3_PATH);
+
+		ModuleBatch.Result result = new ModuleBatch().start(test3).commit(this::refresh);
+
+		assertEquals(Arrays.asList(test1, test2, test3), result.getStartedModules());
+		assertTrue(test1.isStarted() && test2.isStarted() && test3.isStarted());
+		assertEquals(1, refreshes.size());
+		assertEquals(result.getStartedModules(), new ArrayList<>(refreshes.get(0)));
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldRestartTheDependentsOfARestartedModule() throws Exception {
+		Module test1 = loadModule(MODULE1_PATH);
+		Module test2 = loadModule(MODULE2_PATH);
+		ModuleFactory.startModule(test2);
+
+		ModuleBatch.Result result = new ModuleBatch().stop(test1).start(test1).commit(this::refresh);
+
+		assertEquals(Arrays.asList(test1, test2), result.getStoppedModules());
+		assertEquals(Arrays.asList(test1, test2), result.getStartedModules());
+		assertTrue(test1.isStarted() && test2.isStarted());
+		assertEquals(1, refreshes.size());
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldUpgradeAStartedModule() throws Exception {
+		ModuleFactory.startModule(loadModule(MODULE1_PATH));
+
+		new ModuleBatch().upgrade(copyModuleFile(MODULE1_UPDATE_PATH)).commit(this::refresh);
+
+		assertEquals("2.0-SNAPSHOT", ModuleFactory.getStartedModuleById("test1").getVersion());
+		assertEquals(1, refreshes.size());
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldNotChangeAnythingIfARequiredModuleIsMissing() throws Exception {
+		Module test1 = loadModule(MODULE1_PATH);
+		ModuleFactory.startModule(test1);
+		Module test3 = loadModule(MODULE3_PATH);
+
+		ModuleBatch batch = new ModuleBatch().stop(test1).start(test3);
+
+		assertThrows(ModuleException.class, () -> batch.commit(this::refresh));
+		assertTrue(test1.isStarted());
+		assertFalse(test3.isStarted());
+		assertEquals(0, refreshes.size());
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldNotChangeAnythingIfAMandatoryModuleWouldBeStopped() throws Exception {
+		Module test1 = loadModule(MODULE1_PATH);
+		Module test2 = loadModule(MODULE2_PATH);
+		ModuleFactory.startModule(test2);
+		test2.setMandatory(true);
+
+		ModuleBatch batch = new ModuleBatch().stop(test1);
+
+		assertThrows(MandatoryModuleException.class, () -> batch.commit(this::refresh));
+		assertTrue(test1.isStarted() && test2.isStarted());
+		assertEquals(0, refreshes.size());
+	}
+
+	/**
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 */
+	@Test
+	public void commit_shouldNotAllowCommittingTwice() throws Exception {
+		ModuleBatch batch = new ModuleBatch().start(loadModule(MODULE1_PATH));
+		batch.commit(this::refresh);
+
+		assertThrows(ModuleException.class, () -> batch.commit(this::refresh));
+		assertEquals(1, refreshes.size());
+	}
+
+	private void refresh(Collection<Module> startedModules) {
+		refreshes.add(new ArrayList<>(startedModules));
+	}
+
+	private Module loadModule(String location) throws Exception {
+		return ModuleFactory.loadModule(copyModuleFile(location), true);
+	}
+
+	private File copyModuleFile(String location) throws Exception {
+		File moduleFile = new File(moduleRepository, new File(location).getName());
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(location)) {
+			Files.copy(in, moduleFile.toPath());
+		}
+		return moduleFile;
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.api.context.Context;
+import org.openmrs.notification.Alert;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+
+public class ModuleStartupTest extends BaseContextSensitiveTest {
+
+	private static final String MODULE1_PATH = "org/openmrs/module/include/test1-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE2_PATH = "org/openmrs/module/include/test2-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE3_PATH = "org/openmrs/module/include/test3-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE4_PATH = "org/openmrs/module/include/test4-1.0-SNAPSHOT.omod";
+
+	private static final String MODULE5_PATH = "org/openmrs/module/include/test5-1.0-SNAPSHOT.omod";
+
+	/**
+	 * the module files are copied here since unloading a module deletes its file
+	 */
+	@TempDir
+	public File moduleRepository;
+
+	@BeforeEach
+	public void before() {
+		ModuleUtil.shutdown();
+	}
+
+	@AfterAll
+	public static void cleanUp() {
+		ModuleUtil.shutdown();
+	}
+
+	/**
+	 * @see ModuleStartup#run()
+	 */
+	@Test
+	public void run_shouldStartModulesAfterTheModulesTheyRequireAndRecordThemInStartupOrder() throws Exception {
+		List<Module> modules = Arrays.asList(loadModule(MODULE4_PATH), loadModule(MODULE3_PATH), loadModule(MODULE1_PATH),
+		    loadModule(MODULE5_PATH), loadModule(MODULE2_PATH));
+		List<Module> startupOrder = ModuleFactory.getModulesInStartupOrder(modules);
+
+		ModuleStartup startup = new ModuleStartup(startupOrder, 4);
+		startup.run();
+
+		for (Module module : modules) {
+			assertTrue(module.isStarted(), module.getModuleId());
+		}
+		assertEquals(startupOrder, ModuleFactory.getStartedModulesInOrder());
+		assertEquals(startupOrder, new ArrayList<>(startup.getStartupMillis().keySet()));
+	}
+
+	/**
+	 * @see ModuleStartup#run()
+	 */
+	@Test
+	public void run_shouldNotStartModulesWhoseRequiredModulesFailedToStart() throws Exception {
+		Module test2 = loadModule(MODULE2_PATH);
+		Module test3 = loadModule(MODULE3_PATH);
+		Module test4 = loadModule(MODULE4_PATH);
+
+		ModuleStartup startup = new ModuleStartup(ModuleFactory.getModulesInStartupOrder(Arrays.asList(test2, test3,
+		    test4)), 4);
+		startup.run();
+
+		assertFalse(test2.isStarted());
+		assertNotNull(test2.getStartupErrorMessage());
+		assertFalse(test3.isStarted());
+		assertNotNull(test3.getStartupErrorMessage());
+		assertTrue(test4.isStarted());
+		assertEquals(Arrays.asList(test4), new ArrayList<>(startup.getStartupMillis().keySet()));
+	}
+
+	/**
+	 * @see ModuleStartup#run()
+	 */
+	@Test
+	public void run_shouldNotifyTheSuperUsersAboutModulesThatFailedToStart() throws Exception {
+		Module test2 = loadModule(MODULE2_PATH);
+		int alerts = Context.getAlertService().getAllAlerts().size();
+		
+		new ModuleStartup(Collections.singletonList(test2), 4).run();
+		new ModuleStartup(Arrays.asList(loadModule(MODULE4_PATH), loadModule(MODULE5_PATH), test2), 4).run();
+		
+		assertFalse(test2.isStarted());
+		List<Alert> newAlerts = Context.getAlertService().getAllAlerts();
+		assertEquals(alerts + 2, newAlerts.size());
+		assertEquals(2, newAlerts.stream().filter(alert -> alert.getText().contains(test2.getName())).count());
+	}
+	
+	/**
+	 * @see ModuleStartup#getThreads(String)
+	 */
+	@Test
+	public void getThreads_shouldStartModulesOneAfterAnotherForInvalidValues() {
+		assertEquals(1, ModuleStartup.getThreads("many"));
+		assertEquals(1, ModuleStartup.getThreads("0"));
+		assertEquals(6, ModuleStartup.getThreads(" 6 "));
+		assertTrue(ModuleStartup.getThreads(null) >= 1);
+	}
+
+	private Module loadModule(String location) throws Exception {
+		File moduleFile = new File(moduleRepository, new File(location).getName());
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream(location)) {
+			Files.copy(in, moduleFile.toPath());
+		}
+		Module module = ModuleFactory.loadModule(moduleFile, true);
+		// other tests change the version of OpenMRS modules are checked against
+		module.setRequireOpenmrsVersion(null);
+		return module;
+	}
+}
@@ -11,6 +11,7 @@ package org.openmrs.obs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -157,4 +158,91 @@ public class AbstractHandlerTest extends BaseContextSensitiveTest {
 		assertEquals(uuidPartWithNullTitle, obsWithNullTitle.getUuid());
 	}
 	
+	@Test
+	public void getOutputFileToWrite_shouldWriteIntoTheSubdirectoryOfTheUuid() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GP_COMPLEX_OBS_DIR_SHARD_LEVELS, "2"));
+		Obs obs = new Obs();
+		obs.setUuid("9b6639b2-5785-4603-a364-075c2d61cd51");
+		obs.setComplexData(new ComplexData(FILENAME, null));
+		
+		File file = handler.getOutputFileToWrite(obs);
+		
+		assertEquals(complexObsTestFolder.resolve("9b/66/mytxtfile_9b6639b2-5785-4603-a364-075c2d61cd51.txt").toFile(),
+		    file);
+		assertTrue(file.getParentFile().isDirectory());
+	}
+	
+	/**
+	 * @see AbstractHandler#getShardedPath(String, int)
+	 */
+	@Test
+	public void getShardedPath_shouldPartitionFilesByTheUuidInTheirName() {
+		assertEquals("9b/66/x_9B6639B2-5785-4603-a364-075c2d61cd51.png",
+		    AbstractHandler.getShardedPath("x_9B6639B2-5785-4603-a364-075c2d61cd51.png", 2));
+		assertEquals("9b/66/39/b2/9b6639b2-5785-4603-a364-075c2d61cd51.png.200px.png",
+		    AbstractHandler.getShardedPath("9b6639b2-5785-4603-a364-075c2d61cd51.png.200px.png", 4));
+	}
+	
+	/**
+	 * @see AbstractHandler#getShardedPath(String, int)
+	 */
+	@Test
+	public void getShardedPath_shouldPartitionFilesWithoutAUuidByAHashOfTheirName() {
+		String path = AbstractHandler.getShardedPath(FILENAME, 2);
+		
+		assertTrue(path.matches("[0-9a-f]{2}/[0-9a-f]{2}/" + FILENAME), path);
+		assertEquals(path, AbstractHandler.getShardedPath(FILENAME, 2));
+	}
+	
+	/**
+	 * @see AbstractHandler#getShardedPath(String, int)
+	 */
+	@Test
+	public void getShardedPath_shouldReturnTheFileNameForTheFlatLayout() {
+		assertEquals(FILENAME, AbstractHandler.getShardedPath(FILENAME, 0));
+	}
+	
+	/**
+	 * @see AbstractHandler#getComplexDataFile(File, String, int)
+	 */
+	@Test
+	public void getComplexDataFile_shouldFindFilesInTheirSubdirectory() throws IOException {
+		File dir = complexObsTestFolder.toFile();
+		File sharded = new File(dir, AbstractHandler.getShardedPath(FILENAME, 2));
+		FileUtils.touch(sharded);
+		
+		assertEquals(sharded, AbstractHandler.getComplexDataFile(dir, FILENAME, 2));
+	}
+	
+	/**
+	 * @see AbstractHandler#getComplexDataFile(File, String, int)
+	 */
+	@Test
+	public void getComplexDataFile_shouldFindFilesStoredInTheFlatLayout() throws IOException {
+		File dir = complexObsTestFolder.toFile();
+		File flat = new File(dir, FILENAME);
+		FileUtils.touch(flat);
+		
+		assertEquals(flat, AbstractHandler.getComplexDataFile(dir, FILENAME, 2));
+		
+		Obs obs = new Obs();
+		obs.setValueComplex("title|" + FILENAME);
+		assertEquals(flat, AbstractHandler.getComplexDataFile(obs));
+	}
+	
+	/**
+	 * @see AbstractHandler#getComplexDataFile(File, String, int)
+	 */
+	@Test
+	public void getComplexDataFile_shouldFindFilesStoredWithAnotherNumberOfLevels() throws IOException {
+		File dir = complexObsTestFolder.toFile();
+		File sharded = new File(dir, AbstractHandler.getShardedPath(FILENAME, 3));
+		FileUtils.touch(sharded);
+		
+		assertEquals(sharded, AbstractHandler.getComplexDataFile(dir, FILENAME, 2));
+		assertEquals(sharded, AbstractHandler.getComplexDataFile(dir, FILENAME, 0));
+		assertEquals(new File(dir, AbstractHandler.getShardedPath("other_" + FILENAME, 2)),
+		    AbstractHandler.getComplexDataFile(dir, "other_" + FILENAME, 2));
+	}
+	
 }
@@ -0,0 +1,152 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.obs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ComplexDataStreamTest {
+
+	private static final long LARGE_FILE_LENGTH = 256L * 1024 * 1024;
+
+	private static final long MAX_ALLOCATED_BYTES = 8L * 1024 * 1024;
+
+	@TempDir
+	public Path folder;
+
+	/**
+	 * @see ComplexDataStream#getInputStream(long, long)
+	 */
+	@Test
+	public void getInputStream_shouldReadOnlyTheRequestedRange() throws IOException {
+		try (ComplexDataStream stream = createStream("0123456789")) {
+			try (InputStream in = stream.getInputStream(2, 5)) {
+				assertEquals("23456", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+			try (InputStream in = stream.getInputStream(8, 5)) {
+				assertEquals("89", IOUtils.toString(in, StandardCharsets.UTF_8));
+			}
+		}
+	}
+
+	/**
+	 * @see ComplexDataStream#transferTo(long, long, WritableByteChannel)
+	 */
+	@Test
+	public void transferTo_shouldCopyOnlyTheRequestedRange() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ComplexDataStream stream = createStream("0123456789")) {
+			assertEquals(3, stream.transferTo(7, 10, Channels.newChannel(out)));
+		}
+		assertArrayEquals("789".getBytes(StandardCharsets.UTF_8), out.toByteArray());
+	}
+
+	/**
+	 * @see ComplexDataStream#transferTo(long, long, WritableByteChannel)
+	 */
+	@Test
+	public void transferTo_shouldStreamALargeFileWithBoundedMemory() throws IOException {
+		Path file = createLargeFile();
+		CountingChannel target = new CountingChannel();
+
+		long allocatedBefore = getAllocatedBytes();
+		try (ComplexDataStream stream = new ComplexDataStream("large.bin", "application/octet-stream", file,
+		        Files.size(file))) {
+			stream.transferTo(0, stream.getLength(), target);
+		}
+		long allocated = getAllocatedBytes() - allocatedBefore;
+
+		assertEquals(LARGE_FILE_LENGTH, target.count);
+		assertTrue(allocated < MAX_ALLOCATED_BYTES, "Allocated " + allocated + " bytes");
+	}
+
+	/**
+	 * @see ComplexDataStream#getInputStream(long, long)
+	 */
+	@Test
+	public void getInputStream_shouldStreamARangeOfALargeFileWithBoundedMemory() throws IOException {
+		Path file = createLargeFile();
+		long offset = LARGE_FILE_LENGTH / 2;
+		byte[] buffer = new byte[8192];
+
+		long read = 0;
+		long allocatedBefore = getAllocatedBytes();
+		try (ComplexDataStream stream = new ComplexDataStream("large.bin", "application/octet-stream", file,
+		        Files.size(file)); InputStream in = stream.getInputStream(offset, LARGE_FILE_LENGTH)) {
+			for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+				read += n;
+			}
+		}
+		long allocated = getAllocatedBytes() - allocatedBefore;
+
+		assertEquals(LARGE_FILE_LENGTH - offset, read);
+		assertTrue(allocated < MAX_ALLOCATED_BYTES, "Allocated " + allocated + " bytes");
+	}
+
+	private ComplexDataStream createStream(String content) throws IOException {
+		Path file = Files.write(folder.resolve("data.txt"), content.getBytes(StandardCharsets.UTF_8));
+		return new ComplexDataStream("data.txt", "text/plain", file, Files.size(file));
+	}
+
+	/**
+	 * Creates a sparse file so that the test does not depend on the speed of the disk
+	 */
+	private Path createLargeFile() throws IOException {
+		Path file = folder.resolve("large.bin");
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+			raf.setLength(LARGE_FILE_LENGTH);
+		}
+		return file;
+	}
+
+	private long getAllocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread
+		        .currentThread().getId());
+	}
+
+	private static class CountingChannel implements WritableByteChannel {
+
+		private long count;
+
+		@Override
+		public int write(ByteBuffer src) {
+			int n = src.remaining();
+			src.position(src.limit());
+			count += n;
+			return n;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
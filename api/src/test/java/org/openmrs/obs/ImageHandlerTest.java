@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 
 import javax.imageio.ImageIO;
 
@@ -49,7 +50,7 @@ public class ImageHandlerTest extends BaseContextSensitiveTest {
 	@Test
 	public void shouldReturnSupportedViews() {
 		String[] actualViews = handler.getSupportedViews();
-		String[] expectedViews = { ComplexObsHandler.RAW_VIEW };
+		String[] expectedViews = { ComplexObsHandler.RAW_VIEW, ComplexObsHandler.THUMBNAIL_VIEW };
 		
 		assertArrayEquals(actualViews, expectedViews);
 	}
@@ -60,6 +61,12 @@ public class ImageHandlerTest extends BaseContextSensitiveTest {
 		assertTrue(handler.supportsView(ComplexObsHandler.RAW_VIEW));
 	}
 	
+	@Test
+	public void shouldSupportThumbnailView() {
+		
+		assertTrue(handler.supportsView(ComplexObsHandler.THUMBNAIL_VIEW));
+	}
+	
 	@Test
 	public void shouldNotSupportOtherViews() {
 		
@@ -115,4 +122,122 @@ public class ImageHandlerTest extends BaseContextSensitiveTest {
 		        complexObsTestFolder.toAbsolutePath().toString()));
 		handler.saveObs(obs);
 	}
+	
+	@Test
+	public void getObs_shouldReturnAScaledDownImageForTheThumbnailView() throws IOException {
+		Obs obs = saveLargeImage();
+		
+		Obs complexObs = handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW);
+		
+		BufferedImage thumbnail = (BufferedImage) complexObs.getComplexData().getData();
+		assertEquals(200, thumbnail.getWidth());
+		assertEquals(100, thumbnail.getHeight());
+		assertEquals("image/png", complexObs.getComplexData().getMimeType());
+	}
+	
+	@Test
+	public void getObs_shouldReturnTheImageForTheRawView() throws IOException {
+		Obs obs = saveLargeImage();
+		
+		Obs complexObs = handler.getObs(obs, ComplexObsHandler.RAW_VIEW);
+		
+		BufferedImage image = (BufferedImage) complexObs.getComplexData().getData();
+		assertEquals(800, image.getWidth());
+		assertEquals(400, image.getHeight());
+		assertEquals("image/png", complexObs.getComplexData().getMimeType());
+	}
+	
+	@Test
+	public void getObs_shouldReuseTheThumbnailGeneratedForAnEarlierView() throws IOException {
+		Obs obs = saveLargeImage();
+		handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW);
+		File thumbnail = getThumbnailFile(obs);
+		assertTrue(thumbnail.exists());
+		
+		thumbnail.setLastModified(0);
+		handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW);
+		
+		assertEquals(0, thumbnail.lastModified());
+	}
+	
+	@Test
+	public void getComplexDataStream_shouldReportTheMimeTypeOfTheDerivativeForTheThumbnailView() throws IOException {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		// a bmp image under an extension no image writer knows, so its thumbnail is stored as png
+		File file = complexObsTestFolder.resolve("scan.dat").toFile();
+		ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "bmp", file);
+		Obs obs = new Obs();
+		obs.setValueComplex("dat image |scan.dat");
+		
+		try (ComplexDataStream raw = handler.getComplexDataStream(obs, ComplexObsHandler.RAW_VIEW);
+		        ComplexDataStream thumbnail = handler.getComplexDataStream(obs, ComplexObsHandler.THUMBNAIL_VIEW)) {
+			assertEquals("image/bmp", raw.getMimeType());
+			assertEquals("image/png", thumbnail.getMimeType());
+			assertEquals(new File(file.getPath() + ".200px.png").length(), thumbnail.getLength());
+		}
+	}
+	
+	@Test
+	public void getImageMetadata_shouldReturnTheDimensionsOfASavedImage() throws IOException {
+		Obs obs = saveLargeImage();
+		
+		ImageHandler.ImageMetadata metadata = handler.getImageMetadata(obs);
+		
+		assertEquals("image/png", metadata.getMimeType());
+		assertEquals(800, metadata.getWidth());
+		assertEquals(400, metadata.getHeight());
+	}
+	
+	@Test
+	public void purgeComplexData_shouldDeleteTheThumbnailAndMetadataOfTheImage() throws IOException {
+		Obs obs = saveLargeImage();
+		handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW);
+		File file = ImageHandler.getComplexDataFile(obs);
+		
+		assertTrue(handler.purgeComplexData(obs));
+		
+		assertFalse(file.exists());
+		assertFalse(getThumbnailFile(obs).exists());
+		assertEquals(0, file.getParentFile().list().length);
+	}
+	
+	@Test
+	public void purgeComplexData_shouldDeleteDerivativesMadeForOtherSizes() throws IOException {
+		Obs obs = saveLargeImage();
+		handler.setDerivativeSizes(Collections.singletonMap(ComplexObsHandler.THUMBNAIL_VIEW, 100));
+		handler.getObs(obs, ComplexObsHandler.THUMBNAIL_VIEW);
+		File file = ImageHandler.getComplexDataFile(obs);
+		assertTrue(new File(file.getParentFile(), file.getName() + ".100px.png").exists());
+		
+		assertTrue(new ImageHandler().purgeComplexData(obs));
+		
+		assertEquals(0, file.getParentFile().list().length);
+	}
+	
+	@Test
+	public void purgeComplexData_shouldNotDeleteOtherFilesInTheDirectory() throws IOException {
+		Obs obs = saveLargeImage();
+		File file = ImageHandler.getComplexDataFile(obs);
+		File other = new File(file.getParentFile(), file.getName() + ".backup");
+		Files.createFile(other.toPath());
+		
+		assertTrue(handler.purgeComplexData(obs));
+		
+		assertFalse(file.exists());
+		assertTrue(other.exists());
+	}
+	
+	private Obs saveLargeImage() {
+		adminService.saveGlobalProperty(new GlobalProperty(OpenmrsConstants.GLOBAL_PROPERTY_COMPLEX_OBS_DIR,
+		        complexObsTestFolder.toAbsolutePath().toString()));
+		Obs obs = new Obs();
+		obs.setComplexData(new ComplexData("TestingThumbnail.png", new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB)));
+		return handler.saveObs(obs);
+	}
+	
+	private File getThumbnailFile(Obs obs) {
+		File file = ImageHandler.getComplexDataFile(obs);
+		return new File(file.getParentFile(), file.getName() + ".200px.png");
+	}
 }
@@ -10,11 +10,15 @@
 package org.openmrs.scheduler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Properties;
 
 import org.junit.jupiter.api.Test;
+import org.openmrs.scheduler.executor.ExecutorSchedulerServiceImpl;
+import org.openmrs.scheduler.timer.TimerSchedulerServiceImpl;
 
 public class SchedulerUtilTest {
 	
@@ -48,4 +52,28 @@ public class SchedulerUtilTest {
 		
 	}
 	
+	/**
+	 * @see SchedulerUtil#createSchedulerService(Properties)
+	 */
+	@Test
+	public void createSchedulerService_shouldCreateTheTimerSchedulerByDefault() {
+		assertEquals(TimerSchedulerServiceImpl.class, SchedulerUtil.createSchedulerService(new Properties()).getClass());
+	}
+	
+	/**
+	 * @see SchedulerUtil#createSchedulerService(Properties)
+	 */
+	@Test
+	public void createSchedulerService_shouldCreateTheExecutorSchedulerWithTheConfiguredPoolSize() {
+		Properties properties = new Properties();
+		properties.setProperty(SchedulerConstants.SCHEDULER_IMPLEMENTATION_RUNTIME_PROPERTY,
+		    SchedulerConstants.SCHEDULER_IMPLEMENTATION_EXECUTOR);
+		properties.setProperty(SchedulerConstants.SCHEDULER_POOL_SIZE_RUNTIME_PROPERTY, "8");
+		
+		SchedulerService schedulerService = SchedulerUtil.createSchedulerService(properties);
+		
+		assertTrue(schedulerService instanceof ExecutorSchedulerServiceImpl);
+		assertEquals(8, ((ExecutorSchedulerServiceImpl) schedulerService).getPoolSize());
+	}
+	
 }
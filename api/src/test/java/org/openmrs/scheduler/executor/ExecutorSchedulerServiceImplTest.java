@@ -0,0 +1,172 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openmrs.scheduler.SchedulerException;
+import org.openmrs.scheduler.Task;
+import org.openmrs.scheduler.TaskDefinition;
+import org.openmrs.scheduler.TaskExecutionStatistics;
+import org.openmrs.scheduler.db.SchedulerDAO;
+import org.openmrs.scheduler.tasks.AbstractTask;
+import org.openmrs.test.jupiter.BaseContextSensitiveTest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+public class ExecutorSchedulerServiceImplTest extends BaseContextSensitiveTest {
+
+	private static final long TIMEOUT_SECONDS = 30;
+
+	private static volatile CountDownLatch started;
+
+	private static volatile CountDownLatch release;
+
+	private static volatile String threadName;
+
+	@Autowired
+	private SchedulerDAO schedulerDAO;
+
+	private ExecutorSchedulerServiceImpl schedulerService;
+
+	@BeforeEach
+	public void createSchedulerService() {
+		started = new CountDownLatch(1);
+		release = new CountDownLatch(0);
+		threadName = null;
+		schedulerService = new ExecutorSchedulerServiceImpl();
+		schedulerService.setSchedulerDAO(schedulerDAO);
+		schedulerService.setPoolSize(2);
+	}
+
+	@AfterEach
+	public void shutdownSchedulerService() {
+		release.countDown();
+		schedulerService.onShutdown();
+	}
+
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldRunTheTaskOnTheExecutor() throws Exception {
+		TaskDefinition taskDefinition = createTaskDefinition();
+
+		Task task = schedulerService.scheduleTask(taskDefinition);
+
+		assertNotNull(task);
+		assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertTrue(threadName.startsWith("OpenMRS Scheduler-"), threadName);
+		assertTrue(taskDefinition.getStarted());
+		TaskExecutionStatistics statistics = awaitExecutions(1);
+		assertEquals(taskDefinition.getId(), statistics.getTaskId());
+		assertEquals(0, statistics.getFailureCount());
+		assertNotNull(statistics.getLastExecutionStart());
+	}
+
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldHandleZeroRepeatInterval() throws Exception {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		taskDefinition.setStartTime(new Date());
+		taskDefinition.setRepeatInterval(0L);
+
+		assertNotNull(schedulerService.scheduleTask(taskDefinition));
+		assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * @see ExecutorSchedulerServiceImpl#scheduleTask(TaskDefinition)
+	 */
+	@Test
+	public void scheduleTask_shouldSkipTheTaskWhileThePreviousExecutionIsRunning() throws Exception {
+		release = new CountDownLatch(1);
+		TaskDefinition taskDefinition = createTaskDefinition();
+		schedulerService.scheduleTask(taskDefinition);
+		assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		assertEquals("Currently executing", schedulerService.getStatus(taskDefinition.getId()));
+
+		started = new CountDownLatch(1);
+		schedulerService.rescheduleTask(taskDefinition);
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+		while (getStatistics().getSkippedCount() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+
+		assertEquals(1, getStatistics().getSkippedCount());
+		assertEquals(1, awaitExecutions(1).getExecutionCount());
+		assertEquals(1, started.getCount());
+	}
+
+	/**
+	 * @see ExecutorSchedulerServiceImpl#shutdownTask(TaskDefinition)
+	 */
+	@Test
+	public void shutdownTask_shouldStopTheTask() throws SchedulerException {
+		TaskDefinition taskDefinition = createTaskDefinition();
+		taskDefinition.setRepeatInterval(3600L);
+		schedulerService.scheduleTask(taskDefinition);
+		assertEquals(1, schedulerService.getScheduledTasks().size());
+
+		schedulerService.shutdownTask(taskDefinition);
+
+		assertEquals(0, schedulerService.getScheduledTasks().size());
+		assertEquals("Not Running", schedulerService.getStatus(taskDefinition.getId()));
+	}
+
+	private TaskDefinition createTaskDefinition() {
+		TaskDefinition taskDefinition = new TaskDefinition();
+		taskDefinition.setName("LatchTask");
+		taskDefinition.setTaskClass(LatchTask.class.getName());
+		taskDefinition.setStartOnStartup(false);
+		return taskDefinition;
+	}
+
+	private TaskExecutionStatistics getStatistics() {
+		return schedulerService.getTaskExecutionStatistics().get(0);
+	}
+
+	private TaskExecutionStatistics awaitExecutions(long executions) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+		while (System.currentTimeMillis() < deadline) {
+			if (!schedulerService.getTaskExecutionStatistics().isEmpty() && getStatistics().getExecutionCount() >= executions) {
+				break;
+			}
+			Thread.sleep(10);
+		}
+		return getStatistics();
+	}
+
+	public static class LatchTask extends AbstractTask {
+
+		@Override
+		public void execute() {
+			threadName = Thread.currentThread().getName();
+			started.countDown();
+			try {
+				release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.scheduler.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openmrs.obs.handler.AbstractHandler;
+
+public class ShardComplexObsDirTaskTest {
+
+	private static final String UUID = "9b6639b2-5785-4603-a364-075c2d61cd51";
+
+	@TempDir
+	public Path complexObsDir;
+
+	/**
+	 * @see ShardComplexObsDirTask#moveFiles(java.io.File, int, int)
+	 */
+	@Test
+	public void moveFiles_shouldMoveFilesIntoTheirSubdirectories() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			Files.write(complexObsDir.resolve("file" + i + ".txt"), ("content" + i).getBytes(StandardCharsets.UTF_8));
+		}
+		Files.write(complexObsDir.resolve("image_" + UUID + ".png"), new byte[] { 1 });
+		Files.write(complexObsDir.resolve("image_" + UUID + ".png.properties"), new byte[] { 2 });
+
+		int moved = new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 2, 1000);
+
+		assertEquals(7, moved);
+		for (int i = 0; i < 5; i++) {
+			String name = "file" + i + ".txt";
+			assertFalse(Files.exists(complexObsDir.resolve(name)));
+			assertEquals("content" + i, new String(
+			        Files.readAllBytes(complexObsDir.resolve(AbstractHandler.getShardedPath(name, 2))), StandardCharsets.UTF_8));
+		}
+		assertTrue(Files.exists(complexObsDir.resolve("9b/66/image_" + UUID + ".png")));
+		assertTrue(Files.exists(complexObsDir.resolve("9b/66/image_" + UUID + ".png.properties")));
+		assertEquals(0, new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 2, 1000));
+	}
+
+	/**
+	 * @see ShardComplexObsDirTask#moveFiles(java.io.File, int, int)
+	 */
+	@Test
+	public void moveFiles_shouldNotOverwriteFilesAlreadyInTheirSubdirectory() throws IOException {
+		String name = UUID + ".txt";
+		Path sharded = complexObsDir.resolve("9b/66/" + name);
+		Files.createDirectories(sharded.getParent());
+		Files.write(sharded, "new".getBytes(StandardCharsets.UTF_8));
+		Files.write(complexObsDir.resolve(name), "old".getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(0, new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 2, 1000));
+
+		assertEquals("new", new String(Files.readAllBytes(sharded), StandardCharsets.UTF_8));
+		assertTrue(Files.exists(complexObsDir.resolve(name)));
+	}
+	
+	/**
+	 * @see ShardComplexObsDirTask#moveFiles(java.io.File, int, int)
+	 */
+	@Test
+	public void moveFiles_shouldMoveFilesBetweenAnyNumbersOfLevels() throws IOException {
+		String name = "image_" + UUID + ".png";
+		Path deep = complexObsDir.resolve("9b/66/39/" + name);
+		Files.createDirectories(deep.getParent());
+		Files.write(deep, new byte[] { 1 });
+
+		assertEquals(1, new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 1, 1000));
+		assertTrue(Files.exists(complexObsDir.resolve("9b/" + name)));
+		assertFalse(Files.exists(complexObsDir.resolve("9b/66")));
+
+		assertEquals(1, new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 0, 1000));
+		assertTrue(Files.exists(complexObsDir.resolve(name)));
+		assertFalse(Files.exists(complexObsDir.resolve("9b")));
+	}
+	
+	/**
+	 * @see ShardComplexObsDirTask#moveFiles(java.io.File, int, int)
+	 */
+	@Test
+	public void moveFiles_shouldMoveAtMostBatchSizeFiles() throws IOException {
+		for (int i = 0; i < 5; i++) {
+			Files.write(complexObsDir.resolve("file" + i + ".txt"), new byte[] { 1 });
+		}
+
+		ShardComplexObsDirTask task = new ShardComplexObsDirTask();
+		assertEquals(2, task.moveFiles(complexObsDir.toFile(), 2, 2));
+		assertEquals(2, task.moveFiles(complexObsDir.toFile(), 2, 2));
+		assertEquals(1, task.moveFiles(complexObsDir.toFile(), 2, 2));
+		assertEquals(0, task.moveFiles(complexObsDir.toFile(), 2, 2));
+		for (int i = 0; i < 5; i++) {
+			assertTrue(Files.exists(complexObsDir.resolve(AbstractHandler.getShardedPath("file" + i + ".txt", 2))));
+		}
+	}
+	
+	/**
+	 * @see ShardComplexObsDirTask#moveFiles(java.io.File, int, int)
+	 */
+	@Test
+	public void moveFiles_shouldNotMoveFilesFromUnrelatedSubdirectories() throws IOException {
+		Path other = complexObsDir.resolve("backup/" + UUID + ".txt");
+		Files.createDirectories(other.getParent());
+		Files.write(other, new byte[] { 1 });
+
+		assertEquals(0, new ShardComplexObsDirTask().moveFiles(complexObsDir.toFile(), 2, 1000));
+		assertTrue(Files.exists(other));
+	}
+}
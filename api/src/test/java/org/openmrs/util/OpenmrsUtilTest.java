@@ -18,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -541,6 +542,84 @@ public class OpenmrsUtilTest extends BaseContextSensitiveTest {
 		
 	}
 	
+	/**
+	 * @see OpenmrsUtil#getDateFormatter(Locale)
+	 */
+	@Test
+	public void getDateFormatter_shouldUseTheSamePatternAsTheDateFormat() {
+		Date date = new Date(1008806400000L);
+		for (Locale locale : new Locale[] { Locale.US, Locale.UK, Locale.GERMAN, new Locale("pt", "pt") }) {
+			assertEquals(OpenmrsUtil.getDateFormat(locale).format(date), OpenmrsUtil.formatDate(date, locale));
+		}
+	}
+	
+	/**
+	 * @see OpenmrsUtil#getDateFormatter(Locale)
+	 */
+	@Test
+	public void getDateFormatter_shouldReturnTheSameInstanceForTheSameLocale() {
+		assertSame(OpenmrsUtil.getDateFormatter(Locale.UK), OpenmrsUtil.getDateFormatter(Locale.UK));
+	}
+	
+	/**
+	 * @see OpenmrsUtil#getTimeFormatter(Locale)
+	 */
+	@Test
+	public void getTimeFormatter_shouldUseTheSamePatternAsTheTimeFormat() {
+		Date date = new Date(1008852300000L);
+		for (Locale locale : new Locale[] { Locale.US, Locale.UK, Locale.GERMAN }) {
+			assertEquals(OpenmrsUtil.getTimeFormat(locale).format(date), OpenmrsUtil.formatTime(date, locale));
+		}
+	}
+	
+	/**
+	 * @see OpenmrsUtil#getDateTimeFormatter(Locale)
+	 */
+	@Test
+	public void getDateTimeFormatter_shouldUseTheSamePatternAsTheDatetimeFormat() {
+		Date date = new Date(1008852300000L);
+		assertEquals(OpenmrsUtil.getDateTimeFormat(Locale.UK).format(date), OpenmrsUtil.formatDateTime(date, Locale.UK));
+		assertEquals(OpenmrsUtil.getDateTimeFormat(Locale.US).format(date), OpenmrsUtil.formatDateTime(date, Locale.US));
+	}
+	
+	/**
+	 * @see OpenmrsUtil#parseDate(String, Locale)
+	 */
+	@Test
+	public void parseDate_shouldParseAValidDate() throws ParseException {
+		assertEquals(OpenmrsUtil.getDateFormat(Locale.UK).parse("20/12/2001"), OpenmrsUtil.parseDate("20/12/2001",
+		    Locale.UK));
+		assertEquals(OpenmrsUtil.getDateFormat(Locale.US).parse("12/20/2001"), OpenmrsUtil.parseDate("12/20/2001",
+		    Locale.US));
+	}
+	
+	/**
+	 * @see OpenmrsUtil#parseDate(String, Locale)
+	 */
+	@Test
+	public void parseDate_shouldAllowSingleDigitDaysAndMonths() throws ParseException {
+		assertEquals(OpenmrsUtil.getDateFormat(Locale.ENGLISH).parse("1/1/2001"), OpenmrsUtil.parseDate("1/1/2001",
+		    Locale.ENGLISH));
+	}
+	
+	/**
+	 * @see OpenmrsUtil#parseDate(String, Locale)
+	 */
+	@Test
+	public void parseDate_shouldFailOnADateWithATwoDigitYear() {
+		assertThrows(ParseException.class, () -> OpenmrsUtil.parseDate("01/01/01", Locale.ENGLISH));
+	}
+	
+	/**
+	 * @see OpenmrsUtil#parseDate(String, Locale)
+	 */
+	@Test
+	public void parseDate_shouldFailOnADateWithAnInvalidDayOrMonth() {
+		assertThrows(ParseException.class, () -> OpenmrsUtil.parseDate("1/13/2001", Locale.UK));
+		assertThrows(ParseException.class, () -> OpenmrsUtil.parseDate("32/1/2001", Locale.UK));
+		assertThrows(ParseException.class, () -> OpenmrsUtil.parseDate("31/02/2001", Locale.UK));
+	}
+	
 	/**
 	 * @see OpenmrsUtil#shortenedStackTrace(String)
 	 */
@@ -9,8 +9,10 @@
  */
 package org.openmrs.validator;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.AdditionalMatchers.aryEq;
@@ -20,12 +22,16 @@ import static org.openmrs.api.context.Context.getAuthenticatedUser;
 import static org.openmrs.api.context.Context.getPatientService;
 import static org.openmrs.validator.PatientIdentifierValidator.validateIdentifier;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Locale;
+import java.util.Map;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.openmrs.Location;
+import org.openmrs.Patient;
 import org.openmrs.PatientIdentifier;
 import org.openmrs.PatientIdentifierType;
 import org.openmrs.PatientIdentifierType.UniquenessBehavior;
@@ -185,6 +191,93 @@ public class PatientIdentifierValidatorTest extends BaseContextSensitiveTest {
 		PatientIdentifierValidator.validateIdentifier(pi);
 	}
 	
+	/**
+	 * @see PatientIdentifierValidator#checkIdentifiersNotInUse(java.util.Collection)
+	 */
+	@Test
+	public void checkIdentifiersNotInUse_shouldFailValidationIfAnotherPatientHasOneOfTheIdentifiers() {
+		PatientIdentifierType idType = Context.getPatientService().getPatientIdentifierType(1);
+		PatientIdentifier notInUse = new PatientIdentifier("Nobody could possibly have this identifier", idType, null);
+		PatientIdentifier inUse = new PatientIdentifier("101-6", idType, null);
+		
+		IdentifierNotUniqueException e = assertThrows(IdentifierNotUniqueException.class,
+		    () -> PatientIdentifierValidator.checkIdentifiersNotInUse(Arrays.asList(notInUse, inUse)));
+		assertSame(inUse, e.getPatientIdentifier());
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#checkIdentifiersNotInUse(java.util.Collection)
+	 */
+	@Test
+	public void checkIdentifiersNotInUse_shouldPassIfInUseAndIdTypeUniquenessIsSetToNonUnique() {
+		PatientService patientService = Context.getPatientService();
+		PatientIdentifier duplicateId = patientService.getPatientIdentifier(1);
+		
+		PatientIdentifierType idType = duplicateId.getIdentifierType();
+		idType.setUniquenessBehavior(UniquenessBehavior.NON_UNIQUE);
+		patientService.savePatientIdentifierType(idType);
+		
+		PatientIdentifier pi = new PatientIdentifier(duplicateId.getIdentifier(), idType, duplicateId.getLocation());
+		PatientIdentifierValidator.checkIdentifiersNotInUse(Collections.singletonList(pi));
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#getIdentifiersNotUnique(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersNotUnique_shouldReturnTheIdentifiersInUseByAnotherPatient() {
+		PatientIdentifierType idType = Context.getPatientService().getPatientIdentifierType(1);
+		PatientIdentifier notInUse = new PatientIdentifier("Nobody could possibly have this identifier", idType, null);
+		notInUse.setPatient(new Patient());
+		PatientIdentifier inUse = new PatientIdentifier("101-6", idType, null);
+		inUse.setPatient(new Patient());
+		
+		Map<PatientIdentifier, IdentifierNotUniqueException> notUnique = PatientIdentifierValidator
+		        .getIdentifiersNotUnique(Arrays.asList(notInUse, inUse));
+		
+		assertEquals(Collections.singleton(inUse), notUnique.keySet());
+		assertSame(inUse, notUnique.get(inUse).getPatientIdentifier());
+	}
+	
+	/**
+	 * @see PatientIdentifierValidator#getIdentifiersNotUnique(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersNotUnique_shouldReturnTheIdentifiersEqualToAnEarlierIdentifierOfAnotherPatient() {
+		PatientIdentifierType idType = Context.getPatientService().getPatientIdentifierType(2);
+		Location location = Context.getLocationService().getLocation(1);
+		Patient patient = new Patient();
+		PatientIdentifier first = new PatientIdentifier("Only used in this batch", idType, location);
+		first.setPatient(patient);
+		PatientIdentifier sameForSamePatient = new PatientIdentifier("Only used in this batch", idType, location);
+		sameForSamePatient.setPatient(patient);
+		PatientIdentifier sameForOtherPatient = new PatientIdentifier("Only used in this batch", idType, location);
+		sameForOtherPatient.setPatient(new Patient());
+		
+		Map<PatientIdentifier, IdentifierNotUniqueException> notUnique = PatientIdentifierValidator
+		        .getIdentifiersNotUnique(Arrays.asList(first, sameForSamePatient, sameForOtherPatient));
+		
+		assertEquals(Collections.singleton(sameForOtherPatient), notUnique.keySet());
+	}
+
+	/**
+	 * @see PatientIdentifierValidator#getIdentifiersNotUnique(java.util.Collection)
+	 */
+	@Test
+	public void getIdentifiersNotUnique_shouldIgnoreCaseWhenComparingIdentifiersOfTheGivenPatients() {
+		PatientIdentifierType idType = Context.getPatientService().getPatientIdentifierType(2);
+		Location location = Context.getLocationService().getLocation(1);
+		PatientIdentifier first = new PatientIdentifier("Only used in this batch", idType, location);
+		first.setPatient(new Patient());
+		PatientIdentifier otherCase = new PatientIdentifier("ONLY USED IN THIS BATCH", idType, location);
+		otherCase.setPatient(new Patient());
+		
+		Map<PatientIdentifier, IdentifierNotUniqueException> notUnique = PatientIdentifierValidator
+		        .getIdentifiersNotUnique(Arrays.asList(first, otherCase));
+		
+		assertEquals(Collections.singleton(otherCase), notUnique.keySet());
+	}
+	
 	/**
 	 * @see PatientIdentifierValidator#validateIdentifier(PatientIdentifier)
 	 */
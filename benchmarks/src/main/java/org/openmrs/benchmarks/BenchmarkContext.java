@@ -0,0 +1,190 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.dbunit.DatabaseUnitException;
+import org.dbunit.database.DatabaseConfig;
+import org.dbunit.database.DatabaseConnection;
+import org.dbunit.database.IDatabaseConnection;
+import org.dbunit.dataset.DataSetException;
+import org.dbunit.dataset.ReplacementDataSet;
+import org.dbunit.dataset.xml.FlatXmlDataSet;
+import org.dbunit.ext.h2.H2DataTypeFactory;
+import org.dbunit.operation.DatabaseOperation;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Environment;
+import org.hibernate.dialect.H2Dialect;
+import org.openmrs.ConceptName;
+import org.openmrs.Drug;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PersonAttribute;
+import org.openmrs.PersonName;
+import org.openmrs.api.context.Context;
+import org.openmrs.api.context.UsernamePasswordCredentials;
+import org.openmrs.module.ModuleConstants;
+import org.openmrs.util.OpenmrsClassLoader;
+import org.openmrs.util.OpenmrsConstants;
+import org.openmrs.util.OpenmrsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.support.ClassPathXmlApplicationContext;
+
+/**
+ * Starts the OpenMRS api against an embedded H2 database for benchmarking. The database is created
+ * from the hibernate mappings and filled with the same initial and standard datasets as the api
+ * tests, see org.openmrs.test.jupiter.BaseContextSensitiveTest.
+ */
+public class BenchmarkContext {
+
+	private static final Logger log = LoggerFactory.getLogger(BenchmarkContext.class);
+
+	private static final String[] CONFIG_LOCATIONS = { "classpath:applicationContext-service.xml",
+	        "classpath*:moduleApplicationContext.xml", "classpath*:TestingApplicationContext.xml" };
+
+	private static final String INITIAL_XML_DATASET_PACKAGE_PATH = "org/openmrs/include/initialInMemoryTestDataSet.xml";
+
+	private static final String EXAMPLE_XML_DATASET_PACKAGE_PATH = "org/openmrs/include/standardTestDataset.xml";
+
+	private static final String CONNECTION_URL = "jdbc:h2:mem:openmrs-benchmarks;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000;IGNORECASE=TRUE";
+
+	private ClassPathXmlApplicationContext applicationContext;
+
+	private File applicationDataDirectory;
+
+	/**
+	 * Creates the database, starts the application context and authenticates as the admin user on
+	 * the current thread
+	 *
+	 * @throws IOException if the application data directory cannot be created
+	 * @throws SQLException if the datasets cannot be loaded
+	 */
+	public void start() throws IOException, SQLException {
+		Thread.currentThread().setContextClassLoader(OpenmrsClassLoader.getInstance());
+
+		applicationDataDirectory = File.createTempFile("appdir-for-benchmarks-", "");
+		applicationDataDirectory.delete();
+		applicationDataDirectory.mkdir();
+
+		Context.setRuntimeProperties(getRuntimeProperties());
+		applicationContext = new ClassPathXmlApplicationContext(CONFIG_LOCATIONS);
+
+		Context.openSession();
+		Connection connection = getConnection();
+		try (Statement statement = connection.createStatement()) {
+			// see BaseContextSensitiveTest#initializeInMemoryDatabase
+			statement.execute("ALTER TABLE person ALTER COLUMN creator SET NULL");
+			statement.execute("ALTER TABLE concept ALTER COLUMN concept_id INT AUTO_INCREMENT");
+		}
+		executeDataSet(INITIAL_XML_DATASET_PACKAGE_PATH);
+		executeDataSet(EXAMPLE_XML_DATASET_PACKAGE_PATH);
+		connection.commit();
+
+		authenticate();
+		updateSearchIndex();
+		Context.closeSession();
+	}
+
+	/**
+	 * Opens a session on the current thread and authenticates as the admin user
+	 */
+	public void openSession() {
+		Context.openSession();
+		authenticate();
+	}
+
+	/**
+	 * Closes the session of the current thread
+	 */
+	public void closeSession() {
+		Context.closeSession();
+	}
+
+	/**
+	 * Rebuilds the lucene index of the types searched by name, should be called after generating
+	 * data
+	 */
+	public void updateSearchIndex() {
+		for (Class<?> indexType : new Class<?>[] { ConceptName.class, Drug.class, PersonName.class,
+		        PersonAttribute.class, PatientIdentifier.class }) {
+			Context.updateSearchIndexForType(indexType);
+		}
+	}
+
+	/**
+	 * Shuts down the application context and deletes the application data directory
+	 */
+	public void stop() {
+		if (applicationContext != null) {
+			applicationContext.close();
+		}
+		try {
+			FileUtils.deleteDirectory(applicationDataDirectory);
+		}
+		catch (IOException e) {
+			log.warn("Unable to delete {}", applicationDataDirectory, e);
+		}
+	}
+
+	private void authenticate() {
+		Context.authenticate(new UsernamePasswordCredentials("admin", "test"));
+	}
+
+	private Connection getConnection() {
+		SessionFactory sessionFactory = (SessionFactory) applicationContext.getBean("sessionFactory");
+		return sessionFactory.getCurrentSession().doReturningWork(connection -> connection);
+	}
+
+	private void executeDataSet(String datasetFilename) {
+		try (Reader reader = new InputStreamReader(getClass().getClassLoader().getResourceAsStream(datasetFilename),
+		        StandardCharsets.UTF_8)) {
+			ReplacementDataSet dataSet = new ReplacementDataSet(new FlatXmlDataSet(reader, false, true, false));
+			dataSet.addReplacementObject("[NULL]", null);
+
+			IDatabaseConnection dbUnitConn = new DatabaseConnection(getConnection());
+			dbUnitConn.getConfig().setProperty(DatabaseConfig.PROPERTY_DATATYPE_FACTORY, new H2DataTypeFactory());
+			DatabaseOperation.REFRESH.execute(dbUnitConn, dataSet);
+		}
+		catch (IOException | DataSetException e) {
+			throw new IllegalStateException("Unable to read the dataset " + datasetFilename, e);
+		}
+		catch (DatabaseUnitException | SQLException e) {
+			throw new IllegalStateException("Unable to load the dataset " + datasetFilename, e);
+		}
+	}
+
+	private Properties getRuntimeProperties() {
+		Properties props = new Properties();
+		props.setProperty(Environment.DIALECT, H2Dialect.class.getName());
+		props.setProperty(Environment.URL, CONNECTION_URL);
+		props.setProperty(Environment.DRIVER, "org.h2.Driver");
+		props.setProperty(Environment.USER, "sa");
+		props.setProperty(Environment.PASS, "");
+		props.setProperty("connection.username", "sa");
+		props.setProperty("connection.password", "");
+		props.setProperty("connection.url", CONNECTION_URL);
+		props.setProperty(Environment.HBM2DDL_AUTO, "create-drop");
+		props.setProperty(ModuleConstants.IGNORE_CORE_MODULES_PROPERTY, "true");
+		props.setProperty(OpenmrsConstants.APPLICATION_DATA_DIRECTORY_RUNTIME_PROPERTY,
+		    applicationDataDirectory.getAbsolutePath());
+		OpenmrsUtil.setApplicationDataDirectory(applicationDataDirectory.getAbsolutePath());
+		return props;
+	}
+}
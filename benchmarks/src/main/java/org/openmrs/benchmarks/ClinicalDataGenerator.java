@@ -0,0 +1,191 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.openmrs.Concept;
+import org.openmrs.Encounter;
+import org.openmrs.EncounterType;
+import org.openmrs.Location;
+import org.openmrs.Obs;
+import org.openmrs.Patient;
+import org.openmrs.PatientIdentifier;
+import org.openmrs.PatientIdentifierType;
+import org.openmrs.PersonName;
+import org.openmrs.api.context.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills the benchmark database with synthetic patients, encounters and numeric observations. The
+ * generated data only depends on the seed and the configured volumes, so two runs with the same
+ * parameters produce the same database and their results can be compared across commits.
+ */
+public class ClinicalDataGenerator {
+
+	private static final Logger log = LoggerFactory.getLogger(ClinicalDataGenerator.class);
+
+	/**
+	 * Prefix of the identifiers of all generated patients
+	 */
+	public static final String IDENTIFIER_PREFIX = "BM-";
+
+	private static final String[] GIVEN_NAMES = { "Amina", "Brian", "Chipo", "David", "Esther", "Faith", "Grace",
+	        "Hassan", "Irene", "John", "Kofi", "Lucy", "Moses", "Naledi", "Otieno", "Peter", "Rose", "Samuel", "Tendai",
+	        "Wanjiru" };
+
+	private static final String[] FAMILY_NAMES = { "Banda", "Chanda", "Dlamini", "Juma", "Kamau", "Mensah", "Moyo",
+	        "Mwangi", "Ndlovu", "Nkosi", "Odhiambo", "Okafor", "Phiri", "Sithole", "Tembo", "Wanjala" };
+
+	private static final int PATIENT_IDENTIFIER_TYPE_ID = 2;
+
+	private static final int LOCATION_ID = 1;
+
+	private static final int ENCOUNTER_TYPE_ID = 1;
+
+	/**
+	 * The numeric concept 'WEIGHT (KG)' of the standard test dataset
+	 */
+	private static final int NUMERIC_CONCEPT_ID = 5089;
+
+	private static final int BATCH_SIZE = 50;
+
+	/**
+	 * Birthdates are generated before and encounter dates up to this date, 2020-01-01
+	 */
+	private static final long LATEST_ENCOUNTER_DATE = 1577836800000L;
+
+	private final Random random;
+
+	private final int patients;
+
+	private final int encountersPerPatient;
+
+	private final int obsPerEncounter;
+
+	/**
+	 * @param seed the seed of the random generator
+	 * @param patients the number of patients to generate
+	 * @param encountersPerPatient the number of encounters to generate for each patient
+	 * @param obsPerEncounter the number of observations to generate for each encounter
+	 */
+	public ClinicalDataGenerator(long seed, int patients, int encountersPerPatient, int obsPerEncounter) {
+		this.random = new Random(seed);
+		this.patients = patients;
+		this.encountersPerPatient = encountersPerPatient;
+		this.obsPerEncounter = obsPerEncounter;
+	}
+
+	/**
+	 * Generates the data, requires an open session with an authenticated user
+	 *
+	 * @return the ids of the generated patients
+	 */
+	public List<Integer> generate() {
+		long start = System.currentTimeMillis();
+		List<Integer> patientIds = new ArrayList<>(patients);
+		for (int i = 0; i < patients; i++) {
+			Patient patient = Context.getPatientService().savePatient(newPatient(i));
+			patientIds.add(patient.getPatientId());
+			for (int j = 0; j < encountersPerPatient; j++) {
+				Context.getEncounterService().saveEncounter(newEncounter(patient));
+			}
+
+			if ((i + 1) % BATCH_SIZE == 0) {
+				Context.flushSession();
+				Context.clearSession();
+				log.info("Generated {} of {} patients", i + 1, patients);
+			}
+		}
+		Context.flushSession();
+		Context.clearSession();
+
+		log.info("Generated {} patients with {} encounters and {} obs each in {} ms", patients, encountersPerPatient,
+		    obsPerEncounter, System.currentTimeMillis() - start);
+		return patientIds;
+	}
+
+	/**
+	 * Creates a new encounter with numeric observations for the given patient, the encounter is not
+	 * saved
+	 *
+	 * @param patient the patient of the encounter
+	 * @return the encounter
+	 */
+	public Encounter newEncounter(Patient patient) {
+		Encounter encounter = new Encounter();
+		encounter.setPatient(patient);
+		encounter.setEncounterType(getEncounterType());
+		encounter.setLocation(getLocation());
+		encounter.setEncounterDatetime(randomDateAfter(patient.getBirthdate()));
+
+		Concept concept = Context.getConceptService().getConcept(NUMERIC_CONCEPT_ID);
+		for (int k = 0; k < obsPerEncounter; k++) {
+			Obs obs = new Obs();
+			obs.setPerson(patient);
+			obs.setConcept(concept);
+			obs.setObsDatetime(encounter.getEncounterDatetime());
+			obs.setLocation(encounter.getLocation());
+			obs.setValueNumeric(20 + random.nextInt(8000) / 100.0);
+			encounter.addObs(obs);
+		}
+		return encounter;
+	}
+
+	/**
+	 * @return a name which is likely to match generated patients when searching
+	 */
+	public String randomName() {
+		return FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)];
+	}
+
+	private Patient newPatient(int index) {
+		Patient patient = new Patient();
+		patient.setGender(random.nextBoolean() ? "M" : "F");
+		patient.setBirthdate(randomBirthdate());
+		patient.addName(new PersonName(GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)], null,
+		        FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)]));
+
+		PatientIdentifier identifier = new PatientIdentifier(IDENTIFIER_PREFIX + index, getIdentifierType(),
+		        getLocation());
+		identifier.setPreferred(true);
+		patient.addIdentifier(identifier);
+		return patient;
+	}
+
+	private Date randomBirthdate() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(1940 + random.nextInt(79), random.nextInt(12), 1 + random.nextInt(28), 0, 0, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		return calendar.getTime();
+	}
+
+	private Date randomDateAfter(Date date) {
+		long offset = (long) (random.nextDouble() * (LATEST_ENCOUNTER_DATE - date.getTime()));
+		return new Date(date.getTime() + offset);
+	}
+
+	private PatientIdentifierType getIdentifierType() {
+		return Context.getPatientService().getPatientIdentifierType(PATIENT_IDENTIFIER_TYPE_ID);
+	}
+
+	private Location getLocation() {
+		return Context.getLocationService().getLocation(LOCATION_ID);
+	}
+
+	private EncounterType getEncounterType() {
+		return Context.getEncounterService().getEncounterType(ENCOUNTER_TYPE_ID);
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Starts OpenMRS once per benchmark and fills the database with the configured volumes of
+ * synthetic clinical data. The volumes can be overridden on the command line, e.g.
+ * <code>-p patients=10000 -p encountersPerPatient=10</code>.
+ */
+@State(Scope.Benchmark)
+public class ClinicalDataState {
+
+	@Param("1000")
+	public int patients;
+
+	@Param("5")
+	public int encountersPerPatient;
+
+	@Param("5")
+	public int obsPerEncounter;
+
+	@Param("42")
+	public long seed;
+
+	public BenchmarkContext context;
+
+	public ClinicalDataGenerator generator;
+
+	public List<Integer> patientIds;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		context = new BenchmarkContext();
+		context.start();
+
+		generator = new ClinicalDataGenerator(seed, patients, encountersPerPatient, obsPerEncounter);
+		context.openSession();
+		try {
+			patientIds = generator.generate();
+			context.updateSearchIndex();
+		}
+		finally {
+			context.closeSession();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.stop();
+	}
+}
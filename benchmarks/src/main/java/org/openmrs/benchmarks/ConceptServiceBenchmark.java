@@ -0,0 +1,39 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openmrs.ConceptSearchResult;
+import org.openmrs.api.context.Context;
+
+/**
+ * Benchmarks the concept search by name as used by typeahead widgets
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConceptServiceBenchmark {
+
+	@Benchmark
+	public List<ConceptSearchResult> getConcepts(ClinicalDataState data, SessionState session) {
+		return Context.getConceptService().getConcepts("WEIGHT", Locale.ENGLISH, false);
+	}
+
+	@Benchmark
+	public List<ConceptSearchResult> getConceptsByPrefix(ClinicalDataState data, SessionState session) {
+		return Context.getConceptService().getConcepts("W", Locale.ENGLISH, false);
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openmrs.User;
+import org.openmrs.api.PatientService;
+import org.openmrs.api.context.Context;
+import org.openmrs.util.PrivilegeConstants;
+
+/**
+ * Benchmarks the service lookup and the privilege check which are performed on every api call
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ContextBenchmark {
+
+	@Benchmark
+	public PatientService getService(ClinicalDataState data, SessionState session) {
+		return Context.getService(PatientService.class);
+	}
+
+	@Benchmark
+	public boolean hasPrivilege(ClinicalDataState data, SessionState session) {
+		return Context.hasPrivilege(PrivilegeConstants.GET_PATIENTS);
+	}
+
+	/**
+	 * The authenticated admin user is a super user, this checks the privileges of a user with a
+	 * regular role which requires walking the role hierarchy
+	 */
+	@Benchmark
+	public boolean userHasPrivilege(ProviderUser providerUser) {
+		return providerUser.user.hasPrivilege(PrivilegeConstants.GET_PATIENTS);
+	}
+
+	/**
+	 * Holds the user 'bruno' of the standard test dataset who has the 'Provider' role
+	 */
+	@State(Scope.Thread)
+	public static class ProviderUser {
+
+		private static final int USER_ID = 501;
+
+		private User user;
+
+		@Setup(Level.Iteration)
+		public void loadUser(ClinicalDataState data, SessionState session) {
+			user = Context.getUserService().getUser(USER_ID);
+			user.getAllRoles();
+		}
+	}
+}
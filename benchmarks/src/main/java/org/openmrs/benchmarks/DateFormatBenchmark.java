@@ -0,0 +1,56 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openmrs.util.OpenmrsUtil;
+
+/**
+ * Compares formatting with the cloned SimpleDateFormat and the cached DateTimeFormatter of a
+ * locale, run with -prof gc to see the allocation per call. Does not need a database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateFormatBenchmark {
+
+	private final Date date = new Date(1008852300000L);
+
+	private final Locale locale = Locale.UK;
+
+	@Benchmark
+	public String formatDateWithSimpleDateFormat() {
+		return OpenmrsUtil.getDateFormat(locale).format(date);
+	}
+
+	@Benchmark
+	public String formatDateWithDateTimeFormatter() {
+		return OpenmrsUtil.formatDate(date, locale);
+	}
+
+	@Benchmark
+	public String formatDateTimeWithSimpleDateFormat() {
+		return OpenmrsUtil.getDateTimeFormat(locale).format(date);
+	}
+
+	@Benchmark
+	public String formatDateTimeWithDateTimeFormatter() {
+		return OpenmrsUtil.formatDateTime(date, locale);
+	}
+}
@@ -0,0 +1,38 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openmrs.Patient;
+import org.openmrs.api.context.Context;
+
+/**
+ * Benchmarks the patient search by name and identifier
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientServiceBenchmark {
+
+	@Benchmark
+	public List<Patient> getPatientsByName(ClinicalDataState data, SessionState session) {
+		return Context.getPatientService().getPatients(data.generator.randomName(), 0, 50);
+	}
+
+	@Benchmark
+	public List<Patient> getPatientsByIdentifier(ClinicalDataState data, SessionState session) {
+		return Context.getPatientService().getPatients(ClinicalDataGenerator.IDENTIFIER_PREFIX + (data.patients / 2));
+	}
+}
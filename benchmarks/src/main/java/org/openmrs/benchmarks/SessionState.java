@@ -0,0 +1,44 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openmrs.api.context.Context;
+
+/**
+ * Opens an authenticated OpenMRS session on each benchmark thread, the session is cleared after
+ * every iteration so that the first level cache does not grow across iterations.
+ */
+@State(Scope.Thread)
+public class SessionState {
+
+	private BenchmarkContext context;
+
+	@Setup(Level.Trial)
+	public void openSession(ClinicalDataState data) {
+		context = data.context;
+		context.openSession();
+	}
+
+	@TearDown(Level.Iteration)
+	public void clearSession() {
+		Context.flushSession();
+		Context.clearSession();
+	}
+
+	@TearDown(Level.Trial)
+	public void closeSession() {
+		context.closeSession();
+	}
+}
@@ -10,20 +10,39 @@
 package org.openmrs.module.web;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.lang3.StringUtils;
 import org.openmrs.module.Module;
+import org.openmrs.module.ModuleFactory;
 import org.openmrs.module.ModuleUtil;
-import org.openmrs.util.OpenmrsUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Serves the files in the resources folder of the web part of started modules. The files a request
+ * path resolves to are cached until a module is started or stopped. Responses carry an ETag and
+ * Last-Modified header, conditional requests are answered with 304 Not Modified and single byte
+ * ranges are supported. How long browsers may cache the files is configured with the
+ * {@value #INIT_PARAM_CACHE_MAX_AGE} and {@value #INIT_PARAM_VERSIONED_CACHE_MAX_AGE} init
+ * parameters in seconds, the latter applies to requests with a query string, which modules add to
+ * the urls of resources that change with their version.
+ */
 public class ModuleResourcesServlet extends HttpServlet {
 	
 	private static final String MODULE_PATH = "/WEB-INF/view/module/";
@@ -33,25 +52,79 @@ public class ModuleResourcesServlet extends HttpServlet {
 	private static final Logger log = LoggerFactory.getLogger(ModuleResourcesServlet.class);
 	
 	/**
-	 * Used for caching purposes
+	 * the init parameter with the seconds browsers may cache a resource before checking whether it
+	 * changed, 0 by default so that they always check
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String INIT_PARAM_CACHE_MAX_AGE = "cacheMaxAge";
+	
+	/**
+	 * the init parameter with the seconds browsers may cache a resource requested with a query
+	 * string, a year by default
+	 *
+	 * @since 2.7.0
+	 */
+	public static final String INIT_PARAM_VERSIONED_CACHE_MAX_AGE = "versionedCacheMaxAge";
+	
+	private static final long DEFAULT_VERSIONED_CACHE_MAX_AGE = 365L * 24 * 60 * 60;
+	
+	private static final int MAX_RESOLVED_PATHS = 10000;
+	
+	/**
+	 * files smaller than this are copied, since handing them to the container to be sent is no faster
+	 */
+	private static final long MIN_SENDFILE_SIZE = 48 * 1024;
+	
+	private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+	
+	private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+	
+	private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+	
+	private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+	
+	/**
+	 * the files by request path, only the paths of existing files are cached
+	 */
+	private static final Map<String, ResolvedResource> resolvedPaths = new ConcurrentHashMap<>();
+	
+	private long cacheMaxAge = 0;
+	
+	private long versionedCacheMaxAge = DEFAULT_VERSIONED_CACHE_MAX_AGE;
+	
+	@Override
+	public void init() throws ServletException {
+		cacheMaxAge = getSecondsInitParameter(INIT_PARAM_CACHE_MAX_AGE, cacheMaxAge);
+		versionedCacheMaxAge = getSecondsInitParameter(INIT_PARAM_VERSIONED_CACHE_MAX_AGE, versionedCacheMaxAge);
+	}
+	
+	/**
+	 * Discards the files request paths resolved to, this is called when modules are started or
+	 * stopped
+	 *
+	 * @since 2.7.0
+	 */
+	public static void clearResolvedPaths() {
+		resolvedPaths.clear();
+	}
+	
+	/**
+	 * Returns -1 so that {@link #doGet(HttpServletRequest, HttpServletResponse)} evaluates the
+	 * conditional headers itself, the ETag is checked before the modification date and ranges are
+	 * taken into account
 	 *
 	 * @see javax.servlet.http.HttpServlet#getLastModified(javax.servlet.http.HttpServletRequest)
 	 */
 	@Override
 	protected long getLastModified(HttpServletRequest req) {
-		File f = getFile(req);
-		
-		if (f == null) {
-			return super.getLastModified(req);
-		}
-		
-		return f.lastModified();
+		return -1;
 	}
 	
 	@Override
 	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 		
-		log.debug("In service method for module servlet: " + request.getPathInfo());
+		log.debug("In service method for module servlet: {}", request.getPathInfo());
 		
 		File f = getFile(request);
 		if (f == null) {
@@ -59,17 +132,50 @@ public class ModuleResourcesServlet extends HttpServlet {
 			return;
 		}
 		
-		response.setDateHeader("Last-Modified", f.lastModified());
-		response.setContentLength(Long.valueOf(f.length()).intValue());
-		String mimeType = getServletContext().getMimeType(f.getName());
-		response.setContentType(mimeType);
-		
-		FileInputStream is = new FileInputStream(f);
+		BasicFileAttributes attributes;
 		try {
-			OpenmrsUtil.copyFile(is, response.getOutputStream());
+			attributes = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+		}
+		catch (NoSuchFileException e) {
+			resolvedPaths.remove(request.getPathInfo());
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		long length = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		String etag = getETag(length, lastModified);
+		
+		response.setHeader("ETag", etag);
+		response.setDateHeader("Last-Modified", lastModified);
+		response.setHeader("Cache-Control", getCacheControl(request));
+		response.setHeader("Accept-Ranges", "bytes");
+		
+		if (isNotModified(request, etag, lastModified)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		
+		ByteRange range = null;
+		String rangeHeader = request.getHeader("Range");
+		if (rangeHeader != null && isRangeCurrent(request, etag, lastModified)) {
+			range = ByteRange.parse(rangeHeader, length);
+			if (range == ByteRange.UNSATISFIABLE) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
 		}
-		finally {
-			OpenmrsUtil.closeStream(is);
+		if (range == null) {
+			range = new ByteRange(0, length - 1);
+		} else {
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + length);
+		}
+		
+		response.setContentLengthLong(range.getLength());
+		response.setContentType(getServletContext().getMimeType(f.getName()));
+		if (!"HEAD".equals(request.getMethod()) && range.getLength() > 0) {
+			sendFile(f, range, request, response);
 		}
 	}
 	
@@ -82,6 +188,14 @@ public class ModuleResourcesServlet extends HttpServlet {
 	protected File getFile(HttpServletRequest request) {
 		
 		String path = request.getPathInfo();
+		if (path == null) {
+			return null;
+		}
+		
+		ResolvedResource resolved = resolvedPaths.get(path);
+		if (resolved != null && ModuleFactory.isModuleStarted(resolved.module)) {
+			return resolved.file;
+		}
 		
 		Module module = ModuleUtil.getModuleForPath(path);
 		if (module == null) {
@@ -107,7 +221,200 @@ public class ModuleResourcesServlet extends HttpServlet {
 			return null;
 		}
 		
+		if (resolvedPaths.size() >= MAX_RESOLVED_PATHS) {
+			resolvedPaths.clear();
+		}
+		resolvedPaths.put(path, new ResolvedResource(module, f));
+		
 		return f;
 	}
 	
+	/**
+	 * Sends the given range of the file, by letting the container send it straight from the file
+	 * system if it supports this, otherwise by transferring it from the file channel to the response
+	 */
+	private void sendFile(File f, ByteRange range, HttpServletRequest request, HttpServletResponse response)
+	        throws IOException {
+		if (range.getLength() >= MIN_SENDFILE_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))
+		        && !(response instanceof ServletResponseWrapper)) {
+			request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, f.getAbsolutePath());
+			request.setAttribute(SENDFILE_START_ATTRIBUTE, range.start);
+			request.setAttribute(SENDFILE_END_ATTRIBUTE, range.end + 1);
+			return;
+		}
+		
+		try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = range.start;
+			long remaining = range.getLength();
+			while (remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, out);
+				if (transferred <= 0) {
+					break;
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+		}
+	}
+	
+	private String getCacheControl(HttpServletRequest request) {
+		long maxAge = StringUtils.isNotEmpty(request.getQueryString()) ? versionedCacheMaxAge : cacheMaxAge;
+		return maxAge > 0 ? "public, max-age=" + maxAge : "no-cache";
+	}
+	
+	private long getSecondsInitParameter(String name, long defaultValue) {
+		String value = getInitParameter(name);
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException e) {
+			log.warn("Ignoring the init parameter {} since '{}' is not a number of seconds", name, value);
+			return defaultValue;
+		}
+	}
+	
+	/**
+	 * @param length the length of the file
+	 * @param lastModified the modification time of the file
+	 * @return the ETag of a file with the given length and modification time
+	 */
+	static String getETag(long length, long lastModified) {
+		return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+	}
+	
+	/**
+	 * Checks the If-None-Match header, or the If-Modified-Since header if there is none
+	 *
+	 * @return true if the client has the current version of the file
+	 * <strong>Should</strong> return true if the If-None-Match header contains the etag
+	 * <strong>Should</strong> ignore If-Modified-Since if If-None-Match is given
+	 * <strong>Should</strong> return true if the file was not modified since If-Modified-Since
+	 */
+	static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (ifNoneMatch != null) {
+			for (String tag : ifNoneMatch.split(",")) {
+				tag = StringUtils.removeStart(tag.trim(), "W/");
+				if ("*".equals(tag) || etag.equals(tag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+		return ifModifiedSince >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+	}
+	
+	/**
+	 * Checks the If-Range header, a range is only sent if the client's copy is still current
+	 *
+	 * @return true if the Range header applies to the current version of the file
+	 * <strong>Should</strong> return false if If-Range has another etag
+	 */
+	static boolean isRangeCurrent(HttpServletRequest request, String etag, long lastModified) {
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange == null) {
+			return true;
+		}
+		ifRange = ifRange.trim();
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return etag.equals(ifRange);
+		}
+		long date = getDateHeader(request, "If-Range");
+		return date >= 0 && lastModified / 1000 == date / 1000;
+	}
+	
+	private static long getDateHeader(HttpServletRequest request, String name) {
+		try {
+			return request.getDateHeader(name);
+		}
+		catch (IllegalArgumentException e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * The module and file a request path resolved to
+	 */
+	private static final class ResolvedResource {
+		
+		private final Module module;
+		
+		private final File file;
+		
+		ResolvedResource(Module module, File file) {
+			this.module = module;
+			this.file = file;
+		}
+	}
+	
+	/**
+	 * An inclusive range of bytes of a file
+	 */
+	static final class ByteRange {
+		
+		static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+		
+		final long start;
+		
+		final long end;
+		
+		ByteRange(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+		
+		long getLength() {
+			return end - start + 1;
+		}
+		
+		/**
+		 * Parses a Range header with a single range, requests for several ranges are answered with
+		 * the whole file
+		 *
+		 * @param header the value of the Range header
+		 * @param length the length of the file
+		 * @return the range, {@link #UNSATISFIABLE} if it is outside of the file or null if the
+		 *         header is invalid or asks for several ranges
+		 * <strong>Should</strong> parse a range with a start and end
+		 * <strong>Should</strong> parse a suffix range
+		 * <strong>Should</strong> limit the end to the length of the file
+		 * <strong>Should</strong> return unsatisfiable for a range starting after the file
+		 * <strong>Should</strong> return null for several ranges
+		 */
+		static ByteRange parse(String header, long length) {
+			if (!header.startsWith("bytes=")) {
+				return null;
+			}
+			String spec = header.substring("bytes=".length()).trim();
+			int dash = spec.indexOf('-');
+			if (dash < 0 || spec.contains(",")) {
+				return null;
+			}
+			try {
+				if (dash == 0) {
+					long suffixLength = Long.parseLong(spec.substring(1).trim());
+					if (suffixLength <= 0 || length == 0) {
+						return UNSATISFIABLE;
+					}
+					return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+				}
+				long start = Long.parseLong(spec.substring(0, dash).trim());
+				String endSpec = spec.substring(dash + 1).trim();
+				long end = endSpec.isEmpty() ? length - 1 : Math.min(Long.parseLong(endSpec), length - 1);
+				if (start >= length) {
+					return UNSATISFIABLE;
+				}
+				return end < start ? null : new ByteRange(start, end);
+			}
+			catch (NumberFormatException e) {
+				return null;
+			}
+		}
+	}
 }
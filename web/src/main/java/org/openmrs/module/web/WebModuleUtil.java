@@ -22,6 +22,7 @@ import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -55,6 +56,7 @@ import javax.xml.transform.stream.StreamResult;
 import org.openmrs.api.APIException;
 import org.openmrs.api.context.Context;
 import org.openmrs.module.Module;
+import org.openmrs.module.ModuleBatch;
 import org.openmrs.module.ModuleException;
 import org.openmrs.module.ModuleFactory;
 import org.openmrs.module.ModuleUtil;
@@ -143,6 +145,9 @@ public class WebModuleUtil {
 			// of the web application context
 			boolean moduleNeedsContextRefresh = false;
 			
+			// the module's resources may be served from other files now
+			ModuleResourcesServlet.clearResolvedPaths();
+			
 			// copy the html files into the webapp (from /web/module/ in the module)
 			// also looks for a spring context file. If found, schedules spring to be restarted
 			JarFile jarFile = null;
@@ -368,6 +373,48 @@ public class WebModuleUtil {
 		return false;
 	}
 	
+	/**
+	 * Commits the given batch of module operations with a single refresh of the web application
+	 * context. The web resources of the stopped modules are removed and the ones of the started
+	 * modules copied before the refresh, their servlets and filters are loaded after it.
+	 *
+	 * @param batch the staged module operations
+	 * @param servletContext the current ServletContext
+	 * @return the outcome of the batch
+	 * @throws ModuleException if the operations cannot be applied, nothing is changed then
+	 * @see ModuleBatch#commit(ModuleBatch.Callback)
+	 * @since 2.7.0
+	 */
+	public static ModuleBatch.Result commitModuleBatch(ModuleBatch batch, final ServletContext servletContext)
+	        throws ModuleException {
+		return batch.commit(new ModuleBatch.Callback() {
+			
+			@Override
+			public void moduleStopped(Module module) {
+				stopModule(module, servletContext, true);
+			}
+			
+			@Override
+			public void moduleStarted(Module module) {
+				startModule(module, servletContext, true);
+			}
+			
+			@Override
+			public void refreshContext(Collection<Module> startedModules) {
+				refreshWACForModules(servletContext, false, startedModules);
+			}
+			
+			@Override
+			public void contextRefreshed(Collection<Module> startedModules) {
+				for (Module module : startedModules) {
+					loadServlets(module, servletContext);
+					loadFilters(module, servletContext);
+				}
+				servletContext.setAttribute(OpenmrsJspServlet.OPENMRS_TLD_SCAN_NEEDED, true);
+			}
+		});
+	}
+	
 	/** Stops all tasks started by given module
 	 * @param mod
 	 */
@@ -833,6 +880,9 @@ public class WebModuleUtil {
 		
 		String realPath = getRealPath(servletContext);
 		
+		// stop serving the module's resources from the files deleted below
+		ModuleResourcesServlet.clearResolvedPaths();
+		
 		// delete the web files from the webapp
 		String absPath = realPath + "/WEB-INF/view/module/" + moduleId;
 		File moduleWebFolder = new File(absPath.replace("/", File.separator));
@@ -931,6 +981,25 @@ public class WebModuleUtil {
 	 */
 	public static XmlWebApplicationContext refreshWAC(ServletContext servletContext, boolean isOpenmrsStartup,
 	        Module startedModule) {
+		if (startedModule == null) {
+			return refreshWACForModules(servletContext, isOpenmrsStartup, Collections.emptySet());
+		}
+		return refreshWACForModules(servletContext, isOpenmrsStartup, Collections.singleton(startedModule));
+	}
+	
+	/**
+	 * Stops, closes, and refreshes the Spring context for the given <code>servletContext</code> like
+	 * {@link #refreshWAC(ServletContext, boolean, Module)} but for several modules that were started
+	 * and are waiting on the context refresh
+	 *
+	 * @param servletContext
+	 * @param isOpenmrsStartup if this refresh is being done at application startup
+	 * @param startedModules the modules that were just started and waiting on the context refresh
+	 * @return The newly refreshed webApplicationContext
+	 * @since 2.7.0
+	 */
+	public static XmlWebApplicationContext refreshWACForModules(ServletContext servletContext, boolean isOpenmrsStartup,
+	        Collection<Module> startedModules) {
 		XmlWebApplicationContext wac = (XmlWebApplicationContext) WebApplicationContextUtils
 		        .getWebApplicationContext(servletContext);
 		log.debug("Refreshing web application Context of class: {}", wac.getClass().getName());
@@ -943,8 +1012,8 @@ public class WebModuleUtil {
 			staticDispatcherServlet.stopAndCloseApplicationContext();
 		}
 		
-		XmlWebApplicationContext newAppContext = (XmlWebApplicationContext) ModuleUtil.refreshApplicationContext(wac,
-		    isOpenmrsStartup, startedModule);
+		XmlWebApplicationContext newAppContext = (XmlWebApplicationContext) ModuleUtil
+		        .refreshApplicationContextForModules(wac, isOpenmrsStartup, startedModules);
 		
 		try {
 			// must "refresh" the spring dispatcherservlet as well to add in
@@ -0,0 +1,125 @@
+/**
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/. OpenMRS is also distributed under
+ * the terms of the Healthcare Disclaimer located at http://openmrs.org/license.
+ *
+ * Copyright (C) OpenMRS Inc. OpenMRS is a registered trademark and the OpenMRS
+ * graphic logo is a trademark of OpenMRS Inc.
+ */
+package org.openmrs.module.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openmrs.module.web.ModuleResourcesServlet.ByteRange;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class ModuleResourcesServletTest {
+
+	private static final long LAST_MODIFIED = 1700000000000L;
+
+	private static final String ETAG = ModuleResourcesServlet.getETag(1000, LAST_MODIFIED);
+
+	/**
+	 * @see ModuleResourcesServlet#isNotModified(javax.servlet.http.HttpServletRequest, String, long)
+	 */
+	@Test
+	public void isNotModified_shouldReturnTrueIfTheIfNoneMatchHeaderContainsTheEtag() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-None-Match", "\"other\", " + ETAG);
+
+		assertTrue(ModuleResourcesServlet.isNotModified(request, ETAG, LAST_MODIFIED));
+		assertFalse(ModuleResourcesServlet.isNotModified(request, ModuleResourcesServlet.getETag(1001, LAST_MODIFIED),
+		    LAST_MODIFIED));
+	}
+
+	/**
+	 * @see ModuleResourcesServlet#isNotModified(javax.servlet.http.HttpServletRequest, String, long)
+	 */
+	@Test
+	public void isNotModified_shouldIgnoreIfModifiedSinceIfIfNoneMatchIsGiven() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-None-Match", "\"other\"");
+		request.addHeader("If-Modified-Since", LAST_MODIFIED);
+
+		assertFalse(ModuleResourcesServlet.isNotModified(request, ETAG, LAST_MODIFIED));
+	}
+
+	/**
+	 * @see ModuleResourcesServlet#isNotModified(javax.servlet.http.HttpServletRequest, String, long)
+	 */
+	@Test
+	public void isNotModified_shouldReturnTrueIfTheFileWasNotModifiedSinceIfModifiedSince() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-Modified-Since", LAST_MODIFIED);
+
+		assertTrue(ModuleResourcesServlet.isNotModified(request, ETAG, LAST_MODIFIED));
+		assertFalse(ModuleResourcesServlet.isNotModified(request, ETAG, LAST_MODIFIED + 1000));
+	}
+
+	/**
+	 * @see ModuleResourcesServlet#isRangeCurrent(javax.servlet.http.HttpServletRequest, String, long)
+	 */
+	@Test
+	public void isRangeCurrent_shouldReturnFalseIfIfRangeHasAnotherEtag() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("If-Range", "\"other\"");
+
+		assertFalse(ModuleResourcesServlet.isRangeCurrent(request, ETAG, LAST_MODIFIED));
+		assertTrue(ModuleResourcesServlet.isRangeCurrent(new MockHttpServletRequest(), ETAG, LAST_MODIFIED));
+	}
+
+	/**
+	 * @see ByteRange#parse(String, long)
+	 */
+	@Test
+	public void parse_shouldParseARangeWithAStartAndEnd() {
+		ByteRange range = ByteRange.parse("bytes=100-199", 1000);
+
+		assertEquals(100, range.start);
+		assertEquals(199, range.end);
+		assertEquals(100, range.getLength());
+	}
+
+	/**
+	 * @see ByteRange#parse(String, long)
+	 */
+	@Test
+	public void parse_shouldParseASuffixRange() {
+		ByteRange range = ByteRange.parse("bytes=-300", 1000);
+
+		assertEquals(700, range.start);
+		assertEquals(999, range.end);
+	}
+
+	/**
+	 * @see ByteRange#parse(String, long)
+	 */
+	@Test
+	public void parse_shouldLimitTheEndToTheLengthOfTheFile() {
+		assertEquals(999, ByteRange.parse("bytes=500-5000", 1000).end);
+		assertEquals(999, ByteRange.parse("bytes=500-", 1000).end);
+	}
+
+	/**
+	 * @see ByteRange#parse(String, long)
+	 */
+	@Test
+	public void parse_shouldReturnUnsatisfiableForARangeStartingAfterTheFile() {
+		assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+	}
+
+	/**
+	 * @see ByteRange#parse(String, long)
+	 */
+	@Test
+	public void parse_shouldReturnNullForSeveralRanges() {
+		assertNull(ByteRange.parse("bytes=0-10,20-30", 1000));
+		assertNull(ByteRange.parse("items=0-10", 1000));
+	}
+}